@@ -24,4 +24,129 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Runs the instrumentation tests with instrumentation enabled, which is fixed at JVM startup.
+val instrumentedTest by tasks.registering(Test::class) {
+    description = "Runs the instrumentation tests with -Dgolfing8.instrument=true."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform()
+    systemProperty("golfing8.instrument", "true")
+    filter {
+        includeTestsMatching("com.golfing8.instrument.*")
+    }
+}
+
+tasks.check {
+    dependsOn(instrumentedTest)
+}
+
+// The batch runner starts from a class data sharing archive of the classes it loaded while warming up, which saves
+// parsing and verifying them on every start. Archives only cover classes loaded from jars, so both tasks run the jar.
+val batchArchiveFile: File = layout.buildDirectory.file("batch/batch.jsa").get().asFile
+val batchClasspath = files(tasks.jar) + configurations.runtimeClasspath.get()
+
+val batchArchive by tasks.registering(JavaExec::class) {
+    description = "Records the class data sharing archive of the batch runner by warming it up."
+    group = "application"
+    classpath = batchClasspath
+    mainClass.set("com.golfing8.batch.BatchDaemon")
+    args("--warm-up=200")
+    jvmArgs("-XX:ArchiveClassesAtExit=$batchArchiveFile")
+    outputs.file(batchArchiveFile)
+    doFirst {
+        batchArchiveFile.parentFile.mkdirs()
+    }
+}
+
+val batchRun by tasks.registering(JavaExec::class) {
+    description = "Runs the batch runner from its class data sharing archive, e.g. -PbatchArgs=\"run jobs.txt\", " +
+            "-PbatchArgs=\"--warm-up serve batch.sock\" or -PbatchArgs=\"watch spool\"."
+    group = "application"
+    dependsOn(batchArchive)
+    classpath = batchClasspath
+    mainClass.set("com.golfing8.batch.BatchDaemon")
+    args(((findProperty("batchArgs") as String?) ?: "run").split(" "))
+    jvmArgs("-XX:SharedArchiveFile=$batchArchiveFile")
+    standardInput = System.`in`
+}
+
+jmh {
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    // Reports the allocation rate and bytes allocated per operation next to every score.
+    profilers.set(listOf("gc"))
+    // Select benchmarks with e.g. -PjmhIncludes=MatrixBenchmark
+    (findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
+
+val jmhBaseline: File = file("src/jmh/baseline.json")
+val jmhResults: File = layout.buildDirectory.file("results/jmh/results.json").get().asFile
+
+/**
+ * Reads JMH JSON results, keyed by benchmark, mode and parameters
+ */
+fun readBenchmarkRuns(file: File): Map<String, Map<*, *>> {
+    val runs = groovy.json.JsonSlurper().parse(file) as List<*>
+    return runs.filterIsInstance<Map<*, *>>().associateBy { run ->
+        val params = (run["params"] as Map<*, *>?)
+            ?.entries
+            ?.sortedBy { it.key.toString() }
+            ?.joinToString(",") { "${it.key}=${it.value}" }
+            .orEmpty()
+        "${run["benchmark"]} ${run["mode"]} [$params]"
+    }
+}
+
+tasks.register("jmhCheckBaseline") {
+    group = "verification"
+    description = "Runs the benchmarks and fails if any score regressed against src/jmh/baseline.json. " +
+            "The tolerance defaults to 10% and can be set with -PjmhTolerance=0.05"
+    dependsOn("jmh")
+    val tolerance = (findProperty("jmhTolerance") as String?)?.toDouble() ?: 0.10
+
+    doLast {
+        if (!jmhBaseline.exists()) {
+            logger.warn("No benchmark baseline at $jmhBaseline, skipping the regression check. Run jmhUpdateBaseline to record one.")
+            return@doLast
+        }
+
+        val baseline = readBenchmarkRuns(jmhBaseline)
+        val regressions = mutableListOf<String>()
+        for ((key, run) in readBenchmarkRuns(jmhResults)) {
+            val expected = baseline[key] ?: continue
+            val metric = run["primaryMetric"] as Map<*, *>
+            val expectedMetric = expected["primaryMetric"] as Map<*, *>
+            val unit = metric["scoreUnit"]
+            if (unit != expectedMetric["scoreUnit"]) {
+                logger.warn("$key is measured in $unit but the baseline is in ${expectedMetric["scoreUnit"]}, skipping it.")
+                continue
+            }
+
+            val score = (metric["score"] as? Number)?.toDouble() ?: continue
+            val expectedScore = (expectedMetric["score"] as? Number)?.toDouble() ?: continue
+            // Throughput is better when higher, every other mode measures time per operation.
+            val change = if (run["mode"] == "thrpt") (expectedScore - score) / expectedScore else (score - expectedScore) / expectedScore
+            if (change > tolerance)
+                regressions += "$key: $expectedScore -> $score $unit (%.1f%% worse)".format(change * 100)
+        }
+
+        if (regressions.isNotEmpty())
+            throw GradleException("Benchmarks regressed beyond %.1f%%:\n".format(tolerance * 100) + regressions.joinToString("\n"))
+        logger.lifecycle("No benchmark regressed beyond %.1f%% of the baseline.".format(tolerance * 100))
+    }
+}
+
+tasks.register("jmhUpdateBaseline") {
+    group = "verification"
+    description = "Records the latest benchmark results as the baseline."
+
+    doLast {
+        if (!jmhResults.exists())
+            throw GradleException("No benchmark results at $jmhResults. Run the jmh task first.")
+        jmhResults.copyTo(jmhBaseline, overwrite = true)
+        logger.lifecycle("Recorded $jmhResults as the benchmark baseline.")
+    }
+}
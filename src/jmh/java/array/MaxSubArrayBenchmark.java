@@ -0,0 +1,89 @@
+package array;
+
+import com.golfing8.struct.MaxSubArrayTree;
+import com.golfing8.util.DivideAndConquer;
+import com.golfing8.util.MaxSubArray;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares answering range maximum sub array queries by rescanning the range with answering them from a
+ * {@link MaxSubArrayTree}. Every invocation answers {@link #QUERIES} random ranges.
+ */
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MaxSubArrayBenchmark {
+    private static final int QUERIES = 256;
+
+    @Param({"65536", "4194304"})
+    public int size;
+
+    private int[] array;
+    private int[] from;
+    private int[] to;
+    private MaxSubArrayTree tree;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(520);
+        array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = random.nextInt(-1000, 1000);
+        }
+        from = new int[QUERIES];
+        to = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int a = random.nextInt(size);
+            int b = random.nextInt(size);
+            from[i] = Math.min(a, b);
+            to[i] = Math.max(a, b) + 1;
+        }
+        tree = new MaxSubArrayTree(array);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void divideAndConquerQueries(Blackhole blackhole) {
+        for (int i = 0; i < QUERIES; i++) {
+            blackhole.consume(DivideAndConquer.maxSubArray(array, from[i], to[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void kadaneQueries(Blackhole blackhole) {
+        for (int i = 0; i < QUERIES; i++) {
+            blackhole.consume(MaxSubArray.summarize(array, from[i], to[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void treeQueries(Blackhole blackhole) {
+        for (int i = 0; i < QUERIES; i++) {
+            blackhole.consume(tree.query(from[i], to[i]));
+        }
+    }
+
+    @Benchmark
+    public MaxSubArrayTree treeBuild() {
+        return new MaxSubArrayTree(array);
+    }
+
+    @Benchmark
+    public MaxSubArray.SubArray fullSequential() {
+        return MaxSubArray.find(array);
+    }
+
+    @Benchmark
+    public MaxSubArray.SubArray fullParallel() {
+        return MaxSubArray.findParallel(array);
+    }
+}
@@ -0,0 +1,84 @@
+package batch;
+
+import com.golfing8.batch.BatchRunner;
+import com.golfing8.struct.SquareMatrix;
+import com.golfing8.util.RandomData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a mix of {@link BatchRunner} jobs on small files. {@code firstJob} runs once in each of several fresh
+ * forks, the time to the first result of a JVM without warm up. {@code steadyState} is the throughput of the same
+ * jobs once a long running JVM has compiled them, which is what the daemon mode offers every job after the first.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+    private Path directory;
+    private String[] jobs;
+    private BatchRunner runner;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        directory = Files.createTempDirectory("batch-benchmark");
+        BatchRunner.writeMatrix(directory.resolve("left.bin"), SquareMatrix.random(64, 520));
+        BatchRunner.writeMatrix(directory.resolve("right.bin"), SquareMatrix.random(64, 521));
+
+        int[] sources = RandomData.ints(20_000, 522, 0, 5000);
+        int[] targets = RandomData.ints(20_000, 523, 0, 5000);
+        StringBuilder edges = new StringBuilder();
+        for (int i = 0; i < sources.length; i++) {
+            edges.append(sources[i]).append(' ').append(targets[i]).append(' ').append(1 + i % 9).append('\n');
+        }
+        Files.writeString(directory.resolve("graph.txt"), edges);
+
+        ByteBuffer doubles = ByteBuffer.allocate(100_000 * Double.BYTES);
+        doubles.asDoubleBuffer().put(RandomData.doubles(100_000, 524, -1, 1));
+        Files.write(directory.resolve("unsorted.bin"), doubles.array());
+
+        jobs = new String[] {
+                "multiply " + directory.resolve("left.bin") + " " + directory.resolve("right.bin") + " " + directory.resolve("product.bin"),
+                "path " + directory.resolve("graph.txt") + " 0 4999",
+                "mst " + directory.resolve("graph.txt"),
+                "sort " + directory.resolve("unsorted.bin") + " " + directory.resolve("sorted.bin"),
+        };
+        runner = new BatchRunner();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @Fork(10)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public String firstJob() {
+        return runner.run(jobs[0]);
+    }
+
+    @Benchmark
+    @Fork(1)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public String steadyState() {
+        String result = runner.run(jobs[next]);
+        next = (next + 1) % jobs.length;
+        return result;
+    }
+}
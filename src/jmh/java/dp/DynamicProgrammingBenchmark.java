@@ -0,0 +1,129 @@
+package dp;
+
+import com.golfing8.util.DynamicProgramming;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the rolling row subset sum with the original version keeping two full {@code int} tables,
+ * and the sequential grid recurrences with the anti-diagonal ones.
+ * Run with {@code -prof gc} to compare the bytes allocated per operation.
+ */
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class DynamicProgrammingBenchmark {
+    @Param({"1000"})
+    public int n;
+    @Param({"50000"})
+    public int target;
+    @Param({"5000"})
+    public int length;
+
+    private int[] elements;
+    private String a;
+    private String b;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(520);
+        elements = random.ints(n, 1, target / 10).toArray();
+        a = randomString(random, length);
+        b = randomString(random, length);
+    }
+
+    private static String randomString(SplittableRandom random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(4)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The original subset sum, allocating 8 * n * t bytes
+     */
+    private static int[] legacySubsetSumTarget(int[] a, int t) {
+        int[][] sums = new int[a.length][t];
+        int[][] elements = new int[a.length][t];
+
+        for (int i = 0; i < a.length; i++) {
+            int element = a[i];
+            for (int j = 0; j < t; j++) {
+                int w = j + 1;
+                if (i == 0) {
+                    if (element <= w) {
+                        sums[i][j] = element;
+                        elements[i][j] = 1;
+                    }
+                } else {
+                    int included = 0;
+                    if (element <= w && sums[i - 1][w - element] + element <= t) {
+                        included = sums[i - 1][w - element] + element;
+                    }
+                    int excluded = sums[i - 1][j];
+                    if (included > excluded) {
+                        sums[i][j] = included;
+                        elements[i][j] = 1;
+                    } else {
+                        sums[i][j] = excluded;
+                    }
+                }
+            }
+        }
+
+        List<Integer> ints = new ArrayList<>();
+        int element = sums[a.length - 1][t - 1];
+        int index = a.length - 1;
+        while (element > 0 && index >= 0) {
+            if (elements[index][element - 1] > 0) {
+                ints.add(a[index]);
+                element -= a[index];
+            }
+            index--;
+        }
+        return ints.stream().mapToInt(i -> i).toArray();
+    }
+
+    @Benchmark
+    public int[] subsetSumLegacy() {
+        return legacySubsetSumTarget(elements, target);
+    }
+
+    @Benchmark
+    public int[] subsetSumRolling() {
+        return DynamicProgramming.subsetSumTarget(elements, target);
+    }
+
+    @Benchmark
+    public int[] subsetSumRollingParallel() {
+        return DynamicProgramming.subsetSumTarget(elements, target, true);
+    }
+
+    @Benchmark
+    public String longestCommonSubsequence() {
+        return DynamicProgramming.longestCommonSubsequence(a, b, false);
+    }
+
+    @Benchmark
+    public String longestCommonSubsequenceWavefront() {
+        return DynamicProgramming.longestCommonSubsequence(a, b, true);
+    }
+
+    @Benchmark
+    public int editDistance() {
+        return DynamicProgramming.editDistance(a, b, false);
+    }
+
+    @Benchmark
+    public int editDistanceWavefront() {
+        return DynamicProgramming.editDistance(a, b, true);
+    }
+}
@@ -0,0 +1,74 @@
+package dp;
+
+import com.golfing8.util.DynamicProgramming;
+import com.golfing8.util.SubsetSum;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the bitset subset sum with the table based one.
+ * The table based version allocates a traceback bit per cell, so it is only measured on the small problem.
+ */
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SubsetSumBenchmark {
+    @State(Scope.Benchmark)
+    public static class Small {
+        public int[] elements;
+        public int target;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            SplittableRandom random = new SplittableRandom(520);
+            elements = random.ints(1_000, 1, 1_000).toArray();
+            target = 10_000;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Large {
+        @Param({"10000"})
+        public int n;
+        @Param({"1000000"})
+        public int target;
+
+        public int[] elements;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            SplittableRandom random = new SplittableRandom(520);
+            // Large elements keep the target out of reach of small prefixes, so every shift does real work.
+            elements = random.ints(n, target / 100, target / 10).toArray();
+        }
+    }
+
+    @Benchmark
+    public int[] smallTable(Small state) {
+        return DynamicProgramming.subsetSumTarget(state.elements, state.target);
+    }
+
+    @Benchmark
+    public int[] smallBitset(Small state) {
+        return SubsetSum.subsetSumTarget(state.elements, state.target);
+    }
+
+    @Benchmark
+    public int largeMaxSum(Large state) {
+        return SubsetSum.maxSum(state.elements, state.target);
+    }
+
+    @Benchmark
+    public int[] largeBitset(Large state) {
+        return SubsetSum.subsetSumTarget(state.elements, state.target);
+    }
+
+    @Benchmark
+    public int[] largeBitsetParallel(Large state) {
+        return SubsetSum.subsetSumTargetParallel(state.elements, state.target);
+    }
+}
@@ -0,0 +1,78 @@
+package geometry;
+
+import com.golfing8.struct.Pair;
+import com.golfing8.struct.Point2D;
+import com.golfing8.struct.PointSet;
+import com.golfing8.util.DivideAndConquer;
+import com.golfing8.util.RandomData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the closest pair over uniformly random points.
+ * The list based version scans every point at every level of its recursion, so it is only measured on a small input.
+ */
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClosestPairBenchmark {
+    private static PointSet randomPoints(int n) {
+        return RandomData.points(n, 520, 0, 0, 1, 1, true);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Points {
+        @Param({"1000000", "10000000"})
+        public int size;
+
+        public PointSet points;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            points = randomPoints(size);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SmallPoints {
+        @Param({"10000"})
+        public int size;
+
+        public PointSet points;
+        public List<Point2D> list;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            points = randomPoints(size);
+            list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(points.get(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] pointSet(Points state) {
+        return state.points.closestPair();
+    }
+
+    @Benchmark
+    public int[] pointSetParallel(Points state) {
+        return state.points.closestPairParallel();
+    }
+
+    @Benchmark
+    public Pair<Point2D, Point2D> smallList(SmallPoints state) {
+        return DivideAndConquer.closestPair(state.list);
+    }
+
+    @Benchmark
+    public int[] smallPointSet(SmallPoints state) {
+        return state.points.closestPair();
+    }
+}
@@ -0,0 +1,115 @@
+package geometry;
+
+import com.golfing8.struct.KdTree;
+import com.golfing8.struct.PointSet;
+import com.golfing8.struct.UniformGrid;
+import com.golfing8.util.RandomData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the build time and query latency of the spatial indices over uniformly random points in the unit square.
+ * Queries cycle through a fixed set of random locations so consecutive queries touch different parts of the index.
+ */
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class SpatialIndexBenchmark {
+    private static final int QUERIES = 1 << 12;
+
+    @Param({"100000", "1000000"})
+    public int size;
+    @Param({"10"})
+    public int k;
+
+    private PointSet points;
+    private KdTree tree;
+    private UniformGrid grid;
+    private double[] queryXs;
+    private double[] queryYs;
+    private double radius;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        points = RandomData.points(size, 520, 0, 0, 1, 1, true);
+        tree = new KdTree(points);
+        grid = new UniformGrid(points);
+
+        queryXs = RandomData.doubles(QUERIES, 521, 0, 1);
+        queryYs = RandomData.doubles(QUERIES, 522, 0, 1);
+        // Around k points on average fall within the radius.
+        radius = Math.sqrt(k / (Math.PI * size));
+    }
+
+    private int nextQuery() {
+        query = (query + 1) & (QUERIES - 1);
+        return query;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public KdTree buildKdTree() {
+        return new KdTree(points);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public UniformGrid buildGrid() {
+        return new UniformGrid(points);
+    }
+
+    @Benchmark
+    public int[] kdTreeNearest() {
+        int q = nextQuery();
+        return tree.nearest(queryXs[q], queryYs[q], k);
+    }
+
+    @Benchmark
+    public int[] gridNearest() {
+        int q = nextQuery();
+        return grid.nearest(queryXs[q], queryYs[q], k);
+    }
+
+    @Benchmark
+    public int[] kdTreeRadius() {
+        int q = nextQuery();
+        return tree.withinRadius(queryXs[q], queryYs[q], radius);
+    }
+
+    @Benchmark
+    public int[] gridRadius() {
+        int q = nextQuery();
+        return grid.withinRadius(queryXs[q], queryYs[q], radius);
+    }
+
+    @Benchmark
+    public int[] kdTreeRectangle() {
+        int q = nextQuery();
+        return tree.withinRectangle(queryXs[q], queryYs[q], queryXs[q] + 2 * radius, queryYs[q] + 2 * radius);
+    }
+
+    @Benchmark
+    public int[] gridRectangle() {
+        int q = nextQuery();
+        return grid.withinRectangle(queryXs[q], queryYs[q], queryXs[q] + 2 * radius, queryYs[q] + 2 * radius);
+    }
+
+    @Benchmark
+    public int scanRadius() {
+        int q = nextQuery();
+        double x = queryXs[q], y = queryYs[q];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            double distX = points.x(i) - x;
+            double distY = points.y(i) - y;
+            if (distX * distX + distY * distY <= radius * radius)
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,85 @@
+package graph;
+
+import com.golfing8.util.AllPairsShortestPaths;
+import com.golfing8.util.GraphUtil;
+import com.google.common.graph.Graph;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the all pairs shortest path engines with a dijkstra from every node, over random dense directed graphs.
+ */
+@SuppressWarnings("UnstableApiUsage")
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class AllPairsBenchmark {
+    @Param({"256", "1024"})
+    public int nodes;
+    @Param({"0.25"})
+    public double density;
+
+    private MutableValueGraph<Integer, Double> graph;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(520);
+        graph = ValueGraphBuilder.directed().expectedNodeCount(nodes).build();
+        for (int node = 0; node < nodes; node++) {
+            graph.addNode(node);
+        }
+        for (int u = 0; u < nodes; u++) {
+            for (int v = 0; v < nodes; v++) {
+                if (u != v && random.nextDouble() < density)
+                    graph.putEdgeValue(u, v, random.nextDouble(1, 100));
+            }
+        }
+    }
+
+    @Benchmark
+    public AllPairsShortestPaths.Distances<Integer> floydWarshall() {
+        return AllPairsShortestPaths.floydWarshall(graph);
+    }
+
+    @Benchmark
+    public AllPairsShortestPaths.Distances<Integer> repeatedSquaring() {
+        return AllPairsShortestPaths.repeatedSquaring(graph);
+    }
+
+    @Benchmark
+    public double[][] naiveFloydWarshall() {
+        double[][] distances = new double[nodes][nodes];
+        for (int i = 0; i < nodes; i++) {
+            for (int j = 0; j < nodes; j++) {
+                distances[i][j] = i == j ? 0 : graph.edgeValueOrDefault(i, j, Double.POSITIVE_INFINITY);
+            }
+        }
+        for (int k = 0; k < nodes; k++) {
+            double[] row = distances[k];
+            for (int i = 0; i < nodes; i++) {
+                double[] distancesI = distances[i];
+                double ik = distancesI[k];
+                for (int j = 0; j < nodes; j++) {
+                    distancesI[j] = Math.min(distancesI[j], ik + row[j]);
+                }
+            }
+        }
+        return distances;
+    }
+
+    @Benchmark
+    public void dijkstraFromEveryNode(Blackhole blackhole) {
+        for (int node = 0; node < nodes; node++) {
+            Graph<GraphUtil.CostElement<Integer>> tree = GraphUtil.shortestPath(node, graph);
+            blackhole.consume(tree);
+        }
+    }
+}
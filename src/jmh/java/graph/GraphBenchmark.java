@@ -0,0 +1,62 @@
+package graph;
+
+import com.golfing8.struct.ShortestPathTree;
+import com.golfing8.util.GraphUtil;
+import com.google.common.graph.Graph;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Dijkstra's shortest path tree, as a Guava graph and as arrays, and Prim's minimum spanning tree over random connected graphs.
+ * Every node is linked to the previous one so the graph is connected, plus random edges up to the average degree.
+ */
+@SuppressWarnings("UnstableApiUsage")
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class GraphBenchmark {
+    @Param({"1000", "100000"})
+    public int nodes;
+    @Param({"8"})
+    public int degree;
+
+    private MutableValueGraph<Integer, Double> graph;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(520);
+        graph = ValueGraphBuilder.undirected().expectedNodeCount(nodes).build();
+        for (int node = 1; node < nodes; node++) {
+            graph.putEdgeValue(node - 1, node, random.nextDouble(1, 100));
+        }
+        long edges = (long) nodes * degree / 2;
+        while (graph.edges().size() < edges) {
+            int u = random.nextInt(nodes);
+            int v = random.nextInt(nodes);
+            if (u != v)
+                graph.putEdgeValue(u, v, random.nextDouble(1, 100));
+        }
+    }
+
+    @Benchmark
+    public Graph<GraphUtil.CostElement<Integer>> dijkstra() {
+        return GraphUtil.shortestPath(0, graph);
+    }
+
+    @Benchmark
+    public ShortestPathTree<Integer> dijkstraTree() {
+        return GraphUtil.shortestPathTree(0, graph);
+    }
+
+    @Benchmark
+    public Graph<Integer> prim() {
+        return GraphUtil.computeMSTPrim(graph);
+    }
+}
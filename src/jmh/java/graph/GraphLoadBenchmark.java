@@ -0,0 +1,86 @@
+package graph;
+
+import com.golfing8.struct.CompactGraph;
+import com.golfing8.util.EdgeListLoader;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading an edge list into a {@link CompactGraph} with building the same graph through Guava.
+ */
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("UnstableApiUsage")
+public class GraphLoadBenchmark {
+    @Param({"1000000", "10000000"})
+    public int edgeCount;
+
+    private Path directory;
+    private Path textFile;
+    private Path binaryFile;
+
+    @Setup
+    public void setup() throws IOException {
+        int nodeCount = edgeCount / 8;
+        SplittableRandom random = new SplittableRandom(520);
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            sources[i] = random.nextInt(nodeCount);
+            targets[i] = random.nextInt(nodeCount);
+            weights[i] = random.nextInt(10_000) / 100.0;
+        }
+
+        directory = Files.createTempDirectory("graph-load");
+        textFile = directory.resolve("graph.txt");
+        binaryFile = directory.resolve("graph.bin");
+        try (BufferedWriter writer = Files.newBufferedWriter(textFile)) {
+            for (int i = 0; i < edgeCount; i++) {
+                writer.write(sources[i] + " " + targets[i] + " " + weights[i] + "\n");
+            }
+        }
+        EdgeListLoader.writeBinary(binaryFile, nodeCount, sources, targets, weights, true);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(textFile);
+        Files.deleteIfExists(binaryFile);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public CompactGraph text() {
+        return EdgeListLoader.loadText(textFile, true);
+    }
+
+    @Benchmark
+    public CompactGraph binary() {
+        return EdgeListLoader.loadBinary(binaryFile);
+    }
+
+    @Benchmark
+    public MutableValueGraph<Integer, Double> guava() throws IOException {
+        MutableValueGraph<Integer, Double> graph = ValueGraphBuilder.directed().allowsSelfLoops(true).build();
+        try (var lines = Files.lines(textFile)) {
+            lines.forEach(line -> {
+                String[] parts = line.split(" ");
+                graph.putEdgeValue(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Double.parseDouble(parts[2]));
+            });
+        }
+        return graph;
+    }
+}
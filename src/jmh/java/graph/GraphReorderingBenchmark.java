@@ -0,0 +1,85 @@
+package graph;
+
+import com.golfing8.struct.CompactGraph;
+import com.golfing8.struct.NodeIndex;
+import com.golfing8.struct.ShortestPathTree;
+import com.golfing8.util.GraphReordering;
+import com.golfing8.util.GraphUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures dijkstra and Prim over compact grid graphs whose labels were shuffled, before and after reordering.
+ * {@code NONE} traverses the shuffled labels as they are.
+ */
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class GraphReorderingBenchmark {
+    @Param({"300", "1000"})
+    public int side;
+    @Param({"NONE", "REVERSE_CUTHILL_MCKEE", "BREADTH_FIRST", "DEGREE"})
+    public String strategy;
+
+    private CompactGraph shuffled;
+    private CompactGraph graph;
+    private NodeIndex<Integer> nodes;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        int nodeCount = side * side;
+        SplittableRandom random = new SplittableRandom(520);
+        int[] labels = IntStream.range(0, nodeCount).toArray();
+        for (int i = nodeCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1), swap = labels[i];
+            labels[i] = labels[j];
+            labels[j] = swap;
+        }
+
+        int[] sources = new int[2 * nodeCount];
+        int[] targets = new int[2 * nodeCount];
+        double[] weights = new double[2 * nodeCount];
+        int edges = 0;
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                int node = labels[row * side + column];
+                if (column > 0) {
+                    sources[edges] = node;
+                    targets[edges] = labels[row * side + column - 1];
+                    weights[edges++] = random.nextDouble(1, 100);
+                }
+                if (row > 0) {
+                    sources[edges] = node;
+                    targets[edges] = labels[(row - 1) * side + column];
+                    weights[edges++] = random.nextDouble(1, 100);
+                }
+            }
+        }
+        shuffled = CompactGraph.fromEdges(nodeCount, sources, targets, weights, edges, false);
+        graph = strategy.equals("NONE") ? shuffled : shuffled.permute(GraphReordering.order(shuffled, GraphReordering.Strategy.valueOf(strategy)));
+        nodes = new NodeIndex<>(IntStream.range(0, nodeCount).boxed().toList());
+    }
+
+    @Benchmark
+    public ShortestPathTree<Integer> dijkstra() {
+        return GraphUtil.shortestPathTree(0, graph, nodes);
+    }
+
+    @Benchmark
+    public int[] prim() {
+        return GraphUtil.computeMSTPrim(graph);
+    }
+
+    @Benchmark
+    public CompactGraph reorder() {
+        if (strategy.equals("NONE"))
+            return shuffled;
+        return shuffled.permute(GraphReordering.order(shuffled, GraphReordering.Strategy.valueOf(strategy)));
+    }
+}
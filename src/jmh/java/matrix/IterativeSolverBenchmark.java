@@ -0,0 +1,116 @@
+package matrix;
+
+import com.golfing8.struct.LUDecomposition;
+import com.golfing8.struct.SparseMatrix;
+import com.golfing8.struct.SquareMatrix;
+import com.golfing8.util.IterativeSolvers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the conjugate gradient method with the LU decomposition on a dense, well conditioned positive definite
+ * matrix, and measures the matrix vector products and the eigenvalue methods on dense and sparse matrices.
+ * The sparse matrix is the Laplacian of a grid plus the identity.
+ */
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class IterativeSolverBenchmark {
+    @Param({"1024", "2048"})
+    public int matrixSize;
+
+    private SquareMatrix dense;
+    private SparseMatrix sparse;
+    private double[] x;
+    private double[] y;
+    private double[] sparseX;
+    private double[] sparseY;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        // A random matrix plus a large diagonal is positive definite once symmetrized.
+        SquareMatrix random = SquareMatrix.random(matrixSize, 520);
+        double[] elements = new double[matrixSize * matrixSize];
+        for (int i = 0; i < matrixSize; i++) {
+            for (int j = 0; j < matrixSize; j++) {
+                elements[i * matrixSize + j] = random.getElement(i + 1, j + 1) + random.getElement(j + 1, i + 1)
+                        + (i == j ? matrixSize : 0);
+            }
+        }
+        dense = SquareMatrix.fromElements(elements);
+        x = new SplittableRandom(521).doubles(matrixSize, -1, 1).toArray();
+        y = new double[matrixSize];
+
+        // A matrixSize by matrixSize grid, so the sparse matrix has matrixSize^2 rows.
+        int nodes = matrixSize * matrixSize;
+        int[] rows = new int[5 * nodes];
+        int[] columns = new int[5 * nodes];
+        double[] values = new double[5 * nodes];
+        int count = 0;
+        for (int r = 0; r < matrixSize; r++) {
+            for (int c = 0; c < matrixSize; c++) {
+                int node = r * matrixSize + c;
+                int degree = 0;
+                for (int neighbor : new int[] {c > 0 ? node - 1 : -1, c < matrixSize - 1 ? node + 1 : -1,
+                        r > 0 ? node - matrixSize : -1, r < matrixSize - 1 ? node + matrixSize : -1}) {
+                    if (neighbor < 0)
+                        continue;
+                    rows[count] = node;
+                    columns[count] = neighbor;
+                    values[count++] = -1;
+                    degree++;
+                }
+                rows[count] = node;
+                columns[count] = node;
+                values[count++] = degree + 1;
+            }
+        }
+        sparse = SparseMatrix.fromEntries(nodes, Arrays.copyOf(rows, count),
+                Arrays.copyOf(columns, count), Arrays.copyOf(values, count));
+        sparseX = new SplittableRandom(522).doubles(nodes, -1, 1).toArray();
+        sparseY = new double[nodes];
+    }
+
+    @Benchmark
+    public double[] denseMultiply() {
+        dense.multiply(x, y);
+        return y;
+    }
+
+    @Benchmark
+    public double[] sparseMultiply() {
+        sparse.multiply(sparseX, sparseY);
+        return sparseY;
+    }
+
+    @Benchmark
+    public double[] denseConjugateGradient() {
+        return IterativeSolvers.conjugateGradient(dense, x, IterativeSolvers.Settings.defaults()).x();
+    }
+
+    @Benchmark
+    public double[] denseLUSolve() {
+        return new LUDecomposition(dense).solve(x);
+    }
+
+    @Benchmark
+    public double[] sparseConjugateGradient() {
+        return IterativeSolvers.conjugateGradient(sparse, sparseX, new IterativeSolvers.Settings(10_000, 1e-8)).x();
+    }
+
+    @Benchmark
+    public double densePowerIteration() {
+        return IterativeSolvers.powerIteration(dense, new IterativeSolvers.Settings(1000, 1e-8)).value();
+    }
+
+    @Benchmark
+    public double denseLanczos() {
+        return IterativeSolvers.lanczos(dense, new IterativeSolvers.Settings(1000, 1e-8)).value();
+    }
+}
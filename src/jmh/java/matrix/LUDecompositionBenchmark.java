@@ -0,0 +1,150 @@
+package matrix;
+
+import com.golfing8.struct.LUDecomposition;
+import com.golfing8.struct.SquareMatrix;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the recursive LU decomposition, whose work is done by strassen products, with unblocked scalar
+ * gaussian elimination on {@code double[][]} as written by hand.
+ */
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LUDecompositionBenchmark {
+    @Param({"256", "1024", "2048"})
+    public int matrixSize;
+
+    private SquareMatrix matrix;
+    private double[][] rows;
+    private double[] b;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        matrix = SquareMatrix.random(matrixSize, 520);
+        rows = new double[matrixSize][matrixSize];
+        for (int i = 0; i < matrixSize; i++) {
+            for (int j = 0; j < matrixSize; j++) {
+                rows[i][j] = matrix.getElement(i + 1, j + 1);
+            }
+        }
+        b = new SplittableRandom(521).doubles(matrixSize, -1, 1).toArray();
+    }
+
+    /**
+     * Solves {@code A * x = b} with gaussian elimination and partial pivoting, one row operation at a time
+     */
+    private static double[] gaussianSolve(double[][] matrix, double[] rhs) {
+        int n = rhs.length;
+        double[][] a = new double[n][];
+        for (int i = 0; i < n; i++) {
+            a[i] = matrix[i].clone();
+        }
+        double[] x = rhs.clone();
+
+        for (int k = 0; k < n; k++) {
+            int pivot = k;
+            for (int i = k + 1; i < n; i++) {
+                if (Math.abs(a[i][k]) > Math.abs(a[pivot][k]))
+                    pivot = i;
+            }
+            double[] row = a[k];
+            a[k] = a[pivot];
+            a[pivot] = row;
+            double value = x[k];
+            x[k] = x[pivot];
+            x[pivot] = value;
+
+            for (int i = k + 1; i < n; i++) {
+                double factor = a[i][k] / a[k][k];
+                for (int j = k; j < n; j++) {
+                    a[i][j] -= factor * a[k][j];
+                }
+                x[i] -= factor * x[k];
+            }
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = x[i];
+            for (int j = i + 1; j < n; j++) {
+                sum -= a[i][j] * x[j];
+            }
+            x[i] = sum / a[i][i];
+        }
+        return x;
+    }
+
+    /**
+     * Inverts with gauss jordan elimination and partial pivoting on the augmented matrix
+     */
+    private static double[][] gaussJordanInverse(double[][] matrix) {
+        int n = matrix.length;
+        double[][] a = new double[n][2 * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(matrix[i], 0, a[i], 0, n);
+            a[i][n + i] = 1;
+        }
+
+        for (int k = 0; k < n; k++) {
+            int pivot = k;
+            for (int i = k + 1; i < n; i++) {
+                if (Math.abs(a[i][k]) > Math.abs(a[pivot][k]))
+                    pivot = i;
+            }
+            double[] row = a[k];
+            a[k] = a[pivot];
+            a[pivot] = row;
+
+            double diagonal = a[k][k];
+            for (int j = 0; j < 2 * n; j++) {
+                a[k][j] /= diagonal;
+            }
+            for (int i = 0; i < n; i++) {
+                if (i == k)
+                    continue;
+                double factor = a[i][k];
+                for (int j = 0; j < 2 * n; j++) {
+                    a[i][j] -= factor * a[k][j];
+                }
+            }
+        }
+
+        double[][] inverse = new double[n][];
+        for (int i = 0; i < n; i++) {
+            inverse[i] = Arrays.copyOfRange(a[i], n, 2 * n);
+        }
+        return inverse;
+    }
+
+    @Benchmark
+    public void gaussianSolve(Blackhole blackhole) {
+        blackhole.consume(gaussianSolve(rows, b));
+    }
+
+    @Benchmark
+    public void luSolve(Blackhole blackhole) {
+        blackhole.consume(new LUDecomposition(matrix).solve(b));
+    }
+
+    @Benchmark
+    public void gaussJordanInverse(Blackhole blackhole) {
+        blackhole.consume(gaussJordanInverse(rows));
+    }
+
+    @Benchmark
+    public void luInverse(Blackhole blackhole) {
+        blackhole.consume(matrix.inverse());
+    }
+
+    @Benchmark
+    public void determinant(Blackhole blackhole) {
+        blackhole.consume(matrix.determinant());
+    }
+}
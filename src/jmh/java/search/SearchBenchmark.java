@@ -0,0 +1,96 @@
+package search;
+
+import com.golfing8.struct.EytzingerArray;
+import com.golfing8.util.BranchlessSearch;
+import com.golfing8.util.DivideAndConquer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups in static sorted arrays sized to fit L1 (32KB), L3 (8MB) and only DRAM (256MB).
+ * Every invocation performs {@link #KEYS} lookups of keys drawn from the array.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    private static final int KEYS = 1 << 14;
+
+    @Param({"4096", "1048576", "33554432"})
+    public int size;
+
+    private double[] array;
+    private EytzingerArray eytzinger;
+    private double[] keys;
+    private int[] results;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(520);
+        array = new double[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = random.nextDouble();
+        }
+        Arrays.sort(array);
+        eytzinger = new EytzingerArray(array);
+
+        keys = new double[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = array[random.nextInt(size)];
+        }
+        results = new int[KEYS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void divideAndConquer(Blackhole blackhole) {
+        for (double key : keys) {
+            blackhole.consume(DivideAndConquer.binarySearch(array, key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void control(Blackhole blackhole) {
+        for (double key : keys) {
+            blackhole.consume(Arrays.binarySearch(array, key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void branchless(Blackhole blackhole) {
+        for (double key : keys) {
+            blackhole.consume(BranchlessSearch.lowerBound(array, key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int[] branchlessBatched() {
+        BranchlessSearch.lowerBounds(array, keys, results);
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void eytzinger(Blackhole blackhole) {
+        for (double key : keys) {
+            blackhole.consume(eytzinger.lowerBound(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int[] eytzingerBatched() {
+        eytzinger.lowerBounds(keys, results);
+        return results;
+    }
+}
@@ -0,0 +1,69 @@
+package sort;
+
+import com.golfing8.util.ExternalSort;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ExternalSort} on a 256MB file with 16MB of run memory, so the file is split into 32 runs.
+ * A fan in of 4 needs three merge passes where 64 needs one.
+ */
+@Fork(value = 1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ExternalSortBenchmark {
+    private static final long ELEMENTS = 32L << 20;
+
+    @Param({"4", "64"})
+    public int fanIn;
+
+    private Path directory;
+    private Path input;
+    private Path output;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        directory = Files.createTempDirectory("external-sort-benchmark");
+        input = directory.resolve("input.bin");
+        output = directory.resolve("output.bin");
+        SplittableRandom random = new SplittableRandom(520);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            for (long i = 0; i < ELEMENTS; i++) {
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    while (buffer.hasRemaining())
+                        channel.write(buffer);
+                    buffer.clear();
+                }
+                buffer.putDouble(random.nextDouble());
+            }
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public ExternalSort.Metrics sort() {
+        return ExternalSort.sort(input, output, new ExternalSort.Settings(16L << 20, 1 << 20, fanIn, directory));
+    }
+}
@@ -0,0 +1,107 @@
+package sort;
+
+import com.golfing8.util.ParallelSort;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ParallelSort} with {@link Arrays#parallelSort}. The input is generated once per trial
+ * and copied into the working arrays before every invocation.
+ */
+@Fork(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class ParallelSortBenchmark {
+    @Param({"1000000", "16777216"})
+    public int size;
+
+    private double[] doubleSource;
+    private long[] longSource;
+    private int[] intSource;
+    private double[] doubles;
+    private long[] longs;
+    private int[] ints;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(520);
+        doubleSource = new double[size];
+        longSource = new long[size];
+        intSource = new int[size];
+        for (int i = 0; i < size; i++) {
+            doubleSource[i] = random.nextDouble();
+            longSource[i] = random.nextLong();
+            intSource[i] = random.nextInt();
+        }
+        doubles = new double[size];
+        longs = new long[size];
+        ints = new int[size];
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        System.arraycopy(doubleSource, 0, doubles, 0, size);
+        System.arraycopy(longSource, 0, longs, 0, size);
+        System.arraycopy(intSource, 0, ints, 0, size);
+    }
+
+    @Benchmark
+    public double[] doubleControl() {
+        Arrays.parallelSort(doubles);
+        return doubles;
+    }
+
+    @Benchmark
+    public double[] doubleQuickSort() {
+        ParallelSort.quickSort(doubles);
+        return doubles;
+    }
+
+    @Benchmark
+    public double[] doubleSampleSort() {
+        ParallelSort.sampleSort(doubles);
+        return doubles;
+    }
+
+    @Benchmark
+    public int[] intControl() {
+        Arrays.parallelSort(ints);
+        return ints;
+    }
+
+    @Benchmark
+    public int[] intQuickSort() {
+        ParallelSort.quickSort(ints);
+        return ints;
+    }
+
+    @Benchmark
+    public int[] intSampleSort() {
+        ParallelSort.sampleSort(ints);
+        return ints;
+    }
+
+    @Benchmark
+    public long[] longControl() {
+        Arrays.parallelSort(longs);
+        return longs;
+    }
+
+    @Benchmark
+    public long[] longQuickSort() {
+        ParallelSort.quickSort(longs);
+        return longs;
+    }
+
+    @Benchmark
+    public long[] longSampleSort() {
+        ParallelSort.sampleSort(longs);
+        return longs;
+    }
+}
@@ -0,0 +1,72 @@
+package sort;
+
+import com.golfing8.util.DivideAndConquer;
+import com.golfing8.util.ParallelSort;
+import com.golfing8.util.RadixSort;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the radix sorts with the comparison based quick sorts on uniformly random doubles.
+ * The input is generated once per trial and copied into the working array before every invocation.
+ */
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class RadixSortBenchmark {
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    private double[] source;
+    private double[] array;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(520);
+        source = new double[size];
+        for (int i = 0; i < size; i++) {
+            source[i] = random.nextDouble(-1e9, 1e9);
+        }
+        array = new double[size];
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        System.arraycopy(source, 0, array, 0, size);
+    }
+
+    @Benchmark
+    public double[] quickSort() {
+        DivideAndConquer.quickSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public double[] quickSortRandomized() {
+        DivideAndConquer.quickSortRandomized(array);
+        return array;
+    }
+
+    @Benchmark
+    public double[] parallelQuickSort() {
+        ParallelSort.quickSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public double[] radixSort() {
+        RadixSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public double[] parallelRadixSort() {
+        RadixSort.parallelSort(array);
+        return array;
+    }
+}
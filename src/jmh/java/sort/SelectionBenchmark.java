@@ -0,0 +1,76 @@
+package sort;
+
+import com.golfing8.util.ParallelSort;
+import com.golfing8.util.Selection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Selection} with sorting the whole array to read off the same order statistics. The input is
+ * generated once per trial and copied into the working array before every invocation.
+ */
+@Fork(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class SelectionBenchmark {
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    @Param({"1000000", "16777216"})
+    public int size;
+    @Param({"100"})
+    public int k;
+
+    private double[] source;
+    private double[] doubles;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(520);
+        source = new double[size];
+        for (int i = 0; i < size; i++) {
+            source[i] = random.nextDouble();
+        }
+        doubles = new double[size];
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        System.arraycopy(source, 0, doubles, 0, size);
+    }
+
+    @Benchmark
+    public double medianSort() {
+        ParallelSort.sort(doubles);
+        return doubles[(size - 1) / 2];
+    }
+
+    @Benchmark
+    public double medianSelect() {
+        return Selection.median(doubles);
+    }
+
+    @Benchmark
+    public double[] percentilesSelect() {
+        return Selection.quantiles(doubles, PERCENTILES);
+    }
+
+    @Benchmark
+    public double[] topKSort() {
+        ParallelSort.sort(doubles);
+        double[] top = new double[k];
+        for (int i = 0; i < k; i++) {
+            top[i] = doubles[size - 1 - i];
+        }
+        return top;
+    }
+
+    @Benchmark
+    public double[] topKHeaps() {
+        return Selection.topK(doubles, k);
+    }
+}
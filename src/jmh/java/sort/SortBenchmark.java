@@ -0,0 +1,67 @@
+package sort;
+
+import com.golfing8.util.DivideAndConquer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the library sorts with {@link Arrays#sort(double[])} over several input distributions.
+ * The input is regenerated once per trial and copied into the working array before every invocation.
+ */
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class SortBenchmark {
+    @Param({"10000", "100000"})
+    public int size;
+
+    @Param({"random", "sorted", "duplicates"})
+    public String distribution;
+
+    private double[] source;
+    private double[] array;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(520);
+        source = new double[size];
+        for (int i = 0; i < size; i++) {
+            source[i] = switch (distribution) {
+                case "random" -> random.nextDouble();
+                case "sorted" -> i;
+                case "duplicates" -> random.nextInt(16);
+                default -> throw new IllegalArgumentException("Unknown distribution " + distribution);
+            };
+        }
+        array = new double[size];
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        System.arraycopy(source, 0, array, 0, size);
+    }
+
+    @Benchmark
+    public double[] control() {
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public double[] quickSort() {
+        DivideAndConquer.quickSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public double[] quickSortRandomized() {
+        DivideAndConquer.quickSortRandomized(array);
+        return array;
+    }
+}
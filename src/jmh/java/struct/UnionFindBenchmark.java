@@ -0,0 +1,102 @@
+package struct;
+
+import com.golfing8.struct.ConcurrentUnionFind;
+import com.golfing8.struct.UnionFind;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time per union-find operation. Every iteration is a single invocation of {@value #OPERATIONS}
+ * operations on fresh structures, as repeating the same unions would only merge sets that are already merged.
+ * The concurrent benchmarks share one structure between all benchmark threads so unions contend on the same roots.
+ */
+@Fork(value = 1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 30)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UnionFindBenchmark {
+    private static final int OPERATIONS = 1 << 16;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        @Param({"1024", "1048576"})
+        public int elementCount;
+
+        public ConcurrentUnionFind concurrent;
+        /** A structure already merged by random unions, for the finds to compress */
+        public ConcurrentUnionFind merged;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            concurrent = new ConcurrentUnionFind(elementCount);
+            merged = new ConcurrentUnionFind(elementCount);
+            SplittableRandom random = new SplittableRandom(elementCount);
+            for (int i = 0; i < OPERATIONS; i++) {
+                merged.union(random.nextInt(elementCount), random.nextInt(elementCount));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Edges {
+        public int[] from;
+        public int[] to;
+        public UnionFind sequential;
+
+        @Setup(Level.Trial)
+        public void generate(Shared shared) {
+            SplittableRandom random = new SplittableRandom(Thread.currentThread().threadId());
+            from = new int[OPERATIONS];
+            to = new int[OPERATIONS];
+            for (int i = 0; i < OPERATIONS; i++) {
+                from[i] = random.nextInt(shared.elementCount);
+                to[i] = random.nextInt(shared.elementCount);
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void setup(Shared shared) {
+            sequential = new UnionFind(shared.elementCount);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void sequential(Edges edges, Blackhole blackhole) {
+        UnionFind unionFind = edges.sequential;
+        for (int i = 0; i < OPERATIONS; i++) {
+            blackhole.consume(unionFind.union(edges.from[i], edges.to[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    @Threads(1)
+    public void concurrentUncontended(Shared shared, Edges edges, Blackhole blackhole) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            blackhole.consume(shared.concurrent.union(edges.from[i], edges.to[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    @Threads(8)
+    public void concurrentContended(Shared shared, Edges edges, Blackhole blackhole) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            blackhole.consume(shared.concurrent.union(edges.from[i], edges.to[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    @Threads(8)
+    public void concurrentFind(Shared shared, Edges edges, Blackhole blackhole) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            blackhole.consume(shared.merged.find(edges.from[i]));
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.golfing8.batch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a {@link BatchRunner} in one long running JVM, so jobs skip class loading and JIT warm up.
+ * <p></p>
+ * Jobs arrive in two ways, both answered with one result line per job as soon as the job finishes:
+ * <ul>
+ *     <li>A unix domain socket. Every connection is served by its own thread, which runs the job lines it reads
+ *     in order and writes back their results.</li>
+ *     <li>A spool directory. A file {@code <name>.job} is claimed by renaming it to {@code <name>.running}, its
+ *     results are appended to {@code <name>.result}, and it is renamed to {@code <name>.done} once every job ran.
+ *     Files are claimed as soon as they appear, so clients must publish them complete by an atomic rename, for
+ *     example writing {@code <name>.job.tmp} and renaming it to {@code <name>.job}. Other names are ignored.</li>
+ * </ul>
+ * Run standalone with {@code java com.golfing8.batch.BatchDaemon [--warm-up[=rounds]] <mode>}, where the mode is
+ * {@code serve <socket>}, {@code watch <directory>}, or {@code run [file]} to run a job file or standard input once
+ * and exit. The last is meant to start from a class data sharing archive, see the {@code batchArchive} Gradle task.
+ */
+public class BatchDaemon implements AutoCloseable {
+    /** The warm up rounds run by {@code --warm-up} without a count */
+    private static final int DEFAULT_WARM_UP_ROUNDS = 2000;
+    /** How often the spool directory is rescanned when no change is reported */
+    private static final long SPOOL_POLL_MILLIS = 500;
+    /** The longest wait before accepting again after accepting failed */
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1_000;
+
+    private final BatchRunner runner;
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+    private final List<AutoCloseable> resources = new CopyOnWriteArrayList<>();
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /**
+     * Creates a daemon, which does nothing until it listens or watches
+     *
+     * @param runner the runner of every job
+     */
+    public BatchDaemon(BatchRunner runner) {
+        this.runner = runner;
+    }
+
+    public BatchRunner getRunner() {
+        return runner;
+    }
+
+    /**
+     * Runs every job read from the reader in order, writing and flushing each result as soon as it is known
+     *
+     * @param runner the runner
+     * @param reader the job lines
+     * @param writer the result lines
+     * @return the amount of jobs run
+     * @throws IOException if reading or writing failed
+     */
+    public static int runAll(BatchRunner runner, Reader reader, Writer writer) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        int count = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            String result = runner.run(line);
+            if (result == null)
+                continue;
+            writer.write(result);
+            writer.write('\n');
+            writer.flush();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Starts accepting jobs on a unix domain socket. A stale socket file is replaced.
+     *
+     * @param socket the socket file
+     * @throws IOException if the socket could not be bound
+     */
+    public void listen(Path socket) throws IOException {
+        Files.deleteIfExists(socket);
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        resources.add(server);
+        resources.add(() -> Files.deleteIfExists(socket));
+        start("batch-socket", () -> acceptLoop(server));
+    }
+
+    private void acceptLoop(ServerSocketChannel server) {
+        long backoffMillis = 0;
+        while (!closed) {
+            try {
+                SocketChannel channel = server.accept();
+                connections.add(channel);
+                // Accepted while closing, close may already have gone over the connections.
+                if (closed) {
+                    channel.close();
+                    return;
+                }
+                backoffMillis = 0;
+                Thread.ofPlatform().daemon().name("batch-connection").start(() -> serve(channel));
+            } catch (IOException exception) {
+                if (closed)
+                    return;
+                // Failures such as running out of file descriptors tend to repeat, don't spin on them.
+                backoffMillis = Math.min(MAX_ACCEPT_BACKOFF_MILLIS, Math.max(1, backoffMillis * 2));
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        try (channel) {
+            runAll(runner,
+                    new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8),
+                    Channels.newWriter(channel, StandardCharsets.UTF_8));
+        } catch (IOException exception) {
+            // The client went away, the rest of its jobs are dropped.
+        } finally {
+            connections.remove(channel);
+        }
+    }
+
+    /**
+     * Starts running the job files of a spool directory, including those already in it
+     *
+     * @param spool the directory
+     * @throws IOException if the directory could not be watched
+     */
+    public void watch(Path spool) throws IOException {
+        WatchService watcher = spool.getFileSystem().newWatchService();
+        spool.register(watcher, StandardWatchEventKinds.ENTRY_CREATE);
+        resources.add(watcher);
+        start("batch-spool", () -> spoolLoop(spool, watcher));
+    }
+
+    private void spoolLoop(Path spool, WatchService watcher) {
+        while (!closed) {
+            try {
+                for (Path job : pendingJobs(spool)) {
+                    runJobFile(spool, job);
+                }
+                // Events only wake the loop up, every wake rescans so nothing is missed on overflow.
+                var key = watcher.poll(SPOOL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException exception) {
+                return;
+            } catch (IOException | UncheckedIOException exception) {
+                if (closed)
+                    return;
+            }
+        }
+    }
+
+    private static List<Path> pendingJobs(Path spool) throws IOException {
+        List<Path> jobs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spool, "*.job")) {
+            files.forEach(jobs::add);
+        }
+        jobs.sort(null);
+        return jobs;
+    }
+
+    private void runJobFile(Path spool, Path job) throws IOException {
+        String name = job.getFileName().toString();
+        name = name.substring(0, name.length() - ".job".length());
+        Path running = spool.resolve(name + ".running");
+        try {
+            Files.move(job, running, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            // Claimed by another daemon watching the same directory.
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(running, StandardCharsets.UTF_8);
+             Writer writer = Files.newBufferedWriter(spool.resolve(name + ".result"), StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            runAll(runner, reader, writer);
+        }
+        Files.move(running, spool.resolve(name + ".done"), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void start(String name, Runnable loop) {
+        Thread thread = Thread.ofPlatform().daemon().name(name).start(loop);
+        threads.add(thread);
+    }
+
+    /**
+     * Waits until the daemon is closed
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void join() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Stops accepting jobs and drops every open connection. Jobs already running finish in the background.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception exception) {
+                // Closing the rest matters more.
+            }
+        }
+        for (SocketChannel channel : connections) {
+            channel.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int index = 0;
+        boolean warmedUp = args.length > 0 && args[0].startsWith("--warm-up");
+        if (warmedUp) {
+            int rounds = args[0].startsWith("--warm-up=") ? Integer.parseInt(args[0].substring("--warm-up=".length())) : DEFAULT_WARM_UP_ROUNDS;
+            long start = System.nanoTime();
+            BatchRunner.warmUp(rounds);
+            System.err.printf("Warmed up in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            index++;
+        }
+        String mode = args.length > index ? args[index] : "";
+        String argument = args.length > index + 1 ? args[index + 1] : null;
+
+        BatchRunner runner = new BatchRunner();
+        switch (mode) {
+            case "serve", "watch" -> {
+                if (argument == null)
+                    throw new IllegalArgumentException("Usage: " + mode + (mode.equals("serve") ? " <socket>" : " <directory>"));
+                BatchDaemon daemon = new BatchDaemon(runner);
+                if (mode.equals("serve")) {
+                    daemon.listen(Path.of(argument));
+                } else {
+                    daemon.watch(Path.of(argument));
+                }
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        daemon.close();
+                    } catch (IOException ignored) {
+                        // Exiting anyway.
+                    }
+                }));
+                System.out.println("Accepting jobs from " + argument);
+                System.out.flush();
+                daemon.join();
+            }
+            case "run" -> {
+                Writer output = Channels.newWriter(Channels.newChannel(System.out), StandardCharsets.UTF_8);
+                try (Reader input = argument == null
+                        ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                        : Files.newBufferedReader(Path.of(argument), StandardCharsets.UTF_8)) {
+                    runAll(runner, input, output);
+                }
+                BatchRunner.Stats stats = runner.stats();
+                System.err.printf("%d jobs, %d failed, first result after %d ms, %.1f jobs per second%n",
+                        stats.jobs(), stats.failures(), stats.firstResultMillis(), stats.jobsPerSecond());
+            }
+            default -> {
+                // Only warming up is how the class data sharing archive is recorded.
+                if (!mode.isEmpty() || !warmedUp)
+                    throw new IllegalArgumentException("Usage: [--warm-up[=rounds]] serve <socket> | watch <directory> | run [file]. Was " + String.join(" ", args));
+            }
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.golfing8.batch;
+
+import com.golfing8.service.LatencyHistogram;
+import com.golfing8.struct.CompactGraph;
+import com.golfing8.struct.NodeIndex;
+import com.golfing8.struct.ShortestPathTree;
+import com.golfing8.struct.SquareMatrix;
+import com.golfing8.util.EdgeListLoader;
+import com.golfing8.util.ExternalSort;
+import com.golfing8.util.GraphUtil;
+import com.golfing8.util.RandomData;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs batch jobs described by single lines of text, for a JVM that stays up between jobs.
+ * <p></p>
+ * A job is a command followed by its arguments, separated by whitespace:
+ * <ul>
+ *     <li>{@code multiply <left> <right> <output>} multiplies two matrix files into a third.</li>
+ *     <li>{@code path <graph> <source> <target>} finds a shortest path between two nodes of an edge list.</li>
+ *     <li>{@code mst <graph>} weighs a minimum spanning forest of an undirected edge list.</li>
+ *     <li>{@code sort <input> <output>} sorts a file of doubles with {@link ExternalSort}.</li>
+ *     <li>{@code stats} reports the {@link Stats} of this runner.</li>
+ * </ul>
+ * Every job returns a single result line, {@code ok <job> <key=value>...} or {@code error <job> <message>}.
+ * Blank lines and lines starting with {@code #} are not jobs and return no result.
+ * <p></p>
+ * Matrix files are a header of {@code int magic, int size} followed by the elements column by column, all big endian.
+ * Edge lists are read with {@link EdgeListLoader}, as binary if they start with its magic number and as undirected
+ * text otherwise. Loaded graphs and the shortest path trees of recent sources are cached until the file changes,
+ * so repeated queries on a graph only pay for loading once.
+ * This class is thread safe.
+ */
+public class BatchRunner {
+    /** The magic number at the start of matrix files, "MTRX" */
+    public static final int MATRIX_MAGIC = 0x4D545258;
+    /** The most shortest path trees kept per graph */
+    private static final int TREE_CACHE_SIZE = 16;
+
+    /**
+     * The kinds of jobs
+     */
+    public enum Command {
+        MULTIPLY,
+        PATH,
+        MST,
+        SORT,
+        STATS,
+    }
+
+    /**
+     * The throughput of a runner so far.
+     *
+     * @param jobs the amount of jobs completed
+     * @param failures the amount of jobs that returned an error
+     * @param firstResultMillis the time from JVM start to the first result, or -1 if there was none
+     * @param jobsPerSecond the jobs completed per second since the first result, or 0 before the second
+     */
+    public record Stats(long jobs, long failures, long firstResultMillis, double jobsPerSecond) {}
+
+    /**
+     * A loaded graph and its recent shortest path trees
+     */
+    private record LoadedGraph(long size, long modified, CompactGraph graph, NodeIndex<Integer> nodes,
+                               Map<Integer, ShortestPathTree<Integer>> trees) {}
+
+    private final Map<Path, LoadedGraph> graphs = new ConcurrentHashMap<>();
+    private final Map<Command, LatencyHistogram> latencies = new EnumMap<>(Command.class);
+    private final LongAdder jobs = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    /** The nano time of the first result, or 0 before it */
+    private final AtomicLong firstResult = new AtomicLong();
+    /** The time from JVM start to the first result, or -1 before it */
+    private volatile long firstResultMillis = -1;
+    private final AtomicLong jobCounter = new AtomicLong();
+
+    public BatchRunner() {
+        for (Command command : Command.values()) {
+            latencies.put(command, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Runs a job
+     *
+     * @param line the job's description
+     * @return the result line, or null if the line is not a job
+     */
+    public String run(String line) {
+        String trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.startsWith("#"))
+            return null;
+
+        long job = jobCounter.incrementAndGet();
+        long start = System.nanoTime();
+        String[] tokens = trimmed.split("\\s+");
+        Command command = null;
+        String result;
+        try {
+            command = parseCommand(tokens[0]);
+            result = "ok " + job + " " + execute(command, tokens) + " micros=" + (System.nanoTime() - start) / 1000;
+        } catch (RuntimeException exception) {
+            failures.increment();
+            String message = exception instanceof UncheckedIOException io ? io.getCause().toString() : exception.toString();
+            result = "error " + job + " " + message.replace('\n', ' ');
+        }
+        if (command != null)
+            latencies.get(command).record(System.nanoTime() - start);
+        jobs.increment();
+        if (firstResult.compareAndSet(0, System.nanoTime()))
+            firstResultMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        return result;
+    }
+
+    private static Command parseCommand(String token) {
+        try {
+            return Command.valueOf(token.toUpperCase());
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Unknown command. Was " + token);
+        }
+    }
+
+    private static void checkArguments(String[] tokens, int count, String usage) {
+        if (tokens.length != count + 1)
+            throw new IllegalArgumentException("Usage: " + usage + ". Was " + String.join(" ", tokens));
+    }
+
+    private String execute(Command command, String[] tokens) {
+        return switch (command) {
+            case MULTIPLY -> {
+                checkArguments(tokens, 3, "multiply <left> <right> <output>");
+                SquareMatrix left = readMatrix(Path.of(tokens[1]));
+                SquareMatrix right = readMatrix(Path.of(tokens[2]));
+                if (left.getSize() != right.getSize())
+                    throw new IllegalArgumentException("Size of matrices are not equal. Expecting " + left.getSize() + " was " + right.getSize());
+                writeMatrix(Path.of(tokens[3]), SquareMatrix.matrixMultiplyStrassen(left, right));
+                yield "size=" + left.getSize();
+            }
+            case PATH -> {
+                checkArguments(tokens, 3, "path <graph> <source> <target>");
+                LoadedGraph graph = loadGraph(Path.of(tokens[1]));
+                int source = parseNode(graph, tokens[2]);
+                int target = parseNode(graph, tokens[3]);
+                ShortestPathTree<Integer> tree = shortestPathTree(graph, source);
+                if (!tree.isReachable(target))
+                    yield "distance=Infinity";
+                String path = tree.path(target).stream().map(String::valueOf).collect(Collectors.joining(","));
+                yield "distance=" + tree.distance(target) + " path=" + path;
+            }
+            case MST -> {
+                checkArguments(tokens, 1, "mst <graph>");
+                CompactGraph graph = loadGraph(Path.of(tokens[1])).graph();
+                int[] parents = GraphUtil.computeMSTPrim(graph);
+                double weight = 0;
+                int trees = 0;
+                for (int v = 0; v < parents.length; v++) {
+                    if (parents[v] == ShortestPathTree.NO_PREDECESSOR) {
+                        trees++;
+                        continue;
+                    }
+                    // The lightest arc to the parent, as parallel edges may differ in weight.
+                    double lightest = Double.POSITIVE_INFINITY;
+                    for (int arc = graph.start(v); arc < graph.end(v); arc++) {
+                        if (graph.target(arc) == parents[v])
+                            lightest = Math.min(lightest, graph.weight(arc));
+                    }
+                    weight += lightest;
+                }
+                yield "weight=" + weight + " trees=" + trees;
+            }
+            case SORT -> {
+                checkArguments(tokens, 2, "sort <input> <output>");
+                Path output = Path.of(tokens[2]).toAbsolutePath();
+                ExternalSort.Metrics metrics = ExternalSort.sort(Path.of(tokens[1]), output, ExternalSort.Settings.defaults(output.getParent()));
+                yield "elements=" + metrics.elements() + " runs=" + metrics.runs() + " mergePasses=" + metrics.mergePasses();
+            }
+            case STATS -> {
+                checkArguments(tokens, 0, "stats");
+                Stats stats = stats();
+                yield "jobs=" + stats.jobs() + " failures=" + stats.failures() + " firstResultMillis=" + stats.firstResultMillis()
+                        + String.format(" jobsPerSecond=%.1f", stats.jobsPerSecond());
+            }
+        };
+    }
+
+    private static int parseNode(LoadedGraph graph, String token) {
+        int node;
+        try {
+            node = Integer.parseInt(token);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("Node must be an integer. Was " + token);
+        }
+        if (node < 0 || node >= graph.graph().nodeCount())
+            throw new IllegalArgumentException("Node is out of bounds for " + graph.graph().nodeCount() + " nodes. Was " + node);
+        return node;
+    }
+
+    private LoadedGraph loadGraph(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        return graphs.compute(key, (file, loaded) -> {
+            if (loaded != null && loaded.size() == size && loaded.modified() == modified)
+                return loaded;
+
+            CompactGraph graph = isBinaryEdgeList(file) ? EdgeListLoader.loadBinary(file) : EdgeListLoader.loadText(file, false);
+            NodeIndex<Integer> nodes = new NodeIndex<>(IntStream.range(0, graph.nodeCount()).boxed().toList());
+            Map<Integer, ShortestPathTree<Integer>> trees = new LinkedHashMap<>(TREE_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, ShortestPathTree<Integer>> eldest) {
+                    return size() > TREE_CACHE_SIZE;
+                }
+            };
+            return new LoadedGraph(size, modified, graph, nodes, trees);
+        });
+    }
+
+    private static ShortestPathTree<Integer> shortestPathTree(LoadedGraph graph, int source) {
+        synchronized (graph.trees()) {
+            ShortestPathTree<Integer> tree = graph.trees().get(source);
+            if (tree != null)
+                return tree;
+        }
+        // Computed outside the lock, two racing queries from the same source both compute the same tree.
+        ShortestPathTree<Integer> tree = GraphUtil.shortestPathTree(source, graph.graph(), graph.nodes());
+        synchronized (graph.trees()) {
+            graph.trees().put(source, tree);
+        }
+        return tree;
+    }
+
+    private static boolean isBinaryEdgeList(Path path) {
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(path))) {
+            return Files.size(path) >= Integer.BYTES && input.readInt() == EdgeListLoader.BINARY_MAGIC;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Reads a matrix file
+     *
+     * @param path the file
+     * @return the matrix
+     */
+    public static SquareMatrix readMatrix(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0)
+                    throw new IllegalArgumentException("Matrix file is missing its header");
+            }
+            header.flip();
+            int magic = header.getInt();
+            int size = header.getInt();
+            if (magic != MATRIX_MAGIC)
+                throw new IllegalArgumentException("Not a matrix file. Magic was " + Integer.toHexString(magic));
+            if (size <= 0 || channel.size() != matrixFileBytes(size))
+                throw new IllegalArgumentException("Matrix file does not hold a matrix of size " + size + ". Was " + channel.size() + " bytes");
+
+            ByteBuffer elements = channel.map(FileChannel.MapMode.READ_ONLY, header.capacity(), channel.size() - header.capacity());
+            return SquareMatrix.read(size, elements.asDoubleBuffer());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * The length of the file of a matrix of the given size, which is read and written as one buffer
+     */
+    private static int matrixFileBytes(int size) {
+        try {
+            return Math.addExact(2 * Integer.BYTES, Math.multiplyExact(Math.multiplyExact(size, size), Double.BYTES));
+        } catch (ArithmeticException exception) {
+            throw new IllegalArgumentException("Matrix is too large for a matrix file. Size was " + size);
+        }
+    }
+
+    /**
+     * Writes a matrix file
+     *
+     * @param path the file
+     * @param matrix the matrix
+     */
+    public static void writeMatrix(Path path, SquareMatrix matrix) {
+        int size = matrix.getSize();
+        ByteBuffer buffer = ByteBuffer.allocate(matrixFileBytes(size));
+        buffer.putInt(MATRIX_MAGIC).putInt(size);
+        matrix.write(buffer.asDoubleBuffer());
+        try {
+            Files.write(path, buffer.array());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Runs every command on small generated files until its code is compiled, so the first real jobs skip the
+     * interpreter. The files live in a temporary directory that is deleted afterwards, and the jobs run on a runner
+     * of their own. Run while recording a class data sharing archive, it also loads every class the jobs need.
+     *
+     * @param rounds the amount of times every command is run, a few thousand reach the optimizing compiler
+     */
+    public static void warmUp(int rounds) {
+        Path directory = null;
+        try {
+            directory = Files.createTempDirectory("batch-warm-up");
+            Path small = directory.resolve("small.bin");
+            Path large = directory.resolve("large.bin");
+            writeMatrix(small, SquareMatrix.random(16, 520));
+            // Large enough for a strassen step.
+            writeMatrix(large, SquareMatrix.random(256, 521));
+
+            CompactGraph generated = RandomData.graph(256, 1024, 522, 1, 10, false, false);
+            StringBuilder edges = new StringBuilder();
+            for (int u = 0; u < generated.nodeCount(); u++) {
+                for (int arc = generated.start(u); arc < generated.end(u); arc++) {
+                    if (u < generated.target(arc))
+                        edges.append(u).append(' ').append(generated.target(arc)).append(' ').append(generated.weight(arc)).append('\n');
+                }
+            }
+            Path graph = Files.writeString(directory.resolve("graph.txt"), edges);
+
+            ByteBuffer doubles = ByteBuffer.allocate(4096 * Double.BYTES);
+            doubles.asDoubleBuffer().put(RandomData.doubles(4096, 523, -1, 1));
+            Path unsorted = Files.write(directory.resolve("unsorted.bin"), doubles.array());
+
+            BatchRunner runner = new BatchRunner();
+            List<String> jobs = new ArrayList<>();
+            for (int round = 0; round < rounds; round++) {
+                jobs.add("multiply " + small + " " + small + " " + directory.resolve("product.bin"));
+                if (round % 64 == 0)
+                    jobs.add("multiply " + large + " " + large + " " + directory.resolve("product.bin"));
+                jobs.add("path " + graph + " " + round % generated.nodeCount() + " " + (generated.nodeCount() - 1));
+                jobs.add("mst " + graph);
+                if (round % 16 == 0)
+                    jobs.add("sort " + unsorted + " " + directory.resolve("sorted.bin"));
+                jobs.add("stats");
+                jobs.forEach(runner::run);
+                jobs.clear();
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } finally {
+            if (directory != null) {
+                try (var files = Files.list(directory)) {
+                    for (Path file : files.toList()) {
+                        Files.deleteIfExists(file);
+                    }
+                    Files.deleteIfExists(directory);
+                } catch (IOException exception) {
+                    // Left for the operating system to clean up.
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the throughput so far
+     */
+    public Stats stats() {
+        long jobs = this.jobs.sum();
+        long first = firstResult.get();
+        double seconds = (System.nanoTime() - first) / 1e9;
+        double jobsPerSecond = first == 0 || jobs < 2 || seconds <= 0 ? 0 : (jobs - 1) / seconds;
+        return new Stats(jobs, failures.sum(), firstResultMillis, jobsPerSecond);
+    }
+
+    /**
+     * Gets the latencies recorded for a command
+     *
+     * @param command the command
+     * @return the histogram
+     */
+    public LatencyHistogram latencies(Command command) {
+        return latencies.get(command);
+    }
+}
@@ -5,4 +5,8 @@ import java.util.concurrent.ForkJoinPool;
 public class ThreadPools {
     /** The thread executor for parallel matrix computations */
     public static final ForkJoinPool MATRIX_EXECUTOR = new ForkJoinPool(16);
+    /** The thread executor for parallel graph loading and processing */
+    public static final ForkJoinPool GRAPH_EXECUTOR = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    /** The thread executor for parallel array computations such as sorting */
+    public static final ForkJoinPool ARRAY_EXECUTOR = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 }
@@ -0,0 +1,289 @@
+package com.golfing8.distributed;
+
+import com.golfing8.struct.SquareMatrix;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multiplies matrices by spreading the seven products of a strassen step over {@link MatrixWorker}s, which may run
+ * in other JVMs on this host or on others.
+ * <p></p>
+ * The operands of the outermost step are formed here and every product is sent to a worker, round robin, with the
+ * workers running in parallel. Each worker multiplies its halves with strassen on its own. A product whose worker
+ * cannot be reached, or does not answer in time, is computed locally, and the connection is retried on the next
+ * multiply.
+ * <p></p>
+ * Workers are listed in the {@value #WORKERS_PROPERTY} property as comma separated {@code host:port} pairs.
+ * The timeouts are read from {@value #CONNECT_TIMEOUT_PROPERTY} and {@value #RESPONSE_TIMEOUT_PROPERTY}, in
+ * milliseconds.
+ * This class is thread safe.
+ */
+public class DistributedMultiplier implements AutoCloseable {
+    /** The property listing the workers */
+    public static final String WORKERS_PROPERTY = "golfing8.workers";
+    /** The property with the time to wait for a connection to a worker */
+    public static final String CONNECT_TIMEOUT_PROPERTY = "golfing8.connectTimeoutMillis";
+    /** The property with the time to wait for a worker to receive a request and answer it */
+    public static final String RESPONSE_TIMEOUT_PROPERTY = "golfing8.responseTimeoutMillis";
+    private static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 2_000;
+    private static final long DEFAULT_RESPONSE_TIMEOUT_MILLIS = 60_000;
+    /** Matrices smaller than this are not worth sending and are multiplied locally */
+    private static final int DISTRIBUTE_SIZE = 256;
+
+    /**
+     * A connection to one worker, used by one request at a time
+     */
+    private static class Connection {
+        private final InetSocketAddress address;
+        private final int connectTimeoutMillis;
+        private final long responseTimeoutMillis;
+        // Not synchronized, which would pin the sending virtual thread to its carrier while blocked on the socket.
+        private final ReentrantLock lock = new ReentrantLock();
+        private SocketChannel channel;
+
+        Connection(InetSocketAddress address, int connectTimeoutMillis, long responseTimeoutMillis) {
+            this.address = address;
+            this.connectTimeoutMillis = connectTimeoutMillis;
+            this.responseTimeoutMillis = responseTimeoutMillis;
+        }
+
+        SquareMatrix multiply(SquareMatrix left, SquareMatrix right, ExecutorService executor) throws IOException {
+            lock.lock();
+            try {
+                if (channel == null)
+                    channel = connect();
+                // Blocking channels ignore socket timeouts, so the exchange runs aside and is cut off by closing.
+                SocketChannel open = channel;
+                Future<SquareMatrix> exchange = executor.submit(() -> {
+                    MatrixProtocol.writeRequest(open, left, right);
+                    return MatrixProtocol.readResult(open);
+                });
+                try {
+                    return exchange.get(responseTimeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException exception) {
+                    throw new SocketTimeoutException("Worker " + address + " did not answer within " + responseTimeoutMillis + " ms");
+                } catch (ExecutionException exception) {
+                    if (exception.getCause() instanceof IOException cause)
+                        throw cause;
+                    throw new IOException(exception.getCause());
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for worker " + address);
+                }
+            } catch (IOException exception) {
+                // The stream may be mid message, start over with a new connection.
+                close();
+                throw exception;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private SocketChannel connect() throws IOException {
+            SocketChannel opened = SocketChannel.open();
+            try {
+                opened.socket().connect(address, connectTimeoutMillis);
+                return opened;
+            } catch (IOException exception) {
+                opened.close();
+                throw exception;
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                if (channel != null)
+                    channel.close();
+            } catch (IOException ignored) {
+            } finally {
+                channel = null;
+                lock.unlock();
+            }
+        }
+    }
+
+    private final List<Connection> connections = new ArrayList<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder remoteProducts = new LongAdder();
+    private final LongAdder localProducts = new LongAdder();
+
+    /**
+     * Creates a multiplier over the given workers with the default timeouts. Connections are opened on first use.
+     *
+     * @param workers the addresses of the workers
+     */
+    public DistributedMultiplier(List<InetSocketAddress> workers) {
+        this(workers, DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_RESPONSE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates a multiplier over the given workers. Connections are opened on first use.
+     *
+     * @param workers the addresses of the workers
+     * @param connectTimeoutMillis the time to wait for a connection to a worker
+     * @param responseTimeoutMillis the time to wait for a worker to receive a request and answer it
+     */
+    public DistributedMultiplier(List<InetSocketAddress> workers, long connectTimeoutMillis, long responseTimeoutMillis) {
+        if (connectTimeoutMillis <= 0 || connectTimeoutMillis > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Connect timeout must be positive and fit an int. Was " + connectTimeoutMillis);
+        if (responseTimeoutMillis <= 0)
+            throw new IllegalArgumentException("Response timeout must be positive. Was " + responseTimeoutMillis);
+
+        for (InetSocketAddress worker : workers) {
+            connections.add(new Connection(worker, (int) connectTimeoutMillis, responseTimeoutMillis));
+        }
+    }
+
+    /**
+     * Creates a multiplier over the workers listed in the {@value #WORKERS_PROPERTY} property, with the timeouts of
+     * {@value #CONNECT_TIMEOUT_PROPERTY} and {@value #RESPONSE_TIMEOUT_PROPERTY} if set
+     *
+     * @param properties the properties
+     * @return the multiplier
+     */
+    public static DistributedMultiplier fromProperties(Properties properties) {
+        String workers = properties.getProperty(WORKERS_PROPERTY, "");
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String worker : workers.split(",")) {
+            worker = worker.strip();
+            if (worker.isEmpty())
+                continue;
+
+            int separator = worker.lastIndexOf(':');
+            if (separator <= 0)
+                throw new IllegalArgumentException("Worker must be given as host:port. Was " + worker);
+            addresses.add(new InetSocketAddress(worker.substring(0, separator), Integer.parseInt(worker.substring(separator + 1))));
+        }
+        long connectTimeout = Long.parseLong(properties.getProperty(CONNECT_TIMEOUT_PROPERTY, String.valueOf(DEFAULT_CONNECT_TIMEOUT_MILLIS)).strip());
+        long responseTimeout = Long.parseLong(properties.getProperty(RESPONSE_TIMEOUT_PROPERTY, String.valueOf(DEFAULT_RESPONSE_TIMEOUT_MILLIS)).strip());
+        return new DistributedMultiplier(addresses, connectTimeout, responseTimeout);
+    }
+
+    /**
+     * Creates a multiplier over the workers listed in a properties file
+     *
+     * @param path the path of the file
+     * @return the multiplier
+     * @throws IOException if the file could not be read
+     */
+    public static DistributedMultiplier fromFile(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties);
+    }
+
+    public int getWorkerCount() {
+        return connections.size();
+    }
+
+    /**
+     * Multiplies two matrices. Without workers, or for small or odd sizes, the multiply is local.
+     *
+     * @param left the left matrix
+     * @param right the right matrix
+     * @return the product
+     */
+    public SquareMatrix multiply(SquareMatrix left, SquareMatrix right) {
+        if (left.getSize() != right.getSize())
+            throw new IllegalArgumentException("Size of matrices are not equal. Expecting " + left.getSize() + " was " + right.getSize());
+
+        int size = left.getSize();
+        if (connections.isEmpty() || size < DISTRIBUTE_SIZE || size % 2 != 0)
+            return SquareMatrix.matrixMultiplyStrassen(left, right);
+
+        int halfSize = size / 2;
+        SquareMatrix a11 = left.subMatrix(1, 1, halfSize);
+        SquareMatrix a12 = left.subMatrix(1, halfSize + 1, halfSize);
+        SquareMatrix a21 = left.subMatrix(halfSize + 1, 1, halfSize);
+        SquareMatrix a22 = left.subMatrix(halfSize + 1, halfSize + 1, halfSize);
+
+        SquareMatrix b11 = right.subMatrix(1, 1, halfSize);
+        SquareMatrix b12 = right.subMatrix(1, halfSize + 1, halfSize);
+        SquareMatrix b21 = right.subMatrix(halfSize + 1, 1, halfSize);
+        SquareMatrix b22 = right.subMatrix(halfSize + 1, halfSize + 1, halfSize);
+
+        SquareMatrix[][] operands = {
+                {a11, b12.minus(b22)},
+                {a11.plus(a12), b22},
+                {a21.plus(a22), b11},
+                {a22, b21.minus(b11)},
+                {a11.plus(a22), b11.plus(b22)},
+                {a12.minus(a22), b21.plus(b22)},
+                {a11.minus(a21), b11.plus(b12)},
+        };
+        SquareMatrix[] p = new SquareMatrix[operands.length];
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[Math.min(connections.size(), operands.length)];
+        for (int worker = 0; worker < sends.length; worker++) {
+            Connection connection = connections.get(worker);
+            int first = worker;
+            sends[worker] = CompletableFuture.runAsync(() -> {
+                for (int product = first; product < operands.length; product += connections.size()) {
+                    p[product] = multiply(connection, operands[product][0], operands[product][1]);
+                }
+            }, senders);
+        }
+        CompletableFuture.allOf(sends).join();
+
+        SquareMatrix c11 = p[4].plus(p[3]).minusIP(p[1]).plusIP(p[5]);
+        SquareMatrix c12 = p[0].plus(p[1]);
+        SquareMatrix c21 = p[2].plus(p[3]);
+        SquareMatrix c22 = p[4].plusIP(p[0]).minusIP(p[2]).minusIP(p[6]);
+        return SquareMatrix.fromParts(c11, c12, c21, c22);
+    }
+
+    private SquareMatrix multiply(Connection connection, SquareMatrix left, SquareMatrix right) {
+        try {
+            SquareMatrix product = connection.multiply(left, right, senders);
+            remoteProducts.increment();
+            return product;
+        } catch (IOException exception) {
+            localProducts.increment();
+            return SquareMatrix.matrixMultiplyStrassen(left, right);
+        }
+    }
+
+    /**
+     * @return the amount of products computed by workers
+     */
+    public long remoteProducts() {
+        return remoteProducts.sum();
+    }
+
+    /**
+     * @return the amount of products computed locally after their worker failed
+     */
+    public long localProducts() {
+        return localProducts.sum();
+    }
+
+    /**
+     * Closes every connection. Workers keep running.
+     */
+    @Override
+    public void close() {
+        connections.forEach(Connection::close);
+        senders.shutdown();
+    }
+}
@@ -0,0 +1,106 @@
+package com.golfing8.distributed;
+
+import com.golfing8.struct.SquareMatrix;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The wire format between a {@link DistributedMultiplier} and its {@link MatrixWorker}s.
+ * <p></p>
+ * A request is the size followed by both operands, a response is a status followed by the product or by an error
+ * message. Integers and matrices are big endian, matrices column by column.
+ */
+class MatrixProtocol {
+    static final int OK = 0;
+    static final int ERROR = 1;
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Reads exactly the given amount of bytes
+     *
+     * @return the bytes, or null if the stream ended before the first byte
+     */
+    private static ByteBuffer readFully(SocketChannel channel, int bytes, boolean allowEnd) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (allowEnd && buffer.position() == 0)
+                    return null;
+                throw new EOFException("Connection closed after " + buffer.position() + " of " + bytes + " bytes");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int matrixBytes(int size) {
+        return Math.multiplyExact(Math.multiplyExact(size, size), Double.BYTES);
+    }
+
+    private static SquareMatrix readMatrix(SocketChannel channel, int size) throws IOException {
+        return SquareMatrix.read(size, readFully(channel, matrixBytes(size), false).asDoubleBuffer());
+    }
+
+    private static void writeMatrix(SocketChannel channel, SquareMatrix matrix) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(matrixBytes(matrix.getSize()));
+        matrix.write(buffer.asDoubleBuffer());
+        writeFully(channel, buffer.position(buffer.capacity()));
+    }
+
+    static void writeRequest(SocketChannel channel, SquareMatrix left, SquareMatrix right) throws IOException {
+        writeFully(channel, ByteBuffer.allocate(Integer.BYTES).putInt(left.getSize()));
+        writeMatrix(channel, left);
+        writeMatrix(channel, right);
+    }
+
+    /**
+     * Reads a request
+     *
+     * @return the operands, or null if the connection was closed between requests
+     */
+    static SquareMatrix[] readRequest(SocketChannel channel) throws IOException {
+        ByteBuffer header = readFully(channel, Integer.BYTES, true);
+        if (header == null)
+            return null;
+
+        int size = header.getInt();
+        if (size <= 0)
+            throw new IOException("Invalid matrix size " + size);
+        return new SquareMatrix[] {readMatrix(channel, size), readMatrix(channel, size)};
+    }
+
+    static void writeResult(SocketChannel channel, SquareMatrix product) throws IOException {
+        writeFully(channel, ByteBuffer.allocate(Integer.BYTES * 2).putInt(OK).putInt(product.getSize()));
+        writeMatrix(channel, product);
+    }
+
+    static void writeError(SocketChannel channel, String message) throws IOException {
+        byte[] bytes = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+        writeFully(channel, ByteBuffer.allocate(Integer.BYTES * 2 + bytes.length).putInt(ERROR).putInt(bytes.length).put(bytes));
+    }
+
+    /**
+     * Reads a response
+     *
+     * @return the product
+     * @throws IOException if the connection failed or the worker reported an error
+     */
+    static SquareMatrix readResult(SocketChannel channel) throws IOException {
+        ByteBuffer header = readFully(channel, Integer.BYTES * 2, false);
+        int status = header.getInt();
+        int length = header.getInt();
+        if (status == ERROR)
+            throw new IOException("Worker failed: " + StandardCharsets.UTF_8.decode(readFully(channel, length, false)));
+        if (status != OK || length <= 0)
+            throw new IOException("Invalid response status " + status + " with size " + length);
+        return readMatrix(channel, length);
+    }
+}
@@ -0,0 +1,114 @@
+package com.golfing8.distributed;
+
+import com.golfing8.struct.SquareMatrix;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A worker multiplying matrices for a {@link DistributedMultiplier} over TCP.
+ * <p></p>
+ * Every connection is served by its own thread, one request at a time, with
+ * {@link SquareMatrix#matrixMultiplyStrassen(SquareMatrix, SquareMatrix)}.
+ * Run standalone with {@code java com.golfing8.distributed.MatrixWorker [port]}. The port defaults to any free port,
+ * and the chosen one is printed as {@code Listening on port <port>}.
+ */
+public class MatrixWorker implements AutoCloseable {
+    /** The longest wait before accepting again after accepting failed */
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1_000;
+
+    private final ServerSocketChannel server;
+    private final int port;
+    private final Thread acceptor;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /**
+     * Creates and starts a worker
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port could not be bound
+     */
+    public MatrixWorker(int port) throws IOException {
+        this.server = ServerSocketChannel.open().bind(new InetSocketAddress(port));
+        this.port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+        this.acceptor = new Thread(this::acceptLoop, "matrix-worker-" + this.port);
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    private void acceptLoop() {
+        long backoffMillis = 0;
+        while (!closed) {
+            try {
+                SocketChannel channel = server.accept();
+                connections.add(channel);
+                // Accepted while closing, close may already have gone over the connections.
+                if (closed) {
+                    channel.close();
+                    return;
+                }
+                backoffMillis = 0;
+                // Platform threads, as a multiply keeps its thread busy for its whole duration.
+                Thread.ofPlatform().daemon().name("matrix-worker-" + port + "-connection").start(() -> serve(channel));
+            } catch (IOException exception) {
+                if (closed)
+                    return;
+                // Failures such as running out of file descriptors tend to repeat, don't spin on them.
+                backoffMillis = Math.min(MAX_ACCEPT_BACKOFF_MILLIS, Math.max(1, backoffMillis * 2));
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        try (channel) {
+            SquareMatrix[] operands;
+            while ((operands = MatrixProtocol.readRequest(channel)) != null) {
+                SquareMatrix product;
+                try {
+                    product = SquareMatrix.matrixMultiplyStrassen(operands[0], operands[1]);
+                } catch (RuntimeException exception) {
+                    MatrixProtocol.writeError(channel, exception.toString());
+                    continue;
+                }
+                MatrixProtocol.writeResult(channel, product);
+            }
+        } catch (IOException exception) {
+            // The coordinator went away mid request, it recovers on its own.
+        } finally {
+            connections.remove(channel);
+        }
+    }
+
+    /**
+     * Stops listening and drops every open connection
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+        for (SocketChannel channel : connections) {
+            channel.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        MatrixWorker worker = new MatrixWorker(args.length > 0 ? Integer.parseInt(args[0]) : 0);
+        System.out.println("Listening on port " + worker.getPort());
+        System.out.flush();
+        worker.acceptor.join();
+    }
+}
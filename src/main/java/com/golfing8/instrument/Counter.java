@@ -0,0 +1,53 @@
+package com.golfing8.instrument;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The work counters maintained by {@link Instrumentation}.
+ */
+public enum Counter {
+    /** Floating point additions, subtractions and multiplications on matrix elements */
+    FLOPS(false),
+    /** Matrices and other large buffers allocated */
+    ALLOCATIONS(false),
+    /** The deepest recursion reached, a maximum rather than a sum */
+    RECURSION_DEPTH(true),
+    /** Elements pushed onto priority queues */
+    HEAP_PUSHES(false),
+    /** Elements popped from priority queues */
+    HEAP_POPS(false),
+    /** Edges examined while growing shortest path or spanning trees */
+    EDGE_RELAXATIONS(false),
+    ;
+
+    /** If this counter keeps the largest value recorded instead of the sum */
+    private final boolean maximum;
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Counter(boolean maximum) {
+        this.maximum = maximum;
+    }
+
+    public boolean isMaximum() {
+        return maximum;
+    }
+
+    void record(long value) {
+        if (maximum) {
+            max.accumulate(value);
+        } else {
+            sum.add(value);
+        }
+    }
+
+    long get() {
+        return maximum ? max.get() : sum.sum();
+    }
+
+    void reset() {
+        sum.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,31 @@
+package com.golfing8.instrument;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+/**
+ * A periodic JFR event sampling every {@link Counter}.
+ */
+@Name("com.golfing8.Counters")
+@Label("Counters")
+@Category("CS520")
+@Description("The instrumentation counters at the time of the sample")
+@Period("1 s")
+class CountersEvent extends Event {
+    @Label("FLOPs")
+    long flops;
+    @Label("Allocations")
+    long allocations;
+    @Label("Recursion Depth")
+    long recursionDepth;
+    @Label("Heap Pushes")
+    long heapPushes;
+    @Label("Heap Pops")
+    long heapPops;
+    @Label("Edge Relaxations")
+    long edgeRelaxations;
+}
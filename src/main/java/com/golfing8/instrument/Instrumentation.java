@@ -0,0 +1,182 @@
+package com.golfing8.instrument;
+
+import jdk.jfr.FlightRecorder;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters, phase timers, progress listeners and JFR events for the algorithms in this library.
+ * <p></p>
+ * Instrumentation is enabled by starting the JVM with {@code -Dgolfing8.instrument=true}. Otherwise
+ * {@link #ENABLED} is a constant false and every method here returns immediately, so the JIT removes the calls
+ * once they are inlined. Arguments should stay cheap to compute, as they are still evaluated.
+ */
+public final class Instrumentation {
+    /** If instrumentation is enabled, fixed at startup */
+    public static final boolean ENABLED = Boolean.getBoolean("golfing8.instrument");
+
+    /** The total time and count of every phase */
+    private static final Map<String, LongAdder[]> PHASES = new ConcurrentHashMap<>();
+    private static final List<ProgressListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    static {
+        if (ENABLED) {
+            FlightRecorder.addPeriodicEvent(CountersEvent.class, () -> {
+                CountersEvent event = new CountersEvent();
+                event.flops = Counter.FLOPS.get();
+                event.allocations = Counter.ALLOCATIONS.get();
+                event.recursionDepth = Counter.RECURSION_DEPTH.get();
+                event.heapPushes = Counter.HEAP_PUSHES.get();
+                event.heapPops = Counter.HEAP_POPS.get();
+                event.edgeRelaxations = Counter.EDGE_RELAXATIONS.get();
+                event.commit();
+            });
+        }
+    }
+
+    private Instrumentation() {}
+
+    /**
+     * The accumulated time spent in a phase
+     *
+     * @param count the times the phase ran
+     * @param nanos the total nanoseconds spent in it
+     */
+    public record PhaseTotal(long count, long nanos) {}
+
+    /**
+     * Adds to a counter, or records a new value for a maximum counter
+     *
+     * @param counter the counter
+     * @param value the value
+     */
+    public static void add(Counter counter, long value) {
+        if (!ENABLED)
+            return;
+
+        counter.record(value);
+    }
+
+    /**
+     * Adds one to a counter
+     *
+     * @param counter the counter
+     */
+    public static void increment(Counter counter) {
+        add(counter, 1);
+    }
+
+    /**
+     * Records that a recursion reached the given depth
+     *
+     * @param depth the depth
+     */
+    public static void depth(int depth) {
+        add(Counter.RECURSION_DEPTH, depth);
+    }
+
+    /**
+     * Gets the current value of a counter
+     *
+     * @param counter the counter
+     * @return the value, always 0 while disabled
+     */
+    public static long get(Counter counter) {
+        return ENABLED ? counter.get() : 0;
+    }
+
+    /**
+     * Takes a snapshot of every counter
+     *
+     * @return the values by counter
+     */
+    public static Map<Counter, Long> counters() {
+        Map<Counter, Long> snapshot = new EnumMap<>(Counter.class);
+        for (Counter counter : Counter.values()) {
+            snapshot.put(counter, get(counter));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Starts timing a phase. Use in a try-with-resources block.
+     *
+     * @param name the phase
+     * @return the running phase, a shared no-op while disabled
+     */
+    public static Phase phase(String name) {
+        return ENABLED ? new Phase(name) : Phase.NONE;
+    }
+
+    static void phaseEnded(String name, long nanos) {
+        // The count and the total nanoseconds.
+        LongAdder[] total = PHASES.computeIfAbsent(name, k -> new LongAdder[] {new LongAdder(), new LongAdder()});
+        total[0].increment();
+        total[1].add(nanos);
+        for (ProgressListener listener : LISTENERS) {
+            listener.onPhaseEnd(name, nanos);
+        }
+    }
+
+    /**
+     * Gets the accumulated time of every phase that has ended
+     *
+     * @return the totals by phase name, sorted
+     */
+    public static Map<String, PhaseTotal> phases() {
+        Map<String, PhaseTotal> snapshot = new TreeMap<>();
+        PHASES.forEach((name, total) -> snapshot.put(name, new PhaseTotal(total[0].sum(), total[1].sum())));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Reports progress to the listeners
+     *
+     * @param operation the operation
+     * @param completed the units of work completed
+     * @param total the total units of work
+     */
+    public static void progress(String operation, long completed, long total) {
+        if (!ENABLED)
+            return;
+
+        for (ProgressListener listener : LISTENERS) {
+            listener.onProgress(operation, completed, total);
+        }
+    }
+
+    /**
+     * Adds a progress listener. Listeners are only called while instrumentation is enabled.
+     *
+     * @param listener the listener
+     */
+    public static void addListener(ProgressListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Removes a progress listener
+     *
+     * @param listener the listener
+     */
+    public static void removeListener(ProgressListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Resets every counter and phase total
+     */
+    public static void reset() {
+        for (Counter counter : Counter.values()) {
+            counter.reset();
+        }
+        PHASES.clear();
+    }
+}
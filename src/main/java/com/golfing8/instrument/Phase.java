@@ -0,0 +1,37 @@
+package com.golfing8.instrument;
+
+/**
+ * A running phase timer, stopped by closing it. Obtain one from {@link Instrumentation#phase(String)}.
+ */
+public final class Phase implements AutoCloseable {
+    /** The phase handed out while instrumentation is disabled */
+    static final Phase NONE = new Phase(null);
+
+    private final String name;
+    private final long start;
+    private final PhaseEvent event;
+
+    Phase(String name) {
+        this.name = name;
+        if (name == null) {
+            this.start = 0;
+            this.event = null;
+            return;
+        }
+
+        this.event = new PhaseEvent();
+        this.event.phase = name;
+        this.event.begin();
+        this.start = System.nanoTime();
+    }
+
+    @Override
+    public void close() {
+        if (name == null)
+            return;
+
+        long nanos = System.nanoTime() - start;
+        event.commit();
+        Instrumentation.phaseEnded(name, nanos);
+    }
+}
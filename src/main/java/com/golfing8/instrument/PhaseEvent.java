@@ -0,0 +1,19 @@
+package com.golfing8.instrument;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event spanning a timed {@link Phase}.
+ */
+@Name("com.golfing8.Phase")
+@Label("Phase")
+@Category("CS520")
+@Description("A timed phase of an instrumented algorithm")
+class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+}
@@ -0,0 +1,23 @@
+package com.golfing8.instrument;
+
+/**
+ * Receives progress reports from instrumented algorithms. Listeners may be called from any thread, concurrently.
+ */
+public interface ProgressListener {
+    /**
+     * Called as an operation makes progress
+     *
+     * @param operation the operation, such as {@code "strassen"}
+     * @param completed the units of work completed
+     * @param total the total units of work
+     */
+    void onProgress(String operation, long completed, long total);
+
+    /**
+     * Called when a timed phase ends
+     *
+     * @param phase the phase
+     * @param nanos the duration of the phase in nanoseconds
+     */
+    default void onPhaseEnd(String phase, long nanos) {}
+}
@@ -0,0 +1,352 @@
+package com.golfing8.service;
+
+import com.golfing8.struct.SquareMatrix;
+import com.golfing8.util.GraphUtil;
+import com.google.common.graph.Graph;
+import com.google.common.graph.ValueGraph;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * An in process asynchronous facade over the matrix and graph algorithms, for serving many concurrent callers.
+ * <p></p>
+ * <ul>
+ *     <li>Admission is bounded. At most {@link Settings#capacity()} requests are queued or running, and further
+ *     callers wait up to {@link Settings#admissionTimeoutMillis()} before being rejected with a
+ *     {@link RejectedExecutionException}.</li>
+ *     <li>Identical requests arriving while one is in flight share its computation. Matrices are compared by
+ *     content, graphs by identity.</li>
+ *     <li>Multiplies of at most {@link Settings#smallSize()} are gathered into batches run as a single task, for up to
+ *     {@link Settings#batchSize()} multiplies or {@link Settings#batchDelayMicros()}.</li>
+ *     <li>The latency of every request, from the call to its completion, is recorded per {@link Operation}.</li>
+ * </ul>
+ * Returned futures are independent copies, so completing or cancelling one does not affect other callers.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public class ComputeService implements AutoCloseable {
+    /**
+     * The operations offered by the service
+     */
+    public enum Operation {
+        MULTIPLY,
+        SHORTEST_PATH,
+    }
+
+    /**
+     * The configuration of a service
+     *
+     * @param workers the amount of worker threads
+     * @param capacity the most requests queued or running at once
+     * @param admissionTimeoutMillis how long a caller waits for capacity before being rejected
+     * @param smallSize the largest matrix size multiplied in batches
+     * @param batchSize the most multiplies in a batch
+     * @param batchDelayMicros how long a batch waits to fill up
+     */
+    public record Settings(int workers, int capacity, long admissionTimeoutMillis, int smallSize, int batchSize, long batchDelayMicros) {
+        public Settings {
+            if (workers <= 0 || capacity <= 0 || batchSize <= 0)
+                throw new IllegalArgumentException("Workers, capacity and batch size must be positive");
+            if (admissionTimeoutMillis < 0 || batchDelayMicros < 0)
+                throw new IllegalArgumentException("Timeouts must be non-negative");
+        }
+
+        /**
+         * @return settings using every processor, with room for 1024 requests
+         */
+        public static Settings defaults() {
+            return new Settings(Runtime.getRuntime().availableProcessors(), 1024, 100, 32, 64, 200);
+        }
+    }
+
+    /**
+     * Multiply requests, keyed by the exact content of both operands
+     */
+    private record MultiplyKey(SquareMatrix left, SquareMatrix right, int hash) {
+        MultiplyKey(SquareMatrix left, SquareMatrix right) {
+            this(left, right, 31 * left.hashCode() + right.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof MultiplyKey other && hash == other.hash
+                    && left.identical(other.left) && right.identical(other.right);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Shortest path requests, keyed by root and graph identity
+     */
+    private record ShortestPathKey(Object root, ValueGraph<?, ?> graph) {
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof ShortestPathKey other && graph == other.graph && Objects.equals(root, other.root);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(root) + System.identityHashCode(graph);
+        }
+    }
+
+    /**
+     * A small multiply waiting for its batch
+     */
+    private record PendingMultiply(SquareMatrix left, SquareMatrix right, CompletableFuture<SquareMatrix> result) {}
+
+    private final Settings settings;
+    private final ExecutorService workers;
+    private final Thread batcher;
+    private final BlockingQueue<PendingMultiply> smallMultiplies = new LinkedBlockingQueue<>();
+    private final Semaphore permits;
+    private final Map<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Creates and starts a service
+     *
+     * @param settings the settings
+     */
+    public ComputeService(Settings settings) {
+        this.settings = settings;
+        this.permits = new Semaphore(settings.capacity());
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(settings.workers(), runnable -> {
+            Thread thread = new Thread(runnable, "compute-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batcher = new Thread(this::batchLoop, "compute-batcher");
+        this.batcher.setDaemon(true);
+        this.batcher.start();
+    }
+
+    /**
+     * Multiplies two matrices
+     *
+     * @param left the left matrix
+     * @param right the right matrix
+     * @return the product, or a future failed with a {@link RejectedExecutionException} if the service is saturated
+     */
+    public CompletableFuture<SquareMatrix> multiply(SquareMatrix left, SquareMatrix right) {
+        long start = System.nanoTime();
+        if (left.getSize() != right.getSize())
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Size of matrices are not equal. Expecting " + left.getSize() + " was " + right.getSize()));
+
+        CompletableFuture<SquareMatrix> result = submit(new MultiplyKey(left, right), future -> {
+            if (left.getSize() <= settings.smallSize()) {
+                smallMultiplies.add(new PendingMultiply(left, right, future));
+            } else {
+                workers.execute(() -> complete(future, () -> SquareMatrix.matrixMultiplyStrassen(left, right)));
+            }
+        });
+        // Every caller gets its own copy of a shared product, as matrices are mutable.
+        return track(Operation.MULTIPLY, start, result.thenApply(SquareMatrix::new));
+    }
+
+    /**
+     * Computes the shortest path tree of a graph. The graph must not be modified while the request is in flight.
+     *
+     * @param root the root node
+     * @param graph the graph
+     * @return the shortest path tree, or a future failed with a {@link RejectedExecutionException} if the service is saturated
+     * @param <T> the node type
+     */
+    public <T> CompletableFuture<Graph<GraphUtil.CostElement<T>>> shortestPath(T root, ValueGraph<T, Double> graph) {
+        long start = System.nanoTime();
+        CompletableFuture<Graph<GraphUtil.CostElement<T>>> result = submit(new ShortestPathKey(root, graph),
+                future -> workers.execute(() -> complete(future, () -> GraphUtil.shortestPath(root, graph))));
+        return track(Operation.SHORTEST_PATH, start, result.copy());
+    }
+
+    /**
+     * Admits a request, or joins the identical one in flight
+     *
+     * @param key the request's key
+     * @param schedule schedules the computation, which must eventually complete the future
+     * @return the shared future of the request
+     */
+    @SuppressWarnings("unchecked")
+    private <R> CompletableFuture<R> submit(Object key, Consumer<CompletableFuture<R>> schedule) {
+        if (closed)
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Service is closed"));
+
+        CompletableFuture<R> existing = (CompletableFuture<R>) inFlight.get(key);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        try {
+            if (!permits.tryAcquire(settings.admissionTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                return CompletableFuture.failedFuture(new RejectedExecutionException("Service is saturated with " + settings.capacity() + " requests"));
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(exception);
+        }
+
+        CompletableFuture<R> future = new CompletableFuture<>();
+        existing = (CompletableFuture<R>) inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            // Lost the race to an identical request while waiting for a permit.
+            permits.release();
+            coalesced.increment();
+            return existing;
+        }
+
+        future.whenComplete((value, throwable) -> {
+            inFlight.remove(key, future);
+            permits.release();
+        });
+        try {
+            schedule.accept(future);
+        } catch (RejectedExecutionException exception) {
+            future.completeExceptionally(exception);
+        }
+        // Admitted while closing, after close may have swept the requests in flight. Close sets the flag first.
+        if (closed)
+            future.completeExceptionally(new RejectedExecutionException("Service is closed"));
+        return future;
+    }
+
+    private <R> CompletableFuture<R> track(Operation operation, long start, CompletableFuture<R> future) {
+        LatencyHistogram histogram = latencies.get(operation);
+        future.whenComplete((value, throwable) -> histogram.record(System.nanoTime() - start));
+        return future;
+    }
+
+    private static <R> void complete(CompletableFuture<R> future, Supplier<R> computation) {
+        try {
+            future.complete(computation.get());
+        } catch (Throwable throwable) {
+            future.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * Gathers small multiplies into batches until the service is closed
+     */
+    private void batchLoop() {
+        List<PendingMultiply> batch = new ArrayList<>(settings.batchSize());
+        while (!closed) {
+            try {
+                PendingMultiply first = smallMultiplies.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(settings.batchDelayMicros());
+                while (batch.size() < settings.batchSize()) {
+                    smallMultiplies.drainTo(batch, settings.batchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= settings.batchSize() || remaining <= 0)
+                        break;
+
+                    PendingMultiply next = smallMultiplies.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException exception) {
+                break;
+            }
+
+            List<PendingMultiply> run = List.copyOf(batch);
+            batch.clear();
+            batches.increment();
+            try {
+                workers.execute(() -> {
+                    for (PendingMultiply pending : run) {
+                        complete(pending.result(), () -> pending.left().matrixProduct(pending.right()));
+                    }
+                });
+            } catch (RejectedExecutionException exception) {
+                run.forEach(pending -> pending.result().completeExceptionally(exception));
+            }
+        }
+    }
+
+    /**
+     * Gets the latencies recorded for an operation
+     *
+     * @param operation the operation
+     * @return the histogram
+     */
+    public LatencyHistogram latencies(Operation operation) {
+        return latencies.get(operation);
+    }
+
+    /**
+     * @return the amount of requests that joined an identical one in flight
+     */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return the amount of requests rejected for lack of capacity
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the amount of small multiply batches run
+     */
+    public long batches() {
+        return batches.sum();
+    }
+
+    /**
+     * Stops accepting requests and fails every request that has not started
+     */
+    @Override
+    public void close() {
+        closed = true;
+        batcher.interrupt();
+        try {
+            batcher.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        RejectedExecutionException exception = new RejectedExecutionException("Service is closed");
+        for (PendingMultiply pending : smallMultiplies) {
+            pending.result().completeExceptionally(exception);
+        }
+        // Requests still queued on the workers are dropped, their futures are failed through the in flight map.
+        workers.shutdownNow();
+        inFlight.values().forEach(future -> future.completeExceptionally(exception));
+    }
+}
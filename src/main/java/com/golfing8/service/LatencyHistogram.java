@@ -0,0 +1,79 @@
+package com.golfing8.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of latencies in nanoseconds with power of two buckets.
+ * <p></p>
+ * Bucket {@code b} counts latencies in {@code [2^(b-1), 2^b)}, so percentiles are reported as the upper bound of
+ * their bucket and are at most twice the true value.
+ */
+public class LatencyHistogram {
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a latency
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * @return the mean latency in nanoseconds, or 0 if none were recorded
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) total.sum() / count;
+    }
+
+    /**
+     * @return the highest latency recorded in nanoseconds
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Estimates a percentile
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return an upper bound for the percentile in nanoseconds, or 0 if none were recorded
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile must be within [0, 100]. Was " + percentile);
+
+        long count = count();
+        if (count == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < 64; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank)
+                return Math.min(max(), bucket == 0 ? 0 : (bucket == 63 ? Long.MAX_VALUE : (1L << bucket) - 1));
+        }
+        return max();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0fns p50=%dns p99=%dns max=%dns", count(), mean(), percentile(50), percentile(99), max());
+    }
+}
@@ -0,0 +1,370 @@
+package com.golfing8.struct;
+
+import com.golfing8.concurrent.ThreadPools;
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.ValueGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * A weighted graph over the nodes {@code 0..n-1} stored in compressed sparse row form.
+ * <p></p>
+ * The arcs leaving node {@code u} are stored at indices {@code start(u)..end(u)-1} of the target and weight arrays,
+ * sorted by target. Undirected graphs store each edge once in both directions.
+ */
+public class CompactGraph {
+    /** The edge count above which graphs are built in parallel */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    /** The amount of edges handled by a single parallel task */
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    /** The amount of nodes */
+    private final int nodeCount;
+    /** Offsets of each node's arcs. Has {@code nodeCount + 1} entries */
+    private final int[] offsets;
+    /** The target node of every arc */
+    private final int[] targets;
+    /** The weight of every arc */
+    private final double[] weights;
+    /** If this graph is directed */
+    private final boolean directed;
+
+    CompactGraph(int nodeCount, int[] offsets, int[] targets, double[] weights, boolean directed) {
+        this.nodeCount = nodeCount;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.directed = directed;
+    }
+
+    /**
+     * Gets the amount of nodes in this graph
+     *
+     * @return the node count
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the amount of stored arcs. For undirected graphs this counts every non loop edge twice.
+     *
+     * @return the arc count
+     */
+    public int arcCount() {
+        return targets.length;
+    }
+
+    /**
+     * Checks if this graph is directed
+     *
+     * @return true if directed
+     */
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * Gets the index of the first arc leaving the given node
+     *
+     * @param node the node
+     * @return the first arc index
+     */
+    public int start(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * Gets the index after the last arc leaving the given node
+     *
+     * @param node the node
+     * @return the end arc index, exclusive
+     */
+    public int end(int node) {
+        return offsets[node + 1];
+    }
+
+    /**
+     * Gets the amount of arcs leaving the given node
+     *
+     * @param node the node
+     * @return the out degree
+     */
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * Gets the target node of the given arc
+     *
+     * @param arc the arc index
+     * @return the target node
+     */
+    public int target(int arc) {
+        return targets[arc];
+    }
+
+    /**
+     * Gets the weight of the given arc
+     *
+     * @param arc the arc index
+     * @return the weight
+     */
+    public double weight(int arc) {
+        return weights[arc];
+    }
+
+    /**
+     * Builds a graph from the first {@code edgeCount} entries of the given edge arrays.
+     * The arrays are not retained.
+     *
+     * @param nodeCount the amount of nodes
+     * @param sources the source of each edge
+     * @param targets the target of each edge
+     * @param weights the weight of each edge, or null to weigh every edge 1
+     * @param edgeCount the amount of edges to read
+     * @param directed if the graph is directed
+     * @return the graph
+     */
+    public static CompactGraph fromEdges(int nodeCount, int[] sources, int[] targets, double[] weights, int edgeCount, boolean directed) {
+        if (nodeCount < 0)
+            throw new IllegalArgumentException("Node count must be non-negative. Was " + nodeCount);
+        if (edgeCount > sources.length || edgeCount > targets.length || (weights != null && edgeCount > weights.length))
+            throw new IllegalArgumentException("Edge count exceeds edge arrays. Was " + edgeCount);
+
+        if (edgeCount < PARALLEL_THRESHOLD) {
+            return buildSequential(nodeCount, sources, targets, weights, edgeCount, directed);
+        }
+        return ThreadPools.GRAPH_EXECUTOR.submit(() -> buildParallel(nodeCount, sources, targets, weights, edgeCount, directed)).join();
+    }
+
+    /**
+     * Builds a graph from a Guava graph, with every node numbered by its index
+     *
+     * @param graph the graph
+     * @param nodes the index of every node of the graph
+     * @return the graph
+     * @param <T> the node type
+     */
+    @SuppressWarnings("UnstableApiUsage")
+    public static <T> CompactGraph fromValueGraph(ValueGraph<T, Double> graph, NodeIndex<T> nodes) {
+        if (nodes.size() != graph.nodes().size())
+            throw new IllegalArgumentException("Index does not cover the graph. Expecting " + graph.nodes().size() + " nodes was " + nodes.size());
+
+        int edgeCount = graph.edges().size();
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+        int edge = 0;
+        for (EndpointPair<T> pair : graph.edges()) {
+            sources[edge] = nodes.index(pair.nodeU());
+            targets[edge] = nodes.index(pair.nodeV());
+            weights[edge++] = graph.edgeValueOrDefault(pair, 0.0);
+        }
+        return fromEdges(nodes.size(), sources, targets, weights, edgeCount, graph.isDirected());
+    }
+
+    /**
+     * Relabels the nodes of this graph. Node {@code order[i]} of this graph becomes node i of the new one.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n + m * logd) Time</li>
+     *     <li>O(n + m) Space</li>
+     * </ul>
+     *
+     * @param order the old node of every new node, a permutation of {@code 0..n-1}
+     * @return the relabeled graph
+     */
+    public CompactGraph permute(int[] order) {
+        if (order.length != nodeCount)
+            throw new IllegalArgumentException("Order must list every node once. Expecting " + nodeCount + " nodes was " + order.length);
+
+        int[] rank = new int[nodeCount];
+        Arrays.fill(rank, -1);
+        int[] newOffsets = new int[nodeCount + 1];
+        for (int i = 0; i < nodeCount; i++) {
+            int node = order[i];
+            checkNode(node, nodeCount);
+            if (rank[node] != -1)
+                throw new IllegalArgumentException("Order must list every node once. Node was listed twice " + node);
+            rank[node] = i;
+            newOffsets[i + 1] = newOffsets[i] + degree(node);
+        }
+
+        int[] newTargets = new int[targets.length];
+        double[] newWeights = new double[weights.length];
+        if (targets.length < PARALLEL_THRESHOLD) {
+            permuteArcs(order, rank, newOffsets, newTargets, newWeights, 0, nodeCount);
+            return new CompactGraph(nodeCount, newOffsets, newTargets, newWeights, directed);
+        }
+
+        int nodeChunks = (nodeCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        ThreadPools.GRAPH_EXECUTOR.submit(() -> IntStream.range(0, nodeChunks).parallel().forEach(chunk ->
+                permuteArcs(order, rank, newOffsets, newTargets, newWeights, chunk * CHUNK_SIZE, Math.min(nodeCount, (chunk + 1) * CHUNK_SIZE))
+        )).join();
+        return new CompactGraph(nodeCount, newOffsets, newTargets, newWeights, directed);
+    }
+
+    /**
+     * Copies the relabeled arcs of new nodes {@code from..to-1}, keeping each adjacency list sorted
+     */
+    private void permuteArcs(int[] order, int[] rank, int[] newOffsets, int[] newTargets, double[] newWeights, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int position = newOffsets[i];
+            for (int arc = offsets[order[i]]; arc < offsets[order[i] + 1]; arc++) {
+                newTargets[position] = rank[targets[arc]];
+                newWeights[position++] = weights[arc];
+            }
+            sortArcs(newTargets, newWeights, newOffsets[i], newOffsets[i + 1]);
+        }
+    }
+
+    private static void checkNode(int node, int nodeCount) {
+        if (node < 0 || node >= nodeCount)
+            throw new IllegalArgumentException("Node is out of bounds for graph with " + nodeCount + " nodes. Was " + node);
+    }
+
+    private static CompactGraph buildSequential(int nodeCount, int[] sources, int[] targets, double[] weights, int edgeCount, boolean directed) {
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            int u = sources[i], v = targets[i];
+            checkNode(u, nodeCount);
+            checkNode(v, nodeCount);
+            offsets[u + 1]++;
+            if (!directed && u != v)
+                offsets[v + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        int[] cursor = new int[nodeCount];
+        System.arraycopy(offsets, 0, cursor, 0, nodeCount);
+        int[] adjacent = new int[offsets[nodeCount]];
+        double[] arcWeights = new double[offsets[nodeCount]];
+        for (int i = 0; i < edgeCount; i++) {
+            int u = sources[i], v = targets[i];
+            double w = weights == null ? 1.0 : weights[i];
+            int pos = cursor[u]++;
+            adjacent[pos] = v;
+            arcWeights[pos] = w;
+            if (!directed && u != v) {
+                pos = cursor[v]++;
+                adjacent[pos] = u;
+                arcWeights[pos] = w;
+            }
+        }
+        for (int u = 0; u < nodeCount; u++) {
+            sortArcs(adjacent, arcWeights, offsets[u], offsets[u + 1]);
+        }
+        return new CompactGraph(nodeCount, offsets, adjacent, arcWeights, directed);
+    }
+
+    private static CompactGraph buildParallel(int nodeCount, int[] sources, int[] targets, double[] weights, int edgeCount, boolean directed) {
+        int chunks = (edgeCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        // Count degrees, then scatter the arcs using atomic cursors. The order within a node is
+        // nondeterministic at this point, so every adjacency list is sorted afterward.
+        AtomicIntegerArray degrees = new AtomicIntegerArray(nodeCount);
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int end = Math.min(edgeCount, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                int u = sources[i], v = targets[i];
+                checkNode(u, nodeCount);
+                checkNode(v, nodeCount);
+                degrees.getAndIncrement(u);
+                if (!directed && u != v)
+                    degrees.getAndIncrement(v);
+            }
+        });
+
+        int[] offsets = new int[nodeCount + 1];
+        AtomicIntegerArray cursor = new AtomicIntegerArray(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            cursor.setPlain(i, offsets[i]);
+            offsets[i + 1] = offsets[i] + degrees.getPlain(i);
+        }
+
+        int[] adjacent = new int[offsets[nodeCount]];
+        double[] arcWeights = new double[offsets[nodeCount]];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int end = Math.min(edgeCount, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                int u = sources[i], v = targets[i];
+                double w = weights == null ? 1.0 : weights[i];
+                int pos = cursor.getAndIncrement(u);
+                adjacent[pos] = v;
+                arcWeights[pos] = w;
+                if (!directed && u != v) {
+                    pos = cursor.getAndIncrement(v);
+                    adjacent[pos] = u;
+                    arcWeights[pos] = w;
+                }
+            }
+        });
+
+        int nodeChunks = (nodeCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, nodeChunks).parallel().forEach(chunk -> {
+            int end = Math.min(nodeCount, (chunk + 1) * CHUNK_SIZE);
+            for (int u = chunk * CHUNK_SIZE; u < end; u++) {
+                sortArcs(adjacent, arcWeights, offsets[u], offsets[u + 1]);
+            }
+        });
+        return new CompactGraph(nodeCount, offsets, adjacent, arcWeights, directed);
+    }
+
+    private static boolean arcLess(int t1, double w1, int t2, double w2) {
+        return t1 < t2 || (t1 == t2 && Double.compare(w1, w2) < 0);
+    }
+
+    /**
+     * Sorts the arcs in the given range by target, then weight
+     */
+    private static void sortArcs(int[] targets, double[] weights, int from, int to) {
+        if (to - from <= 32) {
+            for (int i = from + 1; i < to; i++) {
+                int t = targets[i];
+                double w = weights[i];
+                int j = i - 1;
+                while (j >= from && arcLess(t, w, targets[j], weights[j])) {
+                    targets[j + 1] = targets[j];
+                    weights[j + 1] = weights[j];
+                    j--;
+                }
+                targets[j + 1] = t;
+                weights[j + 1] = w;
+            }
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        sortArcs(targets, weights, from, mid);
+        sortArcs(targets, weights, mid, to);
+        if (!arcLess(targets[mid], weights[mid], targets[mid - 1], weights[mid - 1]))
+            return;
+
+        int leftLength = mid - from;
+        int[] leftTargets = new int[leftLength];
+        double[] leftWeights = new double[leftLength];
+        System.arraycopy(targets, from, leftTargets, 0, leftLength);
+        System.arraycopy(weights, from, leftWeights, 0, leftLength);
+
+        int i = 0, j = mid, k = from;
+        while (i < leftLength && j < to) {
+            if (arcLess(targets[j], weights[j], leftTargets[i], leftWeights[i])) {
+                targets[k] = targets[j];
+                weights[k++] = weights[j++];
+            } else {
+                targets[k] = leftTargets[i];
+                weights[k++] = leftWeights[i++];
+            }
+        }
+        while (i < leftLength) {
+            targets[k] = leftTargets[i];
+            weights[k++] = leftWeights[i++];
+        }
+    }
+}
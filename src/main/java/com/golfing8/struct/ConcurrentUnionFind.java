@@ -0,0 +1,157 @@
+package com.golfing8.struct;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free disjoint-set forest over the elements {@code 0..n-1} that may be shared between threads.
+ * <p></p>
+ * Every element stores its rank and parent packed into a single long so both can be swapped with one CAS.
+ * Elements are linked strictly by increasing {@code (rank, index)}, which keeps the forest acyclic even
+ * when unions race, and paths are halved with CAS during finds.
+ * <ul>
+ *     <li>{@link #find(int)} never retries, it is wait-free and bounded by the path length</li>
+ *     <li>{@link #union(int, int)} retries only when another thread changed one of the two roots</li>
+ * </ul>
+ */
+public class ConcurrentUnionFind {
+    private static final long PARENT_MASK = 0xFFFFFFFFL;
+
+    /** The packed (rank << 32 | parent) word of every element */
+    private final AtomicLongArray nodes;
+    /** The amount of disjoint sets remaining */
+    private final AtomicInteger components;
+
+    /**
+     * Creates a union find where every element is in its own set
+     *
+     * @param size the amount of elements
+     */
+    public ConcurrentUnionFind(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("Size must be non-negative. Was " + size);
+
+        this.nodes = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            nodes.setPlain(i, i);
+        }
+        this.components = new AtomicInteger(size);
+    }
+
+    private static int parentOf(long word) {
+        return (int) (word & PARENT_MASK);
+    }
+
+    private static int rankOf(long word) {
+        return (int) (word >>> 32);
+    }
+
+    private static long pack(int rank, int parent) {
+        return ((long) rank << 32) | parent;
+    }
+
+    /**
+     * Finds the representative of the set containing the given element.
+     * The result may be stale by the time it is returned if other threads are performing unions.
+     *
+     * @param x the element
+     * @return the representative
+     */
+    public int find(int x) {
+        while (true) {
+            long word = nodes.get(x);
+            int parent = parentOf(word);
+            if (parent == x)
+                return x;
+
+            long parentWord = nodes.get(parent);
+            int grandparent = parentOf(parentWord);
+            if (grandparent == parent)
+                return parent;
+
+            // Path halving. The rank of a non-root never changes, so a failed CAS only means
+            // someone else already shortened this link.
+            nodes.compareAndSet(x, word, pack(rankOf(word), grandparent));
+            x = grandparent;
+        }
+    }
+
+    /**
+     * Merges the sets containing the two given elements
+     *
+     * @param x the first element
+     * @param y the second element
+     * @return true if this call merged two disjoint sets
+     */
+    public boolean union(int x, int y) {
+        while (true) {
+            int rx = find(x);
+            int ry = find(y);
+            if (rx == ry)
+                return false;
+
+            long wx = nodes.get(rx);
+            long wy = nodes.get(ry);
+            // One of them stopped being a root in the meantime, start over.
+            if (parentOf(wx) != rx || parentOf(wy) != ry)
+                continue;
+
+            int rankX = rankOf(wx);
+            int rankY = rankOf(wy);
+            // Always link the smaller (rank, index) under the larger one, this keeps the forest acyclic.
+            if (rankX > rankY || (rankX == rankY && rx > ry)) {
+                int tmp = rx; rx = ry; ry = tmp;
+                long tmpWord = wx; wx = wy; wy = tmpWord;
+                tmp = rankX; rankX = rankY; rankY = tmp;
+            }
+
+            if (!nodes.compareAndSet(rx, wx, pack(rankX, ry)))
+                continue;
+
+            // Rank is only a heuristic, it's fine if this loses a race.
+            if (rankX == rankY)
+                nodes.compareAndSet(ry, wy, pack(rankY + 1, ry));
+
+            components.decrementAndGet();
+            return true;
+        }
+    }
+
+    /**
+     * Checks if the two given elements are in the same set
+     *
+     * @param x the first element
+     * @param y the second element
+     * @return true if they are connected
+     */
+    public boolean connected(int x, int y) {
+        while (true) {
+            int rx = find(x);
+            int ry = find(y);
+            if (rx == ry)
+                return true;
+
+            // If rx is still a root then the two were disjoint at the moment we read it.
+            if (parentOf(nodes.get(rx)) == rx)
+                return false;
+        }
+    }
+
+    /**
+     * Gets the amount of disjoint sets
+     *
+     * @return the amount of sets
+     */
+    public int components() {
+        return components.get();
+    }
+
+    /**
+     * Gets the amount of elements in this structure
+     *
+     * @return the size
+     */
+    public int size() {
+        return nodes.length();
+    }
+}
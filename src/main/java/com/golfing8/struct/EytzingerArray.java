@@ -0,0 +1,132 @@
+package com.golfing8.struct;
+
+/**
+ * A static sorted set of doubles stored in Eytzinger (breadth first) order for fast searches.
+ * <p></p>
+ * Node {@code k} of the implicit search tree has children {@code 2k} and {@code 2k + 1}, so the top of the tree
+ * stays hot in cache and the 16 descendants four levels below a node share a few consecutive cache lines, which
+ * the hardware prefetcher picks up as the search descends. The tree is padded to a complete tree with
+ * {@link Double#POSITIVE_INFINITY} so every search takes exactly the same amount of steps, which lets
+ * {@link #lowerBounds(double[], int[])} run many searches in lock step to overlap their memory accesses.
+ */
+public class EytzingerArray {
+    /** The amount of searches interleaved by the batched lookups */
+    private static final int BATCH = 16;
+
+    /** The tree in breadth first order, 1 indexed */
+    private final double[] tree;
+    /** The index in the original sorted array of each tree node */
+    private final int[] ranks;
+    /** The amount of elements in the original array */
+    private final int size;
+    /** The amount of steps every search takes */
+    private final int levels;
+
+    /**
+     * Builds the search tree from the given sorted array
+     *
+     * @param sorted the sorted array
+     */
+    public EytzingerArray(double[] sorted) {
+        for (int i = 1; i < sorted.length; i++) {
+            if (!(sorted[i - 1] <= sorted[i]))
+                throw new IllegalArgumentException("Array must be sorted without NaNs. Index " + i + " was out of order");
+        }
+
+        this.size = sorted.length;
+        this.levels = 32 - Integer.numberOfLeadingZeros(size);
+        int capacity = (1 << levels) - 1;
+        this.tree = new double[capacity + 1];
+        this.ranks = new int[capacity + 1];
+        this.tree[0] = Double.NaN;
+        fill(sorted, 0, 1);
+    }
+
+    private int fill(double[] sorted, int i, int k) {
+        if (k < tree.length) {
+            i = fill(sorted, i, 2 * k);
+            tree[k] = i < size ? sorted[i] : Double.POSITIVE_INFINITY;
+            ranks[k] = Math.min(i, size);
+            i = fill(sorted, i + 1, 2 * k + 1);
+        }
+        return i;
+    }
+
+    /**
+     * Gets the amount of elements in this array
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Maps the final position of a search to the index in the sorted array
+     */
+    private int rankOf(int k) {
+        // Undo the trailing right turns plus the final left turn, leaving the last node that was not less than the key.
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k == 0 ? size : ranks[k];
+    }
+
+    /**
+     * Finds the first index in the sorted array whose element is not less than the key
+     *
+     * @param key the key
+     * @return the index, or {@link #size()} if every element is less than the key
+     */
+    public int lowerBound(double key) {
+        int k = 1;
+        for (int level = 0; level < levels; level++) {
+            k = 2 * k + (tree[k] < key ? 1 : 0);
+        }
+        return rankOf(k);
+    }
+
+    /**
+     * Checks if this array contains the given key
+     *
+     * @param key the key
+     * @return true if it is contained
+     */
+    public boolean contains(double key) {
+        int k = 1;
+        for (int level = 0; level < levels; level++) {
+            k = 2 * k + (tree[k] < key ? 1 : 0);
+        }
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k != 0 && ranks[k] < size && tree[k] == key;
+    }
+
+    /**
+     * Computes {@link #lowerBound(double)} for every key
+     *
+     * @param keys the keys
+     * @param results the array to store the result for each key in
+     */
+    public void lowerBounds(double[] keys, int[] results) {
+        if (results.length < keys.length)
+            throw new IllegalArgumentException("Results array is too small. Expected at least " + keys.length + " was " + results.length);
+
+        int[] positions = new int[BATCH];
+        int i = 0;
+        for (; i + BATCH <= keys.length; i += BATCH) {
+            for (int j = 0; j < BATCH; j++) {
+                positions[j] = 1;
+            }
+            for (int level = 0; level < levels; level++) {
+                for (int j = 0; j < BATCH; j++) {
+                    int k = positions[j];
+                    positions[j] = 2 * k + (tree[k] < keys[i + j] ? 1 : 0);
+                }
+            }
+            for (int j = 0; j < BATCH; j++) {
+                results[i + j] = rankOf(positions[j]);
+            }
+        }
+        for (; i < keys.length; i++) {
+            results[i] = lowerBound(keys[i]);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.golfing8.struct;
+
+import com.golfing8.concurrent.ThreadPools;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * A static, bulk loaded two dimensional k-d tree.
+ * <p></p>
+ * The tree is implicit: the points are reordered so the node of a range {@code [from, to)} is its middle element,
+ * the left subtree being {@code [from, mid)} and the right {@code [mid + 1, to)}. Nodes at even depths split on x
+ * and nodes at odd depths on y. Small ranges are left as unordered buckets and scanned.
+ * Coordinates and original indices are stored in flat arrays, with no per node objects.
+ * This structure is thread safe once built.
+ */
+public class KdTree {
+    /** Ranges with at most this many points are scanned rather than split */
+    private static final int BUCKET = 8;
+    /** Ranges with at least this many points are built in parallel */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] ids;
+
+    /**
+     * Builds a tree over the given points. The point set is not retained.
+     *
+     * @param points the points
+     */
+    public KdTree(PointSet points) {
+        int n = points.size();
+        this.xs = new double[n];
+        this.ys = new double[n];
+        this.ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = points.x(i);
+            ys[i] = points.y(i);
+            ids[i] = i;
+        }
+
+        Build build = new Build(0, n, 0);
+        if (n >= PARALLEL_THRESHOLD) {
+            ThreadPools.ARRAY_EXECUTOR.invoke(build);
+        } else {
+            build.compute();
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    private double key(int index, int depth) {
+        return (depth & 1) == 0 ? xs[index] : ys[index];
+    }
+
+    private void swap(int i, int j) {
+        double x = xs[i];
+        xs[i] = xs[j];
+        xs[j] = x;
+        double y = ys[i];
+        ys[i] = ys[j];
+        ys[j] = y;
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+
+    /**
+     * Reorders {@code [from, to)} so the element at {@code k} is in its sorted position for the given depth's
+     * dimension, with no greater element before it and no smaller one after it
+     */
+    private void select(int from, int to, int k, int depth) {
+        int low = from, high = to - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            double a = key(low, depth), b = key(mid, depth), c = key(high, depth);
+            double pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+
+            int i = low, j = high;
+            while (i <= j) {
+                while (key(i, depth) < pivot)
+                    i++;
+                while (key(j, depth) > pivot)
+                    j--;
+                if (i <= j)
+                    swap(i++, j--);
+            }
+            // [low, j] <= pivot, [i, high] >= pivot and everything strictly between equals the pivot.
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private class Build extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int depth;
+
+        Build(int from, int to, int depth) {
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BUCKET)
+                return;
+
+            int mid = (from + to) >>> 1;
+            select(from, to, mid, depth);
+            Build left = new Build(from, mid, depth + 1);
+            Build right = new Build(mid + 1, to, depth + 1);
+            if (to - from >= PARALLEL_THRESHOLD) {
+                invokeAll(left, right);
+            } else {
+                left.compute();
+                right.compute();
+            }
+        }
+    }
+
+    private double distanceSquared(int index, double x, double y) {
+        double distX = xs[index] - x;
+        double distY = ys[index] - y;
+        return distX * distX + distY * distY;
+    }
+
+    /**
+     * Finds the k points nearest to the given location
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(k * logn) Time, expected for well spread points</li>
+     *     <li>O(k) Space</li>
+     * </ul>
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param k the amount of points
+     * @return the indices of at most k points, nearest first
+     */
+    public int[] nearest(double x, double y, int k) {
+        NearestNeighbors neighbors = new NearestNeighbors(k);
+        nearest(0, ids.length, 0, x, y, neighbors);
+        return neighbors.drain();
+    }
+
+    private void nearest(int from, int to, int depth, double x, double y, NearestNeighbors neighbors) {
+        if (to - from <= BUCKET) {
+            for (int i = from; i < to; i++) {
+                double distance = distanceSquared(i, x, y);
+                if (distance < neighbors.bound())
+                    neighbors.offer(distance, ids[i]);
+            }
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        double distance = distanceSquared(mid, x, y);
+        if (distance < neighbors.bound())
+            neighbors.offer(distance, ids[mid]);
+
+        double difference = ((depth & 1) == 0 ? x : y) - key(mid, depth);
+        if (difference < 0) {
+            nearest(from, mid, depth + 1, x, y, neighbors);
+            if (difference * difference < neighbors.bound())
+                nearest(mid + 1, to, depth + 1, x, y, neighbors);
+        } else {
+            nearest(mid + 1, to, depth + 1, x, y, neighbors);
+            if (difference * difference < neighbors.bound())
+                nearest(from, mid, depth + 1, x, y, neighbors);
+        }
+    }
+
+    /**
+     * Finds every point within the given distance of a location
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param radius the distance, inclusive
+     * @return the indices of the points, in no particular order
+     */
+    public int[] withinRadius(double x, double y, double radius) {
+        IntStream.Builder result = IntStream.builder();
+        withinRadius(0, ids.length, 0, x, y, radius * radius, result);
+        return result.build().toArray();
+    }
+
+    private void withinRadius(int from, int to, int depth, double x, double y, double radiusSquared, IntStream.Builder result) {
+        if (to - from <= BUCKET) {
+            for (int i = from; i < to; i++) {
+                if (distanceSquared(i, x, y) <= radiusSquared)
+                    result.add(ids[i]);
+            }
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        if (distanceSquared(mid, x, y) <= radiusSquared)
+            result.add(ids[mid]);
+
+        double difference = ((depth & 1) == 0 ? x : y) - key(mid, depth);
+        if (difference <= 0 || difference * difference <= radiusSquared)
+            withinRadius(from, mid, depth + 1, x, y, radiusSquared, result);
+        if (difference >= 0 || difference * difference <= radiusSquared)
+            withinRadius(mid + 1, to, depth + 1, x, y, radiusSquared, result);
+    }
+
+    /**
+     * Finds every point within the given axis aligned rectangle, bounds inclusive
+     *
+     * @param minX the lowest x coordinate
+     * @param minY the lowest y coordinate
+     * @param maxX the highest x coordinate
+     * @param maxY the highest y coordinate
+     * @return the indices of the points, in no particular order
+     */
+    public int[] withinRectangle(double minX, double minY, double maxX, double maxY) {
+        IntStream.Builder result = IntStream.builder();
+        withinRectangle(0, ids.length, 0, minX, minY, maxX, maxY, result);
+        return result.build().toArray();
+    }
+
+    private void withinRectangle(int from, int to, int depth, double minX, double minY, double maxX, double maxY,
+                                 IntStream.Builder result) {
+        if (to - from <= BUCKET) {
+            for (int i = from; i < to; i++) {
+                if (xs[i] >= minX && xs[i] <= maxX && ys[i] >= minY && ys[i] <= maxY)
+                    result.add(ids[i]);
+            }
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        if (xs[mid] >= minX && xs[mid] <= maxX && ys[mid] >= minY && ys[mid] <= maxY)
+            result.add(ids[mid]);
+
+        double key = key(mid, depth);
+        boolean even = (depth & 1) == 0;
+        if ((even ? minX : minY) <= key)
+            withinRectangle(from, mid, depth + 1, minX, minY, maxX, maxY, result);
+        if ((even ? maxX : maxY) >= key)
+            withinRectangle(mid + 1, to, depth + 1, minX, minY, maxX, maxY, result);
+    }
+}
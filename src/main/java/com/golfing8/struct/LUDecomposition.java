@@ -0,0 +1,398 @@
+package com.golfing8.struct;
+
+import com.golfing8.concurrent.ThreadPools;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The LU decomposition with partial pivoting of a square matrix, {@code P * A = L * U}, where {@code P} is a row
+ * permutation, {@code L} is unit lower triangular and {@code U} is upper triangular.
+ * <p></p>
+ * The factorization, the triangular solves and the inverse are recursive. Every level splits its columns in half,
+ * and all work outside of blocks of at most {@link #BASE} columns is a product of square blocks computed by
+ * {@link SquareMatrix#matrixMultiplyStrassen(SquareMatrix, SquareMatrix)}, so the running time follows the
+ * multiplication. Products of independent blocks are computed in parallel.
+ * <p></p>
+ * The matrix is padded with an identity block up to a size that halves evenly down to at most {@link #BASE},
+ * which adds less than {@code 2 * n / BASE} rows. The padding never couples with the original matrix.
+ * This structure is thread safe once built.
+ */
+public class LUDecomposition {
+    /** Blocks of at most this many columns are factored and solved directly */
+    private static final int BASE = 64;
+    /** Block products of at least this size are run in parallel with their siblings */
+    private static final int PARALLEL_SIZE = 128;
+
+    /** The size of the decomposed matrix */
+    private final int size;
+    /** The padded size, a power of two multiple of a size of at most {@link #BASE} */
+    private final int paddedSize;
+    /** L below the diagonal and U on and above it, column major with the padded size as leading dimension */
+    private final double[] lu;
+    /** The original row of every row of the factorization */
+    private final int[] permutation;
+    /** The sign of the permutation */
+    private final int pivotSign;
+
+    /**
+     * Decomposes the given matrix. The matrix is not modified.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n^2.81) Time</li>
+     *     <li>O(n^2) Space</li>
+     * </ul>
+     *
+     * @param matrix the matrix
+     */
+    public LUDecomposition(SquareMatrix matrix) {
+        this.size = matrix.getSize();
+        this.paddedSize = paddedSize(size);
+        this.lu = new double[paddedSize * paddedSize];
+        double[] data = matrix.getData();
+        for (int j = 0; j < size; j++) {
+            System.arraycopy(data, j * size, lu, j * paddedSize, size);
+        }
+        for (int i = size; i < paddedSize; i++) {
+            lu[i + i * paddedSize] = 1;
+        }
+
+        this.permutation = IntStream.range(0, paddedSize).toArray();
+        this.pivotSign = factor(0, paddedSize) % 2 == 0 ? 1 : -1;
+    }
+
+    /**
+     * Finds the smallest size of at least n which halves evenly down to at most {@link #BASE}
+     */
+    private static int paddedSize(int n) {
+        int shift = 0;
+        while ((n + (1 << shift) - 1) >> shift > BASE)
+            shift++;
+        return ((n + (1 << shift) - 1) >> shift) << shift;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Factors the panel of the columns {@code [column, column + width)}, from the diagonal down, in place
+     *
+     * @return the amount of row swaps
+     */
+    private int factor(int column, int width) {
+        if (width <= BASE)
+            return factorDirect(column, width);
+
+        int half = width / 2;
+        int swaps = factor(column, half);
+        // U12 = L11^-1 * A12, then A22 -= L21 * U12 for every square block of rows below.
+        solveLower(column, half, lu, column, column + half, half);
+        multiplySubtract(lu, column + half, column + half, column + half, column, column, column + half, half,
+                (paddedSize - column - half) / half, 1);
+        return swaps + factor(column + half, half);
+    }
+
+    /**
+     * Factors the panel of the columns {@code [column, column + width)} with scalar gaussian elimination
+     */
+    private int factorDirect(int column, int width) {
+        int n = paddedSize;
+        int swaps = 0;
+        for (int j = column; j < column + width; j++) {
+            int pivot = j;
+            for (int i = j + 1; i < n; i++) {
+                if (Math.abs(lu[i + j * n]) > Math.abs(lu[pivot + j * n]))
+                    pivot = i;
+            }
+            if (pivot != j) {
+                swapRows(j, pivot);
+                swaps++;
+            }
+
+            double diagonal = lu[j + j * n];
+            // A zero column below the diagonal needs no elimination, the matrix is singular.
+            if (diagonal == 0)
+                continue;
+            for (int i = j + 1; i < n; i++) {
+                lu[i + j * n] /= diagonal;
+            }
+            for (int k = j + 1; k < column + width; k++) {
+                double factor = lu[j + k * n];
+                if (factor == 0)
+                    continue;
+                for (int i = j + 1; i < n; i++) {
+                    lu[i + k * n] -= lu[i + j * n] * factor;
+                }
+            }
+        }
+        return swaps;
+    }
+
+    private void swapRows(int i, int j) {
+        for (int k = 0; k < paddedSize; k++) {
+            double value = lu[i + k * paddedSize];
+            lu[i + k * paddedSize] = lu[j + k * paddedSize];
+            lu[j + k * paddedSize] = value;
+        }
+        int row = permutation[i];
+        permutation[i] = permutation[j];
+        permutation[j] = row;
+    }
+
+    /**
+     * Copies a square block out of a padded array
+     */
+    private SquareMatrix block(double[] array, int row, int column, int blockSize) {
+        double[] data = new double[blockSize * blockSize];
+        for (int j = 0; j < blockSize; j++) {
+            System.arraycopy(array, row + (column + j) * paddedSize, data, j * blockSize, blockSize);
+        }
+        return new SquareMatrix(blockSize, data);
+    }
+
+    /**
+     * Computes {@code C -= A * B} for a grid of square blocks, where block {@code (r, c)} of {@code C} takes the
+     * product of block {@code r} of a column of blocks of {@code A} and block {@code c} of a row of blocks of
+     * {@code B}. A lies in the factorization, B and C in the given array.
+     */
+    private void multiplySubtract(double[] array, int cRow, int cColumn, int aRow, int aColumn, int bRow, int bColumn,
+                                  int blockSize, int blockRows, int blockColumns) {
+        int blocks = blockRows * blockColumns;
+        IntConsumer update = index -> {
+            int r = index % blockRows, c = index / blockRows;
+            SquareMatrix product = SquareMatrix.matrixMultiplyStrassen(
+                    block(lu, aRow + r * blockSize, aColumn, blockSize),
+                    block(array, bRow, bColumn + c * blockSize, blockSize));
+            double[] data = product.getData();
+            for (int j = 0; j < blockSize; j++) {
+                int offset = cRow + r * blockSize + (cColumn + c * blockSize + j) * paddedSize;
+                for (int i = 0; i < blockSize; i++) {
+                    array[offset + i] -= data[i + j * blockSize];
+                }
+            }
+        };
+
+        if (blocks > 1 && blockSize >= PARALLEL_SIZE) {
+            ThreadPools.MATRIX_EXECUTOR.submit(() -> IntStream.range(0, blocks).parallel().forEach(update)).join();
+        } else {
+            for (int index = 0; index < blocks; index++) {
+                update.accept(index);
+            }
+        }
+    }
+
+    /**
+     * Solves {@code L * X = B} in place, for the unit lower triangular diagonal block of L at
+     * {@code [offset, offset + blockSize)} and the block of B with the same rows starting at the given column
+     */
+    private void solveLower(int offset, int blockSize, double[] b, int bRow, int bColumn, int columns) {
+        int n = paddedSize;
+        if (blockSize <= BASE) {
+            for (int c = bColumn; c < bColumn + columns; c++) {
+                for (int k = 0; k < blockSize; k++) {
+                    double x = b[bRow + k + c * n];
+                    if (x == 0)
+                        continue;
+                    for (int i = k + 1; i < blockSize; i++) {
+                        b[bRow + i + c * n] -= lu[offset + i + (offset + k) * n] * x;
+                    }
+                }
+            }
+            return;
+        }
+
+        int half = blockSize / 2;
+        solveLower(offset, half, b, bRow, bColumn, columns);
+        multiplySubtract(b, bRow + half, bColumn, offset + half, offset, bRow, bColumn, half, 1, columns / half);
+        solveLower(offset + half, half, b, bRow + half, bColumn, columns);
+    }
+
+    /**
+     * Solves {@code U * X = B} in place, for the upper triangular diagonal block of U at
+     * {@code [offset, offset + blockSize)} and the block of B with the same rows starting at the given column
+     */
+    private void solveUpper(int offset, int blockSize, double[] b, int bRow, int bColumn, int columns) {
+        int n = paddedSize;
+        if (blockSize <= BASE) {
+            for (int c = bColumn; c < bColumn + columns; c++) {
+                for (int k = blockSize - 1; k >= 0; k--) {
+                    double x = b[bRow + k + c * n] /= lu[offset + k + (offset + k) * n];
+                    if (x == 0)
+                        continue;
+                    for (int i = 0; i < k; i++) {
+                        b[bRow + i + c * n] -= lu[offset + i + (offset + k) * n] * x;
+                    }
+                }
+            }
+            return;
+        }
+
+        int half = blockSize / 2;
+        solveUpper(offset + half, half, b, bRow + half, bColumn, columns);
+        multiplySubtract(b, bRow, bColumn, offset, offset + half, bRow + half, bColumn, half, 1, columns / half);
+        solveUpper(offset, half, b, bRow, bColumn, columns);
+    }
+
+    /**
+     * Checks if the decomposed matrix is singular
+     *
+     * @return true if a diagonal element of U is zero
+     */
+    public boolean isSingular() {
+        for (int i = 0; i < size; i++) {
+            if (lu[i + i * paddedSize] == 0)
+                return true;
+        }
+        return false;
+    }
+
+    private void requireNonSingular() {
+        if (isSingular())
+            throw new ArithmeticException("Matrix is singular");
+    }
+
+    /**
+     * Calculates the determinant of the decomposed matrix
+     *
+     * @return the determinant
+     */
+    public double determinant() {
+        double determinant = pivotSign;
+        for (int i = 0; i < size; i++) {
+            determinant *= lu[i + i * paddedSize];
+        }
+        return determinant;
+    }
+
+    /**
+     * Solves {@code A * x = b} by forward and back substitution
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n^2) Time</li>
+     *     <li>O(n) Space</li>
+     * </ul>
+     *
+     * @param b the right hand side
+     * @return x
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public double[] solve(double[] b) {
+        if (b.length != size)
+            throw new IllegalArgumentException("Right hand side length does not match the matrix. Expecting " + size + " was " + b.length);
+        requireNonSingular();
+
+        int n = paddedSize;
+        double[] x = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = b[permutation[i]];
+        }
+        // Column oriented, so the inner loops walk the contiguous columns of the factorization.
+        for (int k = 0; k < size; k++) {
+            for (int i = k + 1; i < size; i++) {
+                x[i] -= lu[i + k * n] * x[k];
+            }
+        }
+        for (int k = size - 1; k >= 0; k--) {
+            x[k] /= lu[k + k * n];
+            for (int i = 0; i < k; i++) {
+                x[i] -= lu[i + k * n] * x[k];
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Solves {@code A * X = B} with recursive triangular solves
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n^2.81) Time</li>
+     *     <li>O(n^2) Space</li>
+     * </ul>
+     *
+     * @param b the right hand side
+     * @return X
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public SquareMatrix solve(SquareMatrix b) {
+        if (b.getSize() != size)
+            throw new IllegalArgumentException("Size of matrices are not equal. Expecting " + size + " was " + b.getSize());
+        requireNonSingular();
+
+        int n = paddedSize;
+        double[] data = b.getData();
+        double[] x = new double[n * n];
+        for (int j = 0; j < size; j++) {
+            for (int i = 0; i < size; i++) {
+                x[i + j * n] = data[permutation[i] + j * size];
+            }
+        }
+        solveLower(0, n, x, 0, 0, n);
+        solveUpper(0, n, x, 0, 0, n);
+
+        double[] result = new double[size * size];
+        for (int j = 0; j < size; j++) {
+            System.arraycopy(x, j * n, result, j * size, size);
+        }
+        return new SquareMatrix(size, result);
+    }
+
+    /**
+     * Calculates the inverse of the decomposed matrix
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n^2.81) Time</li>
+     *     <li>O(n^2) Space</li>
+     * </ul>
+     *
+     * @return the inverse
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public SquareMatrix inverse() {
+        double[] identity = new double[size * size];
+        for (int i = 0; i < size; i++) {
+            identity[i + i * size] = 1;
+        }
+        return solve(new SquareMatrix(size, identity));
+    }
+
+    /**
+     * @return the unit lower triangular factor L
+     */
+    public SquareMatrix lower() {
+        double[] data = new double[size * size];
+        for (int j = 0; j < size; j++) {
+            data[j + j * size] = 1;
+            for (int i = j + 1; i < size; i++) {
+                data[i + j * size] = lu[i + j * paddedSize];
+            }
+        }
+        return new SquareMatrix(size, data);
+    }
+
+    /**
+     * @return the upper triangular factor U
+     */
+    public SquareMatrix upper() {
+        double[] data = new double[size * size];
+        for (int j = 0; j < size; j++) {
+            for (int i = 0; i <= j; i++) {
+                data[i + j * size] = lu[i + j * paddedSize];
+            }
+        }
+        return new SquareMatrix(size, data);
+    }
+
+    /**
+     * @return the original row of every row of the factorization, the permutation P
+     */
+    public int[] permutation() {
+        int[] result = new int[size];
+        System.arraycopy(permutation, 0, result, 0, size);
+        return result;
+    }
+}
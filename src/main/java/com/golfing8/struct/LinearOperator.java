@@ -0,0 +1,34 @@
+package com.golfing8.struct;
+
+/**
+ * A square linear map known only through its product with vectors, as used by iterative solvers.
+ * Vectors are 0 indexed.
+ */
+public interface LinearOperator {
+    /**
+     * Gets the dimension of the vectors this operator maps
+     *
+     * @return the size
+     */
+    int getSize();
+
+    /**
+     * Computes {@code y = A * x}. The arrays must not be the same.
+     *
+     * @param x the vector to multiply, of the operator's size
+     * @param y the vector to overwrite with the product, of the operator's size
+     */
+    void multiply(double[] x, double[] y);
+
+    /**
+     * Computes {@code A * x} into a new vector
+     *
+     * @param x the vector to multiply
+     * @return the product
+     */
+    default double[] multiply(double[] x) {
+        double[] y = new double[getSize()];
+        multiply(x, y);
+        return y;
+    }
+}
@@ -0,0 +1,233 @@
+package com.golfing8.struct;
+
+import com.golfing8.concurrent.ThreadPools;
+import com.golfing8.util.MaxSubArray;
+
+import java.util.stream.IntStream;
+
+/**
+ * A segment tree answering maximum sub array queries over arbitrary ranges of a fixed length array.
+ * <p></p>
+ * Every node stores the {@link MaxSubArray.Summary} of its range in flat primitive arrays, node {@code k} having
+ * children {@code 2k} and {@code 2k + 1}. A query merges O(logn) node summaries and a point update recomputes
+ * the O(logn) ancestors of the changed leaf.
+ * This structure is <b>not</b> thread safe.
+ */
+public class MaxSubArrayTree {
+    /** Levels with at least this many nodes are built in parallel */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    /** The amount of elements */
+    private final int size;
+    /** The amount of leaves, the smallest power of two at least {@link #size} */
+    private final int leaves;
+
+    private final long[] total;
+    private final long[] prefix;
+    private final long[] suffix;
+    private final long[] best;
+    private final int[] prefixEnd;
+    private final int[] suffixStart;
+    private final int[] bestStart;
+    private final int[] bestEnd;
+
+    /**
+     * Builds the tree over the given array. The array is not retained.
+     *
+     * @param array the array
+     */
+    public MaxSubArrayTree(int[] array) {
+        if (array.length == 0)
+            throw new IllegalArgumentException("Cannot build a tree over an empty array");
+
+        this.size = array.length;
+        this.leaves = size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        this.total = new long[2 * leaves];
+        this.prefix = new long[2 * leaves];
+        this.suffix = new long[2 * leaves];
+        this.best = new long[2 * leaves];
+        this.prefixEnd = new int[2 * leaves];
+        this.suffixStart = new int[2 * leaves];
+        this.bestStart = new int[2 * leaves];
+        this.bestEnd = new int[2 * leaves];
+
+        if (size < PARALLEL_THRESHOLD) {
+            for (int i = 0; i < size; i++) {
+                setLeaf(i, array[i]);
+            }
+            for (int k = leaves - 1; k >= 1; k--) {
+                pull(k);
+            }
+            return;
+        }
+
+        // Build level by level from the leaves up, every node of a level is independent.
+        ThreadPools.ARRAY_EXECUTOR.submit(() -> {
+            IntStream.range(0, size).parallel().forEach(i -> setLeaf(i, array[i]));
+            for (int level = leaves >>> 1; level >= 1; level >>>= 1) {
+                IntStream nodes = IntStream.range(level, 2 * level);
+                if (level >= PARALLEL_THRESHOLD)
+                    nodes = nodes.parallel();
+                nodes.forEach(this::pull);
+            }
+        }).join();
+    }
+
+    /**
+     * Gets the amount of elements in this tree
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    private void setLeaf(int index, long value) {
+        int k = leaves + index;
+        total[k] = prefix[k] = suffix[k] = best[k] = value;
+        prefixEnd[k] = suffixStart[k] = bestStart[k] = bestEnd[k] = index;
+    }
+
+    /** Gets the index of the first element covered by the given node */
+    private int startOf(int k) {
+        int depth = 31 - Integer.numberOfLeadingZeros(k);
+        return (k - (1 << depth)) * (leaves >>> depth);
+    }
+
+    private boolean isEmpty(int k) {
+        return startOf(k) >= size;
+    }
+
+    /**
+     * Recomputes the summary of the given node from its children
+     */
+    private void pull(int k) {
+        int l = 2 * k, r = 2 * k + 1;
+        if (isEmpty(r)) {
+            total[k] = total[l];
+            prefix[k] = prefix[l];
+            suffix[k] = suffix[l];
+            best[k] = best[l];
+            prefixEnd[k] = prefixEnd[l];
+            suffixStart[k] = suffixStart[l];
+            bestStart[k] = bestStart[l];
+            bestEnd[k] = bestEnd[l];
+            return;
+        }
+
+        total[k] = total[l] + total[r];
+        if (total[l] + prefix[r] > prefix[l]) {
+            prefix[k] = total[l] + prefix[r];
+            prefixEnd[k] = prefixEnd[r];
+        } else {
+            prefix[k] = prefix[l];
+            prefixEnd[k] = prefixEnd[l];
+        }
+
+        if (suffix[l] + total[r] > suffix[r]) {
+            suffix[k] = suffix[l] + total[r];
+            suffixStart[k] = suffixStart[l];
+        } else {
+            suffix[k] = suffix[r];
+            suffixStart[k] = suffixStart[r];
+        }
+
+        long crossing = suffix[l] + prefix[r];
+        if (best[r] > best[l] && best[r] > crossing) {
+            best[k] = best[r];
+            bestStart[k] = bestStart[r];
+            bestEnd[k] = bestEnd[r];
+        } else if (crossing > best[l]) {
+            best[k] = crossing;
+            bestStart[k] = suffixStart[l];
+            bestEnd[k] = prefixEnd[r];
+        } else {
+            best[k] = best[l];
+            bestStart[k] = bestStart[l];
+            bestEnd[k] = bestEnd[l];
+        }
+    }
+
+    private MaxSubArray.Summary summaryOf(int k) {
+        int start = startOf(k);
+        int depth = 31 - Integer.numberOfLeadingZeros(k);
+        int count = Math.min(size - start, leaves >>> depth);
+        return new MaxSubArray.Summary(start, count, total[k],
+                prefix[k], prefixEnd[k],
+                suffix[k], suffixStart[k],
+                best[k], bestStart[k], bestEnd[k]);
+    }
+
+    /**
+     * Sets the element at the given index
+     *
+     * @param index the index
+     * @param value the new value
+     */
+    public void set(int index, long value) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + size);
+
+        setLeaf(index, value);
+        for (int k = (leaves + index) >>> 1; k >= 1; k >>>= 1) {
+            pull(k);
+        }
+    }
+
+    /**
+     * Gets the element at the given index
+     *
+     * @param index the index
+     * @return the element
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + size);
+        return total[leaves + index];
+    }
+
+    /**
+     * Summarizes the given range
+     *
+     * @param from the low index
+     * @param to the high index, exclusive
+     * @return the summary
+     */
+    public MaxSubArray.Summary summary(int from, int to) {
+        if (from < 0 || to > size || from >= to)
+            throw new IllegalArgumentException("Invalid non-empty range [" + from + ", " + to + ") for size " + size);
+
+        MaxSubArray.Summary left = null;
+        MaxSubArray.Summary right = null;
+        for (int l = from + leaves, r = to + leaves; l < r; l >>>= 1, r >>>= 1) {
+            if ((l & 1) == 1) {
+                MaxSubArray.Summary node = summaryOf(l++);
+                left = left == null ? node : left.merge(node);
+            }
+            if ((r & 1) == 1) {
+                MaxSubArray.Summary node = summaryOf(--r);
+                right = right == null ? node : node.merge(right);
+            }
+        }
+        if (left == null)
+            return right;
+        return right == null ? left : left.merge(right);
+    }
+
+    /**
+     * Finds the maximum sub array within the given range
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(logn) Time</li>
+     *     <li>O(logn) Space</li>
+     * </ul>
+     *
+     * @param from the low index
+     * @param to the high index, exclusive
+     * @return the maximum sub array
+     */
+    public MaxSubArray.SubArray query(int from, int to) {
+        return summary(from, to).subArray();
+    }
+}
@@ -0,0 +1,86 @@
+package com.golfing8.struct;
+
+/**
+ * A bounded max heap of the k closest points seen so far, keyed by squared distance.
+ */
+class NearestNeighbors {
+    private final int k;
+    private final double[] distances;
+    private final int[] ids;
+    private int size;
+
+    NearestNeighbors(int k) {
+        if (k <= 0)
+            throw new IllegalArgumentException("k must be positive. Was " + k);
+
+        this.k = k;
+        this.distances = new double[k];
+        this.ids = new int[k];
+    }
+
+    /**
+     * Gets the squared distance a point must beat to be kept
+     *
+     * @return the distance of the furthest kept point, or infinity while fewer than k are kept
+     */
+    double bound() {
+        return size < k ? Double.POSITIVE_INFINITY : distances[0];
+    }
+
+    /**
+     * Offers a point to the heap
+     *
+     * @param distance the squared distance of the point
+     * @param id the id of the point
+     */
+    void offer(double distance, int id) {
+        if (size < k) {
+            int index = size++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (distances[parent] >= distance)
+                    break;
+                distances[index] = distances[parent];
+                ids[index] = ids[parent];
+                index = parent;
+            }
+            distances[index] = distance;
+            ids[index] = id;
+        } else if (distance < distances[0]) {
+            siftDown(distance, id, size);
+        }
+    }
+
+    private void siftDown(double distance, int id, int size) {
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && distances[child + 1] > distances[child])
+                child++;
+            if (distances[child] <= distance)
+                break;
+            distances[index] = distances[child];
+            ids[index] = ids[child];
+            index = child;
+        }
+        distances[index] = distance;
+        ids[index] = id;
+    }
+
+    /**
+     * Empties the heap
+     *
+     * @return the ids of the kept points, nearest first
+     */
+    int[] drain() {
+        int[] result = new int[size];
+        while (size > 0) {
+            int last = --size;
+            result[last] = ids[0];
+            siftDown(distances[last], ids[last], last);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,67 @@
+package com.golfing8.struct;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes and reads the nodes of a serialized graph structure, such as a {@link ShortestPathTree}.
+ *
+ * @param <T> the node type
+ */
+public interface NodeCodec<T> {
+    /** Nodes written as 4 byte integers */
+    NodeCodec<Integer> INTEGER = new NodeCodec<>() {
+        @Override
+        public void write(DataOutput out, Integer node) throws IOException {
+            out.writeInt(node);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+    /** Nodes written as 8 byte longs */
+    NodeCodec<Long> LONG = new NodeCodec<>() {
+        @Override
+        public void write(DataOutput out, Long node) throws IOException {
+            out.writeLong(node);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+    /** Nodes written as modified UTF-8, which limits them to 65535 encoded bytes */
+    NodeCodec<String> STRING = new NodeCodec<>() {
+        @Override
+        public void write(DataOutput out, String node) throws IOException {
+            out.writeUTF(node);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    /**
+     * Writes a node
+     *
+     * @param out the output
+     * @param node the node
+     * @throws IOException if the output failed
+     */
+    void write(DataOutput out, T node) throws IOException;
+
+    /**
+     * Reads a node
+     *
+     * @param in the input
+     * @return the node
+     * @throws IOException if the input failed
+     */
+    T read(DataInput in) throws IOException;
+}
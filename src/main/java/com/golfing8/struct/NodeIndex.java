@@ -0,0 +1,70 @@
+package com.golfing8.struct;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bijection between a set of nodes and the indices {@code 0..n-1}, for running array based algorithms over
+ * object graphs. Indices follow the iteration order of the nodes given.
+ * This structure is immutable.
+ *
+ * @param <T> the node type
+ */
+public class NodeIndex<T> {
+    private final List<T> nodes;
+    private final Map<T, Integer> indices;
+
+    /**
+     * Indexes the given nodes
+     *
+     * @param nodes the nodes, without duplicates
+     */
+    public NodeIndex(Collection<T> nodes) {
+        this.nodes = new ArrayList<>(nodes);
+        this.indices = HashMap.newHashMap(nodes.size());
+        for (int i = 0; i < this.nodes.size(); i++) {
+            if (indices.put(this.nodes.get(i), i) != null)
+                throw new IllegalArgumentException("Node is given twice. Was " + this.nodes.get(i));
+        }
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Gets the index of a node
+     *
+     * @param node the node
+     * @return the index
+     */
+    public int index(T node) {
+        Integer index = indices.get(node);
+        if (index == null)
+            throw new IllegalArgumentException("Node is not indexed. Was " + node);
+        return index;
+    }
+
+    /**
+     * Checks if a node is indexed
+     *
+     * @param node the node
+     * @return true if the node has an index
+     */
+    public boolean contains(T node) {
+        return indices.containsKey(node);
+    }
+
+    /**
+     * Gets the node at an index
+     *
+     * @param index the index
+     * @return the node
+     */
+    public T node(int index) {
+        return nodes.get(index);
+    }
+}
@@ -0,0 +1,342 @@
+package com.golfing8.struct;
+
+import com.golfing8.concurrent.ThreadPools;
+
+import java.util.Collection;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A cloud of points in the plane, stored as one array of x coordinates and one of y coordinates.
+ * <p></p>
+ * Compared to a {@code List<Point2D>} this avoids an object and a pointer per point, and keeps the coordinates
+ * contiguous for scans. Points are referred to by their index.
+ */
+public class PointSet {
+    /** Ranges with at least this many points are split between threads */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+    /** Ranges with at most this many points are solved by brute force */
+    private static final int BRUTE_FORCE = 3;
+
+    private final double[] xs;
+    private final double[] ys;
+
+    /**
+     * Creates a point set over the given coordinates. The arrays are not copied.
+     *
+     * @param xs the x coordinates
+     * @param ys the y coordinates
+     */
+    public PointSet(double[] xs, double[] ys) {
+        if (xs.length != ys.length)
+            throw new IllegalArgumentException("Coordinate arrays differ in length. " + xs.length + " != " + ys.length);
+
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * Creates a point set from the given points, in iteration order
+     *
+     * @param points the points
+     * @return the point set
+     */
+    public static PointSet of(Collection<Point2D> points) {
+        double[] xs = new double[points.size()];
+        double[] ys = new double[points.size()];
+        int index = 0;
+        for (Point2D point : points) {
+            xs[index] = point.x();
+            ys[index++] = point.y();
+        }
+        return new PointSet(xs, ys);
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public double x(int index) {
+        return xs[index];
+    }
+
+    public double y(int index) {
+        return ys[index];
+    }
+
+    /**
+     * Gets the point at the given index
+     *
+     * @param index the index
+     * @return the point
+     */
+    public Point2D get(int index) {
+        return new Point2D(xs[index], ys[index]);
+    }
+
+    /**
+     * Finds the squared euclidean distance between two points
+     *
+     * @param i the first point
+     * @param j the second point
+     * @return the squared distance
+     */
+    public double distanceSquared(int i, int j) {
+        double distX = xs[i] - xs[j];
+        double distY = ys[i] - ys[j];
+        return distX * distX + distY * distY;
+    }
+
+    /**
+     * Finds the euclidean distance between two points
+     *
+     * @param i the first point
+     * @param j the second point
+     * @return the distance
+     */
+    public double distance(int i, int j) {
+        return Math.sqrt(distanceSquared(i, j));
+    }
+
+    /**
+     * Finds the closest pair of points
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(nlogn) Time</li>
+     *     <li>O(n) Space</li>
+     * </ul>
+     *
+     * @return the indices of the two closest points
+     */
+    public int[] closestPair() {
+        return closestPair(false);
+    }
+
+    /**
+     * Finds the closest pair of points, sorting and solving both halves of large ranges in parallel
+     *
+     * @return the indices of the two closest points
+     */
+    public int[] closestPairParallel() {
+        return closestPair(true);
+    }
+
+    private int[] closestPair(boolean parallel) {
+        int n = size();
+        if (n <= 1)
+            throw new IllegalArgumentException("Cannot get closest pair among a single point");
+
+        Work work = new Work(n);
+        System.arraycopy(xs, 0, work.xs, 0, n);
+        System.arraycopy(ys, 0, work.ys, 0, n);
+        for (int i = 0; i < n; i++) {
+            work.ids[i] = i;
+        }
+
+        Closest closest;
+        if (parallel && n >= PARALLEL_THRESHOLD) {
+            ThreadPools.ARRAY_EXECUTOR.invoke(new SortByX(work, 0, n, true));
+            closest = ThreadPools.ARRAY_EXECUTOR.invoke(new ClosestTask(work, 0, n, true));
+        } else {
+            new SortByX(work, 0, n, false).compute();
+            closest = new ClosestTask(work, 0, n, false).compute();
+        }
+        return new int[] {closest.first, closest.second};
+    }
+
+    /**
+     * The closest pair found in a range
+     */
+    private record Closest(double distanceSquared, int first, int second) {
+        Closest min(Closest other) {
+            return other.distanceSquared < distanceSquared ? other : this;
+        }
+    }
+
+    /**
+     * Working copies of the coordinates and their original indices, along with merge buffers.
+     * Tasks only ever touch their own range of every array.
+     */
+    private static class Work {
+        final double[] xs, ys;
+        final int[] ids;
+        final double[] bufferXs, bufferYs;
+        final int[] bufferIds;
+
+        Work(int n) {
+            xs = new double[n];
+            ys = new double[n];
+            ids = new int[n];
+            bufferXs = new double[n];
+            bufferYs = new double[n];
+            bufferIds = new int[n];
+        }
+
+        /**
+         * Merges the sorted ranges {@code [from, mid)} and {@code [mid, to)} by x or by y
+         */
+        void merge(int from, int mid, int to, boolean byX) {
+            double[] keys = byX ? xs : ys;
+            int i = from, j = mid, k = from;
+            while (i < mid && j < to) {
+                int source = keys[j] < keys[i] ? j++ : i++;
+                bufferXs[k] = xs[source];
+                bufferYs[k] = ys[source];
+                bufferIds[k++] = ids[source];
+            }
+            int rest = i < mid ? i : j;
+            int length = to - k;
+            System.arraycopy(xs, rest, bufferXs, k, length);
+            System.arraycopy(ys, rest, bufferYs, k, length);
+            System.arraycopy(ids, rest, bufferIds, k, length);
+
+            System.arraycopy(bufferXs, from, xs, from, to - from);
+            System.arraycopy(bufferYs, from, ys, from, to - from);
+            System.arraycopy(bufferIds, from, ids, from, to - from);
+        }
+
+        /**
+         * Sorts a small range by x or by y
+         */
+        void insertionSort(int from, int to, boolean byX) {
+            double[] keys = byX ? xs : ys;
+            for (int i = from + 1; i < to; i++) {
+                double x = xs[i], y = ys[i];
+                int id = ids[i];
+                double key = keys[i];
+                int j = i - 1;
+                while (j >= from && keys[j] > key) {
+                    xs[j + 1] = xs[j];
+                    ys[j + 1] = ys[j];
+                    ids[j + 1] = ids[j];
+                    j--;
+                }
+                xs[j + 1] = x;
+                ys[j + 1] = y;
+                ids[j + 1] = id;
+            }
+        }
+    }
+
+    /**
+     * Merge sorts a range of the working copies by x
+     */
+    private static class SortByX extends RecursiveAction {
+        private final Work work;
+        private final int from;
+        private final int to;
+        private final boolean parallel;
+
+        SortByX(Work work, int from, int to, boolean parallel) {
+            this.work = work;
+            this.from = from;
+            this.to = to;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 32) {
+                work.insertionSort(from, to, true);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            SortByX left = new SortByX(work, from, mid, parallel);
+            SortByX right = new SortByX(work, mid, to, parallel);
+            if (parallel && to - from >= PARALLEL_THRESHOLD) {
+                invokeAll(left, right);
+            } else {
+                left.compute();
+                right.compute();
+            }
+            work.merge(from, mid, to, true);
+        }
+    }
+
+    /**
+     * Finds the closest pair in an x sorted range, leaving the range sorted by y
+     */
+    private static class ClosestTask extends RecursiveTask<Closest> {
+        private final Work work;
+        private final int from;
+        private final int to;
+        private final boolean parallel;
+
+        ClosestTask(Work work, int from, int to, boolean parallel) {
+            this.work = work;
+            this.from = from;
+            this.to = to;
+            this.parallel = parallel;
+        }
+
+        private Closest bruteForce() {
+            double[] xs = work.xs, ys = work.ys;
+            Closest closest = new Closest(Double.POSITIVE_INFINITY, -1, -1);
+            for (int i = from; i < to; i++) {
+                for (int j = i + 1; j < to; j++) {
+                    double distX = xs[i] - xs[j];
+                    double distY = ys[i] - ys[j];
+                    double distance = distX * distX + distY * distY;
+                    if (distance < closest.distanceSquared)
+                        closest = new Closest(distance, work.ids[i], work.ids[j]);
+                }
+            }
+            work.insertionSort(from, to, false);
+            return closest;
+        }
+
+        @Override
+        protected Closest compute() {
+            if (to - from <= BRUTE_FORCE)
+                return bruteForce();
+
+            int mid = (from + to) >>> 1;
+            // Read before the halves reorder themselves by y.
+            double midX = work.xs[mid];
+            ClosestTask leftTask = new ClosestTask(work, from, mid, parallel);
+            ClosestTask rightTask = new ClosestTask(work, mid, to, parallel);
+            Closest closest;
+            if (parallel && to - from >= PARALLEL_THRESHOLD) {
+                rightTask.fork();
+                closest = leftTask.compute().min(rightTask.join());
+            } else {
+                closest = leftTask.compute().min(rightTask.compute());
+            }
+            work.merge(from, mid, to, false);
+
+            // Gather the strip around the dividing line, in y order, into the free buffer range.
+            double[] xs = work.xs, ys = work.ys;
+            double[] stripXs = work.bufferXs, stripYs = work.bufferYs;
+            int[] stripIds = work.bufferIds;
+            double best = closest.distanceSquared;
+            int end = from;
+            for (int i = from; i < to; i++) {
+                double distX = xs[i] - midX;
+                if (distX * distX < best) {
+                    stripXs[end] = xs[i];
+                    stripYs[end] = ys[i];
+                    stripIds[end++] = work.ids[i];
+                }
+            }
+
+            // Every point only needs to be compared with the few following it within the best distance in y.
+            for (int i = from; i < end; i++) {
+                for (int j = i + 1; j < end; j++) {
+                    double distY = stripYs[j] - stripYs[i];
+                    if (distY * distY >= best)
+                        break;
+
+                    double distX = stripXs[j] - stripXs[i];
+                    double distance = distX * distX + distY * distY;
+                    if (distance < best) {
+                        best = distance;
+                        closest = new Closest(distance, stripIds[i], stripIds[j]);
+                    }
+                }
+            }
+            return closest;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.golfing8.struct;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The shortest paths from one root to every node of a graph, stored as a distance and a predecessor per node index.
+ * Paths are only built when asked for, by walking the predecessors back to the root.
+ * <p></p>
+ * Trees can be written in a compact binary form, a header of {@code int magic, int version, int nodeCount, int root}
+ * followed by every node in index order, then {@code nodeCount} distances and {@code nodeCount} predecessors.
+ * Everything is big endian.
+ * This structure is immutable.
+ *
+ * @param <T> the node type
+ */
+public class ShortestPathTree<T> {
+    /** The magic number at the start of serialized trees, "SPTR" */
+    public static final int MAGIC = 0x53505452;
+    public static final int VERSION = 1;
+    /** The predecessor of the root and of unreachable nodes */
+    public static final int NO_PREDECESSOR = -1;
+
+    private final NodeIndex<T> nodes;
+    private final int root;
+    private final double[] distances;
+    private final int[] predecessors;
+
+    /**
+     * Creates a tree. The arrays are retained.
+     *
+     * @param nodes the index of every node
+     * @param root the index of the root
+     * @param distances the distance of every node index from the root, infinity when unreachable
+     * @param predecessors the index of the node before every node index on its path, or {@value #NO_PREDECESSOR}
+     */
+    public ShortestPathTree(NodeIndex<T> nodes, int root, double[] distances, int[] predecessors) {
+        if (distances.length != nodes.size() || predecessors.length != nodes.size())
+            throw new IllegalArgumentException("Expecting " + nodes.size() + " distances and predecessors. Was " + distances.length + " and " + predecessors.length);
+        if (root < 0 || root >= nodes.size())
+            throw new IllegalArgumentException("Root is out of bounds for " + nodes.size() + " nodes. Was " + root);
+
+        this.nodes = nodes;
+        this.root = root;
+        this.distances = distances;
+        this.predecessors = predecessors;
+    }
+
+    public NodeIndex<T> getNodes() {
+        return nodes;
+    }
+
+    public T getRoot() {
+        return nodes.node(root);
+    }
+
+    /**
+     * Gets the length of the shortest path from the root to a node
+     *
+     * @param node the node
+     * @return the distance, or infinity if the node is unreachable
+     */
+    public double distance(T node) {
+        return distances[nodes.index(node)];
+    }
+
+    /**
+     * Gets the length of the shortest path from the root to a node index
+     *
+     * @param index the node index
+     * @return the distance, or infinity if the node is unreachable
+     */
+    public double distanceAt(int index) {
+        return distances[index];
+    }
+
+    /**
+     * Checks if there is a path from the root to a node
+     *
+     * @param node the node
+     * @return true if the node is reachable
+     */
+    public boolean isReachable(T node) {
+        return distance(node) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Gets the node before a node on its shortest path
+     *
+     * @param node the node
+     * @return the predecessor, or null for the root and unreachable nodes
+     */
+    public T predecessor(T node) {
+        int predecessor = predecessors[nodes.index(node)];
+        return predecessor == NO_PREDECESSOR ? null : nodes.node(predecessor);
+    }
+
+    /**
+     * Gets the index of the node before a node index on its shortest path
+     *
+     * @param index the node index
+     * @return the predecessor index, or {@value #NO_PREDECESSOR} for the root and unreachable nodes
+     */
+    public int predecessorAt(int index) {
+        return predecessors[index];
+    }
+
+    /**
+     * Builds the shortest path from the root to a node
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(p) Time</li>
+     *     <li>O(p) Space</li>
+     * </ul>
+     *
+     * @param node the last node
+     * @return the nodes of the path starting with the root, or an empty list if the node is unreachable
+     */
+    public List<T> path(T node) {
+        int index = nodes.index(node);
+        if (distances[index] == Double.POSITIVE_INFINITY)
+            return List.of();
+
+        List<T> path = new ArrayList<>();
+        for (int current = index; current != NO_PREDECESSOR; current = predecessors[current]) {
+            if (path.size() == nodes.size())
+                throw new IllegalStateException("Predecessors of " + node + " form a cycle");
+            path.add(nodes.node(current));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Writes this tree in its binary form
+     *
+     * @param output the output, which is flushed but not closed
+     * @param codec the node codec
+     * @throws IOException if the output failed
+     */
+    public void write(OutputStream output, NodeCodec<T> codec) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(nodes.size());
+        out.writeInt(root);
+        for (int i = 0; i < nodes.size(); i++) {
+            codec.write(out, nodes.node(i));
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(nodes.size() * (Double.BYTES + Integer.BYTES));
+        buffer.asDoubleBuffer().put(distances);
+        buffer.position(nodes.size() * Double.BYTES).asIntBuffer().put(predecessors);
+        out.write(buffer.array());
+        out.flush();
+    }
+
+    /**
+     * Reads a tree in its binary form
+     *
+     * @param input the input, which is not closed
+     * @param codec the node codec
+     * @return the tree
+     * @param <T> the node type
+     * @throws IOException if the input failed or does not hold a valid tree
+     */
+    public static <T> ShortestPathTree<T> read(InputStream input, NodeCodec<T> codec) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        int magic = in.readInt();
+        if (magic != MAGIC)
+            throw new IOException("Not a shortest path tree. Magic was " + Integer.toHexString(magic));
+        int version = in.readInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported shortest path tree version " + version);
+        int nodeCount = in.readInt();
+        int root = in.readInt();
+        if (nodeCount <= 0 || root < 0 || root >= nodeCount)
+            throw new IOException("Invalid root " + root + " for " + nodeCount + " nodes");
+
+        List<T> nodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(codec.read(in));
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(Math.multiplyExact(nodeCount, Double.BYTES + Integer.BYTES));
+        in.readFully(buffer.array());
+        double[] distances = new double[nodeCount];
+        int[] predecessors = new int[nodeCount];
+        buffer.asDoubleBuffer().get(distances);
+        buffer.position(nodeCount * Double.BYTES).asIntBuffer().get(predecessors);
+        for (int predecessor : predecessors) {
+            if (predecessor < NO_PREDECESSOR || predecessor >= nodeCount)
+                throw new IOException("Invalid predecessor " + predecessor + " for " + nodeCount + " nodes");
+        }
+
+        try {
+            return new ShortestPathTree<>(new NodeIndex<>(nodes), root, distances, predecessors);
+        } catch (IllegalArgumentException exception) {
+            throw new IOException("Invalid shortest path tree", exception);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.golfing8.struct;
+
+import com.golfing8.concurrent.ThreadPools;
+import com.golfing8.instrument.Counter;
+import com.golfing8.instrument.Instrumentation;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A square sparse matrix in compressed sparse row form. The columns and values of row {@code i} are stored at
+ * {@code [offsets[i], offsets[i + 1])}, sorted by column. Rows and columns are 0 indexed.
+ * This structure is immutable and thread safe.
+ */
+public class SparseMatrix implements LinearOperator {
+    /** Matrices with at least this many entries multiply vectors in parallel */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    /** The amount of rows each task of a parallel matrix vector product computes */
+    private static final int ROW_BLOCK = 1024;
+
+    /** The size of the matrix */
+    private final int size;
+    /** The start of every row in the columns and values, with a trailing end */
+    private final int[] offsets;
+    /** The column of every entry */
+    private final int[] columns;
+    /** The value of every entry */
+    private final double[] values;
+
+    private SparseMatrix(int size, int[] offsets, int[] columns, double[] values) {
+        this.size = size;
+        this.offsets = offsets;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * Builds a matrix from its entries in any order. Entries at the same position are summed.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n + e log e) Time</li>
+     *     <li>O(n + e) Space</li>
+     * </ul>
+     *
+     * @param size the size of the matrix
+     * @param rows the row of every entry
+     * @param columns the column of every entry
+     * @param values the value of every entry
+     * @return the matrix
+     */
+    public static SparseMatrix fromEntries(int size, int[] rows, int[] columns, double[] values) {
+        if (size < 0)
+            throw new IllegalArgumentException("Size must be non-negative. Was " + size);
+        if (rows.length != columns.length || rows.length != values.length)
+            throw new IllegalArgumentException("Entry arrays must have the same length. Was " + rows.length + ", " + columns.length + " and " + values.length);
+        int count = rows.length;
+        for (int e = 0; e < count; e++) {
+            if (rows[e] < 0 || rows[e] >= size || columns[e] < 0 || columns[e] >= size)
+                throw new IllegalArgumentException("Entry is out of bounds for size " + size + ". Was (" + rows[e] + ", " + columns[e] + ")");
+        }
+
+        // Counting sort by row, then each row by column, after which duplicates are adjacent.
+        int[] offsets = new int[size + 1];
+        for (int row : rows) {
+            offsets[row + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] next = new int[size];
+        System.arraycopy(offsets, 0, next, 0, size);
+        int[] sortedColumns = new int[count];
+        double[] sortedValues = new double[count];
+        for (int e = 0; e < count; e++) {
+            int slot = next[rows[e]]++;
+            sortedColumns[slot] = columns[e];
+            sortedValues[slot] = values[e];
+        }
+
+        int[] mergedOffsets = new int[size + 1];
+        int written = 0;
+        for (int i = 0; i < size; i++) {
+            int from = offsets[i], to = offsets[i + 1];
+            sortRow(sortedColumns, sortedValues, from, to);
+            for (int e = from; e < to; e++) {
+                if (written > mergedOffsets[i] && sortedColumns[written - 1] == sortedColumns[e]) {
+                    sortedValues[written - 1] += sortedValues[e];
+                } else {
+                    sortedColumns[written] = sortedColumns[e];
+                    sortedValues[written] = sortedValues[e];
+                    written++;
+                }
+            }
+            mergedOffsets[i + 1] = written;
+        }
+        int[] finalColumns = new int[written];
+        double[] finalValues = new double[written];
+        System.arraycopy(sortedColumns, 0, finalColumns, 0, written);
+        System.arraycopy(sortedValues, 0, finalValues, 0, written);
+        return new SparseMatrix(size, mergedOffsets, finalColumns, finalValues);
+    }
+
+    private static void sortRow(int[] columns, double[] values, int from, int to) {
+        if (to - from > 32) {
+            // Long rows are sorted by packing the entry index next to the column.
+            long[] keys = new long[to - from];
+            for (int e = from; e < to; e++) {
+                keys[e - from] = ((long) columns[e] << 32) | (e - from);
+            }
+            Arrays.sort(keys);
+            double[] copy = new double[to - from];
+            System.arraycopy(values, from, copy, 0, to - from);
+            for (int k = 0; k < keys.length; k++) {
+                columns[from + k] = (int) (keys[k] >>> 32);
+                values[from + k] = copy[(int) keys[k]];
+            }
+            return;
+        }
+        for (int e = from + 1; e < to; e++) {
+            int column = columns[e];
+            double value = values[e];
+            int k = e - 1;
+            while (k >= from && columns[k] > column) {
+                columns[k + 1] = columns[k];
+                values[k + 1] = values[k];
+                k--;
+            }
+            columns[k + 1] = column;
+            values[k + 1] = value;
+        }
+    }
+
+    /**
+     * Builds the weighted adjacency matrix of a graph, where entry {@code (u, v)} is the sum of the weights of the
+     * arcs from u to v. Undirected graphs give symmetric matrices.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n + e log e) Time</li>
+     *     <li>O(n + e) Space</li>
+     * </ul>
+     *
+     * @param graph the graph
+     * @return the adjacency matrix
+     */
+    public static SparseMatrix fromGraph(CompactGraph graph) {
+        int arcs = graph.arcCount();
+        int[] rows = new int[arcs];
+        int[] columns = new int[arcs];
+        double[] values = new double[arcs];
+        for (int u = 0; u < graph.nodeCount(); u++) {
+            for (int arc = graph.start(u); arc < graph.end(u); arc++) {
+                rows[arc] = u;
+                columns[arc] = graph.target(arc);
+                values[arc] = graph.weight(arc);
+            }
+        }
+        return fromEntries(graph.nodeCount(), rows, columns, values);
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the amount of stored entries
+     *
+     * @return the amount of entries
+     */
+    public int entryCount() {
+        return values.length;
+    }
+
+    /**
+     * Gets the element at the given position
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(log d) Time, where d is the amount of entries in the row</li>
+     *     <li>O(1) Space</li>
+     * </ul>
+     *
+     * @param row the row, 0 indexed
+     * @param column the column, 0 indexed
+     * @return the element, 0 if it is not stored
+     */
+    public double getElement(int row, int column) {
+        if (row < 0 || row >= size || column < 0 || column >= size)
+            throw new IllegalArgumentException("Position is out of bounds for size " + size + ". Was (" + row + ", " + column + ")");
+        int low = offsets[row], high = offsets[row + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (columns[mid] < column) {
+                low = mid + 1;
+            } else if (columns[mid] > column) {
+                high = mid - 1;
+            } else {
+                return values[mid];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Computes {@code y = A * x}. Blocks of rows are computed in parallel for matrices with many entries.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n + e) Time</li>
+     *     <li>O(1) Space</li>
+     * </ul>
+     *
+     * @param x the vector to multiply
+     * @param y the vector to overwrite with the product
+     */
+    @Override
+    public void multiply(double[] x, double[] y) {
+        if (x.length != size || y.length != size)
+            throw new IllegalArgumentException("Vectors must have length " + size + ". Was " + x.length + " and " + y.length);
+        if (x == y)
+            throw new IllegalArgumentException("Product must not overwrite its input");
+
+        Instrumentation.add(Counter.FLOPS, 2L * values.length);
+        if (values.length < PARALLEL_THRESHOLD) {
+            multiplyRows(x, y, 0, size);
+            return;
+        }
+        int blocks = (size + ROW_BLOCK - 1) / ROW_BLOCK;
+        ThreadPools.MATRIX_EXECUTOR.submit(() -> IntStream.range(0, blocks).parallel().forEach(block ->
+                multiplyRows(x, y, block * ROW_BLOCK, Math.min(size, (block + 1) * ROW_BLOCK))
+        )).join();
+    }
+
+    private void multiplyRows(double[] x, double[] y, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double sum = 0;
+            for (int e = offsets[i], end = offsets[i + 1]; e < end; e++) {
+                sum += values[e] * x[columns[e]];
+            }
+            y[i] = sum;
+        }
+    }
+}
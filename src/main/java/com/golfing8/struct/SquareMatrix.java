@@ -1,20 +1,39 @@
 package com.golfing8.struct;
 
 import com.golfing8.concurrent.ThreadPools;
+import com.golfing8.instrument.Counter;
+import com.golfing8.instrument.Instrumentation;
+import com.golfing8.instrument.Phase;
+import com.golfing8.util.RandomData;
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.nio.DoubleBuffer;
 import java.util.Arrays;
 import java.util.Objects;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Represents a size n square matrix.
  */
-public class SquareMatrix {
+public class SquareMatrix implements LinearOperator {
     /** The matrix size to parallelize for in the strassen multiplication */
     private static final int STRASSEN_PARALLELIZE_THRESHOLD = 999999999;
+    /** Matrices of at most this size, or of an odd size, are multiplied directly in the strassen multiplication */
+    private static final int STRASSEN_CUTOFF = 128;
+    /** The side of the square tiles the min plus kernels work on */
+    private static final int MIN_PLUS_TILE = 128;
+    /** Matrices of at least this size have their tiles processed in parallel by the min plus kernels */
+    private static final int MIN_PLUS_PARALLEL_SIZE = 256;
+    /** The amount of rows each task of a matrix vector product computes */
+    private static final int MULTIPLY_ROW_BLOCK = 256;
+    /** Matrices of at least this size multiply vectors in parallel */
+    private static final int MULTIPLY_PARALLEL_SIZE = 1024;
 
     /** Data stored in a flat format. Columns -> rows. */
+    @Getter(AccessLevel.PACKAGE)
     private final double[] data;
     /** The size of this matrix */
     @Getter
@@ -22,7 +41,8 @@ public class SquareMatrix {
     /** The amount of elements in this matrix. Equal to {@code size * size} */
     private final int elementCount;
 
-    private SquareMatrix(int size, double[] data) {
+    SquareMatrix(int size, double[] data) {
+        Instrumentation.increment(Counter.ALLOCATIONS);
         this.data = data;
         this.size = size;
         this.elementCount = size * size;
@@ -37,6 +57,7 @@ public class SquareMatrix {
         if (size <= 0)
             throw new IllegalArgumentException("Size must be positive. Was " + size);
 
+        Instrumentation.increment(Counter.ALLOCATIONS);
         this.elementCount = size * size;
         this.data = new double[elementCount];
         this.size = size;
@@ -48,6 +69,7 @@ public class SquareMatrix {
      * @param matrix the matrix
      */
     public SquareMatrix(SquareMatrix matrix) {
+        Instrumentation.increment(Counter.ALLOCATIONS);
         this.data = Arrays.copyOf(matrix.data, matrix.data.length);
         this.size = matrix.size;
         this.elementCount = matrix.elementCount;
@@ -63,6 +85,7 @@ public class SquareMatrix {
         if (this.size != other.size)
             throw new IllegalArgumentException("Size of matrices are not equal. Expecting " + this.size + " was " + other.size);
 
+        Instrumentation.add(Counter.FLOPS, elementCount);
         double[] newData = new double[this.data.length];
         for (int i = 0; i < newData.length; i++) {
             newData[i] = this.data[i] + other.data[i];
@@ -80,6 +103,7 @@ public class SquareMatrix {
         if (this.size != other.size)
             throw new IllegalArgumentException("Size of matrices are not equal. Expecting " + this.size + " was " + other.size);
 
+        Instrumentation.add(Counter.FLOPS, elementCount);
         for (int i = 0; i < this.elementCount; i++) {
             this.data[i] += other.data[i];
         }
@@ -96,6 +120,7 @@ public class SquareMatrix {
         if (this.size != other.size)
             throw new IllegalArgumentException("Size of matrices are not equal. Expecting " + this.size + " was " + other.size);
 
+        Instrumentation.add(Counter.FLOPS, elementCount);
         double[] newData = new double[this.data.length];
         for (int i = 0; i < newData.length; i++) {
             newData[i] = this.data[i] - other.data[i];
@@ -113,6 +138,7 @@ public class SquareMatrix {
         if (this.size != other.size)
             throw new IllegalArgumentException("Size of matrices are not equal. Expecting " + this.size + " was " + other.size);
 
+        Instrumentation.add(Counter.FLOPS, elementCount);
         for (int i = 0; i < this.elementCount; i++) {
             this.data[i] -= other.data[i];
         }
@@ -129,23 +155,219 @@ public class SquareMatrix {
         if (this.size != other.size)
             throw new IllegalArgumentException("Size of matrices are not equal. Expecting " + this.size + " was " + other.size);
 
+        Instrumentation.add(Counter.FLOPS, 2L * size * size * size);
         double[] newData = new double[this.data.length];
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                int idx = i + j * size;
-
-                double sum = 0.0D;
-                for (int k = 0; k < size; k++) {
-                    double a = this.data[i + k * size];
-                    double b = other.data[j * size + k];
-                    sum += a * b;
+        // Column j of the product is a sum of the columns of this matrix, so every inner loop walks contiguous memory.
+        // Four columns are summed per pass to load and store the product column a quarter as often.
+        for (int j = 0; j < size; j++) {
+            int column = j * size;
+            int k = 0;
+            for (; k + 3 < size; k += 4) {
+                double b0 = other.data[column + k], b1 = other.data[column + k + 1];
+                double b2 = other.data[column + k + 2], b3 = other.data[column + k + 3];
+                int o0 = k * size, o1 = o0 + size, o2 = o1 + size, o3 = o2 + size;
+                for (int i = 0; i < size; i++) {
+                    newData[column + i] += this.data[o0 + i] * b0 + this.data[o1 + i] * b1
+                            + this.data[o2 + i] * b2 + this.data[o3 + i] * b3;
+                }
+            }
+            for (; k < size; k++) {
+                double b = other.data[column + k];
+                int offset = k * size;
+                for (int i = 0; i < size; i++) {
+                    newData[column + i] += this.data[offset + i] * b;
                 }
-                newData[idx] = sum;
             }
         }
         return new SquareMatrix(this.size, newData);
     }
 
+    /**
+     * Computes {@code y = A * x}. Blocks of rows are computed in parallel for large matrices, each as a sum of
+     * column segments scaled by x, which the JIT vectorizes.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n^2) Time</li>
+     *     <li>O(1) Space</li>
+     * </ul>
+     *
+     * @param x the vector to multiply, 0 indexed
+     * @param y the vector to overwrite with the product
+     */
+    @Override
+    public void multiply(double[] x, double[] y) {
+        if (x.length != size || y.length != size)
+            throw new IllegalArgumentException("Vectors must have length " + size + ". Was " + x.length + " and " + y.length);
+        if (x == y)
+            throw new IllegalArgumentException("Product must not overwrite its input");
+
+        Instrumentation.add(Counter.FLOPS, 2L * size * size);
+        int blocks = (size + MULTIPLY_ROW_BLOCK - 1) / MULTIPLY_ROW_BLOCK;
+        if (size < MULTIPLY_PARALLEL_SIZE) {
+            multiplyRows(x, y, 0, size);
+            return;
+        }
+        ThreadPools.MATRIX_EXECUTOR.submit(() -> IntStream.range(0, blocks).parallel().forEach(block ->
+                multiplyRows(x, y, block * MULTIPLY_ROW_BLOCK, Math.min(size, (block + 1) * MULTIPLY_ROW_BLOCK))
+        )).join();
+    }
+
+    private void multiplyRows(double[] x, double[] y, int from, int to) {
+        Arrays.fill(y, from, to, 0);
+        // Four columns per pass, as in the matrix product, to load and store y a quarter as often.
+        int j = 0;
+        for (; j + 3 < size; j += 4) {
+            double x0 = x[j], x1 = x[j + 1], x2 = x[j + 2], x3 = x[j + 3];
+            int o0 = j * size, o1 = o0 + size, o2 = o1 + size, o3 = o2 + size;
+            for (int i = from; i < to; i++) {
+                y[i] += data[o0 + i] * x0 + data[o1 + i] * x1 + data[o2 + i] * x2 + data[o3 + i] * x3;
+            }
+        }
+        for (; j < size; j++) {
+            double xj = x[j];
+            int offset = j * size;
+            for (int i = from; i < to; i++) {
+                y[i] += data[offset + i] * xj;
+            }
+        }
+    }
+
+    /**
+     * Calculates the min plus product of this matrix and the given one, {@code C(i, j) = min_k A(i, k) + B(k, j)}.
+     * Infinite elements stand for missing edges, so the product of two distance matrices gives the shortest paths
+     * using one leg from each. Tiles of the product are computed in parallel.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n^3) Time</li>
+     *     <li>O(n^2) Space</li>
+     * </ul>
+     *
+     * @param other the other matrix
+     * @return the min plus product
+     */
+    public SquareMatrix minPlusProduct(SquareMatrix other) {
+        if (this.size != other.size)
+            throw new IllegalArgumentException("Size of matrices are not equal. Expecting " + this.size + " was " + other.size);
+
+        Instrumentation.add(Counter.FLOPS, 2L * size * size * size);
+        double[] newData = new double[elementCount];
+        Arrays.fill(newData, Double.POSITIVE_INFINITY);
+        int tiles = (size + MIN_PLUS_TILE - 1) / MIN_PLUS_TILE;
+        forEachTile(tiles * tiles, tile -> {
+            for (int kTile = 0; kTile < tiles; kTile++) {
+                minPlusTile(newData, this.data, other.data, size, tile % tiles, tile / tiles, kTile);
+            }
+        });
+        return new SquareMatrix(this.size, newData);
+    }
+
+    /**
+     * Calculates the min plus closure of this matrix with a blocked Floyd-Warshall, the shortest path distances of
+     * the graph whose edge weights are the elements of this matrix.
+     * <p></p>
+     * Each round closes one diagonal tile, then relaxes the tiles of its row and column through it, then every other
+     * tile through those. The tiles of the last two steps are independent and computed in parallel.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n^3) Time</li>
+     *     <li>O(n^2) Space</li>
+     * </ul>
+     *
+     * @return the closure, with a negative diagonal element if the graph has a negative cycle
+     */
+    public SquareMatrix minPlusClosure() {
+        Instrumentation.add(Counter.FLOPS, 2L * size * size * size);
+        double[] newData = Arrays.copyOf(data, elementCount);
+        int tiles = (size + MIN_PLUS_TILE - 1) / MIN_PLUS_TILE;
+        for (int kTile = 0; kTile < tiles; kTile++) {
+            int k = kTile;
+            minPlusTile(newData, newData, newData, size, k, k, k);
+            forEachTile(2 * (tiles - 1), tile -> {
+                int other = tile / 2 >= k ? tile / 2 + 1 : tile / 2;
+                if (tile % 2 == 0) {
+                    minPlusTile(newData, newData, newData, size, k, other, k);
+                } else {
+                    minPlusTile(newData, newData, newData, size, other, k, k);
+                }
+            });
+            forEachTile((tiles - 1) * (tiles - 1), tile -> {
+                int i = tile % (tiles - 1), j = tile / (tiles - 1);
+                minPlusTile(newData, newData, newData, size, i >= k ? i + 1 : i, j >= k ? j + 1 : j, k);
+            });
+        }
+        return new SquareMatrix(this.size, newData);
+    }
+
+    /**
+     * Runs the task for every tile index, in parallel for large matrices
+     */
+    private void forEachTile(int tiles, IntConsumer task) {
+        if (size >= MIN_PLUS_PARALLEL_SIZE && tiles > 1) {
+            ThreadPools.MATRIX_EXECUTOR.submit(() -> IntStream.range(0, tiles).parallel().forEach(task)).join();
+        } else {
+            for (int tile = 0; tile < tiles; tile++) {
+                task.accept(tile);
+            }
+        }
+    }
+
+    /**
+     * Relaxes tile {@code (iTile, jTile)} of C through tile column kTile of A and tile row kTile of B, with
+     * {@code C(i, j) = min(C(i, j), A(i, k) + B(k, j))} for k in order. The arrays may be the same.
+     */
+    private static void minPlusTile(double[] c, double[] a, double[] b, int n, int iTile, int jTile, int kTile) {
+        int iFrom = iTile * MIN_PLUS_TILE, rows = Math.min(n, iFrom + MIN_PLUS_TILE) - iFrom;
+        int jFrom = jTile * MIN_PLUS_TILE, jTo = Math.min(n, jFrom + MIN_PLUS_TILE);
+        int kFrom = kTile * MIN_PLUS_TILE, kTo = Math.min(n, kFrom + MIN_PLUS_TILE);
+        // The JIT only vectorizes the relaxation when both arrays are indexed from 0, so it runs over copies.
+        double[][] columns = new double[kTo - kFrom][];
+        for (int k = kFrom; k < kTo; k++) {
+            columns[k - kFrom] = Arrays.copyOfRange(a, iFrom + k * n, iFrom + k * n + rows);
+        }
+        double[] column = new double[rows];
+        boolean readsItself = (c == a && jTile == kTile) || (c == b && iTile == kTile);
+        if (readsItself) {
+            // The tile feeds its own relaxation, so k stays outermost and every column of A is refreshed before use.
+            for (int k = kFrom; k < kTo; k++) {
+                double[] aColumn = columns[k - kFrom];
+                if (c == a)
+                    System.arraycopy(c, iFrom + k * n, aColumn, 0, rows);
+                for (int j = jFrom; j < jTo; j++) {
+                    double bkj = b[k + j * n];
+                    if (bkj == Double.POSITIVE_INFINITY)
+                        continue;
+
+                    int cColumn = iFrom + j * n;
+                    System.arraycopy(c, cColumn, column, 0, rows);
+                    relax(column, aColumn, bkj);
+                    System.arraycopy(column, 0, c, cColumn, rows);
+                }
+            }
+            return;
+        }
+
+        // Otherwise each column of the C tile is relaxed through every k while it stays in cache.
+        for (int j = jFrom; j < jTo; j++) {
+            int cColumn = iFrom + j * n;
+            System.arraycopy(c, cColumn, column, 0, rows);
+            for (int k = kFrom; k < kTo; k++) {
+                double bkj = b[k + j * n];
+                if (bkj != Double.POSITIVE_INFINITY)
+                    relax(column, columns[k - kFrom], bkj);
+            }
+            System.arraycopy(column, 0, c, cColumn, rows);
+        }
+    }
+
+    private static void relax(double[] column, double[] aColumn, double bkj) {
+        for (int i = 0; i < column.length; i++) {
+            column[i] = Math.min(column[i], aColumn[i] + bkj);
+        }
+    }
+
     /**
      * Gets the element at the ith row in the jth column
      *
@@ -160,6 +382,20 @@ public class SquareMatrix {
         return data[(i - 1) + (j - 1) * size];
     }
 
+    /**
+     * Sets the element at the ith row in the jth column
+     *
+     * @param i the row
+     * @param j the col
+     * @param value the element
+     */
+    public void setElement(int i, int j, double value) {
+        if (i < 1 || i > size || j < 1 || j > size)
+            throw new IllegalArgumentException("Elements are out of bounds for matrix with size " + size + ". i=" + i + ", j=" + j);
+
+        data[(i - 1) + (j - 1) * size] = value;
+    }
+
     /**
      * Creates a submatrix at the given coordinate with the given size
      *
@@ -227,11 +463,66 @@ public class SquareMatrix {
         return true;
     }
 
+    /**
+     * Checks if this matrix holds exactly the same elements as the other.
+     * Unlike {@link #equals(Object)} this does not tolerate rounding differences, so it is consistent with {@link #hashCode()}.
+     *
+     * @param other the other matrix
+     * @return true if the matrices are identical
+     */
+    public boolean identical(SquareMatrix other) {
+        return size == other.size && Arrays.equals(data, other.data);
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(Arrays.hashCode(data), size);
     }
 
+    /**
+     * Writes the elements of this matrix to the buffer, column by column
+     *
+     * @param buffer the buffer, with room for {@code size * size} elements
+     */
+    public void write(DoubleBuffer buffer) {
+        buffer.put(data);
+    }
+
+    /**
+     * Reads a matrix written by {@link #write(DoubleBuffer)}
+     *
+     * @param size the size
+     * @param buffer the buffer
+     * @return the matrix
+     */
+    public static SquareMatrix read(int size, DoubleBuffer buffer) {
+        if (size <= 0)
+            throw new IllegalArgumentException("Size must be positive. Was " + size);
+
+        double[] data = new double[Math.multiplyExact(size, size)];
+        buffer.get(data);
+        return new SquareMatrix(size, data);
+    }
+
+    /**
+     * Calculates the determinant of this matrix through its {@link LUDecomposition}
+     *
+     * @return the determinant
+     */
+    public double determinant() {
+        return new LUDecomposition(this).determinant();
+    }
+
+    /**
+     * Calculates the inverse of this matrix through its {@link LUDecomposition}
+     *
+     * @return the inverse
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public SquareMatrix inverse() {
+        return new LUDecomposition(this).inverse();
+    }
+
     /**
      * Creates a square matrix with pseudo random values from (-1)-1 with the given size
      *
@@ -239,15 +530,35 @@ public class SquareMatrix {
      * @return the square matrix
      */
     public static SquareMatrix random(int n) {
+        return random(n, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates a square matrix with pseudo random values from (-1)-1 with the given size, generated in parallel.
+     * The same seed always produces the same matrix.
+     *
+     * @param n the size
+     * @param seed the seed
+     * @return the square matrix
+     */
+    public static SquareMatrix random(int n, long seed) {
         if (n <= 0)
             throw new IllegalArgumentException("Matrix size must be at least 1. Was " + n);
 
-        Random random = new Random();
-        double[] data = new double[n * n];
-        for (int i = 0; i < data.length; i++) {
-            data[i] = random.nextDouble(-1, 1);
-        }
-        return new SquareMatrix(n, data);
+        return new SquareMatrix(n, RandomData.doubles(Math.multiplyExact(n, n), seed, -1, 1));
+    }
+
+    /**
+     * Creates a square matrix with every element set to the given value
+     *
+     * @param n the size
+     * @param value the value
+     * @return the square matrix
+     */
+    public static SquareMatrix filled(int n, double value) {
+        SquareMatrix matrix = new SquareMatrix(n);
+        Arrays.fill(matrix.data, value);
+        return matrix;
     }
 
     /**
@@ -298,8 +609,17 @@ public class SquareMatrix {
      * @return the resulting matrix
      */
     public static SquareMatrix matrixMultiplyNaive(SquareMatrix matrix1, SquareMatrix matrix2) {
-        if (matrix1.getSize() == 1)
+        try (Phase phase = Instrumentation.phase("naive")) {
+            return matrixMultiplyNaive(matrix1, matrix2, 0);
+        }
+    }
+
+    private static SquareMatrix matrixMultiplyNaive(SquareMatrix matrix1, SquareMatrix matrix2, int depth) {
+        Instrumentation.depth(depth);
+        if (matrix1.getSize() == 1) {
+            Instrumentation.increment(Counter.FLOPS);
             return SquareMatrix.fromElements(matrix1.getElement(1, 1) * matrix2.getElement(1, 1));
+        }
 
         int halfSize = matrix1.getSize() / 2;
         SquareMatrix a11 = matrix1.subMatrix(1, 1, halfSize);
@@ -312,24 +632,42 @@ public class SquareMatrix {
         SquareMatrix b21 = matrix2.subMatrix(halfSize + 1, 1, halfSize);
         SquareMatrix b22 = matrix2.subMatrix(halfSize + 1, halfSize + 1, halfSize);
 
-        SquareMatrix c11 = matrixMultiplyNaive(a11, b11).plusIP(matrixMultiplyNaive(a12, b21));
-        SquareMatrix c12 = matrixMultiplyNaive(a11, b12).plusIP(matrixMultiplyNaive(a12, b22));
-        SquareMatrix c21 = matrixMultiplyNaive(a21, b11).plusIP(matrixMultiplyNaive(a22, b21));
-        SquareMatrix c22 = matrixMultiplyNaive(a21, b12).plusIP(matrixMultiplyNaive(a22, b22));
+        SquareMatrix c11 = matrixMultiplyNaive(a11, b11, depth + 1).plusIP(matrixMultiplyNaive(a12, b21, depth + 1));
+        SquareMatrix c12 = matrixMultiplyNaive(a11, b12, depth + 1).plusIP(matrixMultiplyNaive(a12, b22, depth + 1));
+        SquareMatrix c21 = matrixMultiplyNaive(a21, b11, depth + 1).plusIP(matrixMultiplyNaive(a22, b21, depth + 1));
+        SquareMatrix c22 = matrixMultiplyNaive(a21, b12, depth + 1).plusIP(matrixMultiplyNaive(a22, b22, depth + 1));
 
         return SquareMatrix.fromParts(c11, c12, c21, c22);
     }
 
     /**
-     * Performs a strassen matrix multiplication
+     * Performs a strassen matrix multiplication.
+     * Matrices of any size are accepted, halves of an odd size or of at most {@link #STRASSEN_CUTOFF} are
+     * multiplied with {@link #matrixProduct(SquareMatrix)}.
      *
      * @param matrix1 the first matrix
      * @param matrix2 the second matrix
      * @return the resulting matrix
      */
     public static SquareMatrix matrixMultiplyStrassen(SquareMatrix matrix1, SquareMatrix matrix2) {
-        if (matrix1.getSize() == 1)
-            return SquareMatrix.fromElements(matrix1.getElement(1, 1) * matrix2.getElement(1, 1));
+        try (Phase phase = Instrumentation.phase("strassen")) {
+            return matrixMultiplyStrassen(matrix1, matrix2, 0);
+        }
+    }
+
+    /**
+     * Reports that one of the seven products of the outermost strassen step completed
+     */
+    private static void strassenProgress(int depth, int completed) {
+        if (depth == 0)
+            Instrumentation.progress("strassen", completed, 7);
+    }
+
+    private static SquareMatrix matrixMultiplyStrassen(SquareMatrix matrix1, SquareMatrix matrix2, int depth) {
+        Instrumentation.depth(depth);
+        // Below the cutoff the extra additions and allocations outweigh the saved multiplication.
+        if (matrix1.getSize() <= STRASSEN_CUTOFF || matrix1.getSize() % 2 != 0)
+            return matrix1.matrixProduct(matrix2);
 
         int halfSize = matrix1.getSize() / 2;
         SquareMatrix a11 = matrix1.subMatrix(1, 1, halfSize);
@@ -355,29 +693,43 @@ public class SquareMatrix {
 
         SquareMatrix p1, p2, p3, p4, p5, p6, p7;
         if (matrix1.getSize() >= STRASSEN_PARALLELIZE_THRESHOLD) {
-            var p1j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(a11, s1));
-            var p2j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(s2, b22));
-            var p3j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(s3, b11));
-            var p4j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(a22, s4));
-            var p5j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(s5, s6));
-            var p6j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(s7, s7));
-            var p7j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(s9, s10));
+            var p1j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(a11, s1, depth + 1));
+            var p2j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(s2, b22, depth + 1));
+            var p3j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(s3, b11, depth + 1));
+            var p4j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(a22, s4, depth + 1));
+            var p5j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(s5, s6, depth + 1));
+            var p6j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(s7, s8, depth + 1));
+            var p7j = ThreadPools.MATRIX_EXECUTOR.submit(() -> matrixMultiplyStrassen(s9, s10, depth + 1));
 
             p1 = p1j.join();
+            strassenProgress(depth, 1);
             p2 = p2j.join();
+            strassenProgress(depth, 2);
             p3 = p3j.join();
+            strassenProgress(depth, 3);
             p4 = p4j.join();
+            strassenProgress(depth, 4);
             p5 = p5j.join();
+            strassenProgress(depth, 5);
             p6 = p6j.join();
+            strassenProgress(depth, 6);
             p7 = p7j.join();
+            strassenProgress(depth, 7);
         } else {
-            p1 = matrixMultiplyStrassen(a11, s1);
-            p2 = matrixMultiplyStrassen(s2, b22);
-            p3 = matrixMultiplyStrassen(s3, b11);
-            p4 = matrixMultiplyStrassen(a22, s4);
-            p5 = matrixMultiplyStrassen(s5, s6);
-            p6 = matrixMultiplyStrassen(s7, s8);
-            p7 = matrixMultiplyStrassen(s9, s10);
+            p1 = matrixMultiplyStrassen(a11, s1, depth + 1);
+            strassenProgress(depth, 1);
+            p2 = matrixMultiplyStrassen(s2, b22, depth + 1);
+            strassenProgress(depth, 2);
+            p3 = matrixMultiplyStrassen(s3, b11, depth + 1);
+            strassenProgress(depth, 3);
+            p4 = matrixMultiplyStrassen(a22, s4, depth + 1);
+            strassenProgress(depth, 4);
+            p5 = matrixMultiplyStrassen(s5, s6, depth + 1);
+            strassenProgress(depth, 5);
+            p6 = matrixMultiplyStrassen(s7, s8, depth + 1);
+            strassenProgress(depth, 6);
+            p7 = matrixMultiplyStrassen(s9, s10, depth + 1);
+            strassenProgress(depth, 7);
         }
 
         SquareMatrix c11 = p5.plus(p4).minusIP(p2).plusIP(p6);
@@ -385,9 +737,6 @@ public class SquareMatrix {
         SquareMatrix c21 = p3.plus(p4);
         SquareMatrix c22 = p5.plusIP(p1).minusIP(p3).minusIP(p7);
 
-        if (c11.getSize() >= 256) {
-            System.out.println("Completed multiplication of " + c11.getSize() * 2 + " matrix");
-        }
         return SquareMatrix.fromParts(c11, c12, c21, c22);
     }
 }
@@ -0,0 +1,264 @@
+package com.golfing8.struct;
+
+import com.golfing8.concurrent.ThreadPools;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * A static uniform grid of square cells over the bounding box of a set of points.
+ * <p></p>
+ * The points are bucketed by cell with a counting sort, so the points of cell {@code c} are
+ * {@code [cellStart[c], cellStart[c + 1])} and the cells of a grid row are contiguous. The cell size is chosen to
+ * hold a couple of points on average, which suits evenly spread points. Heavily clustered points are better
+ * served by a {@link KdTree}.
+ * This structure is thread safe once built.
+ */
+public class UniformGrid {
+    /** The average amount of points per cell the grid aims for */
+    private static final int POINTS_PER_CELL = 2;
+    /** Point sets with at least this many points are bucketed in parallel */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final double minX;
+    private final double minY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStart;
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] ids;
+
+    /**
+     * Builds a grid over the given points. The point set is not retained.
+     *
+     * @param points the points
+     */
+    public UniformGrid(PointSet points) {
+        int n = points.size();
+        if (n == 0)
+            throw new IllegalArgumentException("Cannot build a grid over no points");
+
+        boolean parallel = n >= PARALLEL_THRESHOLD;
+        double[] bounds = parallel ? ThreadPools.ARRAY_EXECUTOR.submit(() -> bounds(points, true)).join() : bounds(points, false);
+        this.minX = bounds[0];
+        this.minY = bounds[1];
+        double width = bounds[2] - minX;
+        double height = bounds[3] - minY;
+
+        double cells = Math.max(1.0, (double) n / POINTS_PER_CELL);
+        double size = Math.sqrt(width * height / cells);
+        // Degenerate boxes, such as collinear points, still need a positive size.
+        if (!(size > 0))
+            size = Math.max(width, height) / cells;
+        if (!(size > 0))
+            size = 1;
+        this.cellSize = size;
+        this.columns = (int) Math.min(cells, Math.floor(width / size)) + 1;
+        this.rows = (int) Math.min(cells, Math.floor(height / size)) + 1;
+
+        int cellCount = Math.multiplyExact(columns, rows);
+        this.cellStart = new int[cellCount + 1];
+        this.xs = new double[n];
+        this.ys = new double[n];
+        this.ids = new int[n];
+        if (parallel) {
+            ThreadPools.ARRAY_EXECUTOR.submit(() -> bucketParallel(points, cellCount)).join();
+        } else {
+            bucket(points);
+        }
+    }
+
+    private static double[] bounds(PointSet points, boolean parallel) {
+        IntStream indices = IntStream.range(0, points.size());
+        if (parallel)
+            indices = indices.parallel();
+        return indices.collect(() -> new double[] {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY},
+                (box, i) -> {
+                    box[0] = Math.min(box[0], points.x(i));
+                    box[1] = Math.min(box[1], points.y(i));
+                    box[2] = Math.max(box[2], points.x(i));
+                    box[3] = Math.max(box[3], points.y(i));
+                }, (box, other) -> {
+                    box[0] = Math.min(box[0], other[0]);
+                    box[1] = Math.min(box[1], other[1]);
+                    box[2] = Math.max(box[2], other[2]);
+                    box[3] = Math.max(box[3], other[3]);
+                });
+    }
+
+    private int column(double x) {
+        return Math.clamp((long) Math.floor((x - minX) / cellSize), 0, columns - 1);
+    }
+
+    private int row(double y) {
+        return Math.clamp((long) Math.floor((y - minY) / cellSize), 0, rows - 1);
+    }
+
+    private int cell(double x, double y) {
+        return row(y) * columns + column(x);
+    }
+
+    private void bucket(PointSet points) {
+        int n = points.size();
+        int[] cells = new int[n];
+        for (int i = 0; i < n; i++) {
+            cells[i] = cell(points.x(i), points.y(i));
+            cellStart[cells[i] + 1]++;
+        }
+        for (int c = 0; c < cellStart.length - 1; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        int[] cursor = cellStart.clone();
+        for (int i = 0; i < n; i++) {
+            int index = cursor[cells[i]]++;
+            xs[index] = points.x(i);
+            ys[index] = points.y(i);
+            ids[index] = i;
+        }
+    }
+
+    private void bucketParallel(PointSet points, int cellCount) {
+        int n = points.size();
+        int[] cells = new int[n];
+        AtomicIntegerArray counts = new AtomicIntegerArray(cellCount);
+        IntStream.range(0, n).parallel().forEach(i -> {
+            cells[i] = cell(points.x(i), points.y(i));
+            counts.getAndIncrement(cells[i]);
+        });
+        for (int c = 0; c < cellCount; c++) {
+            cellStart[c + 1] = cellStart[c] + counts.get(c);
+        }
+
+        // Reuse the counts as cursors. Points within a cell end up in no particular order.
+        for (int c = 0; c < cellCount; c++) {
+            counts.set(c, cellStart[c]);
+        }
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int index = counts.getAndIncrement(cells[i]);
+            xs[index] = points.x(i);
+            ys[index] = points.y(i);
+            ids[index] = i;
+        });
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    private double distanceSquared(int index, double x, double y) {
+        double distX = xs[index] - x;
+        double distY = ys[index] - y;
+        return distX * distX + distY * distY;
+    }
+
+    /**
+     * Offers every point of the cells {@code [firstColumn, lastColumn]} of a row to the neighbors
+     */
+    private void offerRow(int row, int firstColumn, int lastColumn, double x, double y, NearestNeighbors neighbors) {
+        if (row < 0 || row >= rows)
+            return;
+
+        int from = cellStart[row * columns + Math.max(0, firstColumn)];
+        int to = cellStart[row * columns + Math.min(columns - 1, lastColumn) + 1];
+        for (int i = from; i < to; i++) {
+            double distance = distanceSquared(i, x, y);
+            if (distance < neighbors.bound())
+                neighbors.offer(distance, ids[i]);
+        }
+    }
+
+    /**
+     * Finds the k points nearest to the given location, searching rings of cells outwards from it
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param k the amount of points
+     * @return the indices of at most k points, nearest first
+     */
+    public int[] nearest(double x, double y, int k) {
+        NearestNeighbors neighbors = new NearestNeighbors(k);
+        int column = column(x);
+        int row = row(y);
+        int maxRing = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (ring == 0) {
+                offerRow(row, column, column, x, y, neighbors);
+            } else {
+                offerRow(row - ring, column - ring, column + ring, x, y, neighbors);
+                offerRow(row + ring, column - ring, column + ring, x, y, neighbors);
+                if (column - ring >= 0) {
+                    for (int r = Math.max(0, row - ring + 1); r <= Math.min(rows - 1, row + ring - 1); r++) {
+                        offerRow(r, column - ring, column - ring, x, y, neighbors);
+                    }
+                }
+                if (column + ring < columns) {
+                    for (int r = Math.max(0, row - ring + 1); r <= Math.min(rows - 1, row + ring - 1); r++) {
+                        offerRow(r, column + ring, column + ring, x, y, neighbors);
+                    }
+                }
+            }
+
+            // Every unvisited point lies outside the block of searched cells.
+            double left = x - (minX + (column - ring) * cellSize);
+            double right = minX + (column + ring + 1) * cellSize - x;
+            double bottom = y - (minY + (row - ring) * cellSize);
+            double top = minY + (row + ring + 1) * cellSize - y;
+            double reach = Math.min(Math.min(left, right), Math.min(bottom, top));
+            if (reach > 0 && reach * reach >= neighbors.bound())
+                break;
+        }
+        return neighbors.drain();
+    }
+
+    /**
+     * Finds every point within the given distance of a location
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param radius the distance, inclusive
+     * @return the indices of the points, in no particular order
+     */
+    public int[] withinRadius(double x, double y, double radius) {
+        IntStream.Builder result = IntStream.builder();
+        double radiusSquared = radius * radius;
+        int firstColumn = column(x - radius), lastColumn = column(x + radius);
+        for (int row = row(y - radius); row <= row(y + radius); row++) {
+            int from = cellStart[row * columns + firstColumn];
+            int to = cellStart[row * columns + lastColumn + 1];
+            for (int i = from; i < to; i++) {
+                if (distanceSquared(i, x, y) <= radiusSquared)
+                    result.add(ids[i]);
+            }
+        }
+        return result.build().toArray();
+    }
+
+    /**
+     * Finds every point within the given axis aligned rectangle, bounds inclusive
+     *
+     * @param minX the lowest x coordinate
+     * @param minY the lowest y coordinate
+     * @param maxX the highest x coordinate
+     * @param maxY the highest y coordinate
+     * @return the indices of the points, in no particular order
+     */
+    public int[] withinRectangle(double minX, double minY, double maxX, double maxY) {
+        if (minX > maxX || minY > maxY)
+            return new int[0];
+
+        IntStream.Builder result = IntStream.builder();
+        int firstColumn = column(minX), lastColumn = column(maxX);
+        for (int row = row(minY); row <= row(maxY); row++) {
+            int from = cellStart[row * columns + firstColumn];
+            int to = cellStart[row * columns + lastColumn + 1];
+            for (int i = from; i < to; i++) {
+                if (xs[i] >= minX && xs[i] <= maxX && ys[i] >= minY && ys[i] <= maxY)
+                    result.add(ids[i]);
+            }
+        }
+        return result.build().toArray();
+    }
+}
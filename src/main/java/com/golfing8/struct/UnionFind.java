@@ -0,0 +1,102 @@
+package com.golfing8.struct;
+
+import java.util.Arrays;
+
+/**
+ * A disjoint-set forest over the elements {@code 0..n-1}.
+ * <p></p>
+ * Uses union by rank and path halving, giving amortized O(α(n)) operations.
+ * This structure is <b>not</b> thread safe, see {@link ConcurrentUnionFind} for a concurrent variant.
+ */
+public class UnionFind {
+    /** The parent of each element. Roots are their own parent. */
+    private final int[] parent;
+    /** The rank (upper bound on height) of each root */
+    private final byte[] rank;
+    /** The amount of disjoint sets remaining */
+    private int components;
+
+    /**
+     * Creates a union find where every element is in its own set
+     *
+     * @param size the amount of elements
+     */
+    public UnionFind(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("Size must be non-negative. Was " + size);
+
+        this.parent = new int[size];
+        this.rank = new byte[size];
+        this.components = size;
+        Arrays.setAll(parent, i -> i);
+    }
+
+    /**
+     * Finds the representative of the set containing the given element
+     *
+     * @param x the element
+     * @return the representative
+     */
+    public int find(int x) {
+        while (parent[x] != x) {
+            // Path halving, point every other node on the path at its grandparent.
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Merges the sets containing the two given elements
+     *
+     * @param x the first element
+     * @param y the second element
+     * @return true if the sets were disjoint before this call
+     */
+    public boolean union(int x, int y) {
+        int rx = find(x);
+        int ry = find(y);
+        if (rx == ry)
+            return false;
+
+        if (rank[rx] < rank[ry]) {
+            parent[rx] = ry;
+        } else if (rank[rx] > rank[ry]) {
+            parent[ry] = rx;
+        } else {
+            parent[ry] = rx;
+            rank[rx]++;
+        }
+        components--;
+        return true;
+    }
+
+    /**
+     * Checks if the two given elements are in the same set
+     *
+     * @param x the first element
+     * @param y the second element
+     * @return true if they are connected
+     */
+    public boolean connected(int x, int y) {
+        return find(x) == find(y);
+    }
+
+    /**
+     * Gets the amount of disjoint sets
+     *
+     * @return the amount of sets
+     */
+    public int components() {
+        return components;
+    }
+
+    /**
+     * Gets the amount of elements in this structure
+     *
+     * @return the size
+     */
+    public int size() {
+        return parent.length;
+    }
+}
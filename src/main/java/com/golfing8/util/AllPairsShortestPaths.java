@@ -0,0 +1,126 @@
+package com.golfing8.util;
+
+import com.golfing8.instrument.Instrumentation;
+import com.golfing8.instrument.Phase;
+import com.golfing8.struct.NodeIndex;
+import com.golfing8.struct.SquareMatrix;
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.ValueGraph;
+
+/**
+ * All pairs shortest paths over dense graphs, computed on the {@link SquareMatrix} min plus kernels.
+ * Negative edge weights are allowed, negative cycles are not.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public class AllPairsShortestPaths {
+    /**
+     * The shortest distances between every pair of nodes of a graph
+     *
+     * @param nodes the index of every node
+     * @param matrix the distances, with {@code matrix(i, j)} the distance from node i to node j, 1 indexed
+     * @param <T> the node type
+     */
+    public record Distances<T>(NodeIndex<T> nodes, SquareMatrix matrix) {
+        /**
+         * Gets the length of the shortest path between two nodes
+         *
+         * @param from the first node
+         * @param to the last node
+         * @return the distance, or infinity if there is no path
+         */
+        public double distance(T from, T to) {
+            return matrix.getElement(nodes.index(from) + 1, nodes.index(to) + 1);
+        }
+
+        /**
+         * Checks if there is a path between two nodes
+         *
+         * @param from the first node
+         * @param to the last node
+         * @return true if the last node is reachable from the first
+         */
+        public boolean isReachable(T from, T to) {
+            return distance(from, to) != Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Builds the weight matrix of a graph, with 0 on the diagonal and infinity where there is no edge
+     */
+    private static <T> SquareMatrix weights(NodeIndex<T> nodes, ValueGraph<T, Double> graph) {
+        if (nodes.size() == 0)
+            throw new IllegalArgumentException("Graph has no nodes");
+
+        SquareMatrix weights = SquareMatrix.filled(nodes.size(), Double.POSITIVE_INFINITY);
+        for (int i = 1; i <= nodes.size(); i++) {
+            weights.setElement(i, i, 0);
+        }
+        for (EndpointPair<T> edge : graph.edges()) {
+            int u = nodes.index(edge.nodeU()) + 1, v = nodes.index(edge.nodeV()) + 1;
+            double weight = graph.edgeValueOrDefault(edge, 0.0);
+            weights.setElement(u, v, Math.min(weights.getElement(u, v), weight));
+            if (!graph.isDirected())
+                weights.setElement(v, u, Math.min(weights.getElement(v, u), weight));
+        }
+        return weights;
+    }
+
+    private static void checkNegativeCycles(SquareMatrix distances) {
+        for (int i = 1; i <= distances.getSize(); i++) {
+            if (distances.getElement(i, i) < 0)
+                throw new IllegalArgumentException("Graph has a negative cycle through node index " + (i - 1));
+        }
+    }
+
+    /**
+     * Computes the distances between every pair of nodes with a blocked, parallel Floyd-Warshall
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n^3) Time</li>
+     *     <li>O(n^2) Space</li>
+     * </ul>
+     *
+     * @param graph the graph
+     * @return the distances
+     * @param <T> the node type
+     */
+    public static <T> Distances<T> floydWarshall(ValueGraph<T, Double> graph) {
+        try (Phase phase = Instrumentation.phase("floydWarshall")) {
+            NodeIndex<T> nodes = new NodeIndex<>(graph.nodes());
+            SquareMatrix distances = weights(nodes, graph).minPlusClosure();
+            checkNegativeCycles(distances);
+            return new Distances<>(nodes, distances);
+        }
+    }
+
+    /**
+     * Computes the distances between every pair of nodes by squaring the weight matrix under the min plus product,
+     * stopping once the distances no longer change
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n^3 * logn) Time</li>
+     *     <li>O(n^2) Space</li>
+     * </ul>
+     *
+     * @param graph the graph
+     * @return the distances
+     * @param <T> the node type
+     */
+    public static <T> Distances<T> repeatedSquaring(ValueGraph<T, Double> graph) {
+        try (Phase phase = Instrumentation.phase("repeatedSquaring")) {
+            NodeIndex<T> nodes = new NodeIndex<>(graph.nodes());
+            SquareMatrix distances = weights(nodes, graph);
+            // After squaring s times every path of up to 2^s edges has been considered, n edges close any cycle.
+            for (long edges = 1; edges < nodes.size(); edges *= 2) {
+                SquareMatrix squared = distances.minPlusProduct(distances);
+                if (squared.identical(distances))
+                    break;
+                distances = squared;
+            }
+            checkNegativeCycles(distances);
+            return new Distances<>(nodes, distances);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.golfing8.util;
+
+import java.util.Arrays;
+
+/**
+ * Iterative searches over sorted arrays.
+ * <p></p>
+ * The loops always run {@code ceil(log2(n))} steps whatever the data, and the comparison only selects the next
+ * base index, which the JIT compiles to a conditional move rather than an unpredictable branch. Because every
+ * search of the same array follows the same schedule, the batched variants can step several independent searches
+ * in lock step so their cache misses overlap.
+ * <p></p>
+ * Complexity:
+ * <ul>
+ *     <li>O(logn) Time</li>
+ *     <li>O(1) Space</li>
+ * </ul>
+ */
+public class BranchlessSearch {
+    /** The amount of searches interleaved by the batched lookups */
+    private static final int BATCH = 16;
+
+    /**
+     * Finds the first index whose element is not less than the key
+     *
+     * @param array the sorted array
+     * @param key the key
+     * @return the index, or {@code array.length} if every element is less than the key
+     */
+    public static int lowerBound(double[] array, double key) {
+        int length = array.length;
+        if (length == 0)
+            return 0;
+
+        int base = 0;
+        while (length > 1) {
+            int half = length >>> 1;
+            base = array[base + half - 1] < key ? base + half : base;
+            length -= half;
+        }
+        return array[base] < key ? base + 1 : base;
+    }
+
+    /**
+     * Finds the first index whose element is greater than the key
+     *
+     * @param array the sorted array
+     * @param key the key
+     * @return the index, or {@code array.length} if no element is greater than the key
+     */
+    public static int upperBound(double[] array, double key) {
+        int length = array.length;
+        if (length == 0)
+            return 0;
+
+        int base = 0;
+        while (length > 1) {
+            int half = length >>> 1;
+            base = array[base + half - 1] <= key ? base + half : base;
+            length -= half;
+        }
+        return array[base] <= key ? base + 1 : base;
+    }
+
+    /**
+     * Finds the index of an element equal to the key
+     *
+     * @param array the sorted array
+     * @param key the key
+     * @return the index of the first equal element, or -1
+     */
+    public static int indexOf(double[] array, double key) {
+        int index = lowerBound(array, key);
+        return index < array.length && array[index] == key ? index : -1;
+    }
+
+    /**
+     * Computes {@link #lowerBound(double[], double)} for every key
+     *
+     * @param array the sorted array
+     * @param keys the keys
+     * @param results the array to store the result for each key in
+     */
+    public static void lowerBounds(double[] array, double[] keys, int[] results) {
+        if (results.length < keys.length)
+            throw new IllegalArgumentException("Results array is too small. Expected at least " + keys.length + " was " + results.length);
+        if (array.length == 0) {
+            Arrays.fill(results, 0, keys.length, 0);
+            return;
+        }
+
+        int[] bases = new int[BATCH];
+        int i = 0;
+        for (; i + BATCH <= keys.length; i += BATCH) {
+            Arrays.fill(bases, 0);
+            int length = array.length;
+            while (length > 1) {
+                int half = length >>> 1;
+                for (int j = 0; j < BATCH; j++) {
+                    int base = bases[j];
+                    bases[j] = array[base + half - 1] < keys[i + j] ? base + half : base;
+                }
+                length -= half;
+            }
+            for (int j = 0; j < BATCH; j++) {
+                int base = bases[j];
+                results[i + j] = array[base] < keys[i + j] ? base + 1 : base;
+            }
+        }
+        for (; i < keys.length; i++) {
+            results[i] = lowerBound(array, keys[i]);
+        }
+    }
+}
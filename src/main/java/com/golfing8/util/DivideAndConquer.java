@@ -1,5 +1,7 @@
 package com.golfing8.util;
 
+import com.golfing8.instrument.Instrumentation;
+import com.golfing8.instrument.Phase;
 import com.golfing8.struct.Pair;
 import com.golfing8.struct.Point2D;
 
@@ -13,10 +15,10 @@ import java.util.concurrent.ThreadLocalRandom;
  */
 public class DivideAndConquer {
     private static int[] maxSubArrayCrossing(int[] array, int low, int mid, int high) {
-        int maxLeft = 0;
-        int leftSum = Integer.MIN_VALUE;
-        int sum = 0;
-        for (int i = mid; i >= low; i--) {
+        int maxLeft = mid - 1;
+        long leftSum = Long.MIN_VALUE;
+        long sum = 0;
+        for (int i = mid - 1; i >= low; i--) {
             sum = sum + array[i];
             if (sum > leftSum) {
                 leftSum = sum;
@@ -24,35 +26,43 @@ public class DivideAndConquer {
             }
         }
 
-        int maxRight = 0;
-        int rightSum = Integer.MIN_VALUE;
+        int maxRight = mid;
+        long rightSum = Long.MIN_VALUE;
         sum = 0;
-        for (int i = mid + 1; i < high; i++) {
+        for (int i = mid; i < high; i++) {
             sum = sum + array[i];
             if (sum > rightSum) {
                 rightSum = sum;
                 maxRight = i;
             }
         }
-        return new int[] {maxLeft, maxRight, leftSum + rightSum};
+        return new int[] {maxLeft, maxRight, Math.toIntExact(leftSum + rightSum)};
     }
 
     /**
-     * Calculates the maximum sub array for the given array
+     * Calculates the maximum sub array for the given array.
+     * See {@link MaxSubArray} for a parallel and streaming version with long sums.
      *
      * @param array the array
      * @param low the low bounds
      * @param high the high bounds, exclusive
-     * @return the maximum sub array
+     * @return the maximum sub array, as its first index, last index and sum
      */
     public static int[] maxSubArray(int[] array, int low, int high) {
-        if (low == high) {
-            return new int[] {low, high, array[low]};
+        return maxSubArray(array, low, high, 0);
+    }
+
+    private static int[] maxSubArray(int[] array, int low, int high, int depth) {
+        Instrumentation.depth(depth);
+        if (high <= low)
+            throw new IllegalArgumentException("Range must not be empty. Was [" + low + ", " + high + ")");
+        if (high - low == 1) {
+            return new int[] {low, low, array[low]};
         }
 
-        int mid = (low + high) / 2;
-        int[] left = maxSubArray(array, low, mid);
-        int[] right = maxSubArray(array, mid + 1, high);
+        int mid = (low + high) >>> 1;
+        int[] left = maxSubArray(array, low, mid, depth + 1);
+        int[] right = maxSubArray(array, mid, high, depth + 1);
         int[] cross = maxSubArrayCrossing(array, low, mid, high);
         if (left[2] > right[2] && left[2] > cross[2])
             return left;
@@ -63,55 +73,65 @@ public class DivideAndConquer {
     }
 
     /**
-     * Performs a partition on the given array
+     * Performs an in place three way partition on the given range around the element at {@code p}.
+     * Afterward, {@code [p, lt)} holds the elements less than the pivot, {@code [lt, gt]} the elements equal
+     * to it and {@code (gt, q)} the elements greater than it. Elements are ordered as in {@link Double#compare(double, double)}.
      *
      * @param array the array
      * @param p the low (pivot) index
-     * @param q the high index
-     * @return the new index of the pivot
+     * @param q the high index, exclusive
+     * @return the bounds of the equal range, packed as {@code lt << 32 | gt}
      */
-    private static int partition(double[] array, int p, int q) {
-        double[] left = new double[array.length];
-        int li = 0;
-        double[] right = new double[array.length];
-        int ri = 0;
-        for (int i = p; i < q; i++) {
-            if (array[i] < array[p]) {
-                left[li++] = array[i];
-            } else if (array[i] > array[p]) {
-                right[ri++] = array[i];
+    static long partition(double[] array, int p, int q) {
+        double pivot = array[p];
+        int lt = p;
+        int i = p + 1;
+        int gt = q - 1;
+        while (i <= gt) {
+            int comparison = Double.compare(array[i], pivot);
+            if (comparison < 0) {
+                swap(array, lt++, i++);
+            } else if (comparison > 0) {
+                swap(array, i, gt--);
+            } else {
+                i++;
             }
         }
-        double pivot = array[p];
-        System.arraycopy(left, 0, array, p, li);
-        array[p + li] = pivot;
-        System.arraycopy(right, 0, array, p + li + 1, ri);
-        return p + li;
+        return ((long) lt << 32) | gt;
     }
 
-    private static void quickSortInternal(double[] array, int p, int q) {
-        if (p >= q - 1)
-            return;
-
-        int j = partition(array, p, q);
-        quickSortInternal(array, p, j);
-        quickSortInternal(array, j + 1, q);
+    static int equalStart(long partition) {
+        return (int) (partition >>> 32);
     }
 
-    private static void quickSortInternalRandomized(double[] array, int p, int q) {
-        if (p >= q)
-            return;
+    static int equalEnd(long partition) {
+        return (int) partition;
+    }
 
-        int swapIndex = ThreadLocalRandom.current().nextInt(p, q);
+    private static void swap(double[] array, int i, int j) {
+        double temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
 
-        // Swap the random index to the pivot index expected
-        double temp = array[p];
-        array[p] = array[swapIndex];
-        array[swapIndex] = temp;
+    private static void quickSortInternal(double[] array, int p, int q, boolean randomized, int depth) {
+        Instrumentation.depth(depth);
+        // Recurse into the smaller side and loop on the larger one so the stack stays O(logn) deep.
+        while (p < q - 1) {
+            if (randomized)
+                swap(array, p, ThreadLocalRandom.current().nextInt(p, q));
 
-        int j = partition(array, p, q);
-        quickSortInternalRandomized(array, p, j);
-        quickSortInternalRandomized(array, j + 1, q);
+            long partition = partition(array, p, q);
+            int lt = equalStart(partition);
+            int gt = equalEnd(partition);
+            if (lt - p < q - gt - 1) {
+                quickSortInternal(array, p, lt, randomized, depth + 1);
+                p = gt + 1;
+            } else {
+                quickSortInternal(array, gt + 1, q, randomized, depth + 1);
+                q = lt;
+            }
+        }
     }
 
     /**
@@ -119,13 +139,15 @@ public class DivideAndConquer {
      * This algorithm has the following complexity:
      * <ul>
      *     <li>O(nlogn) Time</li>
-     *     <li>O(n) Space</li>
+     *     <li>O(logn) Space</li>
      * </ul>
      *
      * @param array the array
      */
     public static void quickSortRandomized(double[] array) {
-        quickSortInternalRandomized(array, 0, array.length);
+        try (Phase phase = Instrumentation.phase("quickSort")) {
+            quickSortInternal(array, 0, array.length, true, 0);
+        }
     }
 
     /**
@@ -133,20 +155,25 @@ public class DivideAndConquer {
      * This algorithm has the following complexity:
      * <ul>
      *     <li>O(n^2) Time</li>
-     *     <li>O(n) Space</li>
+     *     <li>O(logn) Space</li>
      * </ul>
      *
      * @param array the array
      */
     public static void quickSort(double[] array) {
-        quickSortInternal(array, 0, array.length);
+        try (Phase phase = Instrumentation.phase("quickSort")) {
+            quickSortInternal(array, 0, array.length, false, 0);
+        }
     }
 
+    /**
+     * Searches the inclusive range {@code [low, high]} for the key
+     */
     private static int binarySearch(double[] array, int low, int high, double key) {
         if (low > high)
             return -1;
 
-        int mid = (low + high) / 2;
+        int mid = (low + high) >>> 1;
         if (array[mid] == key)
             return mid;
 
@@ -170,7 +197,7 @@ public class DivideAndConquer {
      * @return the index of the found element, or -1
      */
     public static int binarySearch(double[] array, double key) {
-        return binarySearch(array, 0, array.length, key);
+        return binarySearch(array, 0, array.length - 1, key);
     }
 
     private static Pair<Point2D, Point2D> closestOfThree(Point2D p1, Point2D p2, Point2D p3) {
@@ -185,7 +212,8 @@ public class DivideAndConquer {
             return new Pair<>(p2, p3);
     }
 
-    private static Pair<Point2D, Point2D> closestPair(List<Point2D> x, List<Point2D> y) {
+    private static Pair<Point2D, Point2D> closestPair(List<Point2D> x, List<Point2D> y, int depth) {
+        Instrumentation.depth(depth);
         int n = x.size();
         if (n == 2)
             return new Pair<>(x.getFirst(), x.getLast());
@@ -196,8 +224,8 @@ public class DivideAndConquer {
 
         int mid = n / 2;
         var midPoint = x.get(mid);
-        var left = closestPair(x.subList(0, mid), y);
-        var right = closestPair(x.subList(mid, x.size()), y);
+        var left = closestPair(x.subList(0, mid), y, depth + 1);
+        var right = closestPair(x.subList(mid, x.size()), y, depth + 1);
         var closest = left.left().distance(left.right()) < right.left().distance(right.right()) ? left : right;
 
         double distance = closest.left().distance(closest.right());
@@ -207,7 +235,7 @@ public class DivideAndConquer {
                 continue;
 
             for (int j = i + 1; j < y.size() && y.get(j).y() - point.y() < distance; j++) {
-                var other = y.get(i + j);
+                var other = y.get(j);
                 double dist = point.distance(other);
                 if (dist < distance) {
                     distance = dist;
@@ -219,7 +247,8 @@ public class DivideAndConquer {
     }
 
     /**
-     * Finds the closest pair of points in the given collection of points
+     * Finds the closest pair of points in the given collection of points.
+     * See {@link com.golfing8.struct.PointSet#closestPair()} for an O(nlogn) version over primitive arrays.
      *
      * @param points the points
      * @return the closest pair of points
@@ -233,6 +262,8 @@ public class DivideAndConquer {
         List<Point2D> ySorted = new ArrayList<>(points);
         ySorted.sort(Point2D.Y);
 
-        return closestPair(xSorted, ySorted);
+        try (Phase phase = Instrumentation.phase("closestPair")) {
+            return closestPair(xSorted, ySorted, 0);
+        }
     }
 }
@@ -1,49 +1,131 @@
 package com.golfing8.util;
 
+import com.golfing8.util.DynamicProgrammingEngine.Traceback;
+
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Contains some dynamic programming algorithm implementations, evaluated by the {@link DynamicProgrammingEngine}.
+ */
 public class DynamicProgramming {
+    /** Traceback choices for the grid recurrences */
+    private static final int DIAGONAL = 1, UP = 2, LEFT = 3;
+
+    /**
+     * Finds a subset with the largest sum not exceeding the target.
+     * See {@link SubsetSum} for a word parallel version using O(t / 64) memory.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n * t) Time</li>
+     *     <li>O(n * t / 8) Space, one traceback bit per cell</li>
+     * </ul>
+     *
+     * @param a the elements, non-negative
+     * @param t the target
+     * @return the chosen elements, from the last index to the first
+     */
     public static int[] subsetSumTarget(int[] a, int t) {
-        int[][] sums = new int[a.length][t];
-        int[][] elements = new int[a.length][t];
+        return subsetSumTarget(a, t, false);
+    }
 
-        for (int i = 0; i < a.length; i++) {
+    /**
+     * Finds a subset with the largest sum not exceeding the target, computing large rows in parallel
+     *
+     * @param a the elements, non-negative
+     * @param t the target
+     * @param parallel if large rows should be computed in parallel
+     * @return the chosen elements, from the last index to the first
+     */
+    public static int[] subsetSumTarget(int[] a, int t, boolean parallel) {
+        // Cell (i, w) is the best sum not exceeding w using the first i + 1 elements.
+        Traceback taken = new Traceback(a.length, t + 1, 1);
+        DynamicProgrammingEngine.rows(a.length, new int[t + 1], (i, w, previous, traceback) -> {
             int element = a[i];
-            for (int j = 0; j < t; j++) {
-                int w = j + 1;
-                if (i == 0) {
-                    if (element <= w) {
-                        sums[i][j] = element;
-                        elements[i][j] = 1;
-                    }
-                } else {
-                    int included = 0;
-                    if (element <= w && sums[i - 1][w - element] + element <= t) {
-                        included = sums[i - 1][w - element] + element;
-                    }
-                    int excluded = sums[i - 1][j];
-                    if (included > excluded) {
-                        sums[i][j] = included;
-                        elements[i][j] = 1;
-                    } else {
-                        sums[i][j] = excluded;
-                    }
-                }
+            int excluded = previous[w];
+            if (element <= w && previous[w - element] + element > excluded) {
+                traceback.set(i, w, 1);
+                return previous[w - element] + element;
             }
-        }
+            return excluded;
+        }, taken, parallel);
 
         List<Integer> ints = new ArrayList<>();
-        int element = sums[a.length - 1][t - 1];
-        int index = a.length - 1;
-        while (element > 0 && index >= 0) {
-            if (elements[index][element - 1] > 0) {
+        int w = t;
+        for (int index = a.length - 1; index >= 0 && w > 0; index--) {
+            if (taken.get(index, w) != 0) {
                 ints.add(a[index]);
-                element -= a[index];
+                w -= a[index];
             }
-            index--;
         }
         return ints.stream().mapToInt(i -> i).toArray();
     }
+
+    /**
+     * Finds a longest common subsequence of two strings
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n * m) Time</li>
+     *     <li>O(n * m / 4) Space, two traceback bits per cell</li>
+     * </ul>
+     *
+     * @param a the first string
+     * @param b the second string
+     * @param parallel if the table should be computed along anti-diagonals in parallel
+     * @return the subsequence
+     */
+    public static String longestCommonSubsequence(String a, String b, boolean parallel) {
+        Traceback choices = new Traceback(a.length(), b.length(), 2);
+        DynamicProgrammingEngine.grid(a.length(), b.length(), column -> 0, row -> 0,
+                (row, column, diagonal, up, left, traceback) -> {
+                    if (a.charAt(row - 1) == b.charAt(column - 1)) {
+                        traceback.set(row - 1, column - 1, DIAGONAL);
+                        return diagonal + 1;
+                    } else if (up >= left) {
+                        traceback.set(row - 1, column - 1, UP);
+                        return up;
+                    }
+                    traceback.set(row - 1, column - 1, LEFT);
+                    return left;
+                }, choices, parallel);
+
+        StringBuilder builder = new StringBuilder();
+        int row = a.length(), column = b.length();
+        while (row > 0 && column > 0) {
+            switch (choices.get(row - 1, column - 1)) {
+                case DIAGONAL -> {
+                    builder.append(a.charAt(row - 1));
+                    row--;
+                    column--;
+                }
+                case UP -> row--;
+                default -> column--;
+            }
+        }
+        return builder.reverse().toString();
+    }
+
+    /**
+     * Calculates the Levenshtein distance between two strings, keeping only the edges of the table
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n * m) Time</li>
+     *     <li>O(n + m) Space</li>
+     * </ul>
+     *
+     * @param a the first string
+     * @param b the second string
+     * @param parallel if the table should be computed along anti-diagonals in parallel
+     * @return the minimum amount of insertions, deletions and substitutions turning {@code a} into {@code b}
+     */
+    public static int editDistance(String a, String b, boolean parallel) {
+        return DynamicProgrammingEngine.grid(a.length(), b.length(), column -> column, row -> row,
+                (row, column, diagonal, up, left, traceback) -> {
+                    int substitute = diagonal + (a.charAt(row - 1) == b.charAt(column - 1) ? 0 : 1);
+                    return Math.min(substitute, Math.min(up, left) + 1);
+                }, null, parallel);
+    }
 }
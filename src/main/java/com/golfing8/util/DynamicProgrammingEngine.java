@@ -0,0 +1,284 @@
+package com.golfing8.util;
+
+import com.golfing8.concurrent.ThreadPools;
+
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Evaluates table recurrences without materializing the table.
+ * <p></p>
+ * Two shapes of recurrence are supported:
+ * <ul>
+ *     <li>Row recurrences, where every cell of a row depends only on the previous row. These keep two rolling rows
+ *     and can compute the cells of a row in parallel.</li>
+ *     <li>Grid recurrences, where a cell depends on its upper, left and upper left neighbours, such as the longest
+ *     common subsequence or edit distance. These are computed tile by tile along anti-diagonals, the tiles of a
+ *     diagonal being independent of each other.</li>
+ * </ul>
+ * Either shape can record a {@link Traceback}, which packs a few bits of choice per cell instead of a full
+ * {@code int} table.
+ */
+public class DynamicProgrammingEngine {
+    /** Rows with at least this many columns are computed in parallel */
+    private static final int PARALLEL_COLUMNS = 1 << 14;
+    /** The amount of columns computed by a single parallel task, a multiple of 64 so tasks never share a traceback word */
+    private static final int COLUMN_CHUNK = 1 << 12;
+    /** The side length of the tiles scheduled along anti-diagonals */
+    private static final int TILE = 256;
+
+    /**
+     * A recurrence where every cell depends only on the previous row
+     */
+    @FunctionalInterface
+    public interface RowRecurrence {
+        /**
+         * Computes a single cell
+         *
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @param previous the values of the previous row
+         * @param traceback the traceback to record choices in, or null if none is being recorded
+         * @return the value of the cell
+         */
+        int compute(int row, int column, int[] previous, Traceback traceback);
+    }
+
+    /**
+     * A recurrence where every cell depends on its upper, left and upper left neighbours
+     */
+    @FunctionalInterface
+    public interface GridRecurrence {
+        /**
+         * Computes a single cell. Rows and columns start at 1, row and column 0 being the boundary.
+         *
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @param diagonal the value of the upper left cell
+         * @param up the value of the upper cell
+         * @param left the value of the left cell
+         * @param traceback the traceback to record choices in, or null if none is being recorded
+         * @return the value of the cell
+         */
+        int compute(int row, int column, int diagonal, int up, int left, Traceback traceback);
+    }
+
+    /**
+     * A table of small choices, packed into long words.
+     * <p></p>
+     * Every row starts on a fresh word, so cells in different rows, or in different 64 column blocks of the same
+     * row, may be recorded concurrently.
+     */
+    public static class Traceback {
+        private final int rows;
+        private final int columns;
+        private final int bitsPerCell;
+        private final int wordsPerRow;
+        private final long mask;
+        private final long[] words;
+
+        /**
+         * Creates a traceback
+         *
+         * @param rows the amount of rows
+         * @param columns the amount of columns
+         * @param bitsPerCell the bits recorded per cell, one of 1, 2, 4 or 8
+         */
+        public Traceback(int rows, int columns, int bitsPerCell) {
+            if (bitsPerCell != 1 && bitsPerCell != 2 && bitsPerCell != 4 && bitsPerCell != 8)
+                throw new IllegalArgumentException("Bits per cell must be 1, 2, 4 or 8. Was " + bitsPerCell);
+            if (rows < 0 || columns < 0)
+                throw new IllegalArgumentException("Dimensions must be non-negative. Were " + rows + "x" + columns);
+
+            this.rows = rows;
+            this.columns = columns;
+            this.bitsPerCell = bitsPerCell;
+            this.wordsPerRow = Math.toIntExact(((long) columns * bitsPerCell + 63) >>> 6);
+            this.mask = (1L << bitsPerCell) - 1;
+            this.words = new long[Math.multiplyExact(rows, wordsPerRow)];
+        }
+
+        /**
+         * Records the choice made for a cell, which must not have been recorded before
+         *
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @param choice the choice, fitting in the bits per cell
+         */
+        public void set(int row, int column, int choice) {
+            long bit = (long) column * bitsPerCell;
+            words[row * wordsPerRow + (int) (bit >>> 6)] |= (choice & mask) << bit;
+        }
+
+        /**
+         * Gets the choice recorded for a cell
+         *
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @return the choice, or 0 if none was recorded
+         */
+        public int get(int row, int column) {
+            long bit = (long) column * bitsPerCell;
+            return (int) ((words[row * wordsPerRow + (int) (bit >>> 6)] >>> bit) & mask);
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public int columns() {
+            return columns;
+        }
+
+        /**
+         * @return the bytes held by the packed choices
+         */
+        public long bytes() {
+            return (long) words.length * Long.BYTES;
+        }
+    }
+
+    /**
+     * Evaluates a row recurrence keeping only two rows
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(rows * columns) Time</li>
+     *     <li>O(columns) Space, plus the traceback</li>
+     * </ul>
+     *
+     * @param rows the amount of rows to compute
+     * @param initial the row before the first, which determines the amount of columns. It is not modified.
+     * @param recurrence the recurrence
+     * @param traceback the traceback to record choices in, or null
+     * @param parallel if the cells of large rows should be computed in parallel
+     * @return the last row
+     */
+    public static int[] rows(int rows, int[] initial, RowRecurrence recurrence, Traceback traceback, boolean parallel) {
+        int columns = initial.length;
+        int[] previous = initial.clone();
+        int[] current = new int[columns];
+        boolean split = parallel && columns >= PARALLEL_COLUMNS;
+        int chunks = (columns + COLUMN_CHUNK - 1) / COLUMN_CHUNK;
+        for (int row = 0; row < rows; row++) {
+            if (split) {
+                int r = row;
+                int[] read = previous;
+                int[] write = current;
+                ThreadPools.ARRAY_EXECUTOR.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                    int end = Math.min(columns, (chunk + 1) * COLUMN_CHUNK);
+                    for (int column = chunk * COLUMN_CHUNK; column < end; column++) {
+                        write[column] = recurrence.compute(r, column, read, traceback);
+                    }
+                })).join();
+            } else {
+                for (int column = 0; column < columns; column++) {
+                    current[column] = recurrence.compute(row, column, previous, traceback);
+                }
+            }
+
+            int[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+        return previous;
+    }
+
+    /**
+     * Evaluates a grid recurrence over rows and columns 1 to {@code rows} and 1 to {@code columns}, keeping only the
+     * edges of the tiles
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(rows * columns) Time</li>
+     *     <li>O(rows + columns) Space, plus the traceback</li>
+     * </ul>
+     *
+     * @param rows the amount of rows
+     * @param columns the amount of columns
+     * @param top the value of the boundary cell {@code (0, column)}
+     * @param left the value of the boundary cell {@code (row, 0)}
+     * @param recurrence the recurrence
+     * @param traceback the traceback to record choices in, indexed from 0, or null
+     * @param parallel if the tiles of every anti-diagonal should be computed in parallel
+     * @return the value of the cell {@code (rows, columns)}
+     */
+    public static int grid(int rows, int columns, IntUnaryOperator top, IntUnaryOperator left,
+                           GridRecurrence recurrence, Traceback traceback, boolean parallel) {
+        // horizontal[column] holds the bottom row of the last tile computed over that column,
+        // vertical[row] the right column of the last tile computed over that row.
+        int[] horizontal = new int[columns + 1];
+        int[] vertical = new int[rows + 1];
+        for (int column = 0; column <= columns; column++) {
+            horizontal[column] = top.applyAsInt(column);
+        }
+        for (int row = 0; row <= rows; row++) {
+            vertical[row] = left.applyAsInt(row);
+        }
+        if (rows == 0 || columns == 0)
+            return rows == 0 ? horizontal[columns] : vertical[rows];
+
+        int rowTile = parallel ? TILE : rows;
+        int columnTile = parallel ? TILE : columns;
+        int rowTiles = (rows + rowTile - 1) / rowTile;
+        int columnTiles = (columns + columnTile - 1) / columnTile;
+        // corners[tileRow] holds the upper left corner of the next tile in that row of tiles.
+        int[] corners = new int[rowTiles];
+        for (int tileRow = 0; tileRow < rowTiles; tileRow++) {
+            corners[tileRow] = vertical[tileRow * rowTile];
+        }
+
+        Tiles tiles = new Tiles(rows, columns, rowTile, columnTile, horizontal, vertical, corners, recurrence, traceback);
+        if (!parallel || rowTiles == 1 && columnTiles == 1) {
+            for (int tileRow = 0; tileRow < rowTiles; tileRow++) {
+                for (int tileColumn = 0; tileColumn < columnTiles; tileColumn++) {
+                    tiles.compute(tileRow, tileColumn);
+                }
+            }
+        } else {
+            for (int diagonal = 0; diagonal < rowTiles + columnTiles - 1; diagonal++) {
+                int d = diagonal;
+                int from = Math.max(0, diagonal - columnTiles + 1);
+                int to = Math.min(rowTiles - 1, diagonal);
+                ThreadPools.ARRAY_EXECUTOR.submit(() -> IntStream.rangeClosed(from, to).parallel()
+                        .forEach(tileRow -> tiles.compute(tileRow, d - tileRow))).join();
+            }
+        }
+        return horizontal[columns];
+    }
+
+    /**
+     * The shared edges of a tiled grid computation
+     */
+    private record Tiles(int rows, int columns, int rowTile, int columnTile, int[] horizontal, int[] vertical,
+                         int[] corners, GridRecurrence recurrence, Traceback traceback) {
+        void compute(int tileRow, int tileColumn) {
+            int firstRow = tileRow * rowTile + 1;
+            int lastRow = Math.min(rows, firstRow + rowTile - 1);
+            int firstColumn = tileColumn * columnTile + 1;
+            int width = Math.min(columns, firstColumn + columnTile - 1) - firstColumn + 1;
+
+            int[] previous = new int[width + 1];
+            int[] current = new int[width + 1];
+            previous[0] = corners[tileRow];
+            System.arraycopy(horizontal, firstColumn, previous, 1, width);
+            // The tile to the right needs the value above its first column before it is overwritten.
+            int nextCorner = previous[width];
+
+            for (int row = firstRow; row <= lastRow; row++) {
+                current[0] = vertical[row];
+                for (int k = 1; k <= width; k++) {
+                    current[k] = recurrence.compute(row, firstColumn + k - 1, previous[k - 1], previous[k], current[k - 1], traceback);
+                }
+                vertical[row] = current[width];
+
+                int[] temp = previous;
+                previous = current;
+                current = temp;
+            }
+
+            System.arraycopy(previous, 1, horizontal, firstColumn, width);
+            corners[tileRow] = nextCorner;
+        }
+    }
+}
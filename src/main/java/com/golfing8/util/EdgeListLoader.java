@@ -0,0 +1,367 @@
+package com.golfing8.util;
+
+import com.golfing8.concurrent.ThreadPools;
+import com.golfing8.struct.CompactGraph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Loads {@link CompactGraph}s from edge list files.
+ * <p></p>
+ * Two formats are supported:
+ * <ul>
+ *     <li>Text, one {@code source target [weight]} edge per line. Lines starting with {@code #} or {@code %} are skipped.
+ *     Edges without a weight are weighted 1.</li>
+ *     <li>Binary, a header of {@code int magic, int version, int nodeCount, int flags, long edgeCount} followed by
+ *     {@code edgeCount} records of {@code int source, int target, double weight}. All values are big endian.</li>
+ * </ul>
+ * Both are memory mapped and parsed in parallel chunks straight into primitive arrays.
+ */
+public class EdgeListLoader {
+    /** The magic number at the start of binary edge lists, "EDGE" */
+    public static final int BINARY_MAGIC = 0x45444745;
+    /** The current binary format version */
+    public static final int BINARY_VERSION = 1;
+    /** Set in the binary header flags if the graph is directed */
+    public static final int FLAG_DIRECTED = 1;
+
+    private static final int HEADER_BYTES = 24;
+    private static final int RECORD_BYTES = 16;
+    /** The target amount of bytes parsed by a single task */
+    private static final int CHUNK_BYTES = 1 << 24;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * A growable set of edge arrays filled by a single parse task
+     */
+    private static class EdgeBuffer {
+        int[] sources = new int[1024];
+        int[] targets = new int[1024];
+        double[] weights = new double[1024];
+        int size;
+        int maxNode = -1;
+
+        void add(int source, int target, double weight) {
+            if (size == sources.length) {
+                int newLength = sources.length + (sources.length >> 1);
+                sources = Arrays.copyOf(sources, newLength);
+                targets = Arrays.copyOf(targets, newLength);
+                weights = Arrays.copyOf(weights, newLength);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            weights[size++] = weight;
+            maxNode = Math.max(maxNode, Math.max(source, target));
+        }
+    }
+
+    /**
+     * Loads a graph from a text edge list. The node count is one more than the largest node id.
+     *
+     * @param path the file
+     * @param directed if the graph is directed
+     * @return the graph
+     */
+    public static CompactGraph loadText(Path path, boolean directed) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = lineAlignedChunks(channel);
+            int chunks = bounds.length - 1;
+            EdgeBuffer[] buffers = new EdgeBuffer[chunks];
+            ThreadPools.GRAPH_EXECUTOR.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                try {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, bounds[chunk], bounds[chunk + 1] - bounds[chunk]);
+                    buffers[chunk] = parseText(buffer, bounds[chunk]);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            })).join();
+
+            int maxNode = -1;
+            long total = 0;
+            for (EdgeBuffer buffer : buffers) {
+                maxNode = Math.max(maxNode, buffer.maxNode);
+                total += buffer.size;
+            }
+            if (total > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Edge list has too many edges. Was " + total);
+
+            int[] sources = new int[(int) total];
+            int[] targets = new int[(int) total];
+            double[] weights = new double[(int) total];
+            int offset = 0;
+            for (EdgeBuffer buffer : buffers) {
+                System.arraycopy(buffer.sources, 0, sources, offset, buffer.size);
+                System.arraycopy(buffer.targets, 0, targets, offset, buffer.size);
+                System.arraycopy(buffer.weights, 0, weights, offset, buffer.size);
+                offset += buffer.size;
+            }
+            return CompactGraph.fromEdges(maxNode + 1, sources, targets, weights, sources.length, directed);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Splits the channel into chunks of roughly {@link #CHUNK_BYTES} that each start at the beginning of a line
+     */
+    private static long[] lineAlignedChunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(1 << 16);
+        long position = CHUNK_BYTES;
+        while (position < size) {
+            // Move the boundary to just past the next newline.
+            long boundary = -1;
+            long scan = position;
+            while (boundary < 0 && scan < size) {
+                probe.clear();
+                int read = channel.read(probe, scan);
+                if (read <= 0)
+                    break;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        boundary = scan + i + 1;
+                        break;
+                    }
+                }
+                scan += read;
+            }
+            if (boundary < 0 || boundary >= size)
+                break;
+
+            bounds.add(boundary);
+            position = boundary + CHUNK_BYTES;
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == ',';
+    }
+
+    private static EdgeBuffer parseText(ByteBuffer buffer, long fileOffset) {
+        EdgeBuffer edges = new EdgeBuffer();
+        int limit = buffer.limit();
+        int pos = 0;
+        while (pos < limit) {
+            while (pos < limit && isSpace(buffer.get(pos)))
+                pos++;
+            if (pos >= limit)
+                break;
+
+            byte first = buffer.get(pos);
+            if (first == '\n') {
+                pos++;
+                continue;
+            }
+            if (first == '#' || first == '%') {
+                while (pos < limit && buffer.get(pos) != '\n')
+                    pos++;
+                continue;
+            }
+
+            long lineStart = fileOffset + pos;
+            int source = -1, target = -1;
+            double weight = 1.0;
+            int field = 0;
+            while (pos < limit && buffer.get(pos) != '\n') {
+                byte b = buffer.get(pos);
+                if (isSpace(b)) {
+                    pos++;
+                    continue;
+                }
+
+                int end = pos;
+                while (end < limit && !isSpace(buffer.get(end)) && buffer.get(end) != '\n')
+                    end++;
+                switch (field++) {
+                    case 0 -> source = parseNode(buffer, pos, end, lineStart);
+                    case 1 -> target = parseNode(buffer, pos, end, lineStart);
+                    case 2 -> weight = parseDouble(buffer, pos, end, lineStart);
+                    default -> throw new IllegalArgumentException("Too many fields on edge line at byte " + lineStart);
+                }
+                pos = end;
+            }
+            if (field < 2)
+                throw new IllegalArgumentException("Edge line at byte " + lineStart + " has fewer than two fields");
+
+            edges.add(source, target, weight);
+        }
+        return edges;
+    }
+
+    private static int parseNode(ByteBuffer buffer, int from, int to, long lineStart) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9)
+                throw new IllegalArgumentException("Invalid node id on edge line at byte " + lineStart);
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE - 1)
+                throw new IllegalArgumentException("Node id is too large on edge line at byte " + lineStart);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a decimal number. Values that fit in 53 bits with a small decimal exponent are converted exactly
+     * without allocating, everything else falls back to {@link Double#parseDouble(String)}.
+     */
+    private static double parseDouble(ByteBuffer buffer, int from, int to, long lineStart) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean seenDigit = false;
+        boolean seenDot = false;
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else if (b >= '0' && b <= '9') {
+                if (digits >= 18)
+                    return slowParseDouble(buffer, from, to, lineStart);
+                seenDigit = true;
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0)
+                    digits++;
+                if (seenDot)
+                    exponent--;
+            } else {
+                return slowParseDouble(buffer, from, to, lineStart);
+            }
+        }
+
+        // Signs and dots alone are left for the slow path to reject.
+        if (!seenDigit || mantissa >= (1L << 53) || exponent < -22)
+            return slowParseDouble(buffer, from, to, lineStart);
+
+        double value = exponent == 0 ? mantissa : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    private static double slowParseDouble(ByteBuffer buffer, int from, int to, long lineStart) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        String field = new String(bytes, StandardCharsets.US_ASCII);
+        try {
+            return Double.parseDouble(field);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("Invalid weight on edge line at byte " + lineStart + ". Was " + field, exception);
+        }
+    }
+
+    /**
+     * Loads a graph from a binary edge list
+     *
+     * @param path the file
+     * @return the graph
+     */
+    public static CompactGraph loadBinary(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0)
+                    throw new IllegalArgumentException("Binary edge list is missing its header");
+            }
+            header.flip();
+            int magic = header.getInt();
+            int version = header.getInt();
+            int nodeCount = header.getInt();
+            int flags = header.getInt();
+            long edgeCount = header.getLong();
+            if (magic != BINARY_MAGIC)
+                throw new IllegalArgumentException("Not a binary edge list. Magic was " + Integer.toHexString(magic));
+            if (version != BINARY_VERSION)
+                throw new IllegalArgumentException("Unsupported binary edge list version " + version);
+            if (edgeCount < 0 || edgeCount > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Edge count is out of range. Was " + edgeCount);
+            if (channel.size() < HEADER_BYTES + edgeCount * RECORD_BYTES)
+                throw new IllegalArgumentException("Binary edge list is truncated. Expected " + edgeCount + " edges");
+
+            int edges = (int) edgeCount;
+            int[] sources = new int[edges];
+            int[] targets = new int[edges];
+            double[] weights = new double[edges];
+            int recordsPerChunk = CHUNK_BYTES / RECORD_BYTES;
+            int chunks = (edges + recordsPerChunk - 1) / recordsPerChunk;
+            ThreadPools.GRAPH_EXECUTOR.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int first = chunk * recordsPerChunk;
+                int count = Math.min(recordsPerChunk, edges - first);
+                try {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + (long) first * RECORD_BYTES, (long) count * RECORD_BYTES);
+                    for (int i = first; i < first + count; i++) {
+                        sources[i] = buffer.getInt();
+                        targets[i] = buffer.getInt();
+                        weights[i] = buffer.getDouble();
+                    }
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            })).join();
+            return CompactGraph.fromEdges(nodeCount, sources, targets, weights, edges, (flags & FLAG_DIRECTED) != 0);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Writes the given edges as a binary edge list
+     *
+     * @param path the file
+     * @param nodeCount the amount of nodes
+     * @param sources the source of each edge
+     * @param targets the target of each edge
+     * @param weights the weight of each edge
+     * @param directed if the graph is directed
+     */
+    public static void writeBinary(Path path, int nodeCount, int[] sources, int[] targets, double[] weights, boolean directed) {
+        if (sources.length != targets.length || sources.length != weights.length)
+            throw new IllegalArgumentException("Edge arrays must be the same length");
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            buffer.putInt(BINARY_MAGIC)
+                    .putInt(BINARY_VERSION)
+                    .putInt(nodeCount)
+                    .putInt(directed ? FLAG_DIRECTED : 0)
+                    .putLong(sources.length);
+            for (int i = 0; i < sources.length; i++) {
+                if (buffer.remaining() < RECORD_BYTES) {
+                    buffer.flip();
+                    while (buffer.hasRemaining())
+                        channel.write(buffer);
+                    buffer.clear();
+                }
+                buffer.putInt(sources[i]).putInt(targets[i]).putDouble(weights[i]);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
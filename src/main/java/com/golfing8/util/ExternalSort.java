@@ -0,0 +1,495 @@
+package com.golfing8.util;
+
+import com.golfing8.instrument.Instrumentation;
+import com.golfing8.instrument.Phase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sorts files of doubles too large to fit in memory.
+ * <p></p>
+ * Files hold raw big endian doubles with no header. Sorting runs in two phases:
+ * <ul>
+ *     <li>Run generation reads the input in chunks through a {@link FileChannel}, sorts every chunk with
+ *     {@link ParallelSort} and writes it to a temporary run file. A run is written on a separate thread while
+ *     the next one is read and sorted.</li>
+ *     <li>Merging combines up to {@link Settings#fanIn()} runs at a time with a loser tree, in as many passes as it
+ *     takes. Every run and the output are read and written through {@link AsynchronousFileChannel}s with two buffers
+ *     each, so the next block is in flight while the current one is consumed.</li>
+ * </ul>
+ * Complexity:
+ * <ul>
+ *     <li>O(nlogn) Time</li>
+ *     <li>O(memory) Space, O(n) temporary disk</li>
+ * </ul>
+ * Doubles are ordered as in {@link java.util.Arrays#sort(double[])}, -0.0 sorts before 0.0 and NaN sorts last.
+ */
+public class ExternalSort {
+    /** The memory per element of a run, for the run being sorted, the run being written and the scratch space of sorting */
+    static final int RUN_BYTES_PER_ELEMENT = 2 * Double.BYTES + ParallelSort.SAMPLE_SORT_BYTES_PER_ELEMENT;
+
+    /**
+     * The configuration of a sort
+     *
+     * @param memoryBytes the memory used for run generation, holding the run being sorted, the run being written and
+     *                    the scratch space of sorting, {@value #RUN_BYTES_PER_ELEMENT} bytes per element of a run
+     * @param bufferBytes the size of each of the two buffers of every file during the merge, a multiple of 8
+     * @param fanIn the most runs merged at once
+     * @param tempDirectory the directory the runs are written to
+     */
+    public record Settings(long memoryBytes, int bufferBytes, int fanIn, Path tempDirectory) {
+        public Settings {
+            if (memoryBytes < RUN_BYTES_PER_ELEMENT)
+                throw new IllegalArgumentException("Memory must hold at least one element of a run. Was " + memoryBytes);
+            if (bufferBytes < Double.BYTES || bufferBytes % Double.BYTES != 0)
+                throw new IllegalArgumentException("Buffer size must be a positive multiple of 8. Was " + bufferBytes);
+            if (fanIn < 2)
+                throw new IllegalArgumentException("Fan in must be at least 2. Was " + fanIn);
+        }
+
+        /**
+         * @param tempDirectory the directory the runs are written to
+         * @return settings using a quarter of the heap for runs, merging 64 runs at a time through 1MB buffers
+         */
+        public static Settings defaults(Path tempDirectory) {
+            return new Settings(Math.min(Runtime.getRuntime().maxMemory() / 4, 1L << 30), 1 << 20, 64, tempDirectory);
+        }
+    }
+
+    /**
+     * What a sort did
+     *
+     * @param elements the amount of doubles sorted
+     * @param runs the amount of runs generated
+     * @param mergePasses the amount of merge passes, 0 if the input fit in a single run
+     * @param bytesRead the bytes read from the input and the runs
+     * @param bytesWritten the bytes written to the runs and the output
+     * @param comparisons the comparisons made by the loser trees
+     * @param runGenerationNanos the time spent generating runs
+     * @param mergeNanos the time spent merging
+     */
+    public record Metrics(long elements, int runs, int mergePasses, long bytesRead, long bytesWritten,
+                          long comparisons, long runGenerationNanos, long mergeNanos) {}
+
+    /**
+     * Counters shared with the writing threads
+     */
+    private static class Counters {
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder bytesWritten = new LongAdder();
+        private long comparisons;
+    }
+
+    /**
+     * Sorts a file of doubles into another file. The input is left untouched and the output is replaced.
+     *
+     * @param input the file to sort
+     * @param output the file to write the sorted doubles to
+     * @param settings the configuration
+     * @return the metrics of the sort
+     */
+    public static Metrics sort(Path input, Path output, Settings settings) {
+        Counters counters = new Counters();
+        Path directory = null;
+        try {
+            long size = Files.size(input);
+            if (size % Double.BYTES != 0)
+                throw new IllegalArgumentException("File size must be a multiple of 8. Was " + size);
+            directory = Files.createTempDirectory(settings.tempDirectory(), "external-sort");
+
+            long start = System.nanoTime();
+            List<Path> runs;
+            try (Phase phase = Instrumentation.phase("runGeneration")) {
+                runs = generateRuns(input, output, directory, size / Double.BYTES, settings, counters);
+            }
+            long runNanos = System.nanoTime() - start;
+            int runCount = runs.size();
+
+            start = System.nanoTime();
+            int passes = 0;
+            try (Phase phase = Instrumentation.phase("merge")) {
+                while (runs.size() > 1) {
+                    runs = mergePass(runs, runs.size() <= settings.fanIn() ? output : null, directory, settings, counters);
+                    passes++;
+                }
+            }
+            long mergeNanos = System.nanoTime() - start;
+            return new Metrics(size / Double.BYTES, runCount, passes, counters.bytesRead.sum(), counters.bytesWritten.sum(),
+                    counters.comparisons, runNanos, mergeNanos);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) {
+        if (directory == null)
+            return;
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException ignored) {
+            // Leftover runs are in a temporary directory, they are not worth failing a finished sort over.
+        }
+    }
+
+    /**
+     * Sorts the input chunk by chunk. A single run is written straight to the output.
+     *
+     * @return the runs, or just the output if the input fit in one run
+     */
+    private static List<Path> generateRuns(Path input, Path output, Path directory, long elements, Settings settings, Counters counters) throws IOException {
+        int runLength = (int) Math.max(1, Math.min(Math.min(settings.memoryBytes() / RUN_BYTES_PER_ELEMENT, elements), Integer.MAX_VALUE - 8));
+        if (elements <= runLength) {
+            // The input fits in one run, there is nothing to merge and nothing to overlap.
+            double[] run = new double[(int) elements];
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                readRun(channel, run, run.length, settings.bufferBytes(), counters);
+            }
+            ParallelSort.sort(run);
+            writeRun(output, run, run.length, settings.bufferBytes(), counters);
+            return List.of(output);
+        }
+
+        List<Path> runs = new ArrayList<>();
+        double[][] arrays = {new double[runLength], new double[runLength]};
+        Future<?>[] writes = {CompletableFuture.completedFuture(null), CompletableFuture.completedFuture(null)};
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+             ExecutorService writer = Executors.newSingleThreadExecutor()) {
+            for (long read = 0; read < elements; read += runLength) {
+                int slot = runs.size() % 2;
+                // The array is only reused once the run written from it two chunks ago is on disk.
+                await(writes[slot]);
+
+                double[] run = arrays[slot];
+                int length = (int) Math.min(runLength, elements - read);
+                readRun(channel, run, length, settings.bufferBytes(), counters);
+                ParallelSort.sort(run, 0, length);
+
+                Path path = directory.resolve("run-0-" + runs.size());
+                runs.add(path);
+                writes[slot] = writer.submit(() -> {
+                    writeRun(path, run, length, settings.bufferBytes(), counters);
+                    return null;
+                });
+            }
+            for (Future<?> write : writes) {
+                await(write);
+            }
+        }
+        return runs;
+    }
+
+    private static <V> V await(Future<V> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for IO", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException io)
+                throw io;
+            if (exception.getCause() instanceof UncheckedIOException io)
+                throw io.getCause();
+            throw new IOException(exception.getCause());
+        }
+    }
+
+    private static void readRun(FileChannel channel, double[] run, int length, int bufferBytes, Counters counters) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferBytes);
+        for (int filled = 0; filled < length; ) {
+            buffer.clear().limit(Math.min(bufferBytes, (length - filled) * Double.BYTES));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0)
+                    throw new IOException("Input ended early");
+            }
+            buffer.flip();
+            counters.bytesRead.add(buffer.remaining());
+            int count = buffer.remaining() / Double.BYTES;
+            buffer.asDoubleBuffer().get(run, filled, count);
+            filled += count;
+        }
+    }
+
+    private static void writeRun(Path path, double[] run, int length, int bufferBytes, Counters counters) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferBytes);
+            for (int written = 0; written < length; ) {
+                int count = Math.min(bufferBytes / Double.BYTES, length - written);
+                buffer.clear();
+                buffer.asDoubleBuffer().put(run, written, count);
+                buffer.limit(count * Double.BYTES);
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+                counters.bytesWritten.add((long) count * Double.BYTES);
+                written += count;
+            }
+        }
+    }
+
+    /**
+     * Merges the runs in groups of the fan in
+     *
+     * @param output the file to merge into when the runs fit in a single group, otherwise null
+     * @return the merged runs
+     */
+    private static List<Path> mergePass(List<Path> runs, Path output, Path directory, Settings settings, Counters counters) throws IOException {
+        List<Path> merged = new ArrayList<>();
+        for (int from = 0; from < runs.size(); from += settings.fanIn()) {
+            List<Path> group = runs.subList(from, Math.min(runs.size(), from + settings.fanIn()));
+            Path target = output != null ? output : directory.resolve(group.get(0).getFileName() + "-" + merged.size());
+            if (group.size() == 1) {
+                // A lone leftover run is carried into the next pass as it is.
+                merged.add(group.get(0));
+                continue;
+            }
+            merge(group, target, settings.bufferBytes(), counters);
+            for (Path run : group) {
+                Files.delete(run);
+            }
+            merged.add(target);
+        }
+        return merged;
+    }
+
+    private static void merge(List<Path> runs, Path output, int bufferBytes, Counters counters) throws IOException {
+        List<RunReader> readers = new ArrayList<>();
+        try (RunWriter writer = new RunWriter(output, bufferBytes, counters)) {
+            for (Path run : runs) {
+                readers.add(new RunReader(run, bufferBytes, counters));
+            }
+            LoserTree tree = new LoserTree(readers);
+            while (!tree.isEmpty()) {
+                writer.put(tree.pop());
+            }
+            counters.comparisons += tree.comparisons;
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Picks the smallest head among the runs. Internal nodes hold the loser of the match played there, so replacing
+     * the winner only replays the matches on its path to the root.
+     */
+    private static class LoserTree {
+        private final RunReader[] readers;
+        private final double[] heads;
+        private final boolean[] done;
+        /** The loser at every internal node, tree[0] holds the overall winner */
+        private final int[] tree;
+        private long comparisons;
+
+        LoserTree(List<RunReader> runs) throws IOException {
+            int k = runs.size();
+            this.readers = runs.toArray(new RunReader[0]);
+            this.heads = new double[k];
+            this.done = new boolean[k];
+            this.tree = new int[k];
+            for (int i = 0; i < k; i++) {
+                advance(i);
+            }
+
+            // Play the initial tournament bottom up, leaf i sits at position k + i.
+            int[] winners = new int[2 * k];
+            for (int i = 0; i < k; i++) {
+                winners[k + i] = i;
+            }
+            for (int node = k - 1; node > 0; node--) {
+                int a = winners[2 * node], b = winners[2 * node + 1];
+                boolean aWins = less(a, b);
+                winners[node] = aWins ? a : b;
+                tree[node] = aWins ? b : a;
+            }
+            tree[0] = k == 1 ? 0 : winners[1];
+        }
+
+        private void advance(int run) throws IOException {
+            if (readers[run].hasNext())
+                heads[run] = readers[run].next();
+            else
+                done[run] = true;
+        }
+
+        /**
+         * Orders runs by their heads, with exhausted runs after every other
+         */
+        private boolean less(int a, int b) {
+            comparisons++;
+            if (done[a] || done[b])
+                return !done[a];
+            return Double.compare(heads[a], heads[b]) < 0;
+        }
+
+        boolean isEmpty() {
+            return done[tree[0]];
+        }
+
+        double pop() throws IOException {
+            int winner = tree[0];
+            double value = heads[winner];
+            advance(winner);
+            for (int node = (winner + readers.length) >>> 1; node > 0; node >>>= 1) {
+                if (less(tree[node], winner)) {
+                    int swap = tree[node];
+                    tree[node] = winner;
+                    winner = swap;
+                }
+            }
+            tree[0] = winner;
+            return value;
+        }
+    }
+
+    /**
+     * Reads a run through two buffers, the next block being read asynchronously while the current one is consumed
+     */
+    private static class RunReader implements AutoCloseable {
+        private final AsynchronousFileChannel channel;
+        private final long size;
+        private final ByteBuffer[] buffers;
+        private final Counters counters;
+        private DoubleBuffer current = DoubleBuffer.allocate(0);
+        /** The buffer being filled, or -1 once the whole file has been requested */
+        private int filling = 0;
+        private Future<Integer> pending;
+        private long pendingPosition;
+        private long nextPosition;
+
+        RunReader(Path path, int bufferBytes, Counters counters) throws IOException {
+            this.channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ);
+            this.size = channel.size();
+            this.buffers = new ByteBuffer[] {ByteBuffer.allocateDirect(bufferBytes), ByteBuffer.allocateDirect(bufferBytes)};
+            this.counters = counters;
+            request();
+        }
+
+        private void request() {
+            if (nextPosition >= size) {
+                filling = -1;
+                return;
+            }
+            ByteBuffer buffer = buffers[filling].clear();
+            buffer.limit((int) Math.min(buffer.capacity(), size - nextPosition));
+            pendingPosition = nextPosition;
+            pending = channel.read(buffer, pendingPosition);
+            nextPosition += buffer.limit();
+        }
+
+        boolean hasNext() throws IOException {
+            if (current.hasRemaining())
+                return true;
+            if (filling < 0)
+                return false;
+
+            // Finish the read in flight, which may have come up short, and start the next one into the other buffer.
+            ByteBuffer buffer = buffers[filling];
+            int read = await(pending);
+            while (buffer.hasRemaining()) {
+                if (read < 0)
+                    throw new IOException("Run ended early");
+                read = await(channel.read(buffer, pendingPosition + buffer.position()));
+            }
+            buffer.flip();
+            counters.bytesRead.add(buffer.remaining());
+            current = buffer.asDoubleBuffer();
+            filling ^= 1;
+            request();
+            return current.hasRemaining();
+        }
+
+        double next() {
+            return current.get();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes a run through two buffers, one being written asynchronously while the other is filled
+     */
+    private static class RunWriter implements AutoCloseable {
+        private final AsynchronousFileChannel channel;
+        private final ByteBuffer[] buffers;
+        private final Counters counters;
+        private int filling;
+        private DoubleBuffer current;
+        private Future<Integer> pending;
+        private long pendingPosition;
+        private long position;
+
+        RunWriter(Path path, int bufferBytes, Counters counters) throws IOException {
+            this.channel = AsynchronousFileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffers = new ByteBuffer[] {ByteBuffer.allocateDirect(bufferBytes), ByteBuffer.allocateDirect(bufferBytes)};
+            this.counters = counters;
+            this.current = buffers[0].asDoubleBuffer();
+        }
+
+        void put(double value) throws IOException {
+            if (!current.hasRemaining())
+                flush();
+            current.put(value);
+        }
+
+        /**
+         * Waits for the write in flight, which may have come up short
+         */
+        private void finishPending() throws IOException {
+            if (pending == null)
+                return;
+            ByteBuffer buffer = buffers[filling ^ 1];
+            await(pending);
+            while (buffer.hasRemaining()) {
+                await(channel.write(buffer, pendingPosition + buffer.position()));
+            }
+            pending = null;
+        }
+
+        private void flush() throws IOException {
+            finishPending();
+            ByteBuffer buffer = buffers[filling].clear().limit(current.position() * Double.BYTES);
+            pendingPosition = position;
+            pending = channel.write(buffer, pendingPosition);
+            position += buffer.limit();
+            counters.bytesWritten.add(buffer.limit());
+
+            filling ^= 1;
+            current = buffers[filling].clear().asDoubleBuffer();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (current.position() > 0)
+                    flush();
+                finishPending();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
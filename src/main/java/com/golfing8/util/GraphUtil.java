@@ -1,5 +1,11 @@
 package com.golfing8.util;
 
+import com.golfing8.instrument.Counter;
+import com.golfing8.instrument.Instrumentation;
+import com.golfing8.instrument.Phase;
+import com.golfing8.struct.CompactGraph;
+import com.golfing8.struct.NodeIndex;
+import com.golfing8.struct.ShortestPathTree;
 import com.google.common.graph.*;
 
 import java.util.*;
@@ -33,6 +39,20 @@ public class GraphUtil {
     }
 
     public static <T> Graph<CostElement<T>> shortestPath(T root, ValueGraph<T, Double> graph) {
+        try (Phase phase = Instrumentation.phase("dijkstra")) {
+            return shortestPathInternal(root, graph);
+        }
+    }
+
+    /**
+     * Reports every 1024th node added to a growing tree
+     */
+    private static void treeProgress(String operation, int treeSize, int nodes) {
+        if ((treeSize & 1023) == 0 || treeSize == nodes)
+            Instrumentation.progress(operation, treeSize, nodes);
+    }
+
+    private static <T> Graph<CostElement<T>> shortestPathInternal(T root, ValueGraph<T, Double> graph) {
         MutableValueGraph<T, Double> mutableOriginal = Graphs.copyOf(graph);
         MutableGraph<CostElement<T>> pathTree = GraphBuilder.directed().build();
         PriorityQueue<CostEdge<T>> edgeCosts = new PriorityQueue<>();
@@ -41,33 +61,251 @@ public class GraphUtil {
         var rootElement = new CostElement<>(root, 0);
         for (var edge : mutableOriginal.incidentEdges(root)) {
             edgeCosts.add(new CostEdge<>(rootElement, edge.adjacentNode(root), graph.edgeValue(edge).orElse(0.0)));
+            Instrumentation.increment(Counter.HEAP_PUSHES);
         }
 
         // Handle each edge
         while (!edgeCosts.isEmpty()) {
             var currentEdge = edgeCosts.poll();
+            Instrumentation.increment(Counter.HEAP_POPS);
             // Has the node already been handled?
             var newElement = new CostElement<>(currentEdge.v(), currentEdge.cost);
             if (pathTree.nodes().contains(newElement))
                 continue;
 
             pathTree.putEdge(currentEdge.u(), newElement);
+            treeProgress("dijkstra", pathTree.nodes().size(), graph.nodes().size());
 
             // Remove the handled edge.
             mutableOriginal.removeEdge(currentEdge.u().element(), currentEdge.v());
 
             // Add new edges
             for (var edge : mutableOriginal.incidentEdges(currentEdge.v())) {
+                Instrumentation.increment(Counter.EDGE_RELAXATIONS);
                 // Ignore ordered edges whose target points are v.
                 if (edge.isOrdered() && edge.target().equals(currentEdge.v()))
                     continue;
 
                 edgeCosts.add(new CostEdge<>(newElement, edge.adjacentNode(currentEdge.v()), newElement.cost + mutableOriginal.edgeValue(edge).orElse(0.0)));
+                Instrumentation.increment(Counter.HEAP_PUSHES);
             }
         }
         return pathTree;
     }
 
+    /**
+     * Computes the shortest paths from a root to every node with dijkstra's algorithm over node indices.
+     * Unlike {@link #shortestPath(Object, ValueGraph)} the result is held in flat arrays, with constant time distance
+     * lookups and paths built on demand. The graph is copied to a {@link CompactGraph} first, see
+     * {@link #shortestPathTree(Object, CompactGraph, NodeIndex)}.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O((n + m) * logn) Time</li>
+     *     <li>O(n + m) Space</li>
+     * </ul>
+     *
+     * @param root the root
+     * @param graph the graph, with non-negative edge weights
+     * @return the shortest path tree
+     * @param <T> the node type
+     */
+    public static <T> ShortestPathTree<T> shortestPathTree(T root, ValueGraph<T, Double> graph) {
+        NodeIndex<T> nodes = new NodeIndex<>(graph.nodes());
+        return shortestPathTree(root, CompactGraph.fromValueGraph(graph, nodes), nodes);
+    }
+
+    /**
+     * Computes the shortest paths from a root to every node of a compact graph with dijkstra's algorithm.
+     * Traversal order follows the node numbering, see {@link GraphReordering} for numberings with better locality.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O((n + m) * logn) Time</li>
+     *     <li>O(n) Space</li>
+     * </ul>
+     *
+     * @param root the root
+     * @param graph the graph, with non-negative arc weights
+     * @param nodes the node of every index of the graph
+     * @return the shortest path tree
+     * @param <T> the node type
+     */
+    public static <T> ShortestPathTree<T> shortestPathTree(T root, CompactGraph graph, NodeIndex<T> nodes) {
+        if (nodes.size() != graph.nodeCount())
+            throw new IllegalArgumentException("Index does not cover the graph. Expecting " + graph.nodeCount() + " nodes was " + nodes.size());
+
+        try (Phase phase = Instrumentation.phase("shortestPathTree")) {
+            int rootIndex = nodes.index(root);
+            double[] distances = new double[nodes.size()];
+            int[] predecessors = new int[nodes.size()];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            Arrays.fill(predecessors, ShortestPathTree.NO_PREDECESSOR);
+            distances[rootIndex] = 0;
+
+            NodeHeap heap = new NodeHeap(nodes.size());
+            heap.decrease(rootIndex, 0);
+            int settled = 0;
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                Instrumentation.increment(Counter.HEAP_POPS);
+                treeProgress("shortestPathTree", ++settled, nodes.size());
+
+                for (int arc = graph.start(u); arc < graph.end(u); arc++) {
+                    Instrumentation.increment(Counter.EDGE_RELAXATIONS);
+                    double weight = graph.weight(arc);
+                    if (weight < 0)
+                        throw new IllegalArgumentException("Edge weights must be non-negative. Was " + weight + " from " + nodes.node(u) + " to " + nodes.node(graph.target(arc)));
+
+                    int v = graph.target(arc);
+                    double distance = distances[u] + weight;
+                    if (distance < distances[v]) {
+                        distances[v] = distance;
+                        predecessors[v] = u;
+                        heap.decrease(v, distance);
+                        Instrumentation.increment(Counter.HEAP_PUSHES);
+                    }
+                }
+            }
+            return new ShortestPathTree<>(nodes, rootIndex, distances, predecessors);
+        }
+    }
+
+    /**
+     * Computes a minimum spanning forest of an undirected compact graph using Prim's algorithm, growing a tree from
+     * the lowest node of every component.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O((n + m) * logn) Time</li>
+     *     <li>O(n) Space</li>
+     * </ul>
+     *
+     * @param graph the undirected graph
+     * @return the parent of every node in the forest, or {@value ShortestPathTree#NO_PREDECESSOR} for the roots
+     */
+    public static int[] computeMSTPrim(CompactGraph graph) {
+        if (graph.isDirected())
+            throw new IllegalArgumentException("Spanning trees need an undirected graph");
+
+        try (Phase phase = Instrumentation.phase("prim")) {
+            int n = graph.nodeCount();
+            int[] parents = new int[n];
+            double[] weights = new double[n];
+            boolean[] inTree = new boolean[n];
+            Arrays.fill(parents, ShortestPathTree.NO_PREDECESSOR);
+            Arrays.fill(weights, Double.POSITIVE_INFINITY);
+
+            NodeHeap heap = new NodeHeap(n);
+            int treeSize = 0;
+            for (int root = 0; root < n; root++) {
+                if (inTree[root])
+                    continue;
+
+                heap.decrease(root, 0);
+                while (!heap.isEmpty()) {
+                    int u = heap.poll();
+                    Instrumentation.increment(Counter.HEAP_POPS);
+                    inTree[u] = true;
+                    treeProgress("prim", ++treeSize, n);
+
+                    for (int arc = graph.start(u); arc < graph.end(u); arc++) {
+                        Instrumentation.increment(Counter.EDGE_RELAXATIONS);
+                        int v = graph.target(arc);
+                        if (!inTree[v] && graph.weight(arc) < weights[v]) {
+                            weights[v] = graph.weight(arc);
+                            parents[v] = u;
+                            heap.decrease(v, weights[v]);
+                            Instrumentation.increment(Counter.HEAP_PUSHES);
+                        }
+                    }
+                }
+            }
+            return parents;
+        }
+    }
+
+    /**
+     * A binary min heap of node indices keyed by distance or edge weight, supporting decrease key.
+     * Every node is in the heap at most once, so it never outgrows the node count.
+     */
+    private static class NodeHeap {
+        private final int[] heap;
+        private final int[] positions;
+        private final double[] keys;
+        private int size;
+
+        NodeHeap(int nodeCount) {
+            this.heap = new int[nodeCount];
+            this.positions = new int[nodeCount];
+            this.keys = new double[nodeCount];
+            Arrays.fill(positions, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Inserts a node, or lowers its key if it is already in the heap
+         */
+        void decrease(int node, double key) {
+            int position = positions[node];
+            if (position < 0) {
+                position = size++;
+                heap[position] = node;
+            }
+            keys[node] = key;
+            siftUp(position);
+        }
+
+        int poll() {
+            int top = heap[0];
+            positions[top] = -1;
+            int last = heap[--size];
+            if (size > 0) {
+                heap[0] = last;
+                positions[last] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int position) {
+            int node = heap[position];
+            double key = keys[node];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (keys[heap[parent]] <= key)
+                    break;
+                heap[position] = heap[parent];
+                positions[heap[position]] = position;
+                position = parent;
+            }
+            heap[position] = node;
+            positions[node] = position;
+        }
+
+        private void siftDown(int position) {
+            int node = heap[position];
+            double key = keys[node];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+                    child++;
+                if (keys[heap[child]] >= key)
+                    break;
+                heap[position] = heap[child];
+                positions[heap[position]] = position;
+                position = child;
+            }
+            heap[position] = node;
+            positions[node] = position;
+        }
+    }
+
     public record WeightedEdge<T>(EndpointPair<T> pair, T parent, double weight) implements Comparable<WeightedEdge<T>> {
         @Override
         public int compareTo(WeightedEdge<T> o) {
@@ -83,6 +321,12 @@ public class GraphUtil {
      * @param <T> the type
      */
     public static <T> Graph<T> computeMSTPrim(ValueGraph<T, Double> graph) {
+        try (Phase phase = Instrumentation.phase("prim")) {
+            return computeMSTPrimInternal(graph);
+        }
+    }
+
+    private static <T> Graph<T> computeMSTPrimInternal(ValueGraph<T, Double> graph) {
         if (graph.nodes().isEmpty())
             return GraphBuilder.directed().build();
 
@@ -96,11 +340,13 @@ public class GraphUtil {
         // Add initial edges to the graph.
         for (var edge : graph.incidentEdges(source)) {
             edgeQueue.add(new WeightedEdge<>(edge, source, graph.edgeValueOrDefault(edge, 0.0)));
+            Instrumentation.increment(Counter.HEAP_PUSHES);
         }
 
         // Handle edges in a priority fashion.
         while (!edgeQueue.isEmpty()) {
             var edge = edgeQueue.poll();
+            Instrumentation.increment(Counter.HEAP_POPS);
 
             // If mst already contains the node, we may need to bump the old parent out to remove the cycle
             T targetNode = edge.pair.adjacentNode(edge.parent);
@@ -117,15 +363,18 @@ public class GraphUtil {
             } else {
                 // Simply insert the edge
                 mst.putEdgeValue(edge.pair.adjacentNode(targetNode), targetNode, edge.weight);
+                treeProgress("prim", mst.nodes().size(), graph.nodes().size());
             }
 
             // Now, go through incident edges and insert them.
             for (var adjacentEdge : graph.incidentEdges(targetNode)) {
+                Instrumentation.increment(Counter.EDGE_RELAXATIONS);
                 // If the node is already in the tree, ignore it.
                 if (mst.nodes().contains(adjacentEdge.adjacentNode(targetNode)))
                     continue;
 
                 edgeQueue.add(new WeightedEdge<>(adjacentEdge, targetNode, graph.edgeValueOrDefault(adjacentEdge, 0.0)));
+                Instrumentation.increment(Counter.HEAP_PUSHES);
             }
         }
         return mst.asGraph();
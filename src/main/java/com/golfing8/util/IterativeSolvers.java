@@ -0,0 +1,436 @@
+package com.golfing8.util;
+
+import com.golfing8.instrument.Counter;
+import com.golfing8.instrument.Instrumentation;
+import com.golfing8.instrument.Phase;
+import com.golfing8.struct.LinearOperator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Iterative methods that only touch a matrix through {@link LinearOperator#multiply(double[], double[])}, so they
+ * work the same on dense and sparse matrices. Each method allocates its working vectors once and overwrites them
+ * on every iteration, and the matrix vector products are parallel for large operators.
+ * <p></p>
+ * Every method reports its {@link Convergence}, including the residual after every iteration.
+ */
+public class IterativeSolvers {
+    /** The seed of the start vector of the eigenvalue methods, fixed so results are reproducible */
+    private static final long START_SEED = 520;
+    /** The Lanczos method solves its tridiagonal eigenproblem every this many steps */
+    private static final int LANCZOS_CHECK_INTERVAL = 8;
+    /** The most QL sweeps spent on a single eigenvalue of a tridiagonal matrix */
+    private static final int QL_MAX_SWEEPS = 60;
+
+    /**
+     * The limits of an iterative method.
+     *
+     * @param maxIterations the most iterations to run before giving up
+     * @param tolerance the relative residual at which the method stops
+     */
+    public record Settings(int maxIterations, double tolerance) {
+        public Settings {
+            if (maxIterations < 1)
+                throw new IllegalArgumentException("Max iterations must be positive. Was " + maxIterations);
+            if (!(tolerance >= 0) || Double.isInfinite(tolerance))
+                throw new IllegalArgumentException("Tolerance must be finite and non-negative. Was " + tolerance);
+        }
+
+        /**
+         * @return settings running at most 1000 iterations to a relative residual of 1e-10
+         */
+        public static Settings defaults() {
+            return new Settings(1000, 1e-10);
+        }
+    }
+
+    /**
+     * How an iterative method finished.
+     *
+     * @param iterations the amount of iterations run, each computing one matrix vector product
+     * @param residual the final relative residual
+     * @param converged if the residual reached the tolerance
+     * @param history the relative residual after every iteration, or every check for {@link #lanczos}
+     */
+    public record Convergence(int iterations, double residual, boolean converged, double[] history) {}
+
+    /**
+     * The solution of a linear system.
+     *
+     * @param x the solution
+     * @param convergence how the solver finished
+     */
+    public record Solution(double[] x, Convergence convergence) {}
+
+    /**
+     * An eigenvalue and its eigenvector.
+     *
+     * @param value the eigenvalue
+     * @param vector the eigenvector, of unit length
+     * @param convergence how the method finished
+     */
+    public record Eigenpair(double value, double[] vector, Convergence convergence) {}
+
+    /**
+     * Records residuals into a growable array
+     */
+    private static final class History {
+        private double[] residuals = new double[16];
+        private int count;
+
+        void add(double residual) {
+            if (count == residuals.length)
+                residuals = Arrays.copyOf(residuals, count * 2);
+            residuals[count++] = residual;
+        }
+
+        Convergence finish(int iterations, double residual, boolean converged) {
+            return new Convergence(iterations, residual, converged, Arrays.copyOf(residuals, count));
+        }
+    }
+
+    /**
+     * The dot product of two vectors, summed into four accumulators so the additions don't wait on each other
+     */
+    private static double dot(double[] a, double[] b) {
+        int n = a.length;
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < n; i++) {
+            s0 += a[i] * b[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Computes {@code y += alpha * x}
+     */
+    private static void axpy(double alpha, double[] x, double[] y) {
+        for (int i = 0; i < x.length; i++) {
+            y[i] += alpha * x[i];
+        }
+    }
+
+    private static void scale(double alpha, double[] x, double[] y) {
+        for (int i = 0; i < x.length; i++) {
+            y[i] = alpha * x[i];
+        }
+    }
+
+    private static void checkNotEmpty(LinearOperator operator) {
+        if (operator.getSize() == 0)
+            throw new IllegalArgumentException("Operator must have a positive size. Was 0");
+    }
+
+    private static void checkVector(LinearOperator operator, double[] vector, String name) {
+        if (vector.length != operator.getSize())
+            throw new IllegalArgumentException(name + " must have length " + operator.getSize() + ". Was " + vector.length);
+    }
+
+    /**
+     * A random unit vector, the start of the eigenvalue methods
+     */
+    private static double[] startVector(int size) {
+        SplittableRandom random = new SplittableRandom(START_SEED);
+        double[] vector = new double[size];
+        for (int i = 0; i < size; i++) {
+            vector[i] = random.nextDouble(-1, 1);
+        }
+        scale(1 / Math.sqrt(dot(vector, vector)), vector, vector);
+        return vector;
+    }
+
+    /**
+     * Solves {@code A * x = b} by the conjugate gradient method, starting from 0.
+     *
+     * @see #conjugateGradient(LinearOperator, double[], double[], Settings)
+     */
+    public static Solution conjugateGradient(LinearOperator operator, double[] b, Settings settings) {
+        return conjugateGradient(operator, b, new double[operator.getSize()], settings);
+    }
+
+    /**
+     * Solves {@code A * x = b} by the conjugate gradient method, for a symmetric positive definite operator.
+     * The relative residual is {@code |b - A * x| / |b|}.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(k * (m + n)) Time, where k is the amount of iterations and m the cost of a product</li>
+     *     <li>O(n) Space</li>
+     * </ul>
+     *
+     * @param operator the operator
+     * @param b the right hand side
+     * @param guess the start of the iteration, which is not modified
+     * @param settings the limits of the iteration
+     * @return the solution, the last iterate if the method didn't converge
+     * @throws ArithmeticException if the operator is found not to be positive definite
+     */
+    public static Solution conjugateGradient(LinearOperator operator, double[] b, double[] guess, Settings settings) {
+        checkVector(operator, b, "Right hand side");
+        checkVector(operator, guess, "Guess");
+
+        try (Phase phase = Instrumentation.phase("conjugateGradient")) {
+            int n = operator.getSize();
+            double[] x = guess.clone();
+            double[] r = new double[n];
+            double[] p = new double[n];
+            double[] ap = new double[n];
+            History history = new History();
+
+            double bNorm = Math.sqrt(dot(b, b));
+            if (bNorm == 0) {
+                Arrays.fill(x, 0);
+                return new Solution(x, history.finish(0, 0, true));
+            }
+            operator.multiply(x, ap);
+            for (int i = 0; i < n; i++) {
+                r[i] = b[i] - ap[i];
+            }
+            System.arraycopy(r, 0, p, 0, n);
+            double rr = dot(r, r);
+            double residual = Math.sqrt(rr) / bNorm;
+
+            int iterations = 0;
+            while (residual > settings.tolerance() && iterations < settings.maxIterations()) {
+                operator.multiply(p, ap);
+                double pap = dot(p, ap);
+                if (!(pap > 0))
+                    throw new ArithmeticException("Operator is not positive definite");
+
+                double alpha = rr / pap;
+                axpy(alpha, p, x);
+                axpy(-alpha, ap, r);
+                double next = dot(r, r);
+                double beta = next / rr;
+                for (int i = 0; i < n; i++) {
+                    p[i] = r[i] + beta * p[i];
+                }
+                rr = next;
+                residual = Math.sqrt(rr) / bNorm;
+                history.add(residual);
+                iterations++;
+                Instrumentation.add(Counter.FLOPS, 10L * n);
+            }
+            return new Solution(x, history.finish(iterations, residual, residual <= settings.tolerance()));
+        }
+    }
+
+    /**
+     * Finds the eigenvalue of largest magnitude and its eigenvector by power iteration. The eigenvalue is the
+     * Rayleigh quotient of the iterate and the relative residual is {@code |A * v - value * v| / |value|}.
+     * Convergence is linear in the ratio of the two largest eigenvalue magnitudes, and there is none if they are equal.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(k * (m + n)) Time, where k is the amount of iterations and m the cost of a product</li>
+     *     <li>O(n) Space</li>
+     * </ul>
+     *
+     * @param operator the operator
+     * @param settings the limits of the iteration
+     * @return the dominant eigenpair, the last iterate if the method didn't converge
+     */
+    public static Eigenpair powerIteration(LinearOperator operator, Settings settings) {
+        checkNotEmpty(operator);
+        try (Phase phase = Instrumentation.phase("powerIteration")) {
+            int n = operator.getSize();
+            double[] v = startVector(n);
+            double[] w = new double[n];
+            History history = new History();
+
+            double value = 0, residual = Double.POSITIVE_INFINITY;
+            int iterations = 0;
+            while (iterations < settings.maxIterations()) {
+                operator.multiply(v, w);
+                iterations++;
+                value = dot(v, w);
+                double norm = Math.sqrt(dot(w, w));
+                if (norm == 0) {
+                    // v is in the null space, and every eigenvalue is 0 if it is the dominant one.
+                    residual = 0;
+                    history.add(residual);
+                    break;
+                }
+                double squared = 0;
+                for (int i = 0; i < n; i++) {
+                    double difference = w[i] - value * v[i];
+                    squared += difference * difference;
+                }
+                residual = Math.sqrt(squared) / Math.abs(value);
+                history.add(residual);
+                Instrumentation.add(Counter.FLOPS, 7L * n);
+                if (residual <= settings.tolerance())
+                    break;
+                scale(1 / norm, w, v);
+            }
+            return new Eigenpair(value, v, history.finish(iterations, residual, residual <= settings.tolerance()));
+        }
+    }
+
+    /**
+     * Finds the eigenvalue of largest magnitude and its eigenvector of a symmetric operator by the Lanczos method.
+     * Every basis vector is orthogonalized against all earlier ones, which costs O(n) memory for each step but keeps
+     * the Ritz values free of spurious copies. The tridiagonal eigenproblem is solved every few steps, and the
+     * relative residual of the Ritz pair, {@code |beta * s| / |value|}, is read off it without a product.
+     * It usually converges in far fewer products than {@link #powerIteration(LinearOperator, Settings)}.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(k * (m + k * n + k^2 / c)) Time, where k is the amount of steps, m the cost of a product and c the check interval</li>
+     *     <li>O(k * n + k^2) Space</li>
+     * </ul>
+     *
+     * @param operator the operator, which must be symmetric
+     * @param settings the limits of the iteration, where the steps are also limited to the operator's size
+     * @return the dominant eigenpair, the best Ritz pair if the method didn't converge
+     */
+    public static Eigenpair lanczos(LinearOperator operator, Settings settings) {
+        checkNotEmpty(operator);
+        try (Phase phase = Instrumentation.phase("lanczos")) {
+            int n = operator.getSize();
+            int maxSteps = Math.min(settings.maxIterations(), n);
+            List<double[]> basis = new ArrayList<>();
+            basis.add(startVector(n));
+            double[] w = new double[n];
+            double[] alphas = new double[maxSteps];
+            double[] betas = new double[maxSteps];
+            History history = new History();
+
+            double[] values = null;
+            int best = 0, steps = 0;
+            double residual = Double.POSITIVE_INFINITY;
+            while (steps < maxSteps) {
+                double[] q = basis.get(steps);
+                operator.multiply(q, w);
+                alphas[steps] = dot(q, w);
+                axpy(-alphas[steps], q, w);
+                if (steps > 0)
+                    axpy(-betas[steps - 1], basis.get(steps - 1), w);
+                for (double[] earlier : basis) {
+                    axpy(-dot(earlier, w), earlier, w);
+                }
+                double beta = Math.sqrt(dot(w, w));
+                betas[steps] = beta;
+                steps++;
+                Instrumentation.add(Counter.FLOPS, 4L * n * (steps + 2));
+
+                // The subspace is invariant when beta vanishes, and the Ritz pairs are exact.
+                boolean invariant = beta <= 1e-14 * Math.abs(alphas[steps - 1]) || beta == 0;
+                if (invariant || steps % LANCZOS_CHECK_INTERVAL == 0 || steps == maxSteps) {
+                    // Only the last row of the eigenvectors is needed for the residuals.
+                    double[] last = new double[steps];
+                    last[steps - 1] = 1;
+                    values = tridiagonalEigen(alphas, betas, last, steps, 1);
+                    best = 0;
+                    for (int i = 1; i < steps; i++) {
+                        if (Math.abs(values[i]) > Math.abs(values[best]))
+                            best = i;
+                    }
+                    double estimate = Math.abs(beta * last[best]);
+                    residual = invariant ? 0 : values[best] == 0 ? estimate : estimate / Math.abs(values[best]);
+                    history.add(residual);
+                    if (invariant || residual <= settings.tolerance())
+                        break;
+                }
+                if (steps < maxSteps) {
+                    double[] next = new double[n];
+                    scale(1 / beta, w, next);
+                    basis.add(next);
+                }
+            }
+
+            // The Ritz vector, combining the basis by the tridiagonal eigenvector. The rotations don't depend on the
+            // vectors, so the eigenvalues come out in the same order as in the last check.
+            double[] vectors = new double[steps * steps];
+            for (int i = 0; i < steps; i++) {
+                vectors[i + i * steps] = 1;
+            }
+            tridiagonalEigen(alphas, betas, vectors, steps, steps);
+            double[] vector = new double[n];
+            for (int i = 0; i < steps; i++) {
+                axpy(vectors[i + best * steps], basis.get(i), vector);
+            }
+            scale(1 / Math.sqrt(dot(vector, vector)), vector, vector);
+            return new Eigenpair(values[best], vector, history.finish(steps, residual, residual <= settings.tolerance()));
+        }
+    }
+
+    /**
+     * Diagonalizes a symmetric tridiagonal matrix by the QL method with implicit shifts. The rotations are applied
+     * to the given rows of the identity, so the rows of the eigenvectors can be computed without the rest.
+     *
+     * @param alphas the diagonal, of which the first m elements are read
+     * @param betas the subdiagonal, where element i couples i and i + 1, of which the first m - 1 elements are read
+     * @param vectors rows of the identity, column major, overwritten with the same rows of the eigenvectors
+     * @param m the size of the matrix
+     * @param rows the amount of rows in the vectors
+     * @return the eigenvalues, where eigenvalue i belongs to column i of the vectors
+     */
+    private static double[] tridiagonalEigen(double[] alphas, double[] betas, double[] vectors, int m, int rows) {
+        double[] diagonal = Arrays.copyOf(alphas, m);
+        double[] off = Arrays.copyOf(betas, m);
+        off[m - 1] = 0;
+        for (int l = 0; l < m; l++) {
+            int sweeps = 0;
+            int end;
+            do {
+                // Find the first negligible subdiagonal element, which splits the matrix.
+                for (end = l; end < m - 1; end++) {
+                    double scale = Math.abs(diagonal[end]) + Math.abs(diagonal[end + 1]);
+                    if (Math.abs(off[end]) <= Math.ulp(scale))
+                        break;
+                }
+                if (end == l)
+                    break;
+                if (sweeps++ == QL_MAX_SWEEPS)
+                    throw new ArithmeticException("Tridiagonal eigenvalues did not converge");
+
+                double g = (diagonal[l + 1] - diagonal[l]) / (2 * off[l]);
+                double r = Math.hypot(g, 1);
+                g = diagonal[end] - diagonal[l] + off[l] / (g + Math.copySign(r, g));
+                double s = 1, c = 1, p = 0;
+                int i;
+                for (i = end - 1; i >= l; i--) {
+                    double f = s * off[i];
+                    double b = c * off[i];
+                    r = Math.hypot(f, g);
+                    off[i + 1] = r;
+                    if (r == 0) {
+                        diagonal[i + 1] -= p;
+                        off[end] = 0;
+                        break;
+                    }
+                    s = f / r;
+                    c = g / r;
+                    g = diagonal[i + 1] - p;
+                    r = (diagonal[i] - g) * s + 2 * c * b;
+                    p = s * r;
+                    diagonal[i + 1] = g + p;
+                    g = c * r - b;
+                    int left = i * rows, right = left + rows;
+                    for (int k = 0; k < rows; k++) {
+                        f = vectors[right + k];
+                        vectors[right + k] = s * vectors[left + k] + c * f;
+                        vectors[left + k] = c * vectors[left + k] - s * f;
+                    }
+                }
+                if (r == 0 && i >= l)
+                    continue;
+                diagonal[l] -= p;
+                off[l] = g;
+                off[end] = 0;
+            } while (true);
+        }
+        return diagonal;
+    }
+}
@@ -0,0 +1,363 @@
+package com.golfing8.util;
+
+import com.golfing8.concurrent.ThreadPools;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Maximum sub array computations with long sums.
+ * <p></p>
+ * Every segment of the input is reduced to a {@link Summary} of its total, best prefix, best suffix and best
+ * sub array. Summaries of neighbouring segments merge in O(1), so the same reduction works sequentially,
+ * split across fork/join tasks, or fed one element at a time from a stream.
+ */
+public class MaxSubArray {
+    /** Ranges at most this long are summarized by a single thread */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 16;
+    /** The size of the buffer used when streaming files */
+    private static final int FILE_BUFFER_BYTES = 1 << 20;
+
+    /**
+     * A maximum sub array
+     *
+     * @param start the index of the first element
+     * @param end the index of the last element, inclusive
+     * @param sum the sum of the elements
+     */
+    public record SubArray(long start, long end, long sum) {}
+
+    /**
+     * A mergeable summary of a non-empty segment. All indices are inclusive.
+     *
+     * @param start the index of the first element in the segment
+     * @param count the amount of elements in the segment
+     * @param total the sum of the segment
+     * @param prefix the best sum of a prefix of the segment
+     * @param prefixEnd the last index of the best prefix
+     * @param suffix the best sum of a suffix of the segment
+     * @param suffixStart the first index of the best suffix
+     * @param best the best sum of any sub array of the segment
+     * @param bestStart the first index of the best sub array
+     * @param bestEnd the last index of the best sub array
+     */
+    public record Summary(long start, long count, long total,
+                          long prefix, long prefixEnd,
+                          long suffix, long suffixStart,
+                          long best, long bestStart, long bestEnd) {
+        /**
+         * Creates the summary of a single element
+         *
+         * @param index the index of the element
+         * @param value the element
+         * @return the summary
+         */
+        public static Summary of(long index, long value) {
+            return new Summary(index, 1, value, value, index, value, index, value, index, index);
+        }
+
+        /**
+         * Merges this summary with the summary of the segment directly after it
+         *
+         * @param right the summary of the following segment
+         * @return the summary of both segments
+         */
+        public Summary merge(Summary right) {
+            if (start + count != right.start)
+                throw new IllegalArgumentException("Segments are not adjacent. Left ends before " + (start + count) + " right starts at " + right.start);
+
+            long mergedPrefix = prefix, mergedPrefixEnd = prefixEnd;
+            if (total + right.prefix > prefix) {
+                mergedPrefix = total + right.prefix;
+                mergedPrefixEnd = right.prefixEnd;
+            }
+
+            long mergedSuffix = right.suffix, mergedSuffixStart = right.suffixStart;
+            if (suffix + right.total > right.suffix) {
+                mergedSuffix = suffix + right.total;
+                mergedSuffixStart = suffixStart;
+            }
+
+            long mergedBest = best, mergedBestStart = bestStart, mergedBestEnd = bestEnd;
+            if (suffix + right.prefix > mergedBest) {
+                mergedBest = suffix + right.prefix;
+                mergedBestStart = suffixStart;
+                mergedBestEnd = right.prefixEnd;
+            }
+            if (right.best > mergedBest) {
+                mergedBest = right.best;
+                mergedBestStart = right.bestStart;
+                mergedBestEnd = right.bestEnd;
+            }
+
+            return new Summary(start, count + right.count, total + right.total,
+                    mergedPrefix, mergedPrefixEnd,
+                    mergedSuffix, mergedSuffixStart,
+                    mergedBest, mergedBestStart, mergedBestEnd);
+        }
+
+        /**
+         * Gets the best sub array of this segment
+         *
+         * @return the sub array
+         */
+        public SubArray subArray() {
+            return new SubArray(bestStart, bestEnd, best);
+        }
+    }
+
+    /**
+     * Summarizes a stream of elements one at a time using O(1) memory.
+     * <p></p>
+     * The best suffix ending at the latest element is exactly Kadane's running sum, so accepting an element
+     * updates the summary in place. Accumulators of consecutive parts of a stream can be combined, which makes
+     * this usable as a collector for ordered parallel streams.
+     */
+    public static class Accumulator implements IntConsumer {
+        private long start;
+        private long count;
+        private long total;
+        private long prefix, prefixEnd;
+        private long suffix, suffixStart;
+        private long best, bestStart, bestEnd;
+
+        /**
+         * Creates an accumulator whose first element has index 0
+         */
+        public Accumulator() {
+            this(0);
+        }
+
+        /**
+         * Creates an accumulator whose first element has the given index
+         *
+         * @param start the index of the first element
+         */
+        public Accumulator(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void accept(int value) {
+            accept((long) value);
+        }
+
+        /**
+         * Accepts the next element
+         *
+         * @param value the element
+         */
+        public void accept(long value) {
+            long index = start + count++;
+            if (count == 1) {
+                total = prefix = suffix = best = value;
+                prefixEnd = suffixStart = bestStart = bestEnd = index;
+                return;
+            }
+
+            total += value;
+            if (total > prefix) {
+                prefix = total;
+                prefixEnd = index;
+            }
+            if (suffix > 0) {
+                suffix += value;
+            } else {
+                suffix = value;
+                suffixStart = index;
+            }
+            if (suffix > best) {
+                best = suffix;
+                bestStart = suffixStart;
+                bestEnd = index;
+            }
+        }
+
+        /**
+         * Appends the elements accepted by the given accumulator, which must have started where this one ends
+         *
+         * @param other the accumulator of the following elements
+         */
+        public void combine(Accumulator other) {
+            if (other.count == 0)
+                return;
+            if (count == 0) {
+                load(other.summary());
+                return;
+            }
+            load(summary().merge(other.summary()));
+        }
+
+        private void shift(long offset) {
+            start += offset;
+            prefixEnd += offset;
+            suffixStart += offset;
+            bestStart += offset;
+            bestEnd += offset;
+        }
+
+        private void load(Summary summary) {
+            start = summary.start();
+            count = summary.count();
+            total = summary.total();
+            prefix = summary.prefix();
+            prefixEnd = summary.prefixEnd();
+            suffix = summary.suffix();
+            suffixStart = summary.suffixStart();
+            best = summary.best();
+            bestStart = summary.bestStart();
+            bestEnd = summary.bestEnd();
+        }
+
+        /**
+         * Gets the amount of accepted elements
+         *
+         * @return the count
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Gets the summary of the accepted elements
+         *
+         * @return the summary
+         */
+        public Summary summary() {
+            if (count == 0)
+                throw new IllegalStateException("No elements have been accepted");
+            return new Summary(start, count, total, prefix, prefixEnd, suffix, suffixStart, best, bestStart, bestEnd);
+        }
+    }
+
+    /**
+     * Summarizes the given range of the array
+     *
+     * @param array the array
+     * @param from the low index
+     * @param to the high index, exclusive
+     * @return the summary
+     */
+    public static Summary summarize(int[] array, int from, int to) {
+        if (from < 0 || to > array.length || from >= to)
+            throw new IllegalArgumentException("Invalid non-empty range [" + from + ", " + to + ") for array of length " + array.length);
+
+        Accumulator accumulator = new Accumulator(from);
+        for (int i = from; i < to; i++) {
+            accumulator.accept(array[i]);
+        }
+        return accumulator.summary();
+    }
+
+    /**
+     * Finds the maximum sub array on the calling thread
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n) Time</li>
+     *     <li>O(1) Space</li>
+     * </ul>
+     *
+     * @param array the array
+     * @return the maximum sub array
+     */
+    public static SubArray find(int[] array) {
+        return summarize(array, 0, array.length).subArray();
+    }
+
+    /**
+     * Finds the maximum sub array by summarizing chunks in parallel and merging the summaries
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n) Work</li>
+     *     <li>O(logn) Span</li>
+     * </ul>
+     *
+     * @param array the array
+     * @return the maximum sub array
+     */
+    public static SubArray findParallel(int[] array) {
+        if (array.length == 0)
+            throw new IllegalArgumentException("Cannot find the maximum sub array of an empty array");
+        return ThreadPools.ARRAY_EXECUTOR.invoke(new SummarizeTask(array, 0, array.length)).subArray();
+    }
+
+    private static class SummarizeTask extends RecursiveTask<Summary> {
+        private final int[] array;
+        private final int from;
+        private final int to;
+
+        SummarizeTask(int[] array, int from, int to) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD)
+                return summarize(array, from, to);
+
+            int mid = (from + to) >>> 1;
+            SummarizeTask left = new SummarizeTask(array, from, mid);
+            left.fork();
+            Summary right = new SummarizeTask(array, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Finds the maximum sub array of the given stream in a single pass. Parallel streams are summarized per
+     * split and merged in encounter order.
+     *
+     * @param stream the stream
+     * @return the maximum sub array
+     */
+    public static SubArray find(IntStream stream) {
+        Accumulator accumulator = stream.collect(Accumulator::new, Accumulator::accept, (left, right) -> {
+            // Each split numbers its elements from 0, so shift the right one past the left one first.
+            right.shift(left.start + left.count - right.start);
+            left.combine(right);
+        });
+        if (accumulator.count() == 0)
+            throw new IllegalArgumentException("Cannot find the maximum sub array of an empty stream");
+        return accumulator.summary().subArray();
+    }
+
+    /**
+     * Finds the maximum sub array of a file of big endian ints, streaming it in fixed size chunks
+     *
+     * @param path the file
+     * @return the maximum sub array, indexed by element
+     */
+    public static SubArray find(Path path) {
+        Accumulator accumulator = new Accumulator();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() % Integer.BYTES != 0)
+                throw new IllegalArgumentException("File size is not a multiple of " + Integer.BYTES + ". Was " + channel.size());
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(FILE_BUFFER_BYTES);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= Integer.BYTES) {
+                    accumulator.accept(buffer.getInt());
+                }
+                buffer.compact();
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        if (accumulator.count() == 0)
+            throw new IllegalArgumentException("Cannot find the maximum sub array of an empty file");
+        return accumulator.summary().subArray();
+    }
+}
@@ -0,0 +1,961 @@
+package com.golfing8.util;
+
+import com.golfing8.concurrent.ThreadPools;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel sorts for primitive arrays, run on {@link ThreadPools#ARRAY_EXECUTOR}.
+ * <p></p>
+ * Two engines are available:
+ * <ul>
+ *     <li>A fork/join introsort. Ranges are split with a median of three Hoare partition, small ranges are
+ *     finished with insertion sort and ranges that recurse too deep fall back to heap sort.</li>
+ *     <li>A sample sort for very large arrays. Sampled splitters divide the array into buckets which are
+ *     classified and scattered in parallel chunks and then sorted independently.</li>
+ * </ul>
+ * Complexity:
+ * <ul>
+ *     <li>O(nlogn) Time</li>
+ *     <li>O(logn) Space for the introsort, O(n) Space for the sample sort</li>
+ * </ul>
+ * Doubles are ordered as in {@link java.util.Arrays#sort(double[])}, -0.0 sorts before 0.0 and NaN sorts last.
+ */
+public class ParallelSort {
+    /** Ranges at most this long are insertion sorted */
+    private static final int INSERTION_THRESHOLD = 32;
+    /** Ranges at most this long are sorted by a single thread */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+    /** Arrays at least this long are sample sorted by default */
+    private static final int SAMPLE_SORT_THRESHOLD = 1 << 22;
+    /** The amount of samples taken per bucket */
+    private static final int OVERSAMPLING = 64;
+    /** The maximum amount of sample sort buckets, bucket ids are stored as bytes */
+    private static final int MAX_BUCKETS = 256;
+    /** The memory the sample sort allocates per element besides the array, a double to scatter into and a bucket id */
+    static final int SAMPLE_SORT_BYTES_PER_ELEMENT = Double.BYTES + Byte.BYTES;
+
+    private static final int MODE_AUTO = 0;
+    private static final int MODE_QUICK = 1;
+    private static final int MODE_SAMPLE = 2;
+
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to)
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") for array of length " + length);
+    }
+
+    private static int depthLimit(int n) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(n, 1)));
+    }
+
+    private static int bucketCount() {
+        int buckets = Integer.highestOneBit(ThreadPools.ARRAY_EXECUTOR.getParallelism() * 8);
+        return Math.max(2, Math.min(MAX_BUCKETS, buckets));
+    }
+
+    /**
+     * Sorts the given array, sample sorting very large arrays and quick sorting the rest
+     *
+     * @param array the array
+     */
+    public static void sort(double[] array) {
+        sortDoubles(array, 0, array.length, MODE_AUTO);
+    }
+
+    /**
+     * Sorts the given range of the array
+     *
+     * @param array the array
+     * @param from the low index
+     * @param to the high index, exclusive
+     */
+    public static void sort(double[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        sortDoubles(array, from, to, MODE_AUTO);
+    }
+
+    /**
+     * Sorts the given array with the fork/join introsort
+     *
+     * @param array the array
+     */
+    public static void quickSort(double[] array) {
+        sortDoubles(array, 0, array.length, MODE_QUICK);
+    }
+
+    /**
+     * Sorts the given array with the sample sort
+     *
+     * @param array the array
+     */
+    public static void sampleSort(double[] array) {
+        sortDoubles(array, 0, array.length, MODE_SAMPLE);
+    }
+
+    private static void sortDoubles(double[] array, int from, int to, int mode) {
+        // Move NaNs to the end and turn -0.0 into 0.0 so the engines can compare with plain operators.
+        int end = to;
+        int negativeZeros = 0;
+        for (int i = from; i < end; ) {
+            double value = array[i];
+            if (value != value) {
+                array[i] = array[--end];
+                array[end] = value;
+            } else {
+                if (value == 0.0 && Double.doubleToRawLongBits(value) != 0) {
+                    array[i] = 0.0;
+                    negativeZeros++;
+                }
+                i++;
+            }
+        }
+
+        sortRange(array, from, end, mode);
+
+        if (negativeZeros > 0) {
+            int low = from, high = end;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (array[mid] < 0.0)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            for (int i = 0; i < negativeZeros; i++) {
+                array[low + i] = -0.0;
+            }
+        }
+    }
+
+    private static void sortRange(double[] array, int from, int to, int mode) {
+        int n = to - from;
+        if ((mode == MODE_SAMPLE && n >= bucketCount() * OVERSAMPLING) || (mode == MODE_AUTO && n >= SAMPLE_SORT_THRESHOLD)) {
+            ThreadPools.ARRAY_EXECUTOR.invoke(new DoubleSampleSort(array, from, to));
+        } else if (mode != MODE_AUTO || n > SEQUENTIAL_THRESHOLD) {
+            ThreadPools.ARRAY_EXECUTOR.invoke(new DoubleQuickSort(array, from, to, depthLimit(n)));
+        } else {
+            introSort(array, from, to, depthLimit(n));
+        }
+    }
+
+    private static void swap(double[] array, int i, int j) {
+        double temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * Hoare partitions the range around the median of its first, middle and last elements
+     *
+     * @return the index j such that {@code [from, j]} is at most the pivot and {@code (j, to)} is at least the pivot
+     */
+    private static int partition(double[] array, int from, int to) {
+        int mid = (from + to - 1) >>> 1;
+        int last = to - 1;
+        if (array[mid] < array[from])
+            swap(array, mid, from);
+        if (array[last] < array[from])
+            swap(array, last, from);
+        if (array[last] < array[mid])
+            swap(array, last, mid);
+
+        double pivot = array[mid];
+        int i = from - 1;
+        int j = to;
+        while (true) {
+            do {
+                i++;
+            } while (array[i] < pivot);
+            do {
+                j--;
+            } while (array[j] > pivot);
+            if (i >= j)
+                return j;
+            swap(array, i, j);
+        }
+    }
+
+    private static void insertionSort(double[] array, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            double value = array[i];
+            int j = i - 1;
+            while (j >= from && array[j] > value) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(double[] array, int from, int to) {
+        int n = to - from;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(array, from, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(array, from, from + end);
+            siftDown(array, from, 0, end);
+        }
+    }
+
+    private static void siftDown(double[] array, int offset, int i, int n) {
+        double value = array[offset + i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n)
+                break;
+            if (child + 1 < n && array[offset + child + 1] > array[offset + child])
+                child++;
+            if (array[offset + child] <= value)
+                break;
+            array[offset + i] = array[offset + child];
+            i = child;
+        }
+        array[offset + i] = value;
+    }
+
+    private static void introSort(double[] array, int from, int to, int depth) {
+        while (to - from > INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(array, from, to);
+                return;
+            }
+
+            // Recurse into the smaller side and loop on the larger one.
+            int j = partition(array, from, to);
+            if (j + 1 - from < to - j - 1) {
+                introSort(array, from, j + 1, depth);
+                from = j + 1;
+            } else {
+                introSort(array, j + 1, to, depth);
+                to = j + 1;
+            }
+        }
+        insertionSort(array, from, to);
+    }
+
+    private static class DoubleQuickSort extends RecursiveAction {
+        private final double[] array;
+        private final int from;
+        private final int to;
+        private final int depth;
+        /** The next task forked by the same parent, joined in order */
+        private DoubleQuickSort next;
+
+        DoubleQuickSort(double[] array, int from, int to, int depth) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            int low = from;
+            int depth = this.depth;
+            DoubleQuickSort forked = null;
+            while (to - low > SEQUENTIAL_THRESHOLD && depth > 0) {
+                depth--;
+                int j = partition(array, low, to);
+                DoubleQuickSort left = new DoubleQuickSort(array, low, j + 1, depth);
+                left.next = forked;
+                forked = left;
+                left.fork();
+                low = j + 1;
+            }
+            introSort(array, low, to, depth);
+
+            for (; forked != null; forked = forked.next) {
+                forked.join();
+            }
+        }
+    }
+
+    private static int bucketOf(double value, double[] splitters, int buckets) {
+        // Counts the splitters at most the value, splitters has buckets - 1 entries and buckets is a power of two.
+        int bucket = 0;
+        for (int step = buckets >>> 1; step > 0; step >>>= 1) {
+            if (splitters[bucket + step - 1] <= value)
+                bucket += step;
+        }
+        return bucket;
+    }
+
+    private static class DoubleSampleSort extends RecursiveAction {
+        private final double[] array;
+        private final int from;
+        private final int to;
+
+        DoubleSampleSort(double[] array, int from, int to) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int n = to - from;
+            int buckets = bucketCount();
+            int chunks = Math.max(1, Math.min(n / SEQUENTIAL_THRESHOLD, getPool().getParallelism() * 4));
+            int chunkSize = (n + chunks - 1) / chunks;
+
+            // Choose the splitters from a deterministic random sample.
+            SplittableRandom random = new SplittableRandom(n);
+            double[] sample = new double[buckets * OVERSAMPLING];
+            for (int i = 0; i < sample.length; i++) {
+                sample[i] = array[from + random.nextInt(n)];
+            }
+            introSort(sample, 0, sample.length, depthLimit(sample.length));
+            double[] splitters = new double[buckets - 1];
+            for (int i = 1; i < buckets; i++) {
+                splitters[i - 1] = sample[i * OVERSAMPLING];
+            }
+
+            // Classify every element and count the bucket sizes per chunk.
+            byte[] bucketIds = new byte[n];
+            int[][] counts = new int[chunks][buckets];
+            RecursiveAction[] tasks = new RecursiveAction[chunks];
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                tasks[c] = new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        int[] chunkCounts = counts[chunk];
+                        int end = Math.min(n, (chunk + 1) * chunkSize);
+                        for (int i = chunk * chunkSize; i < end; i++) {
+                            int bucket = bucketOf(array[from + i], splitters, buckets);
+                            bucketIds[i] = (byte) bucket;
+                            chunkCounts[bucket]++;
+                        }
+                    }
+                };
+            }
+            invokeAll(tasks);
+
+            int[] bucketStarts = new int[buckets + 1];
+            int[][] cursors = new int[chunks][buckets];
+            int position = 0;
+            for (int b = 0; b < buckets; b++) {
+                bucketStarts[b] = position;
+                for (int c = 0; c < chunks; c++) {
+                    cursors[c][b] = position;
+                    position += counts[c][b];
+                }
+            }
+            bucketStarts[buckets] = n;
+
+            // Scatter every chunk into its reserved slots of each bucket.
+            double[] buffer = new double[n];
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                tasks[c] = new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        int[] cursor = cursors[chunk];
+                        int end = Math.min(n, (chunk + 1) * chunkSize);
+                        for (int i = chunk * chunkSize; i < end; i++) {
+                            buffer[cursor[bucketIds[i] & 0xFF]++] = array[from + i];
+                        }
+                    }
+                };
+            }
+            invokeAll(tasks);
+
+            // Sort the buckets independently and copy them back.
+            RecursiveAction[] bucketTasks = new RecursiveAction[buckets];
+            for (int b = 0; b < buckets; b++) {
+                int start = bucketStarts[b];
+                int end = bucketStarts[b + 1];
+                bucketTasks[b] = new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        new DoubleQuickSort(buffer, start, end, depthLimit(end - start)).compute();
+                        System.arraycopy(buffer, start, array, from + start, end - start);
+                    }
+                };
+            }
+            invokeAll(bucketTasks);
+        }
+    }
+
+    /**
+     * Sorts the given array, sample sorting very large arrays and quick sorting the rest
+     *
+     * @param array the array
+     */
+    public static void sort(int[] array) {
+        sortRange(array, 0, array.length, MODE_AUTO);
+    }
+
+    /**
+     * Sorts the given range of the array
+     *
+     * @param array the array
+     * @param from the low index
+     * @param to the high index, exclusive
+     */
+    public static void sort(int[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        sortRange(array, from, to, MODE_AUTO);
+    }
+
+    /**
+     * Sorts the given array with the fork/join introsort
+     *
+     * @param array the array
+     */
+    public static void quickSort(int[] array) {
+        sortRange(array, 0, array.length, MODE_QUICK);
+    }
+
+    /**
+     * Sorts the given array with the sample sort
+     *
+     * @param array the array
+     */
+    public static void sampleSort(int[] array) {
+        sortRange(array, 0, array.length, MODE_SAMPLE);
+    }
+
+    private static void sortRange(int[] array, int from, int to, int mode) {
+        int n = to - from;
+        if ((mode == MODE_SAMPLE && n >= bucketCount() * OVERSAMPLING) || (mode == MODE_AUTO && n >= SAMPLE_SORT_THRESHOLD)) {
+            ThreadPools.ARRAY_EXECUTOR.invoke(new IntSampleSort(array, from, to));
+        } else if (mode != MODE_AUTO || n > SEQUENTIAL_THRESHOLD) {
+            ThreadPools.ARRAY_EXECUTOR.invoke(new IntQuickSort(array, from, to, depthLimit(n)));
+        } else {
+            introSort(array, from, to, depthLimit(n));
+        }
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * Hoare partitions the range around the median of its first, middle and last elements
+     *
+     * @return the index j such that {@code [from, j]} is at most the pivot and {@code (j, to)} is at least the pivot
+     */
+    private static int partition(int[] array, int from, int to) {
+        int mid = (from + to - 1) >>> 1;
+        int last = to - 1;
+        if (array[mid] < array[from])
+            swap(array, mid, from);
+        if (array[last] < array[from])
+            swap(array, last, from);
+        if (array[last] < array[mid])
+            swap(array, last, mid);
+
+        int pivot = array[mid];
+        int i = from - 1;
+        int j = to;
+        while (true) {
+            do {
+                i++;
+            } while (array[i] < pivot);
+            do {
+                j--;
+            } while (array[j] > pivot);
+            if (i >= j)
+                return j;
+            swap(array, i, j);
+        }
+    }
+
+    private static void insertionSort(int[] array, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int value = array[i];
+            int j = i - 1;
+            while (j >= from && array[j] > value) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(int[] array, int from, int to) {
+        int n = to - from;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(array, from, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(array, from, from + end);
+            siftDown(array, from, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] array, int offset, int i, int n) {
+        int value = array[offset + i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n)
+                break;
+            if (child + 1 < n && array[offset + child + 1] > array[offset + child])
+                child++;
+            if (array[offset + child] <= value)
+                break;
+            array[offset + i] = array[offset + child];
+            i = child;
+        }
+        array[offset + i] = value;
+    }
+
+    private static void introSort(int[] array, int from, int to, int depth) {
+        while (to - from > INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(array, from, to);
+                return;
+            }
+
+            // Recurse into the smaller side and loop on the larger one.
+            int j = partition(array, from, to);
+            if (j + 1 - from < to - j - 1) {
+                introSort(array, from, j + 1, depth);
+                from = j + 1;
+            } else {
+                introSort(array, j + 1, to, depth);
+                to = j + 1;
+            }
+        }
+        insertionSort(array, from, to);
+    }
+
+    private static class IntQuickSort extends RecursiveAction {
+        private final int[] array;
+        private final int from;
+        private final int to;
+        private final int depth;
+        /** The next task forked by the same parent, joined in order */
+        private IntQuickSort next;
+
+        IntQuickSort(int[] array, int from, int to, int depth) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            int low = from;
+            int depth = this.depth;
+            IntQuickSort forked = null;
+            while (to - low > SEQUENTIAL_THRESHOLD && depth > 0) {
+                depth--;
+                int j = partition(array, low, to);
+                IntQuickSort left = new IntQuickSort(array, low, j + 1, depth);
+                left.next = forked;
+                forked = left;
+                left.fork();
+                low = j + 1;
+            }
+            introSort(array, low, to, depth);
+
+            for (; forked != null; forked = forked.next) {
+                forked.join();
+            }
+        }
+    }
+
+    private static int bucketOf(int value, int[] splitters, int buckets) {
+        // Counts the splitters at most the value, splitters has buckets - 1 entries and buckets is a power of two.
+        int bucket = 0;
+        for (int step = buckets >>> 1; step > 0; step >>>= 1) {
+            if (splitters[bucket + step - 1] <= value)
+                bucket += step;
+        }
+        return bucket;
+    }
+
+    private static class IntSampleSort extends RecursiveAction {
+        private final int[] array;
+        private final int from;
+        private final int to;
+
+        IntSampleSort(int[] array, int from, int to) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int n = to - from;
+            int buckets = bucketCount();
+            int chunks = Math.max(1, Math.min(n / SEQUENTIAL_THRESHOLD, getPool().getParallelism() * 4));
+            int chunkSize = (n + chunks - 1) / chunks;
+
+            // Choose the splitters from a deterministic random sample.
+            SplittableRandom random = new SplittableRandom(n);
+            int[] sample = new int[buckets * OVERSAMPLING];
+            for (int i = 0; i < sample.length; i++) {
+                sample[i] = array[from + random.nextInt(n)];
+            }
+            introSort(sample, 0, sample.length, depthLimit(sample.length));
+            int[] splitters = new int[buckets - 1];
+            for (int i = 1; i < buckets; i++) {
+                splitters[i - 1] = sample[i * OVERSAMPLING];
+            }
+
+            // Classify every element and count the bucket sizes per chunk.
+            byte[] bucketIds = new byte[n];
+            int[][] counts = new int[chunks][buckets];
+            RecursiveAction[] tasks = new RecursiveAction[chunks];
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                tasks[c] = new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        int[] chunkCounts = counts[chunk];
+                        int end = Math.min(n, (chunk + 1) * chunkSize);
+                        for (int i = chunk * chunkSize; i < end; i++) {
+                            int bucket = bucketOf(array[from + i], splitters, buckets);
+                            bucketIds[i] = (byte) bucket;
+                            chunkCounts[bucket]++;
+                        }
+                    }
+                };
+            }
+            invokeAll(tasks);
+
+            int[] bucketStarts = new int[buckets + 1];
+            int[][] cursors = new int[chunks][buckets];
+            int position = 0;
+            for (int b = 0; b < buckets; b++) {
+                bucketStarts[b] = position;
+                for (int c = 0; c < chunks; c++) {
+                    cursors[c][b] = position;
+                    position += counts[c][b];
+                }
+            }
+            bucketStarts[buckets] = n;
+
+            // Scatter every chunk into its reserved slots of each bucket.
+            int[] buffer = new int[n];
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                tasks[c] = new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        int[] cursor = cursors[chunk];
+                        int end = Math.min(n, (chunk + 1) * chunkSize);
+                        for (int i = chunk * chunkSize; i < end; i++) {
+                            buffer[cursor[bucketIds[i] & 0xFF]++] = array[from + i];
+                        }
+                    }
+                };
+            }
+            invokeAll(tasks);
+
+            // Sort the buckets independently and copy them back.
+            RecursiveAction[] bucketTasks = new RecursiveAction[buckets];
+            for (int b = 0; b < buckets; b++) {
+                int start = bucketStarts[b];
+                int end = bucketStarts[b + 1];
+                bucketTasks[b] = new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        new IntQuickSort(buffer, start, end, depthLimit(end - start)).compute();
+                        System.arraycopy(buffer, start, array, from + start, end - start);
+                    }
+                };
+            }
+            invokeAll(bucketTasks);
+        }
+    }
+
+    /**
+     * Sorts the given array, sample sorting very large arrays and quick sorting the rest
+     *
+     * @param array the array
+     */
+    public static void sort(long[] array) {
+        sortRange(array, 0, array.length, MODE_AUTO);
+    }
+
+    /**
+     * Sorts the given range of the array
+     *
+     * @param array the array
+     * @param from the low index
+     * @param to the high index, exclusive
+     */
+    public static void sort(long[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        sortRange(array, from, to, MODE_AUTO);
+    }
+
+    /**
+     * Sorts the given array with the fork/join introsort
+     *
+     * @param array the array
+     */
+    public static void quickSort(long[] array) {
+        sortRange(array, 0, array.length, MODE_QUICK);
+    }
+
+    /**
+     * Sorts the given array with the sample sort
+     *
+     * @param array the array
+     */
+    public static void sampleSort(long[] array) {
+        sortRange(array, 0, array.length, MODE_SAMPLE);
+    }
+
+    private static void sortRange(long[] array, int from, int to, int mode) {
+        int n = to - from;
+        if ((mode == MODE_SAMPLE && n >= bucketCount() * OVERSAMPLING) || (mode == MODE_AUTO && n >= SAMPLE_SORT_THRESHOLD)) {
+            ThreadPools.ARRAY_EXECUTOR.invoke(new LongSampleSort(array, from, to));
+        } else if (mode != MODE_AUTO || n > SEQUENTIAL_THRESHOLD) {
+            ThreadPools.ARRAY_EXECUTOR.invoke(new LongQuickSort(array, from, to, depthLimit(n)));
+        } else {
+            introSort(array, from, to, depthLimit(n));
+        }
+    }
+
+    private static void swap(long[] array, int i, int j) {
+        long temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * Hoare partitions the range around the median of its first, middle and last elements
+     *
+     * @return the index j such that {@code [from, j]} is at most the pivot and {@code (j, to)} is at least the pivot
+     */
+    private static int partition(long[] array, int from, int to) {
+        int mid = (from + to - 1) >>> 1;
+        int last = to - 1;
+        if (array[mid] < array[from])
+            swap(array, mid, from);
+        if (array[last] < array[from])
+            swap(array, last, from);
+        if (array[last] < array[mid])
+            swap(array, last, mid);
+
+        long pivot = array[mid];
+        int i = from - 1;
+        int j = to;
+        while (true) {
+            do {
+                i++;
+            } while (array[i] < pivot);
+            do {
+                j--;
+            } while (array[j] > pivot);
+            if (i >= j)
+                return j;
+            swap(array, i, j);
+        }
+    }
+
+    private static void insertionSort(long[] array, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long value = array[i];
+            int j = i - 1;
+            while (j >= from && array[j] > value) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(long[] array, int from, int to) {
+        int n = to - from;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(array, from, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(array, from, from + end);
+            siftDown(array, from, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] array, int offset, int i, int n) {
+        long value = array[offset + i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n)
+                break;
+            if (child + 1 < n && array[offset + child + 1] > array[offset + child])
+                child++;
+            if (array[offset + child] <= value)
+                break;
+            array[offset + i] = array[offset + child];
+            i = child;
+        }
+        array[offset + i] = value;
+    }
+
+    private static void introSort(long[] array, int from, int to, int depth) {
+        while (to - from > INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(array, from, to);
+                return;
+            }
+
+            // Recurse into the smaller side and loop on the larger one.
+            int j = partition(array, from, to);
+            if (j + 1 - from < to - j - 1) {
+                introSort(array, from, j + 1, depth);
+                from = j + 1;
+            } else {
+                introSort(array, j + 1, to, depth);
+                to = j + 1;
+            }
+        }
+        insertionSort(array, from, to);
+    }
+
+    private static class LongQuickSort extends RecursiveAction {
+        private final long[] array;
+        private final int from;
+        private final int to;
+        private final int depth;
+        /** The next task forked by the same parent, joined in order */
+        private LongQuickSort next;
+
+        LongQuickSort(long[] array, int from, int to, int depth) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            int low = from;
+            int depth = this.depth;
+            LongQuickSort forked = null;
+            while (to - low > SEQUENTIAL_THRESHOLD && depth > 0) {
+                depth--;
+                int j = partition(array, low, to);
+                LongQuickSort left = new LongQuickSort(array, low, j + 1, depth);
+                left.next = forked;
+                forked = left;
+                left.fork();
+                low = j + 1;
+            }
+            introSort(array, low, to, depth);
+
+            for (; forked != null; forked = forked.next) {
+                forked.join();
+            }
+        }
+    }
+
+    private static int bucketOf(long value, long[] splitters, int buckets) {
+        // Counts the splitters at most the value, splitters has buckets - 1 entries and buckets is a power of two.
+        int bucket = 0;
+        for (int step = buckets >>> 1; step > 0; step >>>= 1) {
+            if (splitters[bucket + step - 1] <= value)
+                bucket += step;
+        }
+        return bucket;
+    }
+
+    private static class LongSampleSort extends RecursiveAction {
+        private final long[] array;
+        private final int from;
+        private final int to;
+
+        LongSampleSort(long[] array, int from, int to) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int n = to - from;
+            int buckets = bucketCount();
+            int chunks = Math.max(1, Math.min(n / SEQUENTIAL_THRESHOLD, getPool().getParallelism() * 4));
+            int chunkSize = (n + chunks - 1) / chunks;
+
+            // Choose the splitters from a deterministic random sample.
+            SplittableRandom random = new SplittableRandom(n);
+            long[] sample = new long[buckets * OVERSAMPLING];
+            for (int i = 0; i < sample.length; i++) {
+                sample[i] = array[from + random.nextInt(n)];
+            }
+            introSort(sample, 0, sample.length, depthLimit(sample.length));
+            long[] splitters = new long[buckets - 1];
+            for (int i = 1; i < buckets; i++) {
+                splitters[i - 1] = sample[i * OVERSAMPLING];
+            }
+
+            // Classify every element and count the bucket sizes per chunk.
+            byte[] bucketIds = new byte[n];
+            int[][] counts = new int[chunks][buckets];
+            RecursiveAction[] tasks = new RecursiveAction[chunks];
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                tasks[c] = new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        int[] chunkCounts = counts[chunk];
+                        int end = Math.min(n, (chunk + 1) * chunkSize);
+                        for (int i = chunk * chunkSize; i < end; i++) {
+                            int bucket = bucketOf(array[from + i], splitters, buckets);
+                            bucketIds[i] = (byte) bucket;
+                            chunkCounts[bucket]++;
+                        }
+                    }
+                };
+            }
+            invokeAll(tasks);
+
+            int[] bucketStarts = new int[buckets + 1];
+            int[][] cursors = new int[chunks][buckets];
+            int position = 0;
+            for (int b = 0; b < buckets; b++) {
+                bucketStarts[b] = position;
+                for (int c = 0; c < chunks; c++) {
+                    cursors[c][b] = position;
+                    position += counts[c][b];
+                }
+            }
+            bucketStarts[buckets] = n;
+
+            // Scatter every chunk into its reserved slots of each bucket.
+            long[] buffer = new long[n];
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                tasks[c] = new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        int[] cursor = cursors[chunk];
+                        int end = Math.min(n, (chunk + 1) * chunkSize);
+                        for (int i = chunk * chunkSize; i < end; i++) {
+                            buffer[cursor[bucketIds[i] & 0xFF]++] = array[from + i];
+                        }
+                    }
+                };
+            }
+            invokeAll(tasks);
+
+            // Sort the buckets independently and copy them back.
+            RecursiveAction[] bucketTasks = new RecursiveAction[buckets];
+            for (int b = 0; b < buckets; b++) {
+                int start = bucketStarts[b];
+                int end = bucketStarts[b + 1];
+                bucketTasks[b] = new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        new LongQuickSort(buffer, start, end, depthLimit(end - start)).compute();
+                        System.arraycopy(buffer, start, array, from + start, end - start);
+                    }
+                };
+            }
+            invokeAll(bucketTasks);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.golfing8.util;
+
+import com.golfing8.concurrent.ThreadPools;
+
+import java.util.stream.IntStream;
+
+/**
+ * Least significant digit radix sorts for primitive arrays.
+ * <p></p>
+ * Keys are sorted one byte at a time from the lowest byte up, skipping any byte that is the same for every key.
+ * Signed values are ordered by flipping the sign bit of the top byte, doubles are mapped to longs whose unsigned
+ * order matches {@link Double#compare(double, double)}, so -0.0 sorts before 0.0 and NaN sorts last.
+ * <p></p>
+ * Complexity:
+ * <ul>
+ *     <li>O(n * w) Time, where w is the amount of bytes in a key</li>
+ *     <li>O(n) Space</li>
+ * </ul>
+ */
+public class RadixSort {
+    private static final int RADIX = 256;
+    /** Arrays shorter than this are not worth a histogram pass per byte */
+    private static final int INSERTION_THRESHOLD = 64;
+    /** The amount of elements handled by a single parallel task */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Maps a double to a long whose unsigned order matches the order of the doubles
+     *
+     * @param value the double
+     * @return the sortable key
+     */
+    static long sortableBits(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /**
+     * Inverts {@link #sortableBits(double)}
+     *
+     * @param key the sortable key
+     * @return the double
+     */
+    static double fromSortableBits(long key) {
+        long bits = key < 0 ? key ^ Long.MIN_VALUE : ~key;
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Sorts the given array
+     *
+     * @param array the array
+     */
+    public static void sort(double[] array) {
+        sortDoubles(array, false);
+    }
+
+    /**
+     * Sorts the given array, building the digit histograms and scattering in parallel
+     *
+     * @param array the array
+     */
+    public static void parallelSort(double[] array) {
+        sortDoubles(array, true);
+    }
+
+    /**
+     * Sorts the given array
+     *
+     * @param array the array
+     */
+    public static void sort(long[] array) {
+        sortLongs(array, new long[array.length], array.length, 0x80, false);
+    }
+
+    /**
+     * Sorts the given array, building the digit histograms and scattering in parallel
+     *
+     * @param array the array
+     */
+    public static void parallelSort(long[] array) {
+        sortLongs(array, new long[array.length], array.length, 0x80, true);
+    }
+
+    /**
+     * Sorts the given array
+     *
+     * @param array the array
+     */
+    public static void sort(int[] array) {
+        sortInts(array, false);
+    }
+
+    /**
+     * Sorts the given array, building the digit histograms and scattering in parallel
+     *
+     * @param array the array
+     */
+    public static void parallelSort(int[] array) {
+        sortInts(array, true);
+    }
+
+    private static void sortDoubles(double[] array, boolean parallel) {
+        // NaNs are moved to the end as is so their payloads survive.
+        int n = array.length;
+        for (int i = 0; i < n; ) {
+            double value = array[i];
+            if (value != value) {
+                array[i] = array[--n];
+                array[n] = value;
+            } else {
+                i++;
+            }
+        }
+
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = sortableBits(array[i]);
+        }
+        sortLongs(keys, new long[n], n, 0, parallel);
+        for (int i = 0; i < n; i++) {
+            array[i] = fromSortableBits(keys[i]);
+        }
+    }
+
+    /**
+     * Sorts the first n keys by their unsigned order after the top byte is xored with the given flip
+     */
+    private static void sortLongs(long[] keys, long[] buffer, int n, int topFlip, boolean parallel) {
+        if (n < INSERTION_THRESHOLD) {
+            insertionSort(keys, n, topFlip);
+            return;
+        }
+
+        long[] source = keys;
+        long[] target = buffer;
+        for (int shift = 0; shift < Long.SIZE; shift += 8) {
+            int flip = shift == Long.SIZE - 8 ? topFlip : 0;
+            boolean moved = parallel
+                    ? parallelPass(source, target, n, shift, flip)
+                    : sequentialPass(source, target, n, shift, flip);
+            if (moved) {
+                long[] temp = source;
+                source = target;
+                target = temp;
+            }
+        }
+        if (source != keys)
+            System.arraycopy(source, 0, keys, 0, n);
+    }
+
+    private static void insertionSort(long[] keys, int n, int topFlip) {
+        long flip = (long) topFlip << 56;
+        for (int i = 1; i < n; i++) {
+            long key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && Long.compareUnsigned(keys[j] ^ flip, key ^ flip) > 0) {
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            keys[j + 1] = key;
+        }
+    }
+
+    /**
+     * Stable counting sort of source into target by the byte at the given shift
+     *
+     * @return false if every key had the same byte and nothing was moved
+     */
+    private static boolean sequentialPass(long[] source, long[] target, int n, int shift, int flip) {
+        int[] counts = new int[RADIX];
+        for (int i = 0; i < n; i++) {
+            counts[((int) (source[i] >>> shift) & 0xFF) ^ flip]++;
+        }
+        if (counts[((int) (source[0] >>> shift) & 0xFF) ^ flip] == n)
+            return false;
+
+        int position = 0;
+        for (int digit = 0; digit < RADIX; digit++) {
+            int count = counts[digit];
+            counts[digit] = position;
+            position += count;
+        }
+        for (int i = 0; i < n; i++) {
+            long key = source[i];
+            target[counts[((int) (key >>> shift) & 0xFF) ^ flip]++] = key;
+        }
+        return true;
+    }
+
+    private static boolean parallelPass(long[] source, long[] target, int n, int shift, int flip) {
+        int chunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int[][] counts = new int[chunks][RADIX];
+        ThreadPools.ARRAY_EXECUTOR.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int[] chunkCounts = counts[chunk];
+            int end = Math.min(n, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                chunkCounts[((int) (source[i] >>> shift) & 0xFF) ^ flip]++;
+            }
+        })).join();
+        if (!prefixCounts(counts, n, ((int) (source[0] >>> shift) & 0xFF) ^ flip))
+            return false;
+
+        ThreadPools.ARRAY_EXECUTOR.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int[] cursor = counts[chunk];
+            int end = Math.min(n, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                long key = source[i];
+                target[cursor[((int) (key >>> shift) & 0xFF) ^ flip]++] = key;
+            }
+        })).join();
+        return true;
+    }
+
+    /**
+     * Turns per chunk digit counts into per chunk starting positions, digit major so the scatter stays stable
+     *
+     * @return false if the given digit accounts for every element
+     */
+    private static boolean prefixCounts(int[][] counts, int n, int firstDigit) {
+        int firstDigitCount = 0;
+        for (int[] chunkCounts : counts) {
+            firstDigitCount += chunkCounts[firstDigit];
+        }
+        if (firstDigitCount == n)
+            return false;
+
+        int position = 0;
+        for (int digit = 0; digit < RADIX; digit++) {
+            for (int[] chunkCounts : counts) {
+                int count = chunkCounts[digit];
+                chunkCounts[digit] = position;
+                position += count;
+            }
+        }
+        return true;
+    }
+
+    private static void sortInts(int[] array, boolean parallel) {
+        int n = array.length;
+        if (n < INSERTION_THRESHOLD) {
+            for (int i = 1; i < n; i++) {
+                int value = array[i];
+                int j = i - 1;
+                while (j >= 0 && array[j] > value) {
+                    array[j + 1] = array[j];
+                    j--;
+                }
+                array[j + 1] = value;
+            }
+            return;
+        }
+
+        int[] source = array;
+        int[] target = new int[n];
+        for (int shift = 0; shift < Integer.SIZE; shift += 8) {
+            int flip = shift == Integer.SIZE - 8 ? 0x80 : 0;
+            boolean moved = parallel
+                    ? parallelPass(source, target, n, shift, flip)
+                    : sequentialPass(source, target, n, shift, flip);
+            if (moved) {
+                int[] temp = source;
+                source = target;
+                target = temp;
+            }
+        }
+        if (source != array)
+            System.arraycopy(source, 0, array, 0, n);
+    }
+
+    private static boolean sequentialPass(int[] source, int[] target, int n, int shift, int flip) {
+        int[] counts = new int[RADIX];
+        for (int i = 0; i < n; i++) {
+            counts[((source[i] >>> shift) & 0xFF) ^ flip]++;
+        }
+        if (counts[((source[0] >>> shift) & 0xFF) ^ flip] == n)
+            return false;
+
+        int position = 0;
+        for (int digit = 0; digit < RADIX; digit++) {
+            int count = counts[digit];
+            counts[digit] = position;
+            position += count;
+        }
+        for (int i = 0; i < n; i++) {
+            int key = source[i];
+            target[counts[((key >>> shift) & 0xFF) ^ flip]++] = key;
+        }
+        return true;
+    }
+
+    private static boolean parallelPass(int[] source, int[] target, int n, int shift, int flip) {
+        int chunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int[][] counts = new int[chunks][RADIX];
+        ThreadPools.ARRAY_EXECUTOR.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int[] chunkCounts = counts[chunk];
+            int end = Math.min(n, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                chunkCounts[((source[i] >>> shift) & 0xFF) ^ flip]++;
+            }
+        })).join();
+        if (!prefixCounts(counts, n, ((source[0] >>> shift) & 0xFF) ^ flip))
+            return false;
+
+        ThreadPools.ARRAY_EXECUTOR.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int[] cursor = counts[chunk];
+            int end = Math.min(n, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                int key = source[i];
+                target[cursor[((key >>> shift) & 0xFF) ^ flip]++] = key;
+            }
+        })).join();
+        return true;
+    }
+}
@@ -0,0 +1,167 @@
+package com.golfing8.util;
+
+import com.golfing8.concurrent.ThreadPools;
+import com.golfing8.struct.CompactGraph;
+import com.golfing8.struct.PointSet;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Seeded, parallel generation of random arrays, point sets and graphs.
+ * <p></p>
+ * Output is split into chunks of a fixed size and every chunk draws from its own generator, split from the seed's
+ * generator in chunk order before any work starts. The output for a seed is therefore identical whether the
+ * chunks are filled by one thread or many, and whatever the size of the pool.
+ */
+public class RandomData {
+    /** The amount of elements drawn from a single generator. Changing it changes the output for every seed. */
+    private static final int CHUNK = 1 << 16;
+
+    @FunctionalInterface
+    private interface ChunkFiller {
+        void fill(SplittableRandom random, int from, int to);
+    }
+
+    /**
+     * Fills {@code [0, n)} chunk by chunk, each chunk with its own generator
+     */
+    private static void generate(int n, long seed, boolean parallel, ChunkFiller filler) {
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] generators = new SplittableRandom[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            generators[chunk] = root.split();
+        }
+
+        if (parallel && chunks > 1) {
+            ThreadPools.ARRAY_EXECUTOR.submit(() -> IntStream.range(0, chunks).parallel()
+                    .forEach(chunk -> filler.fill(generators[chunk], chunk * CHUNK, Math.min(n, (chunk + 1) * CHUNK)))).join();
+        } else {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                filler.fill(generators[chunk], chunk * CHUNK, Math.min(n, (chunk + 1) * CHUNK));
+            }
+        }
+    }
+
+    /**
+     * Fills the array with uniformly random doubles
+     *
+     * @param array the array
+     * @param seed the seed
+     * @param origin the lowest value, inclusive
+     * @param bound the highest value, exclusive
+     * @param parallel if chunks should be filled in parallel, which does not change the output
+     */
+    public static void fill(double[] array, long seed, double origin, double bound, boolean parallel) {
+        generate(array.length, seed, parallel, (random, from, to) -> {
+            for (int i = from; i < to; i++) {
+                array[i] = random.nextDouble(origin, bound);
+            }
+        });
+    }
+
+    /**
+     * Creates an array of uniformly random doubles, generated in parallel
+     *
+     * @param n the length
+     * @param seed the seed
+     * @param origin the lowest value, inclusive
+     * @param bound the highest value, exclusive
+     * @return the array
+     */
+    public static double[] doubles(int n, long seed, double origin, double bound) {
+        double[] array = new double[n];
+        fill(array, seed, origin, bound, true);
+        return array;
+    }
+
+    /**
+     * Fills the array with uniformly random ints
+     *
+     * @param array the array
+     * @param seed the seed
+     * @param origin the lowest value, inclusive
+     * @param bound the highest value, exclusive
+     * @param parallel if chunks should be filled in parallel, which does not change the output
+     */
+    public static void fill(int[] array, long seed, int origin, int bound, boolean parallel) {
+        generate(array.length, seed, parallel, (random, from, to) -> {
+            for (int i = from; i < to; i++) {
+                array[i] = random.nextInt(origin, bound);
+            }
+        });
+    }
+
+    /**
+     * Creates an array of uniformly random ints, generated in parallel
+     *
+     * @param n the length
+     * @param seed the seed
+     * @param origin the lowest value, inclusive
+     * @param bound the highest value, exclusive
+     * @return the array
+     */
+    public static int[] ints(int n, long seed, int origin, int bound) {
+        int[] array = new int[n];
+        fill(array, seed, origin, bound, true);
+        return array;
+    }
+
+    /**
+     * Creates uniformly random points within a rectangle
+     *
+     * @param n the amount of points
+     * @param seed the seed
+     * @param minX the lowest x coordinate, inclusive
+     * @param minY the lowest y coordinate, inclusive
+     * @param maxX the highest x coordinate, exclusive
+     * @param maxY the highest y coordinate, exclusive
+     * @param parallel if chunks should be generated in parallel, which does not change the output
+     * @return the points
+     */
+    public static PointSet points(int n, long seed, double minX, double minY, double maxX, double maxY, boolean parallel) {
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        generate(n, seed, parallel, (random, from, to) -> {
+            for (int i = from; i < to; i++) {
+                xs[i] = random.nextDouble(minX, maxX);
+                ys[i] = random.nextDouble(minY, maxY);
+            }
+        });
+        return new PointSet(xs, ys);
+    }
+
+    /**
+     * Creates a random graph with edges drawn uniformly between distinct nodes, possibly repeating an edge
+     *
+     * @param nodeCount the amount of nodes
+     * @param edgeCount the amount of edges
+     * @param seed the seed
+     * @param minWeight the lowest weight, inclusive
+     * @param maxWeight the highest weight, exclusive
+     * @param directed if the graph is directed
+     * @param parallel if chunks should be generated in parallel, which does not change the output
+     * @return the graph
+     */
+    public static CompactGraph graph(int nodeCount, int edgeCount, long seed, double minWeight, double maxWeight,
+                                     boolean directed, boolean parallel) {
+        if (nodeCount < 2 && edgeCount > 0)
+            throw new IllegalArgumentException("Edges between distinct nodes need at least 2 nodes. Was " + nodeCount);
+
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+        generate(edgeCount, seed, parallel, (random, from, to) -> {
+            for (int i = from; i < to; i++) {
+                int source = random.nextInt(nodeCount);
+                // Draw from the other nodes so no self loops are produced.
+                int target = random.nextInt(nodeCount - 1);
+                sources[i] = source;
+                targets[i] = target >= source ? target + 1 : target;
+                weights[i] = random.nextDouble(minWeight, maxWeight);
+            }
+        });
+        return CompactGraph.fromEdges(nodeCount, sources, targets, weights, edgeCount, directed);
+    }
+}
@@ -0,0 +1,331 @@
+package com.golfing8.util;
+
+import com.golfing8.concurrent.ThreadPools;
+import com.golfing8.instrument.Instrumentation;
+import com.golfing8.instrument.Phase;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Order statistics of primitive arrays without sorting them, built on the three way
+ * {@link DivideAndConquer#partition(double[], int, int) partition}.
+ * <p></p>
+ * Elements are ordered as in {@link Double#compare(double, double)}, -0.0 before 0.0 and NaN last.
+ * Ranks are 0 indexed, rank 0 is the smallest element.
+ */
+public class Selection {
+    /** Ranges at most this long are finished with insertion sort */
+    private static final int INSERTION_THRESHOLD = 16;
+    /** Arrays at most this long are scanned for their top elements by a single thread */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
+    private static void checkRank(int length, int rank) {
+        if (rank < 0 || rank >= length)
+            throw new IllegalArgumentException("Rank is out of bounds for array of length " + length + ". Was " + rank);
+    }
+
+    private static void swap(double[] array, int i, int j) {
+        double temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    private static void insertionSort(double[] array, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            double value = array[i];
+            int j = i - 1;
+            while (j >= from && Double.compare(array[j], value) > 0) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = value;
+        }
+    }
+
+    /**
+     * Moves the median of the first, middle and last elements of the range to its start
+     */
+    private static void medianOfThree(double[] array, int from, int to) {
+        int mid = (from + to - 1) >>> 1, last = to - 1;
+        if (Double.compare(array[mid], array[from]) < 0)
+            swap(array, mid, from);
+        if (Double.compare(array[last], array[from]) < 0)
+            swap(array, last, from);
+        if (Double.compare(array[last], array[mid]) < 0)
+            swap(array, last, mid);
+        swap(array, from, mid);
+    }
+
+    /**
+     * Moves an element whose rank in the range is between 30% and 70% to its start, by taking the median of the
+     * medians of groups of five. The front of the range is reused to hold the medians.
+     */
+    private static void medianOfMedians(double[] array, int from, int to) {
+        int medians = from;
+        for (int group = from; group < to; group += 5) {
+            int end = Math.min(to, group + 5);
+            insertionSort(array, group, end);
+            swap(array, medians++, (group + end - 1) >>> 1);
+        }
+        // The median of the medians is found by a guaranteed linear selection of its own.
+        select(array, from, medians, (from + medians - 1) >>> 1, 0);
+        swap(array, from, (from + medians - 1) >>> 1);
+    }
+
+    /**
+     * Selects the element of the given rank in the range. After {@code goodPartitions} partitions that do not at
+     * least halve the range, pivots switch from the median of three to the median of medians.
+     */
+    private static void select(double[] array, int from, int to, int rank, int goodPartitions) {
+        while (to - from > INSERTION_THRESHOLD) {
+            if (goodPartitions > 0)
+                medianOfThree(array, from, to);
+            else
+                medianOfMedians(array, from, to);
+
+            int length = to - from;
+            long partition = DivideAndConquer.partition(array, from, to);
+            int lt = DivideAndConquer.equalStart(partition);
+            int gt = DivideAndConquer.equalEnd(partition);
+            if (rank < lt) {
+                to = lt;
+            } else if (rank > gt) {
+                from = gt + 1;
+            } else {
+                return;
+            }
+            if (to - from > length / 2)
+                goodPartitions--;
+        }
+        insertionSort(array, from, to);
+    }
+
+    private static int budget(int n) {
+        return 31 - Integer.numberOfLeadingZeros(Math.max(n, 1));
+    }
+
+    /**
+     * Rearranges the array so the element of the given rank is at that index, with every element before it at most
+     * it and every element after it at least it. This is an introselect: quickselect with median of three pivots
+     * that switches to median of medians pivots when partitions keep coming out lopsided.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n) Time</li>
+     *     <li>O(1) Space</li>
+     * </ul>
+     *
+     * @param array the array
+     * @param rank the rank
+     * @return the element of the given rank
+     */
+    public static double select(double[] array, int rank) {
+        checkRank(array.length, rank);
+        try (Phase phase = Instrumentation.phase("select")) {
+            select(array, 0, array.length, rank, budget(array.length));
+            return array[rank];
+        }
+    }
+
+    /**
+     * Selects the lower median of the array in place, see {@link #select(double[], int)}
+     *
+     * @param array the array
+     * @return the element of rank {@code (n - 1) / 2}
+     */
+    public static double median(double[] array) {
+        return select(array, (array.length - 1) / 2);
+    }
+
+    /**
+     * Rearranges the array so every given rank holds its element, as {@link #select(double[], int)} would for each,
+     * in one recursive pass. Each partition splits the ranks between its sides and ranges without ranks are left alone.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n * logk) Time</li>
+     *     <li>O(k) Space</li>
+     * </ul>
+     *
+     * @param array the array
+     * @param ranks the ranks
+     * @return the element of every rank, in the order given
+     */
+    public static double[] selectAll(double[] array, int[] ranks) {
+        for (int rank : ranks) {
+            checkRank(array.length, rank);
+        }
+
+        try (Phase phase = Instrumentation.phase("selectAll")) {
+            int[] sorted = Arrays.stream(ranks).sorted().distinct().toArray();
+            selectAll(array, 0, array.length, sorted, 0, sorted.length, budget(array.length));
+
+            double[] values = new double[ranks.length];
+            for (int i = 0; i < ranks.length; i++) {
+                values[i] = array[ranks[i]];
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Selects the sorted ranks {@code ranks[rankFrom..rankTo-1]}, which all lie in the range
+     */
+    private static void selectAll(double[] array, int from, int to, int[] ranks, int rankFrom, int rankTo, int goodPartitions) {
+        while (rankFrom < rankTo) {
+            if (rankTo - rankFrom == 1) {
+                select(array, from, to, ranks[rankFrom], goodPartitions);
+                return;
+            }
+            if (to - from <= INSERTION_THRESHOLD) {
+                insertionSort(array, from, to);
+                return;
+            }
+
+            if (goodPartitions > 0)
+                medianOfThree(array, from, to);
+            else
+                medianOfMedians(array, from, to);
+            long partition = DivideAndConquer.partition(array, from, to);
+            int lt = DivideAndConquer.equalStart(partition);
+            int gt = DivideAndConquer.equalEnd(partition);
+
+            // Ranks before lt go left, ranks in [lt, gt] are done and the rest go right.
+            int left = rankFrom;
+            while (left < rankTo && ranks[left] < lt)
+                left++;
+            int right = left;
+            while (right < rankTo && ranks[right] <= gt)
+                right++;
+
+            int nextGood = goodPartitions - (Math.max(lt - from, to - gt - 1) > (to - from) / 2 ? 1 : 0);
+            // Recurse on the side with fewer ranks and loop on the other.
+            if (left - rankFrom < rankTo - right) {
+                selectAll(array, from, lt, ranks, rankFrom, left, nextGood);
+                from = gt + 1;
+                rankFrom = right;
+            } else {
+                selectAll(array, gt + 1, to, ranks, right, rankTo, nextGood);
+                to = lt;
+                rankTo = left;
+            }
+            goodPartitions = nextGood;
+        }
+    }
+
+    /**
+     * Computes quantiles of the array with {@link #selectAll(double[], int[])}, rearranging it. Quantile q is the
+     * element of rank {@code floor(q * (n - 1))}, so 0 is the minimum, 1 the maximum and 0.5 the lower median.
+     *
+     * @param array the array
+     * @param quantiles the quantiles, each in {@code [0, 1]}
+     * @return the element of every quantile, in the order given
+     */
+    public static double[] quantiles(double[] array, double... quantiles) {
+        if (array.length == 0)
+            throw new IllegalArgumentException("Array must not be empty");
+
+        int[] ranks = new int[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) {
+            if (!(quantiles[i] >= 0 && quantiles[i] <= 1))
+                throw new IllegalArgumentException("Quantile must be in [0, 1]. Was " + quantiles[i]);
+            ranks[i] = (int) Math.floor(quantiles[i] * (array.length - 1));
+        }
+        return selectAll(array, ranks);
+    }
+
+    /**
+     * A bounded min heap keeping the k largest values offered to it
+     */
+    private static class TopHeap {
+        private final double[] heap;
+        private int size;
+
+        TopHeap(int k) {
+            this.heap = new double[k];
+        }
+
+        void offer(double value) {
+            if (size < heap.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (Double.compare(heap[parent], value) <= 0)
+                        break;
+                    heap[i] = heap[parent];
+                    i = parent;
+                }
+                heap[i] = value;
+            } else if (Double.compare(value, heap[0]) > 0) {
+                // Replace the smallest kept value and sift it down.
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size)
+                        break;
+                    if (child + 1 < size && Double.compare(heap[child + 1], heap[child]) < 0)
+                        child++;
+                    if (Double.compare(heap[child], value) >= 0)
+                        break;
+                    heap[i] = heap[child];
+                    i = child;
+                }
+                heap[i] = value;
+            }
+        }
+
+        void offerRange(double[] array, int from, int to) {
+            for (int i = from; i < to; i++) {
+                offer(array[i]);
+            }
+        }
+    }
+
+    /**
+     * Finds the k largest elements of the array without modifying it. Chunks of the array are scanned in parallel
+     * on {@link ThreadPools#ARRAY_EXECUTOR}, each into its own bounded heap, and the heaps are merged at the end.
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n * logk) Time</li>
+     *     <li>O(k * p) Space</li>
+     * </ul>
+     *
+     * @param array the array
+     * @param k the amount of elements, at most the array length
+     * @return the k largest elements in decreasing order
+     */
+    public static double[] topK(double[] array, int k) {
+        if (k < 0 || k > array.length)
+            throw new IllegalArgumentException("K must be in [0, " + array.length + "]. Was " + k);
+
+        try (Phase phase = Instrumentation.phase("topK")) {
+            TopHeap top = new TopHeap(k);
+            if (k == 0) {
+                return new double[0];
+            } else if (array.length <= SEQUENTIAL_THRESHOLD) {
+                top.offerRange(array, 0, array.length);
+            } else {
+                int chunks = Math.min(array.length / SEQUENTIAL_THRESHOLD, ThreadPools.ARRAY_EXECUTOR.getParallelism() * 4);
+                int chunkSize = (array.length + chunks - 1) / chunks;
+                TopHeap[] heaps = new TopHeap[chunks];
+                ThreadPools.ARRAY_EXECUTOR.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                    TopHeap heap = new TopHeap(k);
+                    heap.offerRange(array, chunk * chunkSize, Math.min(array.length, (chunk + 1) * chunkSize));
+                    heaps[chunk] = heap;
+                })).join();
+                for (TopHeap heap : heaps) {
+                    top.offerRange(heap.heap, 0, heap.size);
+                }
+            }
+
+            double[] result = Arrays.copyOf(top.heap, top.size);
+            Arrays.sort(result);
+            for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+                swap(result, i, j);
+            }
+            return result;
+        }
+    }
+}
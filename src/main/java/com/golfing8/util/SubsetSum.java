@@ -0,0 +1,255 @@
+package com.golfing8.util;
+
+import com.golfing8.concurrent.ThreadPools;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Word parallel subset sum.
+ * <p></p>
+ * The sums reachable with a prefix of the elements are kept as a bitset, bit {@code s} being set if some subset
+ * sums to {@code s}. Adding an element {@code x} is a single {@code bits |= bits << x} over {@code long} words, so
+ * the feasibility pass takes O(n * t / 64) time and O(t / 64) memory instead of the O(n * t) tables in
+ * {@link DynamicProgramming#subsetSumTarget(int[], int)}.
+ * <p></p>
+ * The chosen subset is reconstructed by divide and conquer. The reachable sums of each half of the elements are
+ * computed, a split of the target between the halves is found and each half is solved recursively. This costs an
+ * extra O(logn) factor in time but never holds more than O(t / 64) words per recursion level.
+ */
+public class SubsetSum {
+    /** Bitsets with at least this many words are shifted in parallel */
+    private static final int PARALLEL_WORDS = 1 << 14;
+    /** The amount of words shifted by a single parallel task */
+    private static final int WORD_CHUNK = 1 << 12;
+    /** Element ranges at most this long are reconstructed by a single thread */
+    private static final int SEQUENTIAL_ELEMENTS = 64;
+
+    private static void checkArguments(int[] a, int t) {
+        if (t < 0)
+            throw new IllegalArgumentException("Target must be non-negative. Was " + t);
+        for (int element : a) {
+            if (element < 0)
+                throw new IllegalArgumentException("Elements must be non-negative. Was " + element);
+        }
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Computes the sums up to the given limit reachable by subsets of the given range of elements
+     *
+     * @return the bitset of reachable sums, with {@code limit + 1} meaningful bits
+     */
+    private static long[] reachable(int[] a, int from, int to, int limit, boolean parallel) {
+        int words = (limit >>> 6) + 1;
+        long lastMask = -1L >>> (63 - (limit & 63));
+        long[] bits = new long[words];
+        bits[0] = 1L;
+        if (parallel && words >= PARALLEL_WORDS)
+            return reachableParallel(a, from, to, limit, bits, lastMask);
+
+        for (int i = from; i < to; i++) {
+            int element = a[i];
+            if (element == 0 || element > limit)
+                continue;
+
+            int wordShift = element >>> 6;
+            int bitShift = element & 63;
+            // Walk down so every word reads the lower words before they are updated.
+            if (bitShift == 0) {
+                for (int w = words - 1; w >= wordShift; w--) {
+                    bits[w] |= bits[w - wordShift];
+                }
+            } else {
+                for (int w = words - 1; w > wordShift; w--) {
+                    bits[w] |= (bits[w - wordShift] << bitShift) | (bits[w - wordShift - 1] >>> (64 - bitShift));
+                }
+                bits[wordShift] |= bits[0] << bitShift;
+            }
+            bits[words - 1] &= lastMask;
+        }
+        return bits;
+    }
+
+    private static long[] reachableParallel(int[] a, int from, int to, int limit, long[] bits, long lastMask) {
+        int words = bits.length;
+        int chunks = (words + WORD_CHUNK - 1) / WORD_CHUNK;
+        long[] source = bits;
+        long[] target = new long[words];
+        for (int i = from; i < to; i++) {
+            int element = a[i];
+            if (element == 0 || element > limit)
+                continue;
+
+            // Double buffered so every chunk of words can be shifted independently.
+            int wordShift = element >>> 6;
+            int bitShift = element & 63;
+            long[] read = source;
+            long[] write = target;
+            ThreadPools.ARRAY_EXECUTOR.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int end = Math.min(words, (chunk + 1) * WORD_CHUNK);
+                for (int w = chunk * WORD_CHUNK; w < end; w++) {
+                    long shifted = 0;
+                    if (w >= wordShift) {
+                        shifted = read[w - wordShift] << bitShift;
+                        if (bitShift != 0 && w > wordShift)
+                            shifted |= read[w - wordShift - 1] >>> (64 - bitShift);
+                    }
+                    write[w] = read[w] | shifted;
+                }
+            })).join();
+            target[words - 1] &= lastMask;
+            source = write;
+            target = read;
+        }
+        return source;
+    }
+
+    /**
+     * Computes every subset sum up to the target
+     *
+     * @param a the elements, non-negative
+     * @param t the target
+     * @return a bitset whose bit {@code s} is set if some subset sums to {@code s}
+     */
+    public static long[] reachableSums(int[] a, int t) {
+        checkArguments(a, t);
+        return reachable(a, 0, a.length, t, false);
+    }
+
+    /**
+     * Finds the largest subset sum not exceeding the target
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n * t / 64) Time</li>
+     *     <li>O(t / 64) Space</li>
+     * </ul>
+     *
+     * @param a the elements, non-negative
+     * @param t the target
+     * @return the largest reachable sum
+     */
+    public static int maxSum(int[] a, int t) {
+        return highestSet(reachableSums(a, t), t);
+    }
+
+    private static int highestSet(long[] bits, int limit) {
+        for (int w = limit >>> 6; w >= 0; w--) {
+            if (bits[w] != 0)
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(bits[w]);
+        }
+        return 0;
+    }
+
+    /**
+     * Finds a subset with the largest sum not exceeding the target
+     * <p></p>
+     * Complexity:
+     * <ul>
+     *     <li>O(n * t / 64 * logn) Time</li>
+     *     <li>O(t / 64 * logn) Space</li>
+     * </ul>
+     *
+     * @param a the elements, non-negative
+     * @param t the target
+     * @return the chosen elements, in the order they appear in {@code a}
+     */
+    public static int[] subsetSumTarget(int[] a, int t) {
+        checkArguments(a, t);
+        int sum = highestSet(reachable(a, 0, a.length, t, false), t);
+        boolean[] chosen = new boolean[a.length];
+        new Reconstruction(a, 0, a.length, sum, chosen, false).compute();
+        return collect(a, chosen);
+    }
+
+    /**
+     * Finds a subset with the largest sum not exceeding the target, shifting large bitsets in parallel and
+     * reconstructing both halves of every split in parallel
+     *
+     * @param a the elements, non-negative
+     * @param t the target
+     * @return the chosen elements, in the order they appear in {@code a}
+     */
+    public static int[] subsetSumTargetParallel(int[] a, int t) {
+        checkArguments(a, t);
+        int sum = highestSet(reachable(a, 0, a.length, t, true), t);
+        boolean[] chosen = new boolean[a.length];
+        ThreadPools.ARRAY_EXECUTOR.invoke(new Reconstruction(a, 0, a.length, sum, chosen, true));
+        return collect(a, chosen);
+    }
+
+    private static int[] collect(int[] a, boolean[] chosen) {
+        int count = 0;
+        for (boolean c : chosen) {
+            if (c)
+                count++;
+        }
+        int[] result = new int[count];
+        int index = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (chosen[i])
+                result[index++] = a[i];
+        }
+        return result;
+    }
+
+    /**
+     * Marks a subset of {@code a[from, to)} summing exactly to the target, which must be reachable
+     */
+    private static class Reconstruction extends RecursiveAction {
+        private final int[] a;
+        private final int from;
+        private final int to;
+        private final int target;
+        private final boolean[] chosen;
+        private final boolean parallel;
+
+        Reconstruction(int[] a, int from, int to, int target, boolean[] chosen, boolean parallel) {
+            this.a = a;
+            this.from = from;
+            this.to = to;
+            this.target = target;
+            this.chosen = chosen;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected void compute() {
+            if (target == 0)
+                return;
+            if (to - from == 1) {
+                if (a[from] != target)
+                    throw new IllegalStateException("Target " + target + " is not reachable");
+                chosen[from] = true;
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            long[] left = reachable(a, from, mid, target, parallel);
+            long[] right = reachable(a, mid, to, target, parallel);
+            int split = -1;
+            for (int s = 0; s <= target; s++) {
+                if (isSet(left, s) && isSet(right, target - s)) {
+                    split = s;
+                    break;
+                }
+            }
+            if (split < 0)
+                throw new IllegalStateException("Target " + target + " is not reachable");
+
+            Reconstruction leftTask = new Reconstruction(a, from, mid, split, chosen, parallel);
+            Reconstruction rightTask = new Reconstruction(a, mid, to, target - split, chosen, parallel);
+            if (parallel && to - from > SEQUENTIAL_ELEMENTS) {
+                invokeAll(leftTask, rightTask);
+            } else {
+                leftTask.compute();
+                rightTask.compute();
+            }
+        }
+    }
+}
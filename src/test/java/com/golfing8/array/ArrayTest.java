@@ -31,6 +31,7 @@ public class ArrayTest {
 
         Assertions.assertArrayEquals(new int[] {7, 10}, ArrayUtil.maxSubArray(a));
         Assertions.assertArrayEquals(new int[] {7, 10, 43}, DivideAndConquer.maxSubArray(a, 0, a.length));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> DivideAndConquer.maxSubArray(a, 3, 3));
     }
 
     @Test
@@ -0,0 +1,100 @@
+package com.golfing8.array;
+
+import com.golfing8.util.MaxSubArray;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class MaxSubArrayTest {
+    private static long bruteForce(int[] a) {
+        long best = Long.MIN_VALUE;
+        for (int i = 0; i < a.length; i++) {
+            long sum = 0;
+            for (int j = i; j < a.length; j++) {
+                sum += a[j];
+                best = Math.max(best, sum);
+            }
+        }
+        return best;
+    }
+
+    private static void assertValid(int[] a, MaxSubArray.SubArray subArray) {
+        long sum = 0;
+        for (long i = subArray.start(); i <= subArray.end(); i++) {
+            sum += a[(int) i];
+        }
+        Assertions.assertEquals(subArray.sum(), sum);
+    }
+
+    @Test
+    public void testTextbookExample() {
+        int[] a = {13, -3, -25, 20, -3, -16, -23, 18, 20, -7, 12, -5, -22, 15, -4, 7};
+
+        Assertions.assertEquals(new MaxSubArray.SubArray(7, 10, 43), MaxSubArray.find(a));
+        Assertions.assertEquals(new MaxSubArray.SubArray(7, 10, 43), MaxSubArray.findParallel(a));
+        Assertions.assertEquals(new MaxSubArray.SubArray(7, 10, 43), MaxSubArray.find(Arrays.stream(a)));
+    }
+
+    @Test
+    public void testAllNegative() {
+        int[] b = {-14, -102, -14, -11, -15, -1, -12, -19};
+
+        Assertions.assertEquals(new MaxSubArray.SubArray(5, 5, -1), MaxSubArray.find(b));
+        Assertions.assertEquals(new MaxSubArray.SubArray(5, 5, -1), MaxSubArray.findParallel(b));
+    }
+
+    @RepeatedTest(20)
+    public void testMatchesBruteForce() {
+        int[] a = new int[ThreadLocalRandom.current().nextInt(1, 300)];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = ThreadLocalRandom.current().nextInt(-50, 50);
+        }
+
+        long expected = bruteForce(a);
+        var sequential = MaxSubArray.find(a);
+        var stream = MaxSubArray.find(Arrays.stream(a).parallel());
+        Assertions.assertEquals(expected, sequential.sum());
+        Assertions.assertEquals(expected, stream.sum());
+        assertValid(a, sequential);
+        assertValid(a, stream);
+    }
+
+    @Test
+    public void testLargeSumsDoNotOverflow() {
+        int[] a = new int[1 << 20];
+        Arrays.fill(a, Integer.MAX_VALUE);
+        a[1000] = Integer.MIN_VALUE;
+
+        var parallel = MaxSubArray.findParallel(a);
+        Assertions.assertEquals(0, parallel.start());
+        Assertions.assertEquals(a.length - 1, parallel.end());
+        Assertions.assertEquals((long) (a.length - 1) * Integer.MAX_VALUE + Integer.MIN_VALUE, parallel.sum());
+        Assertions.assertEquals(parallel, MaxSubArray.find(a));
+    }
+
+    @Test
+    public void testFile(@TempDir Path directory) throws IOException {
+        int[] a = new int[300_000];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = ThreadLocalRandom.current().nextInt(-1000, 1000);
+        }
+        Path file = directory.resolve("series.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            for (int value : a) {
+                out.writeInt(value);
+            }
+        }
+
+        var streamed = MaxSubArray.find(file);
+        Assertions.assertEquals(MaxSubArray.findParallel(a).sum(), streamed.sum());
+        assertValid(a, streamed);
+    }
+}
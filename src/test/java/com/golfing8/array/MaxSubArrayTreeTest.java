@@ -0,0 +1,58 @@
+package com.golfing8.array;
+
+import com.golfing8.struct.MaxSubArrayTree;
+import com.golfing8.util.MaxSubArray;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.SplittableRandom;
+
+public class MaxSubArrayTreeTest {
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 17, 1000, 50_000})
+    public void testQueriesAndUpdates(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = random.nextInt(-100, 100);
+        }
+        MaxSubArrayTree tree = new MaxSubArrayTree(a);
+
+        for (int query = 0; query < 200; query++) {
+            if (query % 4 == 0) {
+                int index = random.nextInt(n);
+                a[index] = random.nextInt(-100, 100);
+                tree.set(index, a[index]);
+            }
+
+            int from = random.nextInt(n);
+            int to = from + 1 + random.nextInt(Math.min(n - from, 2_000));
+            MaxSubArray.SubArray expected = MaxSubArray.summarize(a, from, to).subArray();
+            MaxSubArray.SubArray actual = tree.query(from, to);
+            // Ties may resolve to a different span with the same sum.
+            Assertions.assertEquals(expected.sum(), actual.sum());
+            Assertions.assertTrue(from <= actual.start() && actual.start() <= actual.end() && actual.end() < to);
+            long sum = 0;
+            for (long i = actual.start(); i <= actual.end(); i++) {
+                sum += a[(int) i];
+            }
+            Assertions.assertEquals(actual.sum(), sum);
+        }
+    }
+
+    @Test
+    public void testTextbookExample() {
+        int[] a = {13, -3, -25, 20, -3, -16, -23, 18, 20, -7, 12, -5, -22, 15, -4, 7};
+        MaxSubArrayTree tree = new MaxSubArrayTree(a);
+
+        Assertions.assertEquals(new MaxSubArray.SubArray(7, 10, 43), tree.query(0, a.length));
+        Assertions.assertEquals(new MaxSubArray.SubArray(3, 3, 20), tree.query(0, 7));
+        Assertions.assertEquals(new MaxSubArray.SubArray(13, 15, 18), tree.query(11, 16));
+
+        tree.set(12, 100);
+        Assertions.assertEquals(new MaxSubArray.SubArray(7, 15, 156), tree.query(0, a.length));
+        Assertions.assertEquals(100, tree.get(12));
+    }
+}
@@ -0,0 +1,180 @@
+package com.golfing8.batch;
+
+import com.golfing8.struct.SquareMatrix;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link BatchRunner} and {@link BatchDaemon} classes.
+ */
+public class BatchDaemonTest {
+    /**
+     * Writes a weighted path 0 - 1 - 2 - 3 with a shortcut 0 - 3 heavier than the path, and an isolated node 4
+     */
+    private static Path writeGraph(Path directory) throws IOException {
+        Path graph = directory.resolve("graph.txt");
+        Files.writeString(graph, "# source target weight\n0 1 1\n1 2 2\n2 3 3\n0 3 10\n4 4 0\n");
+        return graph;
+    }
+
+    private static Path writeDoubles(Path file, double[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES);
+        buffer.asDoubleBuffer().put(values);
+        Files.write(file, buffer.array());
+        return file;
+    }
+
+    @Test
+    public void runJobs(@TempDir Path directory) throws IOException {
+        SquareMatrix left = SquareMatrix.random(5, 1);
+        SquareMatrix right = SquareMatrix.random(5, 2);
+        BatchRunner.writeMatrix(directory.resolve("left.bin"), left);
+        BatchRunner.writeMatrix(directory.resolve("right.bin"), right);
+        Path graph = writeGraph(directory);
+        double[] values = new SplittableRandom(3).doubles(1000, -1, 1).toArray();
+        writeDoubles(directory.resolve("input.bin"), values);
+
+        BatchRunner runner = new BatchRunner();
+        assertNull(runner.run("  # a comment"));
+        assertNull(runner.run(""));
+
+        String multiply = runner.run("multiply " + directory.resolve("left.bin") + " " + directory.resolve("right.bin") + " " + directory.resolve("product.bin"));
+        assertTrue(multiply.startsWith("ok 1 size=5 "), multiply);
+        assertTrue(left.matrixProduct(right).identical(BatchRunner.readMatrix(directory.resolve("product.bin"))));
+
+        assertTrue(runner.run("path " + graph + " 0 3").startsWith("ok 2 distance=6.0 path=0,1,2,3 "));
+        // Served from the cached tree.
+        assertTrue(runner.run("path " + graph + " 0 2").startsWith("ok 3 distance=3.0 path=0,1,2 "));
+        assertTrue(runner.run("path " + graph + " 0 4").startsWith("ok 4 distance=Infinity "));
+        assertTrue(runner.run("mst " + graph).startsWith("ok 5 weight=6.0 trees=2 "));
+
+        // A changed file is loaded again.
+        Files.writeString(graph, "0 1 1\n1 2 2\n2 3 3\n0 3 1\n");
+        assertTrue(runner.run("path " + graph + " 0 3").startsWith("ok 6 distance=1.0 path=0,3 "));
+
+        String sort = runner.run("sort " + directory.resolve("input.bin") + " " + directory.resolve("output.bin"));
+        assertTrue(sort.startsWith("ok 7 elements=1000 runs=1 "), sort);
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        ByteBuffer output = ByteBuffer.wrap(Files.readAllBytes(directory.resolve("output.bin")));
+        double[] actual = new double[sorted.length];
+        output.asDoubleBuffer().get(actual);
+        assertArrayEquals(sorted, actual);
+
+        assertTrue(runner.run("stats").startsWith("ok 8 jobs=7 failures=0 firstResultMillis="));
+        assertEquals(4, runner.latencies(BatchRunner.Command.PATH).count());
+        BatchRunner.Stats stats = runner.stats();
+        assertEquals(8, stats.jobs());
+        assertTrue(stats.firstResultMillis() > 0);
+        assertTrue(stats.jobsPerSecond() > 0);
+    }
+
+    @Test
+    public void failingJobs(@TempDir Path directory) throws IOException {
+        BatchRunner runner = new BatchRunner();
+        Path graph = writeGraph(directory);
+        assertTrue(runner.run("transpose a b").startsWith("error 1 java.lang.IllegalArgumentException: Unknown command"));
+        assertTrue(runner.run("path " + graph + " 0").startsWith("error 2 java.lang.IllegalArgumentException: Usage: path"));
+        assertTrue(runner.run("path " + graph + " 0 9").startsWith("error 3 "));
+        assertTrue(runner.run("mst " + directory.resolve("missing.txt")).startsWith("error 4 java.nio.file.NoSuchFileException"));
+        Files.write(directory.resolve("bad.bin"), new byte[12]);
+        assertTrue(runner.run("multiply " + directory.resolve("bad.bin") + " x y").startsWith("error 5 java.lang.IllegalArgumentException: Not a matrix file"));
+        assertEquals(5, runner.stats().failures());
+
+        // Failures don't stop the rest of a batch.
+        StringWriter results = new StringWriter();
+        int count = BatchDaemon.runAll(runner, new StringReader("stats\nbogus\n\nmst " + graph + "\n"), results);
+        assertEquals(3, count);
+        List<String> lines = results.toString().lines().toList();
+        assertTrue(lines.get(1).startsWith("error 7 "));
+        assertTrue(lines.get(2).startsWith("ok 8 weight=6.0"));
+
+        // A size whose file length overflows an int.
+        Path huge = directory.resolve("huge.bin");
+        Files.write(huge, ByteBuffer.allocate(2 * Integer.BYTES).putInt(BatchRunner.MATRIX_MAGIC).putInt(16384).array());
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> BatchRunner.readMatrix(huge));
+        assertTrue(exception.getMessage().startsWith("Matrix is too large"), exception.getMessage());
+    }
+
+    @Test
+    public void socket(@TempDir Path directory) throws IOException {
+        Path graph = writeGraph(directory);
+        Path socket = directory.resolve("batch.sock");
+        try (BatchDaemon daemon = new BatchDaemon(new BatchRunner())) {
+            daemon.listen(socket);
+            // Two clients in turn, each reading its results before sending the next job.
+            for (int client = 0; client < 2; client++) {
+                try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+                    channel.connect(UnixDomainSocketAddress.of(socket));
+                    Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+                    writer.write("path " + graph + " 0 3\n");
+                    writer.flush();
+                    assertTrue(reader.readLine().contains("distance=6.0 path=0,1,2,3"));
+                    writer.write("# ignored\nmst " + graph + "\n");
+                    writer.flush();
+                    assertTrue(reader.readLine().contains("weight=6.0"));
+                }
+            }
+            assertEquals(4, daemon.getRunner().stats().jobs());
+        }
+        assertFalse(Files.exists(socket));
+    }
+
+    @Test
+    public void spool(@TempDir Path directory) throws IOException, InterruptedException {
+        Path graph = writeGraph(directory);
+        Path spool = Files.createDirectory(directory.resolve("spool"));
+        // Present before the daemon starts.
+        Files.writeString(spool.resolve("first.job"), "path " + graph + " 0 3\n");
+        try (BatchDaemon daemon = new BatchDaemon(new BatchRunner())) {
+            daemon.watch(spool);
+            // Written under a temporary name and renamed, as a job file must be complete when it appears.
+            Path staged = spool.resolve("second.job.tmp");
+            Files.writeString(staged, "mst " + graph + "\nbogus\n");
+            Files.move(staged, spool.resolve("second.job"), StandardCopyOption.ATOMIC_MOVE);
+            // Still being written, never claimed.
+            Files.writeString(spool.resolve("third.job.tmp"), "mst " + graph + "\n");
+
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (!(Files.exists(spool.resolve("first.done")) && Files.exists(spool.resolve("second.done")))) {
+                assertTrue(System.nanoTime() < deadline, "Spooled jobs did not finish");
+                Thread.sleep(20);
+            }
+        }
+        assertTrue(Files.readString(spool.resolve("first.result")).contains("distance=6.0 path=0,1,2,3"));
+        List<String> second = Files.readAllLines(spool.resolve("second.result"));
+        assertEquals(2, second.size());
+        assertTrue(second.get(0).contains("weight=6.0"));
+        assertTrue(second.get(1).startsWith("error "));
+        assertFalse(Files.exists(spool.resolve("first.job")));
+        assertTrue(Files.exists(spool.resolve("third.job.tmp")));
+        assertFalse(Files.exists(spool.resolve("third.result")));
+    }
+
+    @Test
+    public void warmUp() {
+        BatchRunner.warmUp(3);
+    }
+}
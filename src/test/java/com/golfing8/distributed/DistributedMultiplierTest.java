@@ -0,0 +1,157 @@
+package com.golfing8.distributed;
+
+import com.golfing8.struct.SquareMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link DistributedMultiplier} class, with workers in this JVM and in child processes.
+ */
+public class DistributedMultiplierTest {
+    /**
+     * Starts a worker in a new JVM on this host
+     */
+    private static Process startWorkerProcess(List<InetSocketAddress> addresses) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), MatrixWorker.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        String line = reader.readLine();
+        if (line == null || !line.startsWith("Listening on port ")) {
+            process.destroyForcibly();
+            fail("Worker did not start: " + line);
+        }
+        addresses.add(new InetSocketAddress("localhost", Integer.parseInt(line.substring("Listening on port ".length()))));
+        return process;
+    }
+
+    @Test
+    public void multiplyInProcess() throws IOException {
+        try (MatrixWorker worker1 = new MatrixWorker(0); MatrixWorker worker2 = new MatrixWorker(0)) {
+            List<InetSocketAddress> addresses = List.of(new InetSocketAddress("localhost", worker1.getPort()),
+                    new InetSocketAddress("localhost", worker2.getPort()));
+            try (DistributedMultiplier multiplier = new DistributedMultiplier(addresses)) {
+                for (int size : new int[] {4, 255, 256, 400}) {
+                    SquareMatrix left = SquareMatrix.random(size, size);
+                    SquareMatrix right = SquareMatrix.random(size, -size);
+                    assertEquals(left.matrixProduct(right), multiplier.multiply(left, right), "size " + size);
+                }
+                // Only the even sizes of at least 256 are distributed, as the seven products of one step.
+                assertEquals(14, multiplier.remoteProducts());
+                assertEquals(0, multiplier.localProducts());
+            }
+        }
+    }
+
+    @Test
+    public void multiplyAcrossProcesses() throws IOException {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        List<Process> processes = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3; i++) {
+                processes.add(startWorkerProcess(addresses));
+            }
+
+            Properties properties = new Properties();
+            properties.setProperty(DistributedMultiplier.WORKERS_PROPERTY, addresses.stream()
+                    .map(address -> address.getHostString() + ":" + address.getPort())
+                    .reduce((a, b) -> a + ", " + b).orElseThrow());
+            try (DistributedMultiplier multiplier = DistributedMultiplier.fromProperties(properties)) {
+                assertEquals(3, multiplier.getWorkerCount());
+
+                SquareMatrix left = SquareMatrix.random(512, 1);
+                SquareMatrix right = SquareMatrix.random(512, 2);
+                SquareMatrix expected = left.matrixProduct(right);
+                assertEquals(expected, multiplier.multiply(left, right));
+                assertEquals(7, multiplier.remoteProducts());
+
+                // Products of a dead worker are computed locally.
+                processes.getFirst().destroyForcibly().waitFor();
+                assertEquals(expected, multiplier.multiply(left, right));
+                assertEquals(3, multiplier.localProducts());
+                assertEquals(11, multiplier.remoteProducts());
+            }
+        } catch (InterruptedException exception) {
+            throw new RuntimeException(exception);
+        } finally {
+            processes.forEach(Process::destroyForcibly);
+        }
+    }
+
+    @Test
+    public void reconnect() throws IOException {
+        SquareMatrix left = SquareMatrix.random(256, 3);
+        SquareMatrix right = SquareMatrix.random(256, 4);
+        SquareMatrix expected = left.matrixProduct(right);
+
+        MatrixWorker worker = new MatrixWorker(0);
+        int port = worker.getPort();
+        try (DistributedMultiplier multiplier = new DistributedMultiplier(List.of(new InetSocketAddress("localhost", port)))) {
+            assertEquals(expected, multiplier.multiply(left, right));
+            worker.close();
+            assertEquals(expected, multiplier.multiply(left, right));
+            assertEquals(7, multiplier.localProducts());
+
+            // A worker back on the same port is used again.
+            try (MatrixWorker restarted = new MatrixWorker(port)) {
+                assertEquals(expected, multiplier.multiply(left, right));
+                assertEquals(14, multiplier.remoteProducts());
+            }
+        }
+    }
+
+    @Test
+    public void unresponsiveWorker() throws IOException {
+        SquareMatrix left = SquareMatrix.random(256, 6);
+        SquareMatrix right = SquareMatrix.random(256, 7);
+        // Connections are queued in the backlog but never accepted, so no request is ever answered.
+        try (ServerSocketChannel silent = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+             DistributedMultiplier multiplier = new DistributedMultiplier(List.of((InetSocketAddress) silent.getLocalAddress()), 1_000, 200)) {
+            long start = System.nanoTime();
+            assertEquals(left.matrixProduct(right), multiplier.multiply(left, right));
+            assertEquals(7, multiplier.localProducts());
+            assertEquals(0, multiplier.remoteProducts());
+            assertTrue(System.nanoTime() - start < 30_000_000_000L, "Timed out products took too long");
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new DistributedMultiplier(List.of(), 0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new DistributedMultiplier(List.of(), 100, -1));
+    }
+
+    @Test
+    public void configuration() throws IOException {
+        Path file = Files.createTempFile("workers", ".properties");
+        try {
+            Files.writeString(file, DistributedMultiplier.WORKERS_PROPERTY + "=localhost:5201,127.0.0.1:5202\n"
+                    + DistributedMultiplier.RESPONSE_TIMEOUT_PROPERTY + "=5000\n");
+            try (DistributedMultiplier multiplier = DistributedMultiplier.fromFile(file)) {
+                assertEquals(2, multiplier.getWorkerCount());
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        try (DistributedMultiplier multiplier = DistributedMultiplier.fromProperties(new Properties())) {
+            assertEquals(0, multiplier.getWorkerCount());
+            SquareMatrix matrix = SquareMatrix.random(256, 5);
+            assertEquals(matrix.matrixProduct(matrix), multiplier.multiply(matrix, matrix));
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty(DistributedMultiplier.WORKERS_PROPERTY, "localhost");
+        assertThrows(IllegalArgumentException.class, () -> DistributedMultiplier.fromProperties(properties));
+    }
+}
@@ -0,0 +1,163 @@
+package com.golfing8.graph;
+
+import com.golfing8.struct.NodeIndex;
+import com.golfing8.struct.SquareMatrix;
+import com.golfing8.util.AllPairsShortestPaths;
+import com.golfing8.util.GraphUtil;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+@SuppressWarnings("UnstableApiUsage")
+public class AllPairsShortestPathsTest {
+    private static ValueGraph<Integer, Double> randomGraph(int nodes, int edges, boolean directed, double minWeight, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        MutableValueGraph<Integer, Double> graph = (directed ? ValueGraphBuilder.directed() : ValueGraphBuilder.undirected()).build();
+        for (int i = 0; i < nodes; i++) {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < edges; i++) {
+            int u = random.nextInt(nodes), v = random.nextInt(nodes);
+            if (u != v)
+                graph.putEdgeValue(u, v, random.nextDouble(minWeight, 10));
+        }
+        return graph;
+    }
+
+    /**
+     * The textbook triple loop
+     */
+    private static double[][] naiveFloydWarshall(ValueGraph<Integer, Double> graph) {
+        int n = graph.nodes().size();
+        double[][] distances = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                distances[i][j] = i == j ? 0 : graph.edgeValueOrDefault(i, j, Double.POSITIVE_INFINITY);
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    distances[i][j] = Math.min(distances[i][j], distances[i][k] + distances[k][j]);
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static void assertDistances(double[][] expected, AllPairsShortestPaths.Distances<Integer> distances) {
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected.length; j++) {
+                Assertions.assertEquals(expected[i][j], distances.distance(i, j), 1e-9, i + " -> " + j);
+            }
+        }
+    }
+
+    @Test
+    public void testAgainstDijkstra() {
+        ValueGraph<Integer, Double> graph = randomGraph(150, 600, false, 0, 520);
+        var floydWarshall = AllPairsShortestPaths.floydWarshall(graph);
+        var squaring = AllPairsShortestPaths.repeatedSquaring(graph);
+
+        for (int root : List.of(0, 17, 149)) {
+            for (var element : GraphUtil.shortestPath(root, graph).nodes()) {
+                Assertions.assertEquals(element.cost(), floydWarshall.distance(root, element.element()), 1e-9);
+                Assertions.assertEquals(element.cost(), squaring.distance(root, element.element()), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testNegativeWeights() {
+        // Sizes across the tile size, with negative edges but no cycles as every edge goes to a higher node.
+        for (int n : new int[] {1, 5, 64, 65, 300}) {
+            SplittableRandom random = new SplittableRandom(n);
+            MutableValueGraph<Integer, Double> graph = ValueGraphBuilder.directed().build();
+            for (int i = 0; i < n; i++) {
+                graph.addNode(i);
+            }
+            for (int i = 0; i < n * 4; i++) {
+                int u = random.nextInt(n), v = random.nextInt(n);
+                if (u < v)
+                    graph.putEdgeValue(u, v, random.nextDouble(-5, 10));
+            }
+
+            double[][] expected = naiveFloydWarshall(graph);
+            assertDistances(expected, AllPairsShortestPaths.floydWarshall(graph));
+            assertDistances(expected, AllPairsShortestPaths.repeatedSquaring(graph));
+        }
+    }
+
+    @Test
+    public void testDirectedUnreachable() {
+        MutableValueGraph<String, Double> graph = ValueGraphBuilder.directed().build();
+        graph.putEdgeValue("a", "b", 2.0);
+        graph.putEdgeValue("b", "c", 3.0);
+        graph.putEdgeValue("a", "c", 10.0);
+        graph.addNode("d");
+
+        var distances = AllPairsShortestPaths.floydWarshall(graph);
+        Assertions.assertEquals(5, distances.distance("a", "c"));
+        Assertions.assertEquals(0, distances.distance("d", "d"));
+        Assertions.assertFalse(distances.isReachable("c", "a"));
+        Assertions.assertFalse(distances.isReachable("a", "d"));
+        Assertions.assertEquals(distances.matrix(), AllPairsShortestPaths.repeatedSquaring(graph).matrix());
+    }
+
+    @Test
+    public void testNegativeCycle() {
+        MutableValueGraph<Integer, Double> graph = ValueGraphBuilder.directed().build();
+        graph.putEdgeValue(0, 1, 1.0);
+        graph.putEdgeValue(1, 2, -3.0);
+        graph.putEdgeValue(2, 0, 1.0);
+        graph.putEdgeValue(2, 3, 1.0);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> AllPairsShortestPaths.floydWarshall(graph));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> AllPairsShortestPaths.repeatedSquaring(graph));
+    }
+
+    @Test
+    public void testMinPlusProduct() {
+        SquareMatrix a = SquareMatrix.fromElements(
+                0, 1, Double.POSITIVE_INFINITY,
+                Double.POSITIVE_INFINITY, 0, 2,
+                4, Double.POSITIVE_INFINITY, 0
+        );
+        SquareMatrix expected = SquareMatrix.fromElements(
+                0, 1, 3,
+                6, 0, 2,
+                4, 5, 0
+        );
+        Assertions.assertEquals(expected, a.minPlusProduct(a));
+        Assertions.assertEquals(expected, a.minPlusClosure());
+
+        SquareMatrix b = SquareMatrix.random(300, 1);
+        SquareMatrix c = SquareMatrix.random(300, 2);
+        SquareMatrix product = b.minPlusProduct(c);
+        for (int i = 1; i <= 300; i += 37) {
+            for (int j = 1; j <= 300; j += 41) {
+                double min = Double.POSITIVE_INFINITY;
+                for (int k = 1; k <= 300; k++) {
+                    min = Math.min(min, b.getElement(i, k) + c.getElement(k, j));
+                }
+                Assertions.assertEquals(min, product.getElement(i, j));
+            }
+        }
+    }
+
+    @Test
+    public void testNodeIndex() {
+        NodeIndex<String> index = new NodeIndex<>(List.of("x", "y", "z"));
+        Assertions.assertEquals(3, index.size());
+        Assertions.assertEquals(1, index.index("y"));
+        Assertions.assertEquals("z", index.node(2));
+        Assertions.assertFalse(index.contains("w"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.index("w"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new NodeIndex<>(List.of("x", "x")));
+    }
+}
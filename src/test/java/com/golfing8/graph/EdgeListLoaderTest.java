@@ -0,0 +1,123 @@
+package com.golfing8.graph;
+
+import com.golfing8.struct.CompactGraph;
+import com.golfing8.util.EdgeListLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link EdgeListLoader} and {@link CompactGraph} classes.
+ */
+public class EdgeListLoaderTest {
+    @Test
+    public void loadText(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("graph.txt");
+        Files.writeString(file, """
+                # a small undirected graph
+                0 1 1.5
+                0 2
+                1 3 2
+                \t2  3 -0.25\r
+                """);
+
+        CompactGraph graph = EdgeListLoader.loadText(file, false);
+        assertEquals(4, graph.nodeCount());
+        assertEquals(8, graph.arcCount());
+        assertEquals(2, graph.degree(0));
+        assertEquals(1, graph.target(graph.start(0)));
+        assertEquals(1.5, graph.weight(graph.start(0)));
+        assertEquals(2, graph.target(graph.start(0) + 1));
+        assertEquals(1.0, graph.weight(graph.start(0) + 1));
+        assertEquals(-0.25, graph.weight(graph.end(3) - 1));
+    }
+
+    @Test
+    public void rejectsInvalidWeights(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("graph.txt");
+        for (String weight : new String[] {"-", "+", ".", "-.", "abc", "1.5x"}) {
+            Files.writeString(file, "0 1 2\n1 2 " + weight + "\n");
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> EdgeListLoader.loadText(file, false));
+            assertTrue(exception.getMessage().contains("at byte 6"), exception.getMessage());
+        }
+
+        // Digits on one side of the dot are enough.
+        Files.writeString(file, "0 1 .5\n1 2 -3.\n");
+        CompactGraph graph = EdgeListLoader.loadText(file, true);
+        assertEquals(0.5, graph.weight(graph.start(0)));
+        assertEquals(-3.0, graph.weight(graph.start(1)));
+    }
+
+    @Test
+    public void loadBinary(@TempDir Path directory) {
+        Path file = directory.resolve("graph.bin");
+        EdgeListLoader.writeBinary(file, 5, new int[] {0, 1, 4}, new int[] {1, 2, 0}, new double[] {1.0, 2.0, 3.0}, true);
+
+        CompactGraph graph = EdgeListLoader.loadBinary(file);
+        assertTrue(graph.isDirected());
+        assertEquals(5, graph.nodeCount());
+        assertEquals(3, graph.arcCount());
+        assertEquals(0, graph.degree(2));
+        assertEquals(0, graph.target(graph.start(4)));
+        assertEquals(3.0, graph.weight(graph.start(4)));
+    }
+
+    @Test
+    public void largeTextAndBinaryAgree(@TempDir Path directory) throws IOException {
+        int nodes = 5_000;
+        int edges = 200_000;
+        SplittableRandom random = new SplittableRandom(520);
+        int[] sources = new int[edges];
+        int[] targets = new int[edges];
+        double[] weights = new double[edges];
+        StringBuilder text = new StringBuilder();
+        List<List<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            expected.add(new ArrayList<>());
+        }
+        for (int i = 0; i < edges; i++) {
+            sources[i] = random.nextInt(nodes);
+            targets[i] = random.nextInt(nodes);
+            weights[i] = random.nextInt(1000) / 8.0;
+            text.append(sources[i]).append(' ').append(targets[i]).append(' ').append(weights[i]).append('\n');
+            expected.get(sources[i]).add(targets[i]);
+        }
+        expected.forEach(Collections::sort);
+
+        Path textFile = directory.resolve("graph.txt");
+        Files.writeString(textFile, text);
+        Path binaryFile = directory.resolve("graph.bin");
+        EdgeListLoader.writeBinary(binaryFile, nodes, sources, targets, weights, true);
+
+        CompactGraph fromText = EdgeListLoader.loadText(textFile, true);
+        CompactGraph fromBinary = EdgeListLoader.loadBinary(binaryFile);
+        assertEquals(edges, fromText.arcCount());
+        assertEquals(edges, fromBinary.arcCount());
+        for (int u = 0; u < fromText.nodeCount(); u++) {
+            List<Integer> adjacent = expected.get(u);
+            assertEquals(adjacent.size(), fromText.degree(u));
+            assertEquals(adjacent.size(), fromBinary.degree(u));
+            for (int i = 0; i < adjacent.size(); i++) {
+                int arc = fromText.start(u) + i;
+                assertEquals((int) adjacent.get(i), fromText.target(arc));
+                assertEquals(fromText.target(arc), fromBinary.target(fromBinary.start(u) + i));
+                assertEquals(fromText.weight(arc), fromBinary.weight(fromBinary.start(u) + i));
+            }
+        }
+    }
+
+    @Test
+    public void rejectsOutOfBoundsNodes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CompactGraph.fromEdges(2, new int[] {0}, new int[] {2}, null, 1, true));
+    }
+}
@@ -0,0 +1,137 @@
+package com.golfing8.graph;
+
+import com.golfing8.struct.CompactGraph;
+import com.golfing8.struct.ShortestPathTree;
+import com.golfing8.struct.UnionFind;
+import com.golfing8.util.GraphReordering;
+import com.golfing8.util.GraphUtil;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+@SuppressWarnings("UnstableApiUsage")
+public class GraphReorderingTest {
+    private static final int SIDE = 30;
+
+    /**
+     * A grid whose node labels are shuffled, so the numbering has no locality left
+     */
+    private static MutableValueGraph<Integer, Double> shuffledGrid(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] labels = new int[SIDE * SIDE];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = i;
+        }
+        for (int i = labels.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1), swap = labels[i];
+            labels[i] = labels[j];
+            labels[j] = swap;
+        }
+
+        MutableValueGraph<Integer, Double> graph = ValueGraphBuilder.undirected().build();
+        for (int row = 0; row < SIDE; row++) {
+            for (int column = 0; column < SIDE; column++) {
+                int node = labels[row * SIDE + column];
+                graph.addNode(node);
+                if (column > 0)
+                    graph.putEdgeValue(node, labels[row * SIDE + column - 1], random.nextDouble(1, 10));
+                if (row > 0)
+                    graph.putEdgeValue(node, labels[(row - 1) * SIDE + column], random.nextDouble(1, 10));
+            }
+        }
+        // A second component.
+        graph.putEdgeValue(-1, -2, 1.0);
+        return graph;
+    }
+
+    private static double kruskalWeight(MutableValueGraph<Integer, Double> graph) {
+        var edges = graph.edges().stream().sorted((a, b) -> Double.compare(graph.edgeValue(a).orElseThrow(), graph.edgeValue(b).orElseThrow())).toList();
+        UnionFind forest = new UnionFind(SIDE * SIDE + 2);
+        double weight = 0;
+        for (var edge : edges) {
+            if (forest.union(edge.nodeU() + 2, edge.nodeV() + 2))
+                weight += graph.edgeValue(edge).orElseThrow();
+        }
+        return weight;
+    }
+
+    @Test
+    public void testOrdersArePermutations() {
+        MutableValueGraph<Integer, Double> graph = shuffledGrid(46);
+        for (GraphReordering.Strategy strategy : GraphReordering.Strategy.values()) {
+            var reordered = GraphReordering.reorder(graph, strategy);
+            Assertions.assertEquals(graph.nodes().size(), reordered.graph().nodeCount(), strategy.name());
+            Assertions.assertEquals(graph.edges().size() * 2, reordered.graph().arcCount(), strategy.name());
+            for (Integer node : graph.nodes()) {
+                Assertions.assertTrue(reordered.nodes().contains(node), strategy.name());
+            }
+
+            // Every edge must survive the relabeling with its weight.
+            CompactGraph compact = reordered.graph();
+            for (int u = 0; u < compact.nodeCount(); u++) {
+                for (int arc = compact.start(u); arc < compact.end(u); arc++) {
+                    double weight = graph.edgeValue(reordered.nodes().node(u), reordered.nodes().node(compact.target(arc))).orElseThrow();
+                    Assertions.assertEquals(weight, compact.weight(arc), strategy.name());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReverseCuthillMcKeeBandwidth() {
+        MutableValueGraph<Integer, Double> graph = shuffledGrid(46);
+        var shuffled = GraphReordering.reorder(graph, GraphReordering.Strategy.DEGREE);
+        var reordered = GraphReordering.reorder(graph, GraphReordering.Strategy.REVERSE_CUTHILL_MCKEE);
+        Assertions.assertTrue(GraphReordering.bandwidth(shuffled.graph()) > SIDE * 10);
+        // A grid ordered along its anti-diagonals has a bandwidth of about its side.
+        Assertions.assertTrue(GraphReordering.bandwidth(reordered.graph()) <= SIDE + 1, "Bandwidth was " + GraphReordering.bandwidth(reordered.graph()));
+    }
+
+    @Test
+    public void testTraversalsMatch() {
+        MutableValueGraph<Integer, Double> graph = shuffledGrid(47);
+        ShortestPathTree<Integer> expected = GraphUtil.shortestPathTree(0, graph);
+        double expectedWeight = kruskalWeight(graph);
+        for (GraphReordering.Strategy strategy : GraphReordering.Strategy.values()) {
+            var reordered = GraphReordering.reorder(graph, strategy);
+            ShortestPathTree<Integer> tree = GraphUtil.shortestPathTree(0, reordered.graph(), reordered.nodes());
+            for (Integer node : graph.nodes()) {
+                Assertions.assertEquals(expected.distance(node), tree.distance(node), 1e-9, strategy.name());
+            }
+
+            int[] parents = GraphUtil.computeMSTPrim(reordered.graph());
+            double weight = 0;
+            int roots = 0;
+            for (int u = 0; u < parents.length; u++) {
+                if (parents[u] == ShortestPathTree.NO_PREDECESSOR) {
+                    roots++;
+                    continue;
+                }
+                weight += graph.edgeValue(reordered.nodes().node(u), reordered.nodes().node(parents[u])).orElseThrow();
+            }
+            Assertions.assertEquals(2, roots, strategy.name());
+            Assertions.assertEquals(expectedWeight, weight, 1e-9, strategy.name());
+        }
+    }
+
+    @Test
+    public void testPermute() {
+        CompactGraph graph = CompactGraph.fromEdges(4, new int[] {0, 1, 2}, new int[] {1, 2, 3}, new double[] {1, 2, 3}, 3, true);
+        CompactGraph reversed = graph.permute(new int[] {3, 2, 1, 0});
+        Assertions.assertEquals(3, reversed.arcCount());
+        Assertions.assertEquals(0, reversed.degree(0));
+        Assertions.assertEquals(0, reversed.target(reversed.start(1)));
+        Assertions.assertEquals(3.0, reversed.weight(reversed.start(1)));
+        Assertions.assertEquals(2, reversed.target(reversed.start(3)));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> graph.permute(new int[] {0, 1, 2}));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> graph.permute(new int[] {0, 1, 1, 3}));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> graph.permute(new int[] {0, 1, 2, 4}));
+        Assertions.assertArrayEquals(new int[] {0, 1, 2, 3}, GraphReordering.order(graph, GraphReordering.Strategy.BREADTH_FIRST));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GraphUtil.computeMSTPrim(graph));
+        Assertions.assertArrayEquals(new int[] {0, 1, 2, 3}, GraphReordering.order(graph, GraphReordering.Strategy.DEGREE));
+    }
+}
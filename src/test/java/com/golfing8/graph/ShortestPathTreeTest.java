@@ -0,0 +1,138 @@
+package com.golfing8.graph;
+
+import com.golfing8.struct.NodeCodec;
+import com.golfing8.struct.ShortestPathTree;
+import com.golfing8.util.GraphUtil;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+@SuppressWarnings("UnstableApiUsage")
+public class ShortestPathTreeTest {
+    private static MutableValueGraph<String, Double> exampleGraph() {
+        MutableValueGraph<String, Double> graph = ValueGraphBuilder.directed().build();
+        graph.putEdgeValue("a", "b", 1.0);
+        graph.putEdgeValue("a", "c", 4.0);
+        graph.putEdgeValue("b", "c", 1.0);
+        graph.putEdgeValue("c", "d", 2.0);
+        graph.putEdgeValue("b", "d", 5.0);
+        graph.putEdgeValue("e", "a", 1.0);
+        return graph;
+    }
+
+    @Test
+    public void testDistancesAndPaths() {
+        ShortestPathTree<String> tree = GraphUtil.shortestPathTree("a", exampleGraph());
+
+        Assertions.assertEquals("a", tree.getRoot());
+        Assertions.assertEquals(0.0, tree.distance("a"));
+        Assertions.assertEquals(1.0, tree.distance("b"));
+        Assertions.assertEquals(2.0, tree.distance("c"));
+        Assertions.assertEquals(4.0, tree.distance("d"));
+        Assertions.assertEquals(List.of("a", "b", "c", "d"), tree.path("d"));
+        Assertions.assertEquals(List.of("a"), tree.path("a"));
+        Assertions.assertEquals("c", tree.predecessor("d"));
+        Assertions.assertNull(tree.predecessor("a"));
+
+        Assertions.assertFalse(tree.isReachable("e"));
+        Assertions.assertEquals(Double.POSITIVE_INFINITY, tree.distance("e"));
+        Assertions.assertEquals(List.of(), tree.path("e"));
+        Assertions.assertNull(tree.predecessor("e"));
+    }
+
+    @Test
+    public void testIntegerNodes() {
+        // Nodes added in reverse, so no node equals its index and node and index lookups can't be confused.
+        MutableValueGraph<Integer, Double> graph = ValueGraphBuilder.directed().build();
+        for (int node = 3; node >= 0; node--) {
+            graph.addNode(node);
+        }
+        graph.putEdgeValue(0, 1, 1.0);
+        graph.putEdgeValue(1, 2, 2.0);
+        graph.putEdgeValue(2, 3, 4.0);
+        ShortestPathTree<Integer> tree = GraphUtil.shortestPathTree(0, graph);
+
+        for (int node = 0; node < 4; node++) {
+            int index = tree.getNodes().index(node);
+            Assertions.assertEquals(tree.distance(node), tree.distanceAt(index));
+        }
+        Assertions.assertEquals(7.0, tree.distance(3));
+        Assertions.assertEquals(Integer.valueOf(2), tree.predecessor(3));
+        Assertions.assertEquals(tree.getNodes().index(2), tree.predecessorAt(tree.getNodes().index(3)));
+        Assertions.assertEquals(List.of(0, 1, 2, 3), tree.path(3));
+    }
+
+    @Test
+    public void testMatchesTreeSearch() {
+        SplittableRandom random = new SplittableRandom(45);
+        MutableValueGraph<Integer, Double> graph = ValueGraphBuilder.undirected().build();
+        for (int i = 0; i < 500; i++) {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 3000; i++) {
+            int u = random.nextInt(500), v = random.nextInt(500);
+            if (u != v)
+                graph.putEdgeValue(u, v, random.nextDouble(0, 10));
+        }
+
+        ShortestPathTree<Integer> tree = GraphUtil.shortestPathTree(0, graph);
+        int reached = 0;
+        for (var element : GraphUtil.shortestPath(0, graph).nodes()) {
+            Assertions.assertEquals(element.cost(), tree.distance(element.element()), 1e-9);
+            reached++;
+        }
+        for (int node = 0; node < 500; node++) {
+            if (!tree.isReachable(node))
+                continue;
+            reached--;
+
+            // Every path must walk real edges and add up to its distance.
+            List<Integer> path = tree.path(node);
+            double length = 0;
+            for (int i = 1; i < path.size(); i++) {
+                length += graph.edgeValue(path.get(i - 1), path.get(i)).orElseThrow();
+            }
+            Assertions.assertEquals(tree.distance(node), length, 1e-9);
+        }
+        Assertions.assertEquals(0, reached);
+    }
+
+    @Test
+    public void testInvalidGraphs() {
+        MutableValueGraph<String, Double> graph = exampleGraph();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GraphUtil.shortestPathTree("z", graph));
+
+        graph.putEdgeValue("a", "e", -1.0);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GraphUtil.shortestPathTree("a", graph));
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        ShortestPathTree<String> tree = GraphUtil.shortestPathTree("a", exampleGraph());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tree.write(out, NodeCodec.STRING);
+        // The header, five one letter nodes and twelve bytes of arrays per node.
+        Assertions.assertEquals(16 + 5 * 3 + 5 * 12, out.size());
+
+        ShortestPathTree<String> read = ShortestPathTree.read(new ByteArrayInputStream(out.toByteArray()), NodeCodec.STRING);
+        Assertions.assertEquals("a", read.getRoot());
+        for (String node : List.of("a", "b", "c", "d", "e")) {
+            Assertions.assertEquals(tree.distance(node), read.distance(node));
+            Assertions.assertEquals(tree.path(node), read.path(node));
+        }
+
+        byte[] corrupt = out.toByteArray();
+        corrupt[0] = 0;
+        Assertions.assertThrows(IOException.class, () -> ShortestPathTree.read(new ByteArrayInputStream(corrupt), NodeCodec.STRING));
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 1);
+        Assertions.assertThrows(IOException.class, () -> ShortestPathTree.read(new ByteArrayInputStream(truncated), NodeCodec.STRING));
+    }
+}
@@ -0,0 +1,116 @@
+package com.golfing8.instrument;
+
+import com.golfing8.struct.SquareMatrix;
+import com.golfing8.util.DivideAndConquer;
+import com.golfing8.util.GraphUtil;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * A test suite for the {@link Instrumentation} class.
+ * The test task enables instrumentation, the disabled behaviour is checked when run without it.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public class InstrumentationTest {
+    @BeforeEach
+    public void reset() {
+        Instrumentation.reset();
+    }
+
+    @Test
+    public void disabled() {
+        assumeFalse(Instrumentation.ENABLED);
+
+        SquareMatrix.random(4).matrixProduct(SquareMatrix.random(4));
+        assertSame(Phase.NONE, Instrumentation.phase("disabled"));
+        assertEquals(0, Instrumentation.get(Counter.FLOPS));
+        assertTrue(Instrumentation.phases().isEmpty());
+    }
+
+    @Test
+    public void matrixCounters() {
+        assumeTrue(Instrumentation.ENABLED);
+
+        SquareMatrix matrix1 = SquareMatrix.random(8);
+        SquareMatrix matrix2 = SquareMatrix.random(8);
+        Instrumentation.reset();
+        matrix1.matrixProduct(matrix2);
+        assertEquals(2 * 8 * 8 * 8, Instrumentation.get(Counter.FLOPS));
+        assertEquals(1, Instrumentation.get(Counter.ALLOCATIONS));
+
+        // Large enough for two strassen steps above the cutoff.
+        matrix1 = SquareMatrix.random(512);
+        matrix2 = SquareMatrix.random(512);
+        Instrumentation.reset();
+        List<Long> progress = new ArrayList<>();
+        ProgressListener listener = (operation, completed, total) -> {
+            if (operation.equals("strassen"))
+                progress.add(completed);
+        };
+        Instrumentation.addListener(listener);
+        try {
+            SquareMatrix.matrixMultiplyStrassen(matrix1, matrix2);
+        } finally {
+            Instrumentation.removeListener(listener);
+        }
+
+        assertEquals(2, Instrumentation.get(Counter.RECURSION_DEPTH));
+        assertTrue(Instrumentation.get(Counter.FLOPS) > 0);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), progress);
+        assertEquals(1, Instrumentation.phases().get("strassen").count());
+    }
+
+    @Test
+    public void graphCounters() {
+        assumeTrue(Instrumentation.ENABLED);
+
+        MutableValueGraph<String, Double> graph = ValueGraphBuilder.undirected().build();
+        graph.putEdgeValue("a", "b", 1.0);
+        graph.putEdgeValue("a", "c", 1.0);
+        graph.putEdgeValue("b", "d", 2.0);
+        graph.putEdgeValue("d", "e", 3.0);
+        graph.putEdgeValue("c", "d", 1.0);
+
+        List<Long> progress = new ArrayList<>();
+        ProgressListener listener = (operation, completed, total) -> {
+            if (operation.equals("dijkstra"))
+                progress.add(completed * 100 / total);
+        };
+        Instrumentation.addListener(listener);
+        try {
+            GraphUtil.shortestPath("a", graph);
+        } finally {
+            Instrumentation.removeListener(listener);
+        }
+
+        assertEquals(List.of(100L), progress);
+        assertTrue(Instrumentation.get(Counter.EDGE_RELAXATIONS) > 0);
+        assertTrue(Instrumentation.get(Counter.HEAP_POPS) > 0);
+        assertEquals(Instrumentation.get(Counter.HEAP_PUSHES), Instrumentation.get(Counter.HEAP_POPS));
+
+        GraphUtil.computeMSTPrim(graph);
+        assertEquals(1, Instrumentation.phases().get("prim").count());
+    }
+
+    @Test
+    public void recursionDepth() {
+        assumeTrue(Instrumentation.ENABLED);
+
+        double[] array = ThreadLocalRandom.current().doubles(1024).toArray();
+        DivideAndConquer.quickSortRandomized(array);
+        long depth = Instrumentation.get(Counter.RECURSION_DEPTH);
+        // Always recursing into the smaller side bounds the depth by log2(n).
+        assertTrue(depth > 0 && depth <= 10, "Depth was " + depth);
+        assertTrue(Instrumentation.phases().get("quickSort").nanos() > 0);
+    }
+}
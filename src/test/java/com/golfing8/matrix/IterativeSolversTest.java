@@ -0,0 +1,267 @@
+package com.golfing8.matrix;
+
+import com.golfing8.struct.CompactGraph;
+import com.golfing8.struct.LUDecomposition;
+import com.golfing8.struct.LinearOperator;
+import com.golfing8.struct.SparseMatrix;
+import com.golfing8.struct.SquareMatrix;
+import com.golfing8.util.IterativeSolvers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A test suite for {@link IterativeSolvers} and the matrix vector products of {@link SquareMatrix} and
+ * {@link SparseMatrix}.
+ */
+public class IterativeSolversTest {
+    private static double[] randomVector(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] vector = new double[size];
+        for (int i = 0; i < size; i++) {
+            vector[i] = random.nextDouble(-1, 1);
+        }
+        return vector;
+    }
+
+    /**
+     * A random symmetric positive definite matrix, {@code B^T * B + size * I}
+     */
+    private static SquareMatrix randomPositiveDefinite(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] b = new double[size * size];
+        for (int i = 0; i < b.length; i++) {
+            b[i] = random.nextDouble(-1, 1);
+        }
+        double[] elements = new double[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                double sum = i == j ? size : 0;
+                for (int k = 0; k < size; k++) {
+                    sum += b[k * size + i] * b[k * size + j];
+                }
+                elements[i * size + j] = sum;
+            }
+        }
+        return SquareMatrix.fromElements(elements);
+    }
+
+    /**
+     * The Laplacian of a path of the given length plus the identity, tridiagonal with 3 on the diagonal
+     * except for 2 at the ends, and -1 beside it
+     */
+    private static SparseMatrix shiftedPathLaplacian(int size) {
+        int[] rows = new int[5 * size];
+        int[] columns = new int[5 * size];
+        double[] values = new double[5 * size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            // The diagonal is written as a term per neighbor to test that duplicates are summed.
+            rows[count] = i;
+            columns[count] = i;
+            values[count++] = 1;
+            for (int neighbor : new int[] {i - 1, i + 1}) {
+                if (neighbor < 0 || neighbor >= size)
+                    continue;
+                rows[count] = i;
+                columns[count] = neighbor;
+                values[count++] = -1;
+                rows[count] = i;
+                columns[count] = i;
+                values[count++] = 1;
+            }
+        }
+        return SparseMatrix.fromEntries(size, Arrays.copyOf(rows, count), Arrays.copyOf(columns, count), Arrays.copyOf(values, count));
+    }
+
+    private static double[] naiveProduct(SquareMatrix matrix, double[] x) {
+        int size = matrix.getSize();
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                y[i] += matrix.getElement(i + 1, j + 1) * x[j];
+            }
+        }
+        return y;
+    }
+
+    private static double residual(LinearOperator operator, double[] x, double[] b) {
+        double[] ax = operator.multiply(x);
+        double squared = 0, norm = 0;
+        for (int i = 0; i < b.length; i++) {
+            squared += (ax[i] - b[i]) * (ax[i] - b[i]);
+            norm += b[i] * b[i];
+        }
+        return Math.sqrt(squared / norm);
+    }
+
+    @Test
+    public void testDenseProduct() {
+        // Sizes around the unrolling and the parallel threshold.
+        for (int size : new int[] {1, 3, 4, 7, 64, 1030}) {
+            SquareMatrix matrix = SquareMatrix.random(size, size);
+            double[] x = randomVector(size, size + 1);
+            Assertions.assertArrayEquals(naiveProduct(matrix, x), matrix.multiply(x), 1e-9 * size);
+        }
+        SquareMatrix matrix = SquareMatrix.random(4, 1);
+        double[] x = new double[4];
+        Assertions.assertThrows(IllegalArgumentException.class, () -> matrix.multiply(x, x));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> matrix.multiply(new double[3]));
+    }
+
+    @Test
+    public void testSparseConstruction() {
+        SparseMatrix matrix = SparseMatrix.fromEntries(3,
+                new int[] {2, 0, 2, 1, 2},
+                new int[] {1, 2, 0, 1, 1},
+                new double[] {1, 5, 3, 4, 2});
+        Assertions.assertEquals(4, matrix.entryCount());
+        Assertions.assertEquals(5, matrix.getElement(0, 2));
+        Assertions.assertEquals(4, matrix.getElement(1, 1));
+        Assertions.assertEquals(3, matrix.getElement(2, 0));
+        Assertions.assertEquals(3, matrix.getElement(2, 1));
+        Assertions.assertEquals(0, matrix.getElement(0, 0));
+        Assertions.assertArrayEquals(new double[] {15, 8, 9}, matrix.multiply(new double[] {1, 2, 3}));
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> SparseMatrix.fromEntries(2, new int[] {2}, new int[] {0}, new double[] {1}));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> SparseMatrix.fromEntries(2, new int[] {0, 1}, new int[] {0}, new double[] {1}));
+    }
+
+    @Test
+    public void testSparseProduct() {
+        // Enough entries for the parallel product, with some long rows.
+        int size = 5000;
+        SplittableRandom random = new SplittableRandom(7);
+        int count = 100_000;
+        int[] rows = new int[count];
+        int[] columns = new int[count];
+        double[] values = new double[count];
+        double[] dense = new double[size * size];
+        for (int e = 0; e < count; e++) {
+            rows[e] = e < 1000 ? 0 : random.nextInt(size);
+            columns[e] = random.nextInt(size);
+            values[e] = random.nextDouble(-1, 1);
+            dense[rows[e] + columns[e] * size] += values[e];
+        }
+        SparseMatrix matrix = SparseMatrix.fromEntries(size, rows, columns, values);
+        double[] x = randomVector(size, 8);
+        double[] expected = new double[size];
+        for (int j = 0; j < size; j++) {
+            for (int i = 0; i < size; i++) {
+                expected[i] += dense[i + j * size] * x[j];
+            }
+        }
+        Assertions.assertArrayEquals(expected, matrix.multiply(x), 1e-9);
+    }
+
+    @Test
+    public void testSparseFromGraph() {
+        CompactGraph graph = CompactGraph.fromEdges(3, new int[] {0, 1, 0}, new int[] {1, 2, 1}, new double[] {2, 3, 1}, 3, false);
+        SparseMatrix matrix = SparseMatrix.fromGraph(graph);
+        Assertions.assertEquals(3, matrix.getElement(0, 1));
+        Assertions.assertEquals(3, matrix.getElement(1, 0));
+        Assertions.assertEquals(3, matrix.getElement(2, 1));
+        Assertions.assertEquals(0, matrix.getElement(0, 2));
+    }
+
+    @Test
+    public void testConjugateGradientDense() {
+        int size = 60;
+        SquareMatrix matrix = randomPositiveDefinite(size, 3);
+        double[] b = randomVector(size, 4);
+        IterativeSolvers.Solution solution = IterativeSolvers.conjugateGradient(matrix, b, IterativeSolvers.Settings.defaults());
+
+        Assertions.assertTrue(solution.convergence().converged());
+        Assertions.assertTrue(solution.convergence().iterations() <= size);
+        Assertions.assertEquals(solution.convergence().iterations(), solution.convergence().history().length);
+        Assertions.assertArrayEquals(new LUDecomposition(matrix).solve(b), solution.x(), 1e-8);
+        Assertions.assertTrue(residual(matrix, solution.x(), b) <= 1e-9);
+    }
+
+    @Test
+    public void testConjugateGradientSparse() {
+        int size = 2000;
+        SparseMatrix laplacian = shiftedPathLaplacian(size);
+        Assertions.assertEquals(3 * size - 2, laplacian.entryCount());
+        Assertions.assertEquals(3, laplacian.getElement(5, 5));
+        Assertions.assertEquals(2, laplacian.getElement(0, 0));
+
+        double[] b = randomVector(size, 5);
+        IterativeSolvers.Solution solution = IterativeSolvers.conjugateGradient(laplacian, b, IterativeSolvers.Settings.defaults());
+        Assertions.assertTrue(solution.convergence().converged());
+        Assertions.assertTrue(residual(laplacian, solution.x(), b) <= 1e-9);
+
+        // Starting from the solution converges immediately.
+        IterativeSolvers.Solution again = IterativeSolvers.conjugateGradient(laplacian, b, solution.x(), IterativeSolvers.Settings.defaults());
+        Assertions.assertTrue(again.convergence().iterations() <= 1);
+
+        IterativeSolvers.Solution limited = IterativeSolvers.conjugateGradient(laplacian, b, new IterativeSolvers.Settings(3, 1e-10));
+        Assertions.assertFalse(limited.convergence().converged());
+        Assertions.assertEquals(3, limited.convergence().iterations());
+    }
+
+    @Test
+    public void testConjugateGradientIndefinite() {
+        SquareMatrix matrix = SquareMatrix.fromElements(
+                1, 0,
+                0, -1
+        );
+        Assertions.assertThrows(ArithmeticException.class,
+                () -> IterativeSolvers.conjugateGradient(matrix, new double[] {1, 1}, IterativeSolvers.Settings.defaults()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new IterativeSolvers.Settings(0, 1e-10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new IterativeSolvers.Settings(10, Double.NaN));
+    }
+
+    @Test
+    public void testPowerIteration() {
+        // Eigenvalues 5 and 1, with eigenvector (1, 1) for 5.
+        SquareMatrix matrix = SquareMatrix.fromElements(
+                3, 2,
+                2, 3
+        );
+        IterativeSolvers.Eigenpair pair = IterativeSolvers.powerIteration(matrix, IterativeSolvers.Settings.defaults());
+        Assertions.assertTrue(pair.convergence().converged());
+        Assertions.assertEquals(5, pair.value(), 1e-9);
+        Assertions.assertEquals(Math.abs(pair.vector()[0]), Math.abs(pair.vector()[1]), 1e-9);
+        Assertions.assertEquals(Math.sqrt(0.5), Math.abs(pair.vector()[0]), 1e-9);
+
+        // A negative dominant eigenvalue.
+        SquareMatrix negative = SquareMatrix.fromElements(
+                -4, 0, 0,
+                0, 2, 0,
+                0, 0, 1
+        );
+        Assertions.assertEquals(-4, IterativeSolvers.powerIteration(negative, IterativeSolvers.Settings.defaults()).value(), 1e-9);
+    }
+
+    @Test
+    public void testLanczos() {
+        // The eigenvalues of the path Laplacian plus the identity are 3 - 2 cos(pi k / n) for k = 0 .. n - 1.
+        int size = 500;
+        SparseMatrix laplacian = shiftedPathLaplacian(size);
+        double expected = 3 - 2 * Math.cos(Math.PI * (size - 1) / size);
+        IterativeSolvers.Eigenpair pair = IterativeSolvers.lanczos(laplacian, new IterativeSolvers.Settings(size, 1e-8));
+        Assertions.assertTrue(pair.convergence().converged());
+        Assertions.assertEquals(expected, pair.value(), 1e-8);
+        Assertions.assertTrue(residual(laplacian, pair.vector(), scaled(pair.vector(), pair.value())) <= 1e-6);
+
+        // Lanczos is exact once the basis spans the space.
+        SquareMatrix matrix = randomPositiveDefinite(20, 6);
+        IterativeSolvers.Eigenpair lanczos = IterativeSolvers.lanczos(matrix, IterativeSolvers.Settings.defaults());
+        IterativeSolvers.Eigenpair power = IterativeSolvers.powerIteration(matrix, new IterativeSolvers.Settings(100_000, 1e-12));
+        Assertions.assertTrue(lanczos.convergence().iterations() <= 20);
+        Assertions.assertEquals(power.value(), lanczos.value(), 1e-8 * power.value());
+    }
+
+    private static double[] scaled(double[] vector, double factor) {
+        double[] result = new double[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            result[i] = vector[i] * factor;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,123 @@
+package com.golfing8.matrix;
+
+import com.golfing8.struct.LUDecomposition;
+import com.golfing8.struct.SquareMatrix;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+public class LUDecompositionTest {
+    private static SquareMatrix identity(int size) {
+        double[] elements = new double[size * size];
+        for (int i = 0; i < size; i++) {
+            elements[i * size + i] = 1;
+        }
+        return SquareMatrix.fromElements(elements);
+    }
+
+    /**
+     * Reorders the rows of the matrix by the permutation
+     */
+    private static SquareMatrix permute(SquareMatrix matrix, int[] permutation) {
+        int size = matrix.getSize();
+        double[] elements = new double[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                elements[i * size + j] = matrix.getElement(permutation[i] + 1, j + 1);
+            }
+        }
+        return SquareMatrix.fromElements(elements);
+    }
+
+    @Test
+    public void testSmallDecomposition() {
+        SquareMatrix a = SquareMatrix.fromElements(
+                2, 1, 1,
+                4, -6, 0,
+                -2, 7, 2
+        );
+        LUDecomposition lu = new LUDecomposition(a);
+
+        Assertions.assertEquals(permute(a, lu.permutation()), lu.lower().matrixProduct(lu.upper()));
+        Assertions.assertEquals(-16, lu.determinant(), 1e-9);
+        Assertions.assertArrayEquals(new double[] {1, 1, 2}, lu.solve(new double[] {5, -2, 9}), 1e-9);
+    }
+
+    @Test
+    public void testDecomposition() {
+        // Sizes below, at and across the recursion base and the padding.
+        for (int size : new int[] {1, 7, 64, 65, 128, 200, 333}) {
+            SquareMatrix a = SquareMatrix.random(size, size);
+            LUDecomposition lu = new LUDecomposition(a);
+
+            Assertions.assertEquals(permute(a, lu.permutation()), lu.lower().matrixProduct(lu.upper()), "size " + size);
+            SquareMatrix upper = lu.upper();
+            for (int i = 1; i <= size; i++) {
+                for (int j = 1; j < i; j++) {
+                    Assertions.assertEquals(0, upper.getElement(i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSolve() {
+        SplittableRandom random = new SplittableRandom(520);
+        for (int size : new int[] {5, 100, 257}) {
+            SquareMatrix a = SquareMatrix.random(size, size + 1);
+            double[] x = random.doubles(size, -1, 1).toArray();
+            double[] b = new double[size];
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    b[i] += a.getElement(i + 1, j + 1) * x[j];
+                }
+            }
+            Assertions.assertArrayEquals(x, new LUDecomposition(a).solve(b), 1e-8);
+
+            SquareMatrix expected = SquareMatrix.random(size, size + 2);
+            Assertions.assertEquals(expected, new LUDecomposition(a).solve(a.matrixProduct(expected)));
+        }
+    }
+
+    @Test
+    public void testInverse() {
+        for (int size : new int[] {3, 64, 150, 256}) {
+            SquareMatrix a = SquareMatrix.random(size, size + 3);
+            SquareMatrix inverse = a.inverse();
+
+            Assertions.assertEquals(identity(size), a.matrixProduct(inverse), "size " + size);
+            Assertions.assertEquals(identity(size), inverse.matrixProduct(a), "size " + size);
+        }
+    }
+
+    @Test
+    public void testDeterminant() {
+        Assertions.assertEquals(-2, SquareMatrix.fromElements(1, 2, 3, 4).determinant(), 1e-12);
+        // Swapping two rows of the identity.
+        Assertions.assertEquals(-1, SquareMatrix.fromElements(0, 1, 0, 1, 0, 0, 0, 0, 1).determinant(), 1e-12);
+
+        // The determinant of a product is the product of the determinants.
+        SquareMatrix a = SquareMatrix.random(90, 11);
+        SquareMatrix b = SquareMatrix.random(90, 12);
+        double expected = a.determinant() * b.determinant();
+        Assertions.assertEquals(expected, a.matrixProduct(b).determinant(), Math.abs(expected) * 1e-8);
+        Assertions.assertEquals(1, identity(300).determinant(), 1e-12);
+    }
+
+    @Test
+    public void testSingular() {
+        SquareMatrix a = SquareMatrix.fromElements(
+                1, 2, 3,
+                2, 4, 6,
+                1, 0, 1
+        );
+        LUDecomposition lu = new LUDecomposition(a);
+
+        Assertions.assertTrue(lu.isSingular());
+        Assertions.assertEquals(0, lu.determinant(), 0);
+        Assertions.assertThrows(ArithmeticException.class, a::inverse);
+        Assertions.assertThrows(ArithmeticException.class, () -> lu.solve(new double[] {1, 2, 3}));
+        Assertions.assertFalse(new LUDecomposition(identity(3)).isSingular());
+    }
+}
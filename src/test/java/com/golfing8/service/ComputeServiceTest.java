@@ -0,0 +1,203 @@
+package com.golfing8.service;
+
+import com.golfing8.struct.SquareMatrix;
+import com.golfing8.util.GraphUtil;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link ComputeService} class, under synthetic load.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public class ComputeServiceTest {
+    private static MutableValueGraph<String, Double> graph() {
+        MutableValueGraph<String, Double> valueGraph = ValueGraphBuilder.undirected().build();
+        valueGraph.putEdgeValue("a", "b", 1.0);
+        valueGraph.putEdgeValue("a", "c", 1.0);
+        valueGraph.putEdgeValue("b", "d", 2.0);
+        valueGraph.putEdgeValue("d", "e", 3.0);
+        valueGraph.putEdgeValue("c", "d", 1.0);
+        return valueGraph;
+    }
+
+    @Test
+    public void multiply() {
+        try (ComputeService service = new ComputeService(ComputeService.Settings.defaults())) {
+            SquareMatrix small1 = SquareMatrix.random(5, 1), small2 = SquareMatrix.random(5, 2);
+            SquareMatrix large1 = SquareMatrix.random(256, 3), large2 = SquareMatrix.random(256, 4);
+
+            assertEquals(small1.matrixProduct(small2), service.multiply(small1, small2).join());
+            assertEquals(large1.matrixProduct(large2), service.multiply(large1, large2).join());
+            assertEquals(2, service.latencies(ComputeService.Operation.MULTIPLY).count());
+
+            CompletionException exception = assertThrows(CompletionException.class, () -> service.multiply(small1, large1).join());
+            assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+        }
+    }
+
+    @Test
+    public void coalescing() {
+        try (ComputeService service = new ComputeService(new ComputeService.Settings(1, 16, 100, 32, 64, 200))) {
+            SquareMatrix left = SquareMatrix.random(400, 5);
+            SquareMatrix right = SquareMatrix.random(400, 6);
+
+            // Equal content in distinct instances still coalesces.
+            List<CompletableFuture<SquareMatrix>> futures = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                futures.add(service.multiply(new SquareMatrix(left), new SquareMatrix(right)));
+            }
+            SquareMatrix first = futures.getFirst().join();
+            for (CompletableFuture<SquareMatrix> future : futures) {
+                SquareMatrix result = future.join();
+                assertTrue(first.identical(result));
+                if (future != futures.getFirst())
+                    assertNotSame(first, result);
+            }
+            assertEquals(4, service.coalesced());
+
+            var graph = graph();
+            var path1 = service.shortestPath("a", graph);
+            var path2 = service.shortestPath("a", graph);
+            assertEquals(GraphUtil.shortestPath("a", graph), path1.join());
+            assertEquals(path1.join(), path2.join());
+        }
+    }
+
+    @Test
+    public void backpressure() {
+        try (ComputeService service = new ComputeService(new ComputeService.Settings(1, 2, 0, 32, 64, 200))) {
+            List<CompletableFuture<SquareMatrix>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(service.multiply(SquareMatrix.random(300, i), SquareMatrix.random(300, i + 100)));
+            }
+
+            int rejected = 0;
+            for (CompletableFuture<SquareMatrix> future : futures) {
+                try {
+                    future.join();
+                } catch (CompletionException exception) {
+                    assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+                    rejected++;
+                }
+            }
+            assertTrue(rejected >= 7, "Only " + rejected + " requests were rejected");
+            assertEquals(rejected, service.rejected());
+
+            // Capacity is returned once requests complete.
+            assertNotNull(service.multiply(SquareMatrix.random(300, 1), SquareMatrix.random(300, 2)).join());
+        }
+    }
+
+    @Test
+    public void batching() {
+        try (ComputeService service = new ComputeService(new ComputeService.Settings(2, 1024, 100, 32, 64, 5_000))) {
+            List<CompletableFuture<SquareMatrix>> futures = new ArrayList<>();
+            List<SquareMatrix> expected = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                SquareMatrix left = SquareMatrix.random(4, i), right = SquareMatrix.random(4, -i - 1);
+                expected.add(left.matrixProduct(right));
+                futures.add(service.multiply(left, right));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(expected.get(i), futures.get(i).join());
+            }
+            assertTrue(service.batches() < 200, "Ran " + service.batches() + " batches");
+        }
+    }
+
+    @Test
+    public void syntheticLoad() throws InterruptedException {
+        int threads = 8, requests = 200;
+        try (ComputeService service = new ComputeService(new ComputeService.Settings(4, 64, 10_000, 32, 64, 200))) {
+            SquareMatrix[] operands = new SquareMatrix[8];
+            for (int i = 0; i < operands.length; i++) {
+                operands[i] = SquareMatrix.random(i % 2 == 0 ? 8 : 64, i);
+            }
+            var graph = graph();
+
+            List<Thread> callers = new ArrayList<>();
+            List<CompletableFuture<?>> futures = java.util.Collections.synchronizedList(new ArrayList<>());
+            for (int t = 0; t < threads; t++) {
+                callers.add(Thread.ofVirtual().start(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int r = 0; r < requests; r++) {
+                        if (random.nextInt(4) == 0) {
+                            futures.add(service.shortestPath("a", graph));
+                        } else {
+                            int i = random.nextInt(operands.length / 2) * 2 + random.nextInt(2);
+                            int j = i % 2 == 0 ? random.nextInt(4) * 2 : random.nextInt(4) * 2 + 1;
+                            futures.add(service.multiply(operands[i], operands[j]));
+                        }
+                    }
+                }));
+            }
+            for (Thread caller : callers) {
+                caller.join();
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).orTimeout(60, TimeUnit.SECONDS).join();
+
+            LatencyHistogram multiply = service.latencies(ComputeService.Operation.MULTIPLY);
+            LatencyHistogram shortestPath = service.latencies(ComputeService.Operation.SHORTEST_PATH);
+            assertEquals(threads * requests, multiply.count() + shortestPath.count());
+            assertEquals(0, service.rejected());
+            assertTrue(multiply.percentile(50) <= multiply.percentile(99));
+            assertTrue(multiply.percentile(99) <= multiply.max());
+        }
+    }
+
+    @Test
+    public void histogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(99));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(100, histogram.count());
+        assertEquals(50_500, histogram.mean());
+        assertEquals(100_000, histogram.max());
+        long p50 = histogram.percentile(50);
+        assertTrue(p50 >= 50_000 && p50 < 100_000, "p50 was " + p50);
+        assertEquals(100_000, histogram.percentile(100));
+    }
+
+    @Test
+    public void closed() {
+        ComputeService service = new ComputeService(ComputeService.Settings.defaults());
+        service.close();
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> service.multiply(SquareMatrix.random(2, 1), SquareMatrix.random(2, 2)).join());
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+    }
+
+    @Test
+    public void closedWhileAdmitting() throws InterruptedException, ExecutionException, TimeoutException {
+        ComputeService service = new ComputeService(new ComputeService.Settings(1, 1, 60_000, 32, 64, 200));
+        // Holds the only permit until close fails it.
+        CompletableFuture<SquareMatrix> large = service.multiply(SquareMatrix.random(1024, 1), SquareMatrix.random(1024, 2));
+        CompletableFuture<CompletableFuture<SquareMatrix>> admitted = new CompletableFuture<>();
+        Thread caller = Thread.ofPlatform().start(() -> admitted.complete(service.multiply(SquareMatrix.random(4, 3), SquareMatrix.random(4, 4))));
+        while (caller.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(caller.isAlive(), "The caller was admitted without waiting");
+            Thread.sleep(1);
+        }
+        assertFalse(large.isDone());
+
+        service.close();
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> admitted.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        assertThrows(CompletionException.class, large::join);
+    }
+}
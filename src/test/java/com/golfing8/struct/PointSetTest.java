@@ -0,0 +1,117 @@
+package com.golfing8.struct;
+
+import com.golfing8.util.DivideAndConquer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link PointSet} class.
+ */
+public class PointSetTest {
+    private static PointSet randomPoints(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextDouble(-1e6, 1e6);
+            ys[i] = random.nextDouble(-1e6, 1e6);
+        }
+        return new PointSet(xs, ys);
+    }
+
+    private static double bruteForce(PointSet points) {
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < points.size(); i++) {
+            for (int j = i + 1; j < points.size(); j++) {
+                best = Math.min(best, points.distanceSquared(i, j));
+            }
+        }
+        return best;
+    }
+
+    private static double distanceSquared(PointSet points, int[] pair) {
+        assertNotEquals(pair[0], pair[1]);
+        return points.distanceSquared(pair[0], pair[1]);
+    }
+
+    @Test
+    public void closestPair() {
+        PointSet points = PointSet.of(List.of(
+                new Point2D(2, 3),
+                new Point2D(12, 30),
+                new Point2D(40, 50),
+                new Point2D(5, 1),
+                new Point2D(12, 10),
+                new Point2D(3, 4)
+        ));
+
+        int[] pair = points.closestPair();
+        assertEquals(2, distanceSquared(points, pair));
+        assertEquals(List.of(0, 5), List.of(Math.min(pair[0], pair[1]), Math.max(pair[0], pair[1])));
+        assertThrows(IllegalArgumentException.class, () -> new PointSet(new double[1], new double[1]).closestPair());
+    }
+
+    @Test
+    public void duplicatePoints() {
+        double[] xs = {1, 5, 5, 9, 5, 2};
+        double[] ys = {1, 5, 7, 9, 5, 8};
+        PointSet points = new PointSet(xs, ys);
+        assertEquals(0, distanceSquared(points, points.closestPair()));
+        assertEquals(0, distanceSquared(points, points.closestPairParallel()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 4, 5, 17, 1000, 20_000})
+    public void matchesBruteForce(int n) {
+        PointSet points = randomPoints(n, n);
+        double expected = bruteForce(points);
+        assertEquals(expected, distanceSquared(points, points.closestPair()));
+        assertEquals(expected, distanceSquared(points, points.closestPairParallel()));
+    }
+
+    @Test
+    public void sharedCoordinates() {
+        // Many points on the same vertical lines exercise ties around the dividing line.
+        SplittableRandom random = new SplittableRandom(36);
+        int n = 5000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextInt(10);
+            ys[i] = random.nextDouble(0, 1e5);
+        }
+        PointSet points = new PointSet(xs, ys);
+        double expected = bruteForce(points);
+        assertEquals(expected, distanceSquared(points, points.closestPair()));
+        assertEquals(expected, distanceSquared(points, points.closestPairParallel()));
+    }
+
+    @Test
+    public void matchesDivideAndConquer() {
+        PointSet points = randomPoints(2000, 520);
+        List<Point2D> list = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            list.add(points.get(i));
+        }
+
+        var pair = DivideAndConquer.closestPair(list);
+        double expected = pair.left().distance(pair.right());
+        int[] indices = points.closestPairParallel();
+        assertEquals(expected, points.distance(indices[0], indices[1]));
+    }
+
+    @Test
+    public void largeParallel() {
+        PointSet points = randomPoints(1_000_000, 1);
+        int[] sequential = points.closestPair();
+        int[] parallel = points.closestPairParallel();
+        assertEquals(distanceSquared(points, sequential), distanceSquared(points, parallel));
+    }
+}
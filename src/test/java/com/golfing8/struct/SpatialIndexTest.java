@@ -0,0 +1,131 @@
+package com.golfing8.struct;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link KdTree} and {@link UniformGrid} classes.
+ */
+public class SpatialIndexTest {
+    private static PointSet randomPoints(int n, long seed, boolean clustered) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            if (clustered && random.nextBoolean()) {
+                // Half the points in a tiny cluster, with duplicates.
+                xs[i] = random.nextInt(10) * 1e-3;
+                ys[i] = random.nextInt(10) * 1e-3;
+            } else {
+                xs[i] = random.nextDouble(-100, 100);
+                ys[i] = random.nextDouble(-50, 50);
+            }
+        }
+        return new PointSet(xs, ys);
+    }
+
+    private static double distanceSquared(PointSet points, int index, double x, double y) {
+        double distX = points.x(index) - x;
+        double distY = points.y(index) - y;
+        return distX * distX + distY * distY;
+    }
+
+    /**
+     * The squared distances of the k nearest points, by scanning every point
+     */
+    private static double[] nearestDistances(PointSet points, double x, double y, int k) {
+        return IntStream.range(0, points.size())
+                .mapToDouble(i -> distanceSquared(points, i, x, y))
+                .sorted()
+                .limit(k)
+                .toArray();
+    }
+
+    private static void assertNearest(PointSet points, double x, double y, int k, int[] found) {
+        double[] distances = Arrays.stream(found).mapToDouble(i -> distanceSquared(points, i, x, y)).toArray();
+        assertArrayEquals(nearestDistances(points, x, y, k), distances);
+        assertEquals(found.length, Arrays.stream(found).distinct().count());
+    }
+
+    private static int[] sorted(int[] array) {
+        int[] copy = array.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    @Test
+    public void smallQueries() {
+        PointSet points = PointSet.of(List.of(
+                new Point2D(0, 0),
+                new Point2D(1, 1),
+                new Point2D(2, 2),
+                new Point2D(5, 5),
+                new Point2D(5, 5),
+                new Point2D(-3, 4)
+        ));
+        KdTree tree = new KdTree(points);
+        UniformGrid grid = new UniformGrid(points);
+
+        assertArrayEquals(new int[] {1}, tree.nearest(0.9, 0.9, 1));
+        assertArrayEquals(new int[] {1}, grid.nearest(0.9, 0.9, 1));
+        assertArrayEquals(new int[] {0, 1, 2, 5}, sorted(tree.withinRadius(0, 0, 5)));
+        assertArrayEquals(new int[] {0, 1, 2, 5}, sorted(grid.withinRadius(0, 0, 5)));
+        assertArrayEquals(new int[] {2, 3, 4}, sorted(tree.withinRectangle(2, 2, 5, 5)));
+        assertArrayEquals(new int[] {2, 3, 4}, sorted(grid.withinRectangle(2, 2, 5, 5)));
+        assertEquals(6, tree.nearest(100, 100, 50).length);
+        assertEquals(6, grid.nearest(100, 100, 50).length);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 1000, 100_000})
+    public void matchesBruteForce(int n) {
+        for (boolean clustered : new boolean[] {false, true}) {
+            PointSet points = randomPoints(n, n, clustered);
+            KdTree tree = new KdTree(points);
+            UniformGrid grid = new UniformGrid(points);
+            SplittableRandom random = new SplittableRandom(37);
+            for (int query = 0; query < 50; query++) {
+                // Some queries fall outside the bounding box.
+                double x = random.nextDouble(-150, 150);
+                double y = random.nextDouble(-80, 80);
+                int k = random.nextInt(1, 20);
+                assertNearest(points, x, y, k, tree.nearest(x, y, k));
+                assertNearest(points, x, y, k, grid.nearest(x, y, k));
+
+                double radius = random.nextDouble(0, 20);
+                int[] expected = IntStream.range(0, n).filter(i -> distanceSquared(points, i, x, y) <= radius * radius).toArray();
+                assertArrayEquals(expected, sorted(tree.withinRadius(x, y, radius)));
+                assertArrayEquals(expected, sorted(grid.withinRadius(x, y, radius)));
+
+                double width = random.nextDouble(0, 40), height = random.nextDouble(0, 40);
+                expected = IntStream.range(0, n).filter(i -> points.x(i) >= x && points.x(i) <= x + width
+                        && points.y(i) >= y && points.y(i) <= y + height).toArray();
+                assertArrayEquals(expected, sorted(tree.withinRectangle(x, y, x + width, y + height)));
+                assertArrayEquals(expected, sorted(grid.withinRectangle(x, y, x + width, y + height)));
+            }
+        }
+    }
+
+    @Test
+    public void collinearPoints() {
+        double[] xs = new double[1000];
+        double[] ys = new double[1000];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = i;
+        }
+        PointSet points = new PointSet(xs, ys);
+        UniformGrid grid = new UniformGrid(points);
+        KdTree tree = new KdTree(points);
+        assertNearest(points, 500.2, 3, 3, grid.nearest(500.2, 3, 3));
+        assertNearest(points, 500.2, 3, 3, tree.nearest(500.2, 3, 3));
+        assertEquals(11, grid.withinRectangle(10, 0, 20, 0).length);
+    }
+}
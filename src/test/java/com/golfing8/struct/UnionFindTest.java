@@ -0,0 +1,66 @@
+package com.golfing8.struct;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link UnionFind} and {@link ConcurrentUnionFind} classes.
+ */
+public class UnionFindTest {
+    @Test
+    public void unionFind() {
+        UnionFind unionFind = new UnionFind(6);
+        assertEquals(6, unionFind.components());
+
+        assertTrue(unionFind.union(0, 1));
+        assertTrue(unionFind.union(2, 3));
+        assertTrue(unionFind.union(1, 3));
+        assertFalse(unionFind.union(0, 2));
+
+        assertTrue(unionFind.connected(0, 3));
+        assertFalse(unionFind.connected(0, 4));
+        assertEquals(3, unionFind.components());
+    }
+
+    @RepeatedTest(5)
+    public void concurrentMatchesSequential() throws InterruptedException {
+        int n = 20_000;
+        int[][] edges = new int[n][2];
+        for (int[] edge : edges) {
+            edge[0] = ThreadLocalRandom.current().nextInt(n);
+            edge[1] = ThreadLocalRandom.current().nextInt(n);
+        }
+
+        UnionFind expected = new UnionFind(n);
+        for (int[] edge : edges) {
+            expected.union(edge[0], edge[1]);
+        }
+
+        ConcurrentUnionFind actual = new ConcurrentUnionFind(n);
+        int threadCount = 8;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t;
+            threads.add(Thread.startVirtualThread(() -> {
+                for (int i = offset; i < edges.length; i += threadCount) {
+                    actual.union(edges[i][0], edges[i][1]);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(expected.components(), actual.components());
+        for (int i = 0; i < n; i++) {
+            int other = ThreadLocalRandom.current().nextInt(n);
+            assertEquals(expected.connected(i, other), actual.connected(i, other));
+        }
+    }
+}
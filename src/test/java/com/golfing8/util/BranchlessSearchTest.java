@@ -0,0 +1,77 @@
+package com.golfing8.util;
+
+import com.golfing8.struct.EytzingerArray;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link BranchlessSearch} and {@link EytzingerArray} classes.
+ */
+public class BranchlessSearchTest {
+    private static int expectedLowerBound(double[] array, double key) {
+        int i = 0;
+        while (i < array.length && array[i] < key)
+            i++;
+        return i;
+    }
+
+    private static int expectedUpperBound(double[] array, double key) {
+        int i = 0;
+        while (i < array.length && array[i] <= key)
+            i++;
+        return i;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 7, 8, 100, 1023, 1024, 1025})
+    public void bounds(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        double[] array = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Few distinct values so the arrays are full of duplicates.
+            array[i] = random.nextInt(n / 2 + 1);
+        }
+        Arrays.sort(array);
+        EytzingerArray eytzinger = new EytzingerArray(array);
+
+        double[] keys = new double[200];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(-1, n / 2 + 2) + (random.nextBoolean() ? 0.5 : 0.0);
+        }
+        int[] branchlessBatch = new int[keys.length];
+        int[] eytzingerBatch = new int[keys.length];
+        BranchlessSearch.lowerBounds(array, keys, branchlessBatch);
+        eytzinger.lowerBounds(keys, eytzingerBatch);
+
+        for (int i = 0; i < keys.length; i++) {
+            double key = keys[i];
+            int expected = expectedLowerBound(array, key);
+            assertEquals(expected, BranchlessSearch.lowerBound(array, key));
+            assertEquals(expectedUpperBound(array, key), BranchlessSearch.upperBound(array, key));
+            assertEquals(expected, eytzinger.lowerBound(key));
+            assertEquals(expected, branchlessBatch[i]);
+            assertEquals(expected, eytzingerBatch[i]);
+            assertEquals(expected < n && array[expected] == key, eytzinger.contains(key));
+        }
+    }
+
+    @Test
+    public void indexOf() {
+        double[] array = {1, 2, 2, 3, 5, 8};
+        assertEquals(1, BranchlessSearch.indexOf(array, 2));
+        assertEquals(5, BranchlessSearch.indexOf(array, 8));
+        assertEquals(-1, BranchlessSearch.indexOf(array, 9));
+        assertEquals(-1, BranchlessSearch.indexOf(array, 4));
+    }
+
+    @Test
+    public void rejectsUnsorted() {
+        assertThrows(IllegalArgumentException.class, () -> new EytzingerArray(new double[] {2, 1}));
+    }
+}
@@ -43,6 +43,39 @@ public class DivideAndConquerTest {
         assertArrayEquals(systemSorted, userSorted);
     }
 
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void quickSortDuplicates(boolean randomized) {
+        double[] userSorted = new double[10_000];
+        for (int i = 0; i < userSorted.length; i++) {
+            userSorted[i] = ThreadLocalRandom.current().nextInt(8);
+        }
+        userSorted[0] = -0.0;
+        userSorted[1] = Double.NaN;
+        double[] systemSorted = Arrays.copyOf(userSorted, userSorted.length);
+
+        Arrays.sort(systemSorted);
+        if (randomized) {
+            DivideAndConquer.quickSortRandomized(userSorted);
+        } else {
+            DivideAndConquer.quickSort(userSorted);
+        }
+
+        assertArrayEquals(systemSorted, userSorted);
+    }
+
+    @Test
+    public void quickSortSorted() {
+        double[] userSorted = new double[100_000];
+        Arrays.setAll(userSorted, i -> i);
+        double[] systemSorted = Arrays.copyOf(userSorted, userSorted.length);
+
+        // Used to overflow the stack, the recursion depth is now logarithmic.
+        DivideAndConquer.quickSort(userSorted);
+
+        assertArrayEquals(systemSorted, userSorted);
+    }
+
     @TestFactory
     public Stream<DynamicTest> binarySearch() {
         double[] array = randomArray(ThreadLocalRandom.current().nextInt(1, 1000));
@@ -57,6 +90,11 @@ public class DivideAndConquerTest {
                     // Produces a negative number not in the array
                     double key = ThreadLocalRandom.current().nextDouble() - 5.0;
                     assertEquals(-1, DivideAndConquer.binarySearch(array, key));
+                }),
+                DynamicTest.dynamicTest("Past end", () -> {
+                    // Used to read one past the end of the array
+                    double key = array[array.length - 1] + 1.0;
+                    assertEquals(-1, DivideAndConquer.binarySearch(array, key));
                 })
         );
     }
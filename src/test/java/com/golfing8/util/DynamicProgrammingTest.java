@@ -2,12 +2,108 @@ package com.golfing8.util;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.Arrays;
+import java.util.SplittableRandom;
 
 public class DynamicProgrammingTest {
     @Test
     public void subsetSumTarget() {
         System.out.println(Arrays.toString(DynamicProgramming.subsetSumTarget(new int[] {27, 3, 15, 14}, 29)));
+        Assertions.assertArrayEquals(new int[] {14, 15}, DynamicProgramming.subsetSumTarget(new int[] {27, 3, 15, 14}, 29));
+        Assertions.assertEquals(0, DynamicProgramming.subsetSumTarget(new int[] {27, 3, 15, 14}, 0).length);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 20_000})
+    public void subsetSumTargetMatchesBitset(int t) {
+        SplittableRandom random = new SplittableRandom(t);
+        int[] a = random.ints(200, 1, t / 4).toArray();
+        int expected = SubsetSum.maxSum(a, t);
+
+        Assertions.assertEquals(expected, Arrays.stream(DynamicProgramming.subsetSumTarget(a, t)).sum());
+        Assertions.assertEquals(expected, Arrays.stream(DynamicProgramming.subsetSumTarget(a, t, true)).sum());
+    }
+
+    private static String randomString(SplittableRandom random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(4)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The full table, for reference
+     */
+    private static int[][] lengths(String a, String b, boolean edit) {
+        int[][] table = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    table[i][j] = edit ? i + j : 0;
+                } else if (edit) {
+                    int substitute = table[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                    table[i][j] = Math.min(substitute, Math.min(table[i - 1][j], table[i][j - 1]) + 1);
+                } else if (a.charAt(i - 1) == b.charAt(j - 1)) {
+                    table[i][j] = table[i - 1][j - 1] + 1;
+                } else {
+                    table[i][j] = Math.max(table[i - 1][j], table[i][j - 1]);
+                }
+            }
+        }
+        return table;
+    }
+
+    private static boolean isSubsequence(String sub, String of) {
+        int index = 0;
+        for (int i = 0; i < of.length() && index < sub.length(); i++) {
+            if (of.charAt(i) == sub.charAt(index))
+                index++;
+        }
+        return index == sub.length();
+    }
+
+    @Test
+    public void longestCommonSubsequence() {
+        Assertions.assertEquals("BCBA", DynamicProgramming.longestCommonSubsequence("ABCBDAB", "BDCABA", false));
+        Assertions.assertEquals("", DynamicProgramming.longestCommonSubsequence("", "ABC", true));
+        Assertions.assertEquals(3, DynamicProgramming.editDistance("kitten", "sitting", false));
+        Assertions.assertEquals(5, DynamicProgramming.editDistance("", "hello", true));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 300, 1500})
+    public void gridsMatchFullTable(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        String a = randomString(random, n);
+        String b = randomString(random, n + random.nextInt(700));
+        int lcs = lengths(a, b, false)[a.length()][b.length()];
+        int edit = lengths(a, b, true)[a.length()][b.length()];
+
+        for (boolean parallel : new boolean[] {false, true}) {
+            String sequence = DynamicProgramming.longestCommonSubsequence(a, b, parallel);
+            Assertions.assertEquals(lcs, sequence.length());
+            Assertions.assertTrue(isSubsequence(sequence, a) && isSubsequence(sequence, b));
+            Assertions.assertEquals(edit, DynamicProgramming.editDistance(a, b, parallel));
+        }
+    }
+
+    @Test
+    public void tracebackPacking() {
+        DynamicProgrammingEngine.Traceback traceback = new DynamicProgrammingEngine.Traceback(3, 100, 4);
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 100; column++) {
+                traceback.set(row, column, (row * 7 + column) & 15);
+            }
+        }
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 100; column++) {
+                Assertions.assertEquals((row * 7 + column) & 15, traceback.get(row, column));
+            }
+        }
+        Assertions.assertEquals(3 * 7 * Long.BYTES, traceback.bytes());
     }
 }
@@ -0,0 +1,109 @@
+package com.golfing8.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link ExternalSort} class.
+ */
+public class ExternalSortTest {
+    private static double[] randomDoubles(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] array = new double[n];
+        for (int i = 0; i < n; i++) {
+            array[i] = switch (random.nextInt(50)) {
+                case 0 -> Double.NaN;
+                case 1 -> -0.0;
+                case 2 -> 0.0;
+                case 3 -> Double.NEGATIVE_INFINITY;
+                default -> random.nextDouble(-1e6, 1e6);
+            };
+        }
+        return array;
+    }
+
+    private static void write(Path file, double[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES);
+        buffer.asDoubleBuffer().put(values);
+        Files.write(file, buffer.array());
+    }
+
+    private static double[] read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        double[] values = new double[buffer.remaining() / Double.BYTES];
+        buffer.asDoubleBuffer().get(values);
+        return values;
+    }
+
+    private static ExternalSort.Metrics sortAndCheck(Path directory, double[] values, ExternalSort.Settings settings) throws IOException {
+        Path input = directory.resolve("input.bin");
+        Path output = directory.resolve("output.bin");
+        write(input, values);
+
+        ExternalSort.Metrics metrics = ExternalSort.sort(input, output, settings);
+        double[] expected = values.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, read(output));
+        assertArrayEquals(values, read(input));
+        assertEquals(values.length, metrics.elements());
+        // Only the input and output are left behind.
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        return metrics;
+    }
+
+    @Test
+    public void singleRun(@TempDir Path directory) throws IOException {
+        ExternalSort.Metrics metrics = sortAndCheck(directory, randomDoubles(10_000, 1), ExternalSort.Settings.defaults(directory));
+        assertEquals(1, metrics.runs());
+        assertEquals(0, metrics.mergePasses());
+        assertEquals(10_000L * Double.BYTES, metrics.bytesRead());
+        assertEquals(10_000L * Double.BYTES, metrics.bytesWritten());
+    }
+
+    @Test
+    public void singleMergePass(@TempDir Path directory) throws IOException {
+        // 50 runs of 2000 doubles, merged through 512 byte buffers so every run refills many times.
+        ExternalSort.Settings settings = new ExternalSort.Settings(2_000 * ExternalSort.RUN_BYTES_PER_ELEMENT, 512, 64, directory);
+        ExternalSort.Metrics metrics = sortAndCheck(directory, randomDoubles(100_000, 2), settings);
+        assertEquals(50, metrics.runs());
+        assertEquals(1, metrics.mergePasses());
+        assertEquals(2 * 100_000L * Double.BYTES, metrics.bytesRead());
+        assertEquals(2 * 100_000L * Double.BYTES, metrics.bytesWritten());
+        assertTrue(metrics.comparisons() >= 100_000L * 5, "Comparisons were " + metrics.comparisons());
+    }
+
+    @Test
+    public void multipleMergePasses(@TempDir Path directory) throws IOException {
+        // 37 runs merged four at a time take three passes, with leftover runs carried between them.
+        ExternalSort.Settings settings = new ExternalSort.Settings(1_000 * ExternalSort.RUN_BYTES_PER_ELEMENT, 64, 4, directory);
+        ExternalSort.Metrics metrics = sortAndCheck(directory, randomDoubles(36_500, 3), settings);
+        assertEquals(37, metrics.runs());
+        assertEquals(3, metrics.mergePasses());
+    }
+
+    @Test
+    public void edgeCases(@TempDir Path directory) throws IOException {
+        ExternalSort.Settings settings = new ExternalSort.Settings(4 * ExternalSort.RUN_BYTES_PER_ELEMENT, 8, 2, directory);
+        sortAndCheck(directory, new double[0], settings);
+        sortAndCheck(directory, new double[] {3.0}, settings);
+        sortAndCheck(directory, new double[] {5, 5, 5, 5, 5, 5, 5, 5, 5}, settings);
+
+        Path odd = directory.resolve("odd.bin");
+        Files.write(odd, new byte[12]);
+        assertThrows(IllegalArgumentException.class, () -> ExternalSort.sort(odd, directory.resolve("out.bin"), settings));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSort.Settings(ExternalSort.RUN_BYTES_PER_ELEMENT - 1, 8, 2, directory));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSort.Settings(1 << 20, 12, 2, directory));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSort.Settings(1 << 20, 8, 1, directory));
+    }
+}
@@ -0,0 +1,113 @@
+package com.golfing8.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link ParallelSort} class.
+ */
+public class ParallelSortTest {
+    private static double[] randomDoubles(int n, SplittableRandom random) {
+        double[] array = new double[n];
+        for (int i = 0; i < n; i++) {
+            array[i] = switch (random.nextInt(20)) {
+                case 0 -> Double.NaN;
+                case 1 -> -0.0;
+                case 2 -> 0.0;
+                case 3 -> Double.NEGATIVE_INFINITY;
+                default -> random.nextDouble(-100, 100);
+            };
+        }
+        return array;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 31, 1_000, 20_000, 300_000})
+    public void sortDoubles(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        double[] expected = randomDoubles(n, random);
+        Arrays.sort(expected);
+
+        double[] auto = randomDoubles(n, new SplittableRandom(n));
+        double[] quick = Arrays.copyOf(auto, n);
+        double[] sample = Arrays.copyOf(auto, n);
+        ParallelSort.sort(auto);
+        ParallelSort.quickSort(quick);
+        ParallelSort.sampleSort(sample);
+
+        assertArrayEquals(expected, auto);
+        assertArrayEquals(expected, quick);
+        assertArrayEquals(expected, sample);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 300_000})
+    public void sortInts(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        int[] expected = new int[n];
+        for (int i = 0; i < n; i++) {
+            expected[i] = random.nextInt();
+        }
+        int[] quick = Arrays.copyOf(expected, n);
+        int[] sample = Arrays.copyOf(expected, n);
+        Arrays.sort(expected);
+        ParallelSort.quickSort(quick);
+        ParallelSort.sampleSort(sample);
+
+        assertArrayEquals(expected, quick);
+        assertArrayEquals(expected, sample);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 300_000})
+    public void sortLongs(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        long[] expected = new long[n];
+        for (int i = 0; i < n; i++) {
+            // Few distinct values to exercise duplicate handling.
+            expected[i] = random.nextLong(16) - 8;
+        }
+        long[] quick = Arrays.copyOf(expected, n);
+        long[] sample = Arrays.copyOf(expected, n);
+        Arrays.sort(expected);
+        ParallelSort.quickSort(quick);
+        ParallelSort.sampleSort(sample);
+
+        assertArrayEquals(expected, quick);
+        assertArrayEquals(expected, sample);
+    }
+
+    @Test
+    public void sortSortedAndReversed() {
+        int n = 1_000_000;
+        int[] sorted = new int[n];
+        int[] reversed = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = i;
+            reversed[i] = n - i;
+        }
+        int[] expected = Arrays.copyOf(sorted, n);
+
+        ParallelSort.quickSort(sorted);
+        ParallelSort.quickSort(reversed);
+
+        assertArrayEquals(expected, sorted);
+        for (int i = 0; i < n; i++) {
+            assertEquals(i + 1, reversed[i]);
+        }
+    }
+
+    @Test
+    public void sortRange() {
+        double[] array = {5, 4, 3, 2, 1};
+        ParallelSort.sort(array, 1, 4);
+        assertArrayEquals(new double[] {5, 2, 3, 4, 1}, array);
+        assertThrows(IllegalArgumentException.class, () -> ParallelSort.sort(array, 3, 1));
+    }
+}
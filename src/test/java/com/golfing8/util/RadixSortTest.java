@@ -0,0 +1,90 @@
+package com.golfing8.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link RadixSort} class.
+ */
+public class RadixSortTest {
+    @Test
+    public void sortableBitsPreserveOrder() {
+        double[] ordered = {
+                Double.NEGATIVE_INFINITY, -Double.MAX_VALUE, -1.0, -Double.MIN_VALUE, -0.0,
+                0.0, Double.MIN_VALUE, 1.0, Double.MAX_VALUE, Double.POSITIVE_INFINITY
+        };
+        for (int i = 0; i + 1 < ordered.length; i++) {
+            long a = RadixSort.sortableBits(ordered[i]);
+            long b = RadixSort.sortableBits(ordered[i + 1]);
+            assertTrue(Long.compareUnsigned(a, b) < 0, ordered[i] + " should sort before " + ordered[i + 1]);
+            assertEquals(ordered[i], RadixSort.fromSortableBits(a));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 50, 10_000, 500_000})
+    public void sortDoubles(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        double[] expected = new double[n];
+        for (int i = 0; i < n; i++) {
+            expected[i] = switch (random.nextInt(16)) {
+                case 0 -> Double.NaN;
+                case 1 -> -0.0;
+                case 2 -> 0.0;
+                case 3 -> Double.POSITIVE_INFINITY;
+                default -> random.nextDouble(-1e6, 1e6);
+            };
+        }
+        double[] sequential = Arrays.copyOf(expected, n);
+        double[] parallel = Arrays.copyOf(expected, n);
+        Arrays.sort(expected);
+        RadixSort.sort(sequential);
+        RadixSort.parallelSort(parallel);
+
+        assertArrayEquals(expected, sequential);
+        assertArrayEquals(expected, parallel);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {50, 500_000})
+    public void sortInts(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        int[] expected = new int[n];
+        for (int i = 0; i < n; i++) {
+            expected[i] = random.nextInt();
+        }
+        int[] sequential = Arrays.copyOf(expected, n);
+        int[] parallel = Arrays.copyOf(expected, n);
+        Arrays.sort(expected);
+        RadixSort.sort(sequential);
+        RadixSort.parallelSort(parallel);
+
+        assertArrayEquals(expected, sequential);
+        assertArrayEquals(expected, parallel);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {50, 500_000})
+    public void sortLongs(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        long[] expected = new long[n];
+        for (int i = 0; i < n; i++) {
+            // Small values leave most bytes identical, exercising the skipped passes.
+            expected[i] = i % 2 == 0 ? random.nextLong() : random.nextLong(-1000, 1000);
+        }
+        long[] sequential = Arrays.copyOf(expected, n);
+        long[] parallel = Arrays.copyOf(expected, n);
+        Arrays.sort(expected);
+        RadixSort.sort(sequential);
+        RadixSort.parallelSort(parallel);
+
+        assertArrayEquals(expected, sequential);
+        assertArrayEquals(expected, parallel);
+    }
+}
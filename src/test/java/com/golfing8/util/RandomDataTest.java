@@ -0,0 +1,76 @@
+package com.golfing8.util;
+
+import com.golfing8.struct.CompactGraph;
+import com.golfing8.struct.PointSet;
+import com.golfing8.struct.SquareMatrix;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link RandomData} class.
+ */
+public class RandomDataTest {
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 1000, 65536, 1_000_003})
+    public void doublesAreReproducible(int n) {
+        double[] sequential = new double[n];
+        double[] parallel = new double[n];
+        RandomData.fill(sequential, 40, -1, 1, false);
+        RandomData.fill(parallel, 40, -1, 1, true);
+
+        assertArrayEquals(sequential, parallel);
+        assertArrayEquals(sequential, RandomData.doubles(n, 40, -1, 1));
+        assertTrue(Arrays.stream(parallel).allMatch(value -> value >= -1 && value < 1));
+        if (n > 0)
+            assertFalse(Arrays.equals(parallel, RandomData.doubles(n, 41, -1, 1)));
+    }
+
+    @Test
+    public void intsAreReproducible() {
+        int[] sequential = new int[300_000];
+        RandomData.fill(sequential, 7, 5, 10, false);
+
+        assertArrayEquals(sequential, RandomData.ints(300_000, 7, 5, 10));
+        assertTrue(Arrays.stream(sequential).allMatch(value -> value >= 5 && value < 10));
+    }
+
+    @Test
+    public void matricesAreReproducible() {
+        SquareMatrix matrix = SquareMatrix.random(300, 520);
+        assertEquals(matrix, SquareMatrix.random(300, 520));
+        assertNotEquals(matrix, SquareMatrix.random(300, 521));
+    }
+
+    @Test
+    public void pointsAreReproducible() {
+        PointSet sequential = RandomData.points(200_000, 3, 0, 10, 1, 20, false);
+        PointSet parallel = RandomData.points(200_000, 3, 0, 10, 1, 20, true);
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.x(i), parallel.x(i));
+            assertEquals(sequential.y(i), parallel.y(i));
+            assertTrue(parallel.x(i) >= 0 && parallel.x(i) < 1);
+            assertTrue(parallel.y(i) >= 10 && parallel.y(i) < 20);
+        }
+    }
+
+    @Test
+    public void graphsAreReproducible() {
+        CompactGraph sequential = RandomData.graph(10_000, 200_000, 9, 1, 100, false, false);
+        CompactGraph parallel = RandomData.graph(10_000, 200_000, 9, 1, 100, false, true);
+
+        assertEquals(2 * 200_000, parallel.arcCount());
+        for (int u = 0; u < sequential.nodeCount(); u++) {
+            assertEquals(sequential.start(u), parallel.start(u));
+            for (int arc = sequential.start(u); arc < sequential.end(u); arc++) {
+                assertNotEquals(u, parallel.target(arc));
+                assertEquals(sequential.target(arc), parallel.target(arc));
+                assertEquals(sequential.weight(arc), parallel.weight(arc));
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.golfing8.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link Selection} class.
+ */
+public class SelectionTest {
+    private static double[] randomDoubles(int n, SplittableRandom random) {
+        double[] array = new double[n];
+        for (int i = 0; i < n; i++) {
+            array[i] = switch (random.nextInt(20)) {
+                case 0 -> Double.NaN;
+                case 1 -> -0.0;
+                case 2 -> 0.0;
+                case 3 -> 7.0;
+                default -> random.nextDouble(-100, 100);
+            };
+        }
+        return array;
+    }
+
+    private static void assertSelected(double[] sorted, double[] array, int rank) {
+        assertEquals(sorted[rank], array[rank], 0.0);
+        for (int i = 0; i < rank; i++) {
+            assertTrue(Double.compare(array[i], array[rank]) <= 0, i + " before " + rank);
+        }
+        for (int i = rank + 1; i < array.length; i++) {
+            assertTrue(Double.compare(array[i], array[rank]) >= 0, i + " after " + rank);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 17, 1_000, 100_000})
+    public void select(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        double[] sorted = randomDoubles(n, random);
+        double[] original = sorted.clone();
+        Arrays.sort(sorted);
+
+        for (int rank : new int[] {0, n / 3, (n - 1) / 2, n - 1}) {
+            double[] array = original.clone();
+            assertEquals(Double.valueOf(sorted[rank]), Double.valueOf(Selection.select(array, rank)));
+            assertSelected(sorted, array, rank);
+        }
+        assertEquals(Double.valueOf(sorted[(n - 1) / 2]), Double.valueOf(Selection.median(original.clone())));
+    }
+
+    @Test
+    public void selectAdversarial() {
+        // Organ pipes and constant runs defeat median of three pivots, the median of medians fallback must kick in.
+        int n = 200_000;
+        double[] pipes = new double[n];
+        for (int i = 0; i < n; i++) {
+            pipes[i] = i < n / 2 ? i : n - i;
+        }
+        double[] sorted = pipes.clone();
+        Arrays.sort(sorted);
+        double[] array = pipes.clone();
+        Selection.select(array, n / 2);
+        assertSelected(sorted, array, n / 2);
+
+        double[] constant = new double[n];
+        Arrays.fill(constant, 3.0);
+        assertEquals(3.0, Selection.select(constant, n - 1));
+        assertThrows(IllegalArgumentException.class, () -> Selection.select(constant, n));
+        assertThrows(IllegalArgumentException.class, () -> Selection.select(new double[0], 0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 1_000, 300_000})
+    public void selectAll(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        double[] array = randomDoubles(n, random);
+        double[] sorted = array.clone();
+        Arrays.sort(sorted);
+
+        int[] ranks = {n - 1, 0, n / 2, n / 4, n / 2, 3 * n / 4, n / 10};
+        double[] values = Selection.selectAll(array, ranks);
+        for (int i = 0; i < ranks.length; i++) {
+            assertEquals(sorted[ranks[i]], values[i], 0.0);
+            assertSelected(sorted, array, ranks[i]);
+        }
+    }
+
+    @Test
+    public void quantiles() {
+        double[] array = new double[101];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = 100 - i;
+        }
+        assertArrayEquals(new double[] {0, 50, 90, 99, 100}, Selection.quantiles(array, 0, 0.5, 0.9, 0.99, 1));
+        assertThrows(IllegalArgumentException.class, () -> Selection.quantiles(array, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> Selection.quantiles(array, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> Selection.quantiles(new double[0], 0.5));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 1_000, 500_000})
+    public void topK(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        double[] array = randomDoubles(n, random);
+        double[] original = array.clone();
+        double[] sorted = array.clone();
+        Arrays.sort(sorted);
+
+        for (int k : new int[] {0, 1, 10, n}) {
+            double[] top = Selection.topK(array, k);
+            assertEquals(k, top.length);
+            for (int i = 0; i < k; i++) {
+                assertEquals(sorted[n - 1 - i], top[i], 0.0);
+            }
+        }
+        assertArrayEquals(original, array);
+        assertThrows(IllegalArgumentException.class, () -> Selection.topK(array, n + 1));
+    }
+}
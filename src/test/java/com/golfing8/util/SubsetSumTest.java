@@ -0,0 +1,124 @@
+package com.golfing8.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A test suite for the {@link SubsetSum} class.
+ */
+public class SubsetSumTest {
+    /**
+     * Checks that the chosen elements form a sub multiset of {@code a} summing to {@code expectedSum}
+     */
+    private static void assertSubset(int[] a, int[] chosen, int expectedSum) {
+        assertEquals(expectedSum, Arrays.stream(chosen).sum());
+        int[] remaining = a.clone();
+        for (int element : chosen) {
+            int index = -1;
+            for (int i = 0; i < remaining.length; i++) {
+                if (remaining[i] == element) {
+                    index = i;
+                    break;
+                }
+            }
+            assertTrue(index >= 0, "Element " + element + " was not available");
+            remaining[index] = -1;
+        }
+    }
+
+    @Test
+    public void textbook() {
+        int[] a = {27, 3, 15, 14};
+        assertEquals(29, SubsetSum.maxSum(a, 29));
+        assertArrayEquals(new int[] {15, 14}, SubsetSum.subsetSumTarget(a, 29));
+        assertArrayEquals(new int[] {15, 14}, SubsetSum.subsetSumTargetParallel(a, 29));
+    }
+
+    @Test
+    public void unreachableTarget() {
+        int[] a = {10, 20, 30};
+        assertEquals(0, SubsetSum.maxSum(a, 9));
+        assertEquals(0, SubsetSum.subsetSumTarget(a, 9).length);
+        assertEquals(40, SubsetSum.maxSum(a, 45));
+        assertSubset(a, SubsetSum.subsetSumTarget(a, 45), 40);
+    }
+
+    @Test
+    public void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> SubsetSum.maxSum(new int[] {1}, -1));
+        assertThrows(IllegalArgumentException.class, () -> SubsetSum.subsetSumTarget(new int[] {1, -2}, 5));
+    }
+
+    @Test
+    public void reachableSumsMatchBruteForce() {
+        SplittableRandom random = new SplittableRandom(34);
+        for (int trial = 0; trial < 50; trial++) {
+            int[] a = random.ints(random.nextInt(1, 12), 0, 200).toArray();
+            int t = random.nextInt(0, 1000);
+            boolean[] expected = new boolean[t + 1];
+            for (int mask = 0; mask < 1 << a.length; mask++) {
+                int sum = 0;
+                for (int i = 0; i < a.length; i++) {
+                    if ((mask & (1 << i)) != 0)
+                        sum += a[i];
+                }
+                if (sum <= t)
+                    expected[sum] = true;
+            }
+
+            long[] bits = SubsetSum.reachableSums(a, t);
+            for (int s = 0; s <= t; s++) {
+                assertEquals(expected[s], (bits[s >>> 6] & (1L << s)) != 0, "Sum " + s + " of " + Arrays.toString(a));
+            }
+        }
+    }
+
+    /**
+     * The textbook boolean table, one row at a time
+     */
+    private static int referenceMaxSum(int[] a, int t) {
+        boolean[] reachable = new boolean[t + 1];
+        reachable[0] = true;
+        for (int element : a) {
+            for (int s = t; s >= element; s--) {
+                reachable[s] |= reachable[s - element];
+            }
+        }
+        int best = t;
+        while (!reachable[best])
+            best--;
+        return best;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 2000})
+    public void matchesReference(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        int[] a = random.ints(n, 1, 5000).toArray();
+        int t = random.nextInt(1, 20_000);
+        int expected = referenceMaxSum(a, t);
+
+        assertEquals(expected, SubsetSum.maxSum(a, t));
+        assertSubset(a, SubsetSum.subsetSumTarget(a, t), expected);
+        assertSubset(a, SubsetSum.subsetSumTargetParallel(a, t), expected);
+    }
+
+    @Test
+    public void largeTargetParallel() {
+        // Large enough that the feasibility pass shifts its words in parallel.
+        SplittableRandom random = new SplittableRandom(520);
+        int[] a = random.ints(300, 1, 1 << 20).map(x -> x * 2).toArray();
+        int t = (1 << 21) + 1;
+        int expected = SubsetSum.maxSum(a, t);
+
+        assertEquals(0, expected % 2);
+        assertSubset(a, SubsetSum.subsetSumTarget(a, t), expected);
+        assertSubset(a, SubsetSum.subsetSumTargetParallel(a, t), expected);
+    }
+}